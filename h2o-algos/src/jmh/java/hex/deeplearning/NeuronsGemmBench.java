@@ -0,0 +1,114 @@
+package hex.deeplearning;
+
+import hex.DataInfo;
+import hex.deeplearning.DeepLearningModel.DeepLearningParameters;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import water.Key;
+import water.fvec.Frame;
+import water.fvec.FrameTestUtil;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static water.TestUtil.stall_till_cloudsize;
+
+/**
+ * Compares one training pass (fprop + bprop) of a dense network over a fixed number of rows with the per-row
+ * gemv kernels (mini_batch_gemm = false, which always trains with mini-batch size 1) and the blocked mini-batch
+ * GEMM kernels (mini_batch_gemm = true).
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class NeuronsGemmBench {
+
+  @Param({"100", "1000"})
+  private int inputs;
+
+  @Param({"256", "1024"})
+  private int units;
+
+  @Param({"false", "true"})
+  private boolean gemm;
+
+  @Param({"1", "32"})
+  private int miniBatchSize;
+
+  @Param({"Rectifier", "Tanh"})
+  private DeepLearningParameters.Activation activation;
+
+  private static final int ROWS = 256;
+
+  private Frame train;
+  private DeepLearningModelInfo minfo;
+  private Neurons[] neurons;
+  private double[][] rows;
+  private double[] responses;
+  private double[] batchResponses;
+  private int n;
+
+  @Setup
+  public void setup() {
+    stall_till_cloudsize(1);
+    Random rnd = new Random(42);
+    double[][] x = new double[inputs][ROWS];
+    double[] y = new double[ROWS];
+    for (int c = 0; c < inputs; c++)
+      for (int i = 0; i < ROWS; i++) x[c][i] = rnd.nextGaussian();
+    for (int i = 0; i < ROWS; i++) y[i] = rnd.nextGaussian();
+    train = FrameTestUtil.createXYFrame(x, y);
+
+    DeepLearningParameters parms = new DeepLearningParameters();
+    parms._train = train._key;
+    parms._response_column = "y";
+    parms._hidden = new int[]{units, units};
+    parms._activation = activation;
+    parms._mini_batch_gemm = gemm;
+    parms._mini_batch_size = miniBatchSize;
+    parms._quiet_mode = true;
+    DataInfo dinfo = DeepLearning.makeDataInfo(train, null, parms, 1);
+    minfo = new DeepLearningModelInfo(parms, Key.make(), dinfo, 1, train, null);
+    minfo.initializeMembers(null, null);
+    neurons = DeepLearningTask.makeNeuronsForTraining(minfo);
+    n = minfo.get_params()._mini_batch_size; // 1 without mini_batch_gemm
+    rows = new double[ROWS][inputs];
+    responses = new double[ROWS];
+    for (int i = 0; i < ROWS; i++) {
+      for (int c = 0; c < inputs; c++) rows[i][c] = rnd.nextGaussian();
+      responses[i] = rnd.nextGaussian();
+    }
+    batchResponses = new double[n];
+  }
+
+  @TearDown
+  public void tearDown() {
+    train.delete();
+  }
+
+  @Benchmark
+  public double trainRows() {
+    for (int i = 0; i < ROWS; i += n) {
+      for (int mb = 0; mb < n; mb++) {
+        System.arraycopy(rows[i + mb], 0, neurons[0]._a[mb].raw(), 0, inputs);
+        batchResponses[mb] = responses[i + mb];
+      }
+      DeepLearningTask.fpropMiniBatch(i, neurons, minfo, null, true, batchResponses, null, n);
+      DeepLearningTask.bpropMiniBatch(neurons, n);
+    }
+    return neurons[neurons.length - 1]._a[0].get(0);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+            .include(NeuronsGemmBench.class.getSimpleName())
+            .build();
+    new Runner(opt).run();
+  }
+}
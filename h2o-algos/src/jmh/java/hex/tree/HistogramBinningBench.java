@@ -0,0 +1,99 @@
+package hex.tree;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import water.util.ArrayUtils;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the row-by-row histogram accumulation (DHistogram#updateHisto) with the binned kernel
+ * (DHistogram#updateHistoBinned) on one chunk of a wide numeric frame.
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HistogramBinningBench {
+
+  @Param({"300"})
+  private int ncols;
+
+  @Param({"20", "256"})
+  private int nbins;
+
+  @Param({"false", "true"})
+  private boolean weighted;
+
+  @Param({"UniformAdaptive", "Random"})
+  private SharedTreeModel.SharedTreeParameters.HistogramType histogramType;
+
+  private static final int CHUNK_SIZE = 100_000;
+  private static final int LEAVES = 8;
+
+  private double[][] data;
+  private double[] ys;
+  private double[] ws;
+  private int[] rows;
+  private int[] leafEnds;
+  private DHistogram[][] histos;
+  private DHistogram.BinnedRows binned;
+
+  @Setup
+  public void setup() {
+    Random rnd = new Random(42);
+    data = new double[ncols][CHUNK_SIZE];
+    for (double[] col : data)
+      for (int i = 0; i < CHUNK_SIZE; i++)
+        col[i] = i % 50 == 0 ? Double.NaN : rnd.nextDouble() * 100;
+    ys = new double[CHUNK_SIZE];
+    ws = weighted ? new double[CHUNK_SIZE] : null;
+    for (int i = 0; i < CHUNK_SIZE; i++) {
+      ys[i] = rnd.nextGaussian();
+      if (ws != null) ws[i] = rnd.nextInt(3);
+    }
+    // rows sorted by leaf assignment, like in ScoreBuildHistogram2
+    rows = ArrayUtils.seq(0, CHUNK_SIZE);
+    ArrayUtils.shuffleArray(rows, rnd);
+    leafEnds = new int[LEAVES];
+    for (int n = 0; n < LEAVES; n++)
+      leafEnds[n] = (int) ((long) CHUNK_SIZE * (n + 1) / LEAVES);
+    histos = new DHistogram[ncols][LEAVES];
+    for (int c = 0; c < ncols; c++)
+      for (int n = 0; n < LEAVES; n++) {
+        histos[c][n] = new DHistogram("C" + c, nbins, 1024, (byte) 0, 0, 100, false, false, -0.001,
+                histogramType, 42L, null, null, false, false, null, null);
+        histos[c][n].init();
+      }
+    binned = new DHistogram.BinnedRows(CHUNK_SIZE);
+  }
+
+  @Benchmark
+  public double rowByRow() {
+    for (int c = 0; c < ncols; c++)
+      for (int n = 0; n < LEAVES; n++)
+        histos[c][n].updateHisto(ws, null, data[c], ys, null, rows, leafEnds[n], n == 0 ? 0 : leafEnds[n - 1], null);
+    return histos[0][0]._vals[0];
+  }
+
+  @Benchmark
+  public double binned() {
+    for (int c = 0; c < ncols; c++)
+      for (int n = 0; n < LEAVES; n++)
+        histos[c][n].updateHistoBinned(ws, data[c], ys, rows, leafEnds[n], n == 0 ? 0 : leafEnds[n - 1], binned);
+    return histos[0][0]._vals[0];
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+            .include(HistogramBinningBench.class.getSimpleName())
+            .build();
+    new Runner(opt).run();
+  }
+}
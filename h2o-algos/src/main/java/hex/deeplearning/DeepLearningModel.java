@@ -1728,6 +1728,12 @@ public class DeepLearningModel extends Model<DeepLearningModel, DeepLearningMode
     // batch gradient descent: mini-batch size = # training rows
     public int _mini_batch_size = 1;
 
+    /**
+     * Process the whole mini-batch per layer with cache-blocked matrix-matrix kernels over float activations,
+     * and apply one (averaged) gradient update per mini-batch. Required for mini-batch size > 1.
+     */
+    public boolean _mini_batch_gemm = false;
+
     public enum MissingValuesHandling {
       MeanImputation, Skip
     }
@@ -1769,6 +1775,10 @@ public class DeepLearningModel extends Model<DeepLearningModel, DeepLearningMode
       for (int h : _hidden) if (h <= 0) dl.error("_hidden", "Hidden layer size must be positive.");
       if (_mini_batch_size < 1)
         dl.error("_mini_batch_size", "Mini-batch size must be >= 1");
+      if (_mini_batch_gemm && (_activation == Activation.Maxout || _activation == Activation.MaxoutWithDropout))
+        dl.warn("_mini_batch_gemm", "Maxout layers always use the per-row kernels and mini-batch size = 1.");
+      if (_mini_batch_gemm && _mini_batch_size > 1 && _autoencoder && _sparsity_beta > 0)
+        dl.error("_mini_batch_size", "Sparsity constraint is not yet implemented for mini-batch size > 1.");
       if (!_diagnostics)
         dl.warn("_diagnostics", "Deprecated option: Diagnostics are always enabled.");
 
@@ -2034,6 +2044,7 @@ public class DeepLearningModel extends Model<DeepLearningModel, DeepLearningMode
               "_elastic_averaging_moving_rate",
               "_elastic_averaging_regularization",
               "_mini_batch_size",
+              "_mini_batch_gemm",
               "_pretrained_autoencoder"
       };
 
@@ -2201,8 +2212,9 @@ public class DeepLearningModel extends Model<DeepLearningModel, DeepLearningMode
             Log.info("_categorical_encoding: Automatically enabling OneHotInternal categorical encoding.");
           toParms._categorical_encoding = CategoricalEncodingScheme.OneHotInternal;
          }
-        if (fromParms._mini_batch_size > 1) {
-          Log.warn("_mini_batch_size", "Only mini-batch size = 1 is supported right now.");
+        if (fromParms._mini_batch_size > 1 && (!fromParms._mini_batch_gemm
+                || fromParms._activation == Activation.Maxout || fromParms._activation == Activation.MaxoutWithDropout)) {
+          Log.warn("_mini_batch_size", "Only mini-batch size = 1 is supported without mini_batch_gemm.");
           toParms._mini_batch_size = 1;
         }
         if (fromParms._adaptive_rate) {
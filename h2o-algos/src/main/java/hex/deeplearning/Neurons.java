@@ -92,6 +92,16 @@ public abstract class Neurons {
    */
   private boolean _shortcut = false;
 
+  /**
+   * For mini-batch GEMM: activations of the previous layer and the back-propagated errors,
+   * packed as n x cols float panels (one row per mini-batch element)
+   */
+  boolean _gemm = false;
+  private transient float[] _xPanel;
+  private transient float[] _ePanel;
+  private transient boolean[] _colActive; //whether any mini-batch element has a non-zero activation in this column
+  private transient float[] _gradRow;
+
   public Storage.DenseVector _avg_a;
 
   /**
@@ -171,6 +181,15 @@ public abstract class Neurons {
       _shortcut = (params._fast_mode || (
               // not doing fast mode, but also don't have anything else to update (neither momentum nor ADADELTA history), and no L1/L2
               !params._adaptive_rate && !_minfo.has_momenta() && params._l1 == 0.0 && params._l2 == 0.0));
+      // scoring (same results as the MOJO), mini-batch size 1 and Maxout keep the per-row kernels
+      _gemm = training && params._mini_batch_gemm && params._mini_batch_size > 1 && _k == 0;
+      if (_gemm) {
+        final int cols = _previous.units;
+        _xPanel = new float[params._mini_batch_size * cols];
+        _colActive = new boolean[cols];
+        _gradRow = new float[cols];
+        if (!(_previous instanceof Input)) _ePanel = new float[params._mini_batch_size * cols];
+      }
     }
     sanityCheck(training);
   }
@@ -188,6 +207,35 @@ public abstract class Neurons {
    */
   protected abstract void bprop(int n);
 
+  /**
+   * Weighted sums of the incoming activations plus bias for the whole mini-batch: _a[mb] = W * _previous._a[mb] + b
+   * With mini_batch_gemm, the previous layer's activations are packed once into a float panel and multiplied
+   * with the blocked GEMM kernel, otherwise every mini-batch element is a separate gemv.
+   * @param n number of actually trained samples in this mini-batch
+   * @param row_bits if not null, check bits of this byte[] to determine whether a row is used or not
+   */
+  final void fpropAffine(int n, byte[] row_bits) {
+    if (!_gemm) {
+      for (int mb=0;mb<n;++mb)
+        gemv(_a[mb], _w, _previous._a[mb], _b, row_bits);
+      return;
+    }
+    final int cols = _previous.units;
+    Arrays.fill(_colActive, false);
+    double[][] res = new double[n][];
+    for (int mb=0;mb<n;++mb) {
+      final double[] x = _previous._a[mb].raw();
+      final int off = mb * cols;
+      for (int col = 0; col < cols; col++) {
+        final float v = (float)x[col];
+        _xPanel[off + col] = v;
+        if (v != 0) _colActive[col] = true;
+      }
+      res[mb] = _a[mb].raw();
+    }
+    gemm(res, _w.raw(), _xPanel, _b.raw(), row_bits, n);
+  }
+
   /**
    * Back-propagate gradient in output layer
    */
@@ -204,6 +252,7 @@ public abstract class Neurons {
         g[mb]=_e[mb].raw()[row];
       bprop(row, g, r, m, n);
     }
+    if (_gemm) flushErrorPanel(n);
   }
 
   /**
@@ -227,6 +276,10 @@ public abstract class Neurons {
    * @param n Actual mini-batch size
    */
   final void bprop(final int row, final double[/*actual mini-batch size*/] partial_grad, final float rate, final float momentum, int n) {
+    if (_gemm) {
+      bprop_gemm(row, partial_grad, rate, momentum, n);
+      return;
+    }
     final float rho = (float)params._rho;
     final float eps = (float)params._epsilon;
     final float l1 = (float)params._l1;
@@ -268,29 +321,8 @@ public abstract class Neurons {
         if (DeepLearningModelInfo.gradientCheck != null)
           DeepLearningModelInfo.gradientCheck.apply(_index, row, col, grad);
 
-        if (have_ada) {
-          final double grad2 = grad*grad;
-          avg_grad2 += grad2;
-          float brate = computeAdaDeltaRateForWeight(grad, w, _ada_dx_g, rho, eps);
-          _w.raw()[w] -= brate * grad;
-        } else {
-          if (!nesterov) {
-            final double delta = -rate * grad;
-            _w.raw()[w] += delta;
-            if( have_momenta ) {
-              _w.raw()[w] += momentum * _wm.raw()[w];
-              _wm.raw()[w] = (float)delta;
-            }
-          } else {
-            double tmp = -grad;
-            if( have_momenta ) {
-              _wm.raw()[w] *= momentum;
-              _wm.raw()[w] += tmp;
-              tmp = _wm.raw()[w];
-            }
-            _w.raw()[w] += rate * tmp;
-          }
-        }
+        if (have_ada) avg_grad2 += grad*grad;
+        update_weight(w, grad, rate, momentum, have_ada, have_momenta, nesterov, rho, eps);
       }
     }
     if (max_w2 != Float.POSITIVE_INFINITY)
@@ -302,6 +334,113 @@ public abstract class Neurons {
     }
   }
 
+  /**
+   * Backpropagation for the whole mini-batch at once, used with mini_batch_gemm
+   * The error is propagated to the previous layer with the weights before the update, then the gradient dE/dw is
+   * summed over the mini-batch (the partial derivatives are already normalized by n) and applied in a single update
+   * per weight, with L1/L2 regularization applied once per mini-batch.
+   * @param row row index (update weights feeding to this neuron)
+   * @param partial_grad partial derivative dE/dnet = dE/dy * dy/net
+   * @param rate learning rate
+   * @param momentum momentum factor (needed only if ADADELTA isn't used)
+   * @param n Actual mini-batch size
+   */
+  private void bprop_gemm(final int row, final double[/*actual mini-batch size*/] partial_grad, final float rate, final float momentum, int n) {
+    final float rho = (float)params._rho;
+    final float eps = (float)params._epsilon;
+    final float l1 = (float)params._l1;
+    final float l2 = (float)params._l2;
+    final float max_w2 = params._max_w2;
+    final boolean have_momenta = _minfo.has_momenta();
+    final boolean have_ada = _minfo.adaDelta();
+    final boolean nesterov = params._nesterov_accelerated_gradient;
+    final boolean fast_mode = params._fast_mode;
+    final int cols = _previous.units;
+    final float[] w = _w.raw();
+    final int idx = row * cols;
+
+    double grad_sum = 0;
+    for( int mb = 0; mb < n; mb++ )
+      grad_sum += partial_grad[mb];
+    if (_shortcut) {
+      boolean zero = true;
+      for( int mb = 0; zero && mb < n; mb++ ) zero = partial_grad[mb] == 0;
+      if (zero) return;
+    }
+    if (_ePanel != null)
+      gemm_error(_ePanel, w, idx, partial_grad, cols, n);
+    gemm_gradient(_gradRow, _xPanel, partial_grad, cols, n);
+
+    double avg_grad2 = 0;
+    for( int col = 0; col < cols; col++ ) {
+      if (fast_mode && !_colActive[col]) continue;
+      final int i = idx + col;
+      final double weight = w[i];
+      double grad = _gradRow[col] + Math.signum(weight) * l1 + weight * l2;
+      if (_wEA != null)
+        grad += params._elastic_averaging_regularization * (weight - _wEA.raw()[i]);
+
+      // store the gradient
+      if (DeepLearningModelInfo.gradientCheck != null)
+        DeepLearningModelInfo.gradientCheck.apply(_index, row, col, grad);
+
+      if (have_ada) avg_grad2 += grad*grad;
+      update_weight(i, grad, rate, momentum, have_ada, have_momenta, nesterov, rho, eps);
+    }
+    if (max_w2 != Float.POSITIVE_INFINITY)
+      rescale_weights(_w, row, max_w2, 0);
+    if (have_ada) avg_grad2 /= cols;
+    update_bias(_b, _bEA, _bm, row, new double[]{grad_sum}, avg_grad2, rate, momentum, 0);
+  }
+
+  /**
+   * Helper to apply the gradient dE/dw to a single weight (and its momentum or ADADELTA history)
+   * @param w linear index of the weight
+   * @param grad gradient dE/dw
+   * @param rate learning rate
+   * @param momentum momentum factor (needed only if ADADELTA isn't used)
+   */
+  private void update_weight(final int w, final double grad, final float rate, final float momentum, final boolean have_ada,
+                             final boolean have_momenta, final boolean nesterov, final float rho, final float eps) {
+    if (have_ada) {
+      float brate = computeAdaDeltaRateForWeight(grad, w, _ada_dx_g, rho, eps);
+      _w.raw()[w] -= brate * grad;
+    } else {
+      if (!nesterov) {
+        final double delta = -rate * grad;
+        _w.raw()[w] += delta;
+        if( have_momenta ) {
+          _w.raw()[w] += momentum * _wm.raw()[w];
+          _wm.raw()[w] = (float)delta;
+        }
+      } else {
+        double tmp = -grad;
+        if( have_momenta ) {
+          _wm.raw()[w] *= momentum;
+          _wm.raw()[w] += tmp;
+          tmp = _wm.raw()[w];
+        }
+        _w.raw()[w] += rate * tmp;
+      }
+    }
+  }
+
+  /**
+   * Add the errors accumulated in the float panel by bprop_gemm to the previous layer and reset the panel
+   * @param n Actual mini-batch size
+   */
+  final void flushErrorPanel(int n) {
+    if (_ePanel == null) return;
+    final int cols = _previous.units;
+    for( int mb = 0; mb < n; mb++ ) {
+      final double[] e = _previous._e[mb].raw();
+      final int off = mb * cols;
+      for( int col = 0; col < cols; col++ )
+        e[col] += _ePanel[off + col];
+    }
+    Arrays.fill(_ePanel, 0, n * cols, 0f);
+  }
+
   private void rescale_weights(final Storage.DenseRowMatrix w, final int row, final float max_w2, int mb) {
     final int cols = _previous._a[0].size();
     int start;
@@ -633,9 +772,7 @@ public abstract class Neurons {
   public static class Tanh extends Neurons {
     public Tanh(int units) { super(units); }
     @Override protected void fprop(long seed, boolean training, int n) {
-      // TODO: implement GEMM
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      fpropAffine(n, _dropout != null ? _dropout.bits() : null);
       final int rows = _a[0].size();
       for (int mb=0;mb<n;++mb)
         for( int row = 0; row < rows; row++ )
@@ -655,6 +792,7 @@ public abstract class Neurons {
           g[mb] = _e[mb].get(row) * (1 - _a[mb].get(row) * _a[mb].get(row));
         bprop(row, g, r, m, n);
       }
+      if (_gemm) flushErrorPanel(n);
     }
   }
 
@@ -758,9 +896,7 @@ public abstract class Neurons {
   public static class Rectifier extends Neurons {
     public Rectifier(int units) { super(units); }
     @Override protected void fprop(long seed, boolean training, int n) {
-      // TODO: implement GEMM
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      fpropAffine(n, _dropout != null ? _dropout.bits() : null);
       final int rows = _a[0].size();
       for (int mb=0;mb<n;++mb) {
         for( int row = 0; row < rows; row++ ) {
@@ -783,6 +919,7 @@ public abstract class Neurons {
           g[mb] = _a[mb].get(row) > 0f ? _e[mb].get(row) : 0f;
         bprop(row, g, r, m, n);
       }
+      if (_gemm) flushErrorPanel(n);
     }
   }
 
@@ -808,8 +945,7 @@ public abstract class Neurons {
   public static class ExpRectifier extends Neurons {
     public ExpRectifier(int units) { super(units); }
     @Override protected void fprop(long seed, boolean training, int n) {
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      fpropAffine(n, _dropout != null ? _dropout.bits() : null);
       final int rows = _a[0].size();
       for( int row = 0; row < rows; row++ ) {
         for (int mb=0;mb<n;++mb) {
@@ -835,6 +971,7 @@ public abstract class Neurons {
         }
         bprop(row, g, r, m, n);
       }
+      if (_gemm) flushErrorPanel(n);
     }
   }
 
@@ -871,8 +1008,7 @@ public abstract class Neurons {
   public static class Softmax extends Output {
     public Softmax(int units) { super(units); }
     protected void fprop(long seed, boolean training, int n) {
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, null);
+      fpropAffine(n, null);
       for (int mb=0;mb<n;++mb) {
         final double max = ArrayUtils.maxValue(_a[mb].raw());
         double scaling = 0;
@@ -928,8 +1064,7 @@ public abstract class Neurons {
       super(1);
     }
     protected void fprop(long seed, boolean training, int n) {
-      for (int mb=0;mb<n;++mb)
-        gemv(_a[mb], _w, _previous._a[mb], _b, _dropout != null ? _dropout.bits() : null);
+      fpropAffine(n, _dropout != null ? _dropout.bits() : null);
     }
 
     /**
@@ -1006,6 +1141,97 @@ public abstract class Neurons {
     }
   }
 
+  /**
+   * Cache-blocked Mat-Mat Plus Add for a whole mini-batch (with optional row dropout)
+   * Optimization: The columns are processed in blocks of GEMM_BLOCK, so that the activations of four mini-batch
+   * elements stay in L1 cache while every row of the matrix is read once for all four of them.
+   * Partial sums are accumulated in float within a block and added to the double result per block.
+   * @param res res[mb] = a*x[mb]+y for every mini-batch element (pre-allocated, will be overwritten)
+   * @param a matrix of size rows x cols
+   * @param x n vectors of length cols, packed row-major: x[mb*cols+col]
+   * @param y vector of length rows
+   * @param row_bits if not null, check bits of this byte[] to determine whether a row is used or not
+   * @param n number of mini-batch elements
+   */
+  static void gemm(final double[][] res, final float[] a, final float[] x, final double[] y, final byte[] row_bits, final int n) {
+    final int rows = y.length;
+    final int cols = rows == 0 ? 0 : a.length / rows;
+    for (int mb = 0; mb < n; mb++) {
+      assert(res[mb].length == rows);
+      for (int row = 0; row < rows; row++)
+        res[mb][row] = row_bits == null || (row_bits[row / 8] & (1 << (row % 8))) != 0 ? y[row] : 0;
+    }
+    for (int c0 = 0; c0 < cols; c0 += GEMM_BLOCK) {
+      final int c1 = Math.min(cols, c0 + GEMM_BLOCK);
+      for (int row = 0; row < rows; row++) {
+        if (row_bits != null && (row_bits[row / 8] & (1 << (row % 8))) == 0) continue;
+        final int idx = row * cols;
+        int mb = 0;
+        for (; mb + 4 <= n; mb += 4) {
+          final int o0 = mb * cols, o1 = o0 + cols, o2 = o1 + cols, o3 = o2 + cols;
+          float psum0 = 0, psum1 = 0, psum2 = 0, psum3 = 0;
+          for (int col = c0; col < c1; col++) {
+            final float w = a[idx + col];
+            psum0 += w * x[o0 + col];
+            psum1 += w * x[o1 + col];
+            psum2 += w * x[o2 + col];
+            psum3 += w * x[o3 + col];
+          }
+          res[mb    ][row] += psum0;
+          res[mb + 1][row] += psum1;
+          res[mb + 2][row] += psum2;
+          res[mb + 3][row] += psum3;
+        }
+        for (; mb < n; mb++) {
+          final int off = mb * cols;
+          float psum = 0;
+          for (int col = c0; col < c1; col++)
+            psum += a[idx + col] * x[off + col];
+          res[mb][row] += psum;
+        }
+      }
+    }
+  }
+  static final int GEMM_BLOCK = 512;
+
+  /**
+   * Error propagation of one matrix row for a whole mini-batch: e[mb] += g[mb] * a[row]
+   * @param e n error vectors of length cols, packed row-major: e[mb*cols+col]
+   * @param a matrix of size rows x cols
+   * @param idx offset of the row in a
+   * @param g partial derivatives dE/dnet of this row, one per mini-batch element
+   * @param cols number of columns
+   * @param n number of mini-batch elements
+   */
+  static void gemm_error(final float[] e, final float[] a, final int idx, final double[] g, final int cols, final int n) {
+    for (int mb = 0; mb < n; mb++) {
+      final float gv = (float)g[mb];
+      if (gv == 0) continue;
+      final int off = mb * cols;
+      for (int col = 0; col < cols; col++)
+        e[off + col] += gv * a[idx + col];
+    }
+  }
+
+  /**
+   * Gradient of one matrix row summed over a whole mini-batch: res = sum_mb g[mb] * x[mb]
+   * @param res vector of length cols (pre-allocated, will be overwritten)
+   * @param x n vectors of length cols, packed row-major: x[mb*cols+col]
+   * @param g partial derivatives dE/dnet of this row, one per mini-batch element
+   * @param cols number of columns
+   * @param n number of mini-batch elements
+   */
+  static void gemm_gradient(final float[] res, final float[] x, final double[] g, final int cols, final int n) {
+    Arrays.fill(res, 0, cols, 0f);
+    for (int mb = 0; mb < n; mb++) {
+      final float gv = (float)g[mb];
+      if (gv == 0) continue;
+      final int off = mb * cols;
+      for (int col = 0; col < cols; col++)
+        res[col] += gv * x[off + col];
+    }
+  }
+
   /**
    * Helper to do a generic gemv: res = a*x + y
    * @param res Dense result
@@ -416,13 +416,14 @@ public final class ComputationState {
     _activeBC = _bc;
     _activeData = _activeData != null?_activeData:_dinfo;
     // keep all predictors for the case of beta constraints or linear constraints
-    _allIn = _allIn || _alpha*lambdaNew == 0 || _activeBC.hasBounds() || _parms._linear_constraints != null;
+    // (not sticky otherwise, the active set is screened again at every lambda)
+    _allIn = _alpha*lambdaNew == 0 || _activeBC.hasBounds() || _parms._linear_constraints != null;
     if (!_allIn) {
       int newlySelected = 0;
       final double rhs = Math.max(0,_alpha * (2 * lambdaNew - lambdaOld));
       int [] newCols = MemoryManager.malloc4(P);
       int j = 0;
-      int[] oldActiveCols = _activeData._activeCols == null ? new int[]{P} : _activeData.activeCols();
+      int[] oldActiveCols = carriedActiveCols(P);
       for (int i = 0; i < P; ++i) {
         if(j < oldActiveCols.length && oldActiveCols[j] == i)
           j++;
@@ -464,6 +465,27 @@ public final class ComputationState {
     _activeData = _dinfo;
   }
 
+  /**
+   * Columns carried over from the previous lambda by the strong rules: the intercept and the columns with non-zero
+   * coefficients.  Columns which were screened in at the previous lambda but ended up at zero are dropped, they are
+   * selected again by the strong rules (or by the KKT check) if they are needed, otherwise the active set would only
+   * grow along the lambda path.
+   */
+  private int[] carriedActiveCols(int P) {
+    final int[] oldActiveCols = _activeData._activeCols;
+    final int n = oldActiveCols == null ? P : oldActiveCols.length;
+    final boolean fullBeta = _beta.length == P + 1; // beta is expanded to all columns after the KKT check
+    int[] cols = MemoryManager.malloc4(n + 1);
+    int k = 0;
+    for (int i = 0; i < n; ++i) {
+      int c = oldActiveCols == null ? i : oldActiveCols[i];
+      if (c != P && _beta[fullBeta ? c : i] != 0)
+        cols[k++] = c;
+    }
+    cols[k++] = P;
+    return Arrays.copyOf(cols, k);
+  }
+
   public boolean _lsNeeded = false;
 
   public DataInfo [] _activeDataMultinomial;
@@ -1412,9 +1434,23 @@ public final class ComputationState {
 
   protected GramXY computeNewGram(DataInfo activeData, double [] beta, GLMParameters.Solver s){
     double obj_reg = _parms._obj_reg;
+    if (_pathCache != null && _pathCache.hasGram())
+      return cachedGram(activeData, beta, obj_reg);
     if(_glmw == null) _glmw = new GLMModel.GLMWeightsFun(_parms);
     GLMTask.GLMIterationTask gt = new GLMTask.GLMIterationTask(_job._key, activeData, _glmw, beta,
-            _activeClass, _hasConstraints).doAll(activeData._adaptedFrame);
+            _activeClass, _hasConstraints);
+    // The weights of gaussian rows do not depend on beta: the categorical block of the gram stays the same as long
+    // as the active columns do
+    boolean cacheCats = gaussian.equals(_parms._family) && GLMParameters.Link.identity.equals(_parms._link) &&
+            activeData.numCats() > 0;
+    boolean cachedCats = cacheCats && _catBlock != null && Arrays.equals(_catBlockCols, activeData.activeCols());
+    if (cachedCats)
+      gt.skipCatXcat(_catBlock);
+    gt.doAll(activeData._adaptedFrame);
+    if (cacheCats && !cachedCats) {
+      _catBlock = gt._gram.catBlock();
+      _catBlockCols = activeData.activeCols();
+    }
     gt._gram.mul(obj_reg);
     if (_parms._glmType.equals(GLMParameters.GLMType.gam)) { // add contribution from GAM smoothness factor
         Integer[] activeCols=null;
@@ -1438,8 +1474,28 @@ public final class ComputationState {
     return res;
   }
 
+  /** Gram of the active columns from the path cache, see {@link GLMPathCache} */
+  private GramXY cachedGram(DataInfo activeData, double[] beta, double obj_reg) {
+    GramXY res = _pathCache.gramXY(activeData, beta);
+    res.gram.mul(obj_reg);
+    mult(res.xy, obj_reg);
+    int [] zeros = res.gram.findZeroCols();
+    if (zeros.length > 0 && zeros.length <= activeData.activeCols().length) {
+      res.gram.dropCols(zeros);
+      removeCols(zeros);
+      GramXY dropped = new GramXY(res.gram, ArrayUtils.removeIds(res.xy, zeros), null,
+              beta == null ? null : ArrayUtils.removeIds(beta, zeros), activeData().activeCols(), null, res.yy, res.likelihood);
+      dropped.sumOfRowWeights = res.sumOfRowWeights;
+      return dropped;
+    }
+    return res;
+  }
+
   GramXY _currGram;
   GLMModel.GLMWeightsFun _glmw;
+  GLMPathCache _pathCache;  // gram (gaussian family) and solutions shared by the models of the job
+  private Gram.CatBlock _catBlock;  // categorical block of the last gaussian gram, before scaling
+  private int[] _catBlockCols;      // active columns of _catBlock
 
   /***
    * This method is used only for multinomial family.  It differs from computeGram because it calls on _activeData
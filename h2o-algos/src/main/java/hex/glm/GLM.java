@@ -156,7 +156,25 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
     _cvRuns = true;
     if (error_count() > 0)
       throw H2OModelBuilderIllegalArgumentException.makeFromBuilder(GLM.this);
-    super.computeCrossValidation();
+    try {
+      super.computeCrossValidation();
+    } finally {
+      if (ownsJob()) // the cross-validation models and the main model are done
+        GLMPathCache.clear(_job._key);
+    }
+  }
+
+  /**
+   * @return false if the model is trained as part of a larger job (e.g. a grid search), the path cache is shared by
+   * the models of the containing job and dropped when it is done, see {@link #onNestedJobDone(Key)}
+   */
+  private boolean ownsJob() {
+    return _result.equals(_job._result);
+  }
+
+  @Override
+  protected void onNestedJobDone(Key<Job> job) {
+    GLMPathCache.clear(job);
   }
 
 
@@ -1686,6 +1704,8 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
     private transient double[][] _cholInvInfluence;
 
     private void doCleanup() {
+      if (!_cvRuns && ownsJob()) // cross-validated models clear the cache of the job in computeCrossValidation
+        GLMPathCache.clear(_job._key);
       try {
         if (_parms._lambda_search && _parms._is_cv_model)
           Scope.untrack(removeLater(_dinfo.getWeightsVec()._key));
@@ -3140,6 +3160,44 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
       }
     }
 
+    /**
+     * Mini-batch stochastic gradient descent, one pass over the data per iteration (epoch).  Does not keep anything
+     * per row in memory (no Gram matrix, no temporary vecs), the chunks are read one by one by the epoch, so the data
+     * can be larger than the memory of the cloud as long as its chunks can be swapped out to ice_root.
+     */
+    private void fitSGD() {
+      DataInfo activeData = _state.activeData();
+      double[] beta = _state.beta();
+      if (beta == null) {
+        beta = MemoryManager.malloc8d(activeData.fullN() + 1);
+        if (_parms._intercept)
+          beta[beta.length - 1] = new GLMWeightsFun(_parms).link(_state._ymu[0]);
+      }
+      final boolean svrg = _parms._sgd_variance_reduction;
+      final double l2pen = _state.l2pen();
+      GLMTask.SGDState st = new GLMTask.SGDState(beta);
+      for (int epoch = 0; ; ++epoch) {
+        double[] snapshot = null, fullGrad = null;
+        if (svrg) {
+          snapshot = st._beta.clone();
+          fullGrad = _state.gslvr().getGradient(snapshot)._gradient.clone();
+          for (int j = 0; j < fullGrad.length - 1; ++j)
+            fullGrad[j] -= l2pen * snapshot[j];
+        }
+        long t0 = System.currentTimeMillis();
+        GLMSGDTask t = new GLMSGDTask(_job._key, activeData, _parms, st, _parms._sgd_learning_rate / Math.sqrt(1 + epoch),
+                _state.l1pen(), l2pen, _parms._obj_reg * _nobs, _parms._seed + epoch, snapshot, fullGrad)
+                .doAll(activeData._adaptedFrame);
+        st = t._st;
+        double likelihood = st._nobs == 0 ? 0 : st._likelihood * _nobs / st._nobs;
+        Log.info(LogMsg("SGD epoch " + epoch + " over " + st._nobs + " rows in " + (System.currentTimeMillis() - t0) +
+                "ms, " + st._steps + " mini-batch updates"));
+        if (!progress(st._beta.clone(), likelihood))
+          break;
+      }
+      _state.updateState(_state.beta(), _state.gslvr().getGradient(_state.beta()));
+    }
+
     private void fitCOD() {
       double[] beta = _state.beta();
       int p = _state.activeData().fullN() + 1;
@@ -3323,6 +3381,9 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
           case COORDINATE_DESCENT_NAIVE:
             fitCOD();
             break;
+          case STOCHASTIC_GRADIENT_DESCENT:
+            fitSGD();
+            break;
           default:
             throw H2O.unimpl();
         }
@@ -3721,6 +3782,37 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
       _scoringInterval = Math.max(_scoringInterval, 20 * scoringTime); // at most 5% overhead for scoring
     }
 
+    /**
+     * True for the models fitted by {@link #fitLSM(Solver)}, their gram is taken from the {@link GLMPathCache}.
+     */
+    private boolean solvedFromGram() {
+      Solver solver = (_parms._solver == Solver.AUTO) ? defaultSolver() : _parms._solver;
+      return gaussian.equals(_parms._family) && Link.identity.equals(_parms._link) && !_parms._HGLM &&
+              !gam.equals(_parms._glmType) && _parms._linear_constraints == null &&
+              (Solver.IRLSM.equals(solver) || Solver.COORDINATE_DESCENT.equals(solver));
+    }
+
+    /**
+     * True if the solutions of the model are recorded in the {@link GLMPathCache}, the cross-validation models start
+     * from the nearest one.
+     */
+    private boolean pathSolutions() {
+      return _state._pathCache != null && !_state._pathCache.hasGram() && !_parms._HGLM &&
+              !gam.equals(_parms._glmType) && !multinomial.equals(_parms._family) &&
+              !ordinal.equals(_parms._family) && !fractionalbinomial.equals(_parms._family) &&
+              _parms._beta_constraints == null && !_parms._non_negative && _parms._linear_constraints == null;
+    }
+
+    private void warmStart(double lambda) {
+      double[] beta = _state._pathCache.nearestSolution(_state.alpha(), lambda);
+      if (beta == null)
+        return;
+      beta = _state._pathCache.normalizeBeta(beta);
+      GLMGradientInfo ginfo = new GLMGradientSolver(_job, _parms, _dinfo, 0, _state.activeBC(), _betaInfo).getGradient(beta);
+      _state.updateState(beta, ginfo);
+      Log.info(LogMsg("warm start from the solution of the nearest alpha/lambda solved on the same rows"));
+    }
+
     private void coldStart(double[] devHistoryTrain, double[] devHistoryTest) {
       _state.setBeta(_betaStart);  // reset beta to original starting condition
       _state.setIter(0);
@@ -3898,6 +3990,8 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
       if (_parms._max_iterations == 0) {
         return;
       } else {
+        _state._pathCache = GLMPathCache.make(_job._key, _parms, _dinfo,
+                _parms._is_cv_model ? _validDinfo : null, solvedFromGram());
         if (_parms._lambda_search) {
           if (ordinal.equals(_parms._family))
             nullDevTrain = new GLMResDevTaskOrdinal(_job._key, _state._dinfo, getNullBeta(), _nclass).doAll(_state._dinfo._adaptedFrame).avgDev();
@@ -3967,7 +4061,14 @@ public class GLM extends ModelBuilder<GLMModel,GLMParameters,GLMOutput> {
             if ((!_parms._HGLM && (_parms._cold_start || (!_parms._lambda_search && _parms._cold_start))) && (i > 0)
                     && !_checkPointFirstIter) // default: cold_start for non lambda_search
               coldStart(devHistoryTrain, devHistoryTest);
+            boolean pathSolution = _parms._lambda[i] < _lmax && pathSolutions();
+            if (pathSolution && (i == lambdaStart || _parms._cold_start) && _parms._is_cv_model &&
+                    !_parms._lambda_search && _parms._startval == null && !_parms.hasCheckpoint())
+              warmStart(_parms._lambda[i]);
             Submodel sm = computeSubmodel(submodelCount, _parms._lambda[i], nullDevTrain, nullDevValid);
+            if (pathSolution)
+              _state._pathCache.addSolution(_state.alpha(), _parms._lambda[i],
+                      _dinfo.denormalizeBeta(_state.expandBeta(_state.beta())));
             if (_checkPointFirstIter)
               _checkPointFirstIter = false;
             double trainDev = sm.devianceTrain; // this is stupid, they are always -1 except for lambda_search=True
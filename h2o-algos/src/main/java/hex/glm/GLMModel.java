@@ -545,6 +545,10 @@ public class GLMModel extends Model<GLMModel,GLMModel.GLMParameters,GLMModel.GLM
     public double _constraint_alpha = 0.1; // eta_k = constraint_eta_0/pow(constraint_c0, constraint_alpha)
     public double _constraint_beta = 0.9; // eta_k+1 = eta_k/pow(c_k, beta)
     public double _constraint_c0 = 10; // set initial epsilon k as 1/c0
+    public int _sgd_batch_size = 256;  // rows of a mini-batch of the stochastic gradient descent solver
+    public double _sgd_learning_rate = 0.01;
+    public double _sgd_sample_rate = 1; // fraction of the rows sampled in each epoch
+    public boolean _sgd_variance_reduction = false; // SVRG instead of Adam
     
     public void validate(GLM glm) {
       if (_remove_collinear_columns) {
@@ -570,6 +574,22 @@ public class GLMModel extends Model<GLMModel,GLMModel.GLMParameters,GLMModel.GLM
         glm.warn("lambda_search", "disabled when user specified any lambda value(s).");
       if(_alpha != null && (1 < _alpha[0] || _alpha[0] < 0))
         glm.error("_alpha","alpha parameter must from (inclusive) [0,1] range");
+      if (Solver.STOCHASTIC_GRADIENT_DESCENT.equals(_solver)) {
+        if (!(_family == Family.AUTO || _family == Family.gaussian || _family == Family.binomial ||
+                _family == Family.quasibinomial || _family == Family.poisson || _family == Family.gamma))
+          glm.error("_solver", "STOCHASTIC_GRADIENT_DESCENT solver only supports gaussian, binomial, " +
+                  "quasibinomial, poisson and gamma families, got " + _family);
+        if (_beta_constraints != null || _non_negative || _linear_constraints != null)
+          glm.error("_solver", "STOCHASTIC_GRADIENT_DESCENT solver does not support beta or linear constraints.");
+        if (_HGLM || GLMType.gam.equals(_glmType))
+          glm.error("_solver", "STOCHASTIC_GRADIENT_DESCENT solver does not support HGLM or GAM.");
+        if (_sgd_batch_size < 1)
+          glm.error("_sgd_batch_size", "Must be > 0.");
+        if (!(_sgd_learning_rate > 0))
+          glm.error("_sgd_learning_rate", "Must be > 0.");
+        if (!(_sgd_sample_rate > 0 && _sgd_sample_rate <= 1))
+          glm.error("_sgd_sample_rate", "Must be in (0, 1].");
+      }
       if(_compute_p_values && _solver != Solver.AUTO && _solver != Solver.IRLSM)
         glm.error("_compute_p_values","P values can only be computed with IRLSM solver, go solver = " + _solver);
       if(_compute_p_values && (_family == Family.multinomial || _family==Family.ordinal))
@@ -991,7 +1011,7 @@ public class GLMModel extends Model<GLMModel,GLMModel.GLMParameters,GLMModel.GLM
     public static enum Link {family_default, identity, logit, log, inverse, tweedie, multinomial, ologit, oprobit, ologlog}
     public static enum Influence {dfbetas};
 
-    public static enum Solver {AUTO, IRLSM, L_BFGS, COORDINATE_DESCENT_NAIVE, COORDINATE_DESCENT, GRADIENT_DESCENT_LH, GRADIENT_DESCENT_SQERR}
+    public static enum Solver {AUTO, IRLSM, L_BFGS, COORDINATE_DESCENT_NAIVE, COORDINATE_DESCENT, GRADIENT_DESCENT_LH, GRADIENT_DESCENT_SQERR, STOCHASTIC_GRADIENT_DESCENT}
 
     // helper function
     static final double y_log_y(double y, double mu) {
@@ -0,0 +1,333 @@
+package hex.glm;
+
+import hex.DataInfo;
+import hex.glm.GLMModel.GLMParameters;
+import hex.glm.GLMModel.GLMWeightsFun;
+import hex.gram.Gram;
+import water.H2O;
+import water.IcedUtils;
+import water.Job;
+import water.Key;
+import water.fvec.Vec;
+import water.util.ArrayUtils;
+import water.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Node-local cache shared by the GLM models of one job, i.e. a cross-validated model and its cross-validation models,
+ * or all the models of a (sequential) grid search.  The cache of a job is dropped when the job is done, see
+ * {@link #clear(Key)}.
+ * <p/>
+ * Gaussian models with the identity link are solved from the gram of the data, which does not depend on the
+ * coefficients.  The cache keeps the gram, X'y and y'y of the raw (not standardized) rows by the weights of the rows.  A
+ * model with the same weights takes them from the cache; a cross-validation model takes the gram of all the rows of
+ * its parent model less the gram of its holdout rows.  The raw gram is standardized with the means and sigmas of the
+ * model, the weighted means and sigmas differ between the folds.
+ * <p/>
+ * Other models record their solutions by the weights of their rows, a cross-validation model starts from the solution
+ * of the nearest alpha and lambda solved on its own rows instead of the null model.  A fold never starts from a
+ * solution fitted on other rows, those may include its holdout rows.
+ */
+final class GLMPathCache {
+  static final boolean ENABLED = H2O.getSysBoolProperty("glm.path_cache", true);
+  static final int MAX_GRAMS = Integer.parseInt(H2O.getSysProperty("glm.path_cache.max_grams", "16"));
+  static final int MAX_SOLUTIONS = Integer.parseInt(H2O.getSysProperty("glm.path_cache.max_solutions", "256"));
+
+  private static final Map<Key<Job>, JobCache> CACHES = new ConcurrentHashMap<>();
+  private static final AtomicInteger GRAMS_COMPUTED = new AtomicInteger(); // passes over the data, for testing
+
+  private static <V> Map<String, V> lru(final int maxSize) {
+    return Collections.synchronizedMap(new LinkedHashMap<String, V>(16, .75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+        return size() > maxSize;
+      }
+    });
+  }
+
+  /**
+   * Drops the grams and solutions of a job, called when the job is done.
+   */
+  static void clear(Key<Job> jobKey) {
+    if (CACHES.remove(jobKey) != null)
+      Log.info("GLM path cache: cleared the cache of job " + jobKey);
+  }
+
+  /**
+   * @return true if the cache holds grams or solutions of the job
+   */
+  static boolean isCached(Key<Job> jobKey) {
+    return CACHES.containsKey(jobKey);
+  }
+
+  /**
+   * @return number of grams computed from the data on this node so far
+   */
+  static int gramsComputed() {
+    return GRAMS_COMPUTED.get();
+  }
+
+  private final Key<Job> _jobKey;
+  private final GLMParameters _parms;
+  private final DataInfo _dinfo;
+  private final DataInfo _holdout;    // rows held out of a cross-validation model, null otherwise
+  private final String _gramKey;      // data and row weights, null if the model is not solved from the gram
+  private final String _parentKey;    // data of a cross-validated model and its cross-validation models
+  private final String _solutionKey;  // data, row weights and the distribution of the response
+  private final JobCache _cache;
+  private RawGram _gram;
+
+  private GLMPathCache(Key<Job> jobKey, GLMParameters parms, DataInfo dinfo, DataInfo holdout, boolean gram) {
+    _jobKey = jobKey;
+    _parms = parms;
+    _dinfo = dinfo;
+    _holdout = holdout;
+    String dataKey = dataKey(dinfo);
+    String rowsKey = dataKey + "|w" + (dinfo._weights ? dinfo.getWeightsVec().checksum() : 1);
+    _gramKey = gram ? rowsKey : null;
+    _parentKey = gram && (holdout != null || parms._nfolds > 1 || parms._fold_column != null) ? dataKey + "|parent" : null;
+    _solutionKey = rowsKey + "|" + parms._family + "|" + parms._link + "|" + parms._tweedie_variance_power + "|" +
+            parms._tweedie_link_power + "|" + parms._theta + "|" + parms._intercept;
+    _cache = CACHES.computeIfAbsent(jobKey, k -> new JobCache());
+  }
+
+  /**
+   * @param holdout data info of the rows held out of a cross-validation model, null for other models
+   * @param gram true if the model is solved from the gram of the data (gaussian family with the identity link)
+   * @return the cache of the model, null if it is disabled or does not apply to the data
+   */
+  static GLMPathCache make(Key<Job> jobKey, GLMParameters parms, DataInfo dinfo, DataInfo holdout, boolean gram) {
+    if (!ENABLED || dinfo._interactions != null)
+      return null;
+    return new GLMPathCache(jobKey, parms, dinfo, holdout, gram && parms._intercept);
+  }
+
+  private static String dataKey(DataInfo dinfo) {
+    StringBuilder sb = new StringBuilder();
+    sb.append(dinfo._useAllFactorLevels).append(dinfo._skipMissing).append(dinfo._imputeMissing).append(dinfo.fullN());
+    for (int i = 0; i < dinfo._cats + dinfo._nums; ++i)
+      append(sb, dinfo._adaptedFrame.vec(i));
+    if (dinfo._offset)
+      append(sb, dinfo.getOffsetVec());
+    append(sb, dinfo._adaptedFrame.vec(dinfo.responseChunkId(0)));
+    return sb.toString();
+  }
+
+  private static void append(StringBuilder sb, Vec v) {
+    sb.append('|').append(v._key).append(':').append(v.checksum());
+  }
+
+  boolean hasGram() {
+    return _gramKey != null;
+  }
+
+  /**
+   * Gram of the active columns, standardized by the model, not scaled by obj_reg.
+   */
+  ComputationState.GramXY gramXY(DataInfo activeData, double[] beta) {
+    RawGram raw = rawGram();
+    Gram gram = raw._gram.deep_clone();
+    gram._xxCache = null;
+    double[] xy = raw._xy.clone();
+    standardize(gram, xy);
+    int[] activeCols = activeData.activeCols();
+    if (activeCols.length < xy.length) {
+      int[] drop = new int[xy.length - activeCols.length];
+      for (int i = 0, j = 0, k = 0; i < xy.length; ++i)
+        if (j < activeCols.length && activeCols[j] == i) ++j;
+        else drop[k++] = i;
+      gram.dropCols(drop);
+      xy = ArrayUtils.removeIds(xy, drop);
+    }
+    double likelihood = beta == null ? 0 : .5 * (quadraticForm(gram, beta) - 2 * ArrayUtils.innerProduct(beta, xy) + raw._yy);
+    ComputationState.GramXY res = new ComputationState.GramXY(gram, xy, null, beta, activeCols, null, raw._yy, likelihood);
+    res.sumOfRowWeights = raw._wsum;
+    return res;
+  }
+
+  private RawGram rawGram() {
+    if (_gram != null)
+      return _gram;
+    RawGram gram = _cache._grams.get(_gramKey);
+    if (gram == null) {
+      long t0 = System.currentTimeMillis();
+      RawGram parent = _parentKey == null ? null : _cache._grams.get(_parentKey);
+      if (_holdout != null) { // cross-validation model: the rows of the parent model less the holdout rows
+        RawGram holdout = RawGram.compute(_jobKey, _holdout, _parms);
+        if (parent != null) {
+          gram = parent.subtract(holdout);
+        } else {
+          gram = RawGram.compute(_jobKey, _dinfo, _parms);
+          _cache._grams.put(_parentKey, gram.add(holdout));
+        }
+      } else if (parent != null) { // cross-validated model, its rows are the rows of all of its folds
+        gram = parent;
+      } else {
+        gram = RawGram.compute(_jobKey, _dinfo, _parms);
+      }
+      _cache._grams.put(_gramKey, gram);
+      Log.info("GLM path cache: gram computed in " + (System.currentTimeMillis() - t0) + "ms");
+    } else {
+      Log.info("GLM path cache: gram taken from the cache");
+    }
+    return _gram = gram;
+  }
+
+  /**
+   * Applies the standardization of the model, x' = (x - normSub)*normMul, to the raw gram and X'y; the intercept
+   * column of the raw gram holds the weighted sums of the columns.
+   */
+  private void standardize(Gram gram, double[] xy) {
+    final double[] sub = _dinfo._normSub, mul = _dinfo._normMul;
+    if (sub == null || mul == null)
+      return;
+    final int ns = _dinfo.numStart(), icpt = _dinfo.fullN(), diagN = gram._diagN;
+    final double[] icptRow = gram._xx[icpt - diagN];
+    final double wsum = icptRow[icpt];
+    for (int i = ns; i < icpt; ++i) {
+      double[] row = gram._xx[i - diagN];
+      double si = sub[i - ns], mi = mul[i - ns];
+      for (int j = 0; j < ns; ++j)
+        row[j] = mi * (row[j] - si * icptRow[j]);
+      for (int j = ns; j <= i; ++j) {
+        double sj = sub[j - ns];
+        row[j] = mi * mul[j - ns] * (row[j] - si * icptRow[j] - sj * icptRow[i] + si * sj * wsum);
+      }
+      xy[i] = mi * (xy[i] - si * xy[icpt]);
+    }
+    for (int j = ns; j < icpt; ++j)
+      icptRow[j] = mul[j - ns] * (icptRow[j] - sub[j - ns] * wsum);
+  }
+
+  private static double quadraticForm(Gram gram, double[] beta) {
+    double res = 0;
+    for (int i = 0; i < gram._diagN; ++i)
+      res += gram._diag[i] * beta[i] * beta[i];
+    for (int r = 0; r < gram._xx.length; ++r) {
+      double[] row = gram._xx[r];
+      int i = r + gram._diagN;
+      double s = 0;
+      for (int j = 0; j < i; ++j)
+        s += row[j] * beta[j];
+      res += beta[i] * (2 * s + row[i] * beta[i]);
+    }
+    return res;
+  }
+
+  /**
+   * Records the (not standardized) coefficients of a solved alpha/lambda.
+   */
+  void addSolution(double alpha, double lambda, double[] beta) {
+    synchronized (_cache._solutions) {
+      List<Solution> solutions = _cache._solutions.get(_solutionKey);
+      if (solutions == null)
+        _cache._solutions.put(_solutionKey, solutions = new ArrayList<>());
+      if (solutions.size() == MAX_SOLUTIONS)
+        solutions.remove(0);
+      solutions.add(new Solution(alpha, lambda, beta));
+    }
+  }
+
+  /**
+   * @return the (not standardized) coefficients solved at the alpha/lambda nearest to the given ones, null if none
+   */
+  double[] nearestSolution(double alpha, double lambda) {
+    Solution best = null;
+    double bestDist = Double.POSITIVE_INFINITY;
+    synchronized (_cache._solutions) {
+      List<Solution> solutions = _cache._solutions.get(_solutionKey);
+      if (solutions == null)
+        return null;
+      for (Solution s : solutions) {
+        double dist = Math.abs(s._alpha - alpha) + Math.abs(Math.log((s._lambda + 1e-10) / (lambda + 1e-10)));
+        if (dist < bestDist) {
+          bestDist = dist;
+          best = s;
+        }
+      }
+    }
+    return best == null || best._beta.length != _dinfo.fullN() + 1 ? null : best._beta.clone();
+  }
+
+  /**
+   * Inverse of {@link DataInfo#denormalizeBeta(double[])}.
+   */
+  double[] normalizeBeta(double[] beta) {
+    if (_dinfo._predictor_transform != DataInfo.TransformType.STANDARDIZE)
+      return beta;
+    final int ns = _dinfo.numStart(), icpt = _dinfo.fullN();
+    for (int i = ns; i < icpt; ++i) {
+      beta[icpt] += beta[i] * _dinfo._normSub[i - ns];
+      beta[i] /= _dinfo._normMul[i - ns];
+    }
+    return beta;
+  }
+
+  /**
+   * Grams and solutions of the models of one job.
+   */
+  private static final class JobCache {
+    final Map<String, RawGram> _grams = lru(MAX_GRAMS);
+    final Map<String, List<Solution>> _solutions = lru(MAX_GRAMS);
+  }
+
+  private static final class Solution {
+    final double _alpha;
+    final double _lambda;
+    final double[] _beta;
+
+    Solution(double alpha, double lambda, double[] beta) {
+      _alpha = alpha;
+      _lambda = lambda;
+      _beta = beta;
+    }
+  }
+
+  /**
+   * Gram (with the intercept), X'y, y'y and sum of the weights of the raw rows.
+   */
+  private static final class RawGram {
+    final Gram _gram;
+    final double[] _xy;
+    final double _yy;
+    final double _wsum;
+
+    private RawGram(Gram gram, double[] xy, double yy, double wsum) {
+      _gram = gram;
+      _xy = xy;
+      _yy = yy;
+      _wsum = wsum;
+    }
+
+    static RawGram compute(Key<Job> jobKey, DataInfo dinfo, GLMParameters parms) {
+      DataInfo raw = IcedUtils.deepCopy(dinfo);
+      raw._normMul = null;
+      raw._normSub = null;
+      raw._predictor_transform = DataInfo.TransformType.NONE;
+      GLMTask.GLMIterationTask gt = new GLMTask.GLMIterationTask(jobKey, raw, new GLMWeightsFun(parms), null)
+              .doAll(raw._adaptedFrame);
+      GRAMS_COMPUTED.incrementAndGet();
+      return new RawGram(gt._gram, gt._xy, gt._yy, gt.sumOfRowWeights);
+    }
+
+    RawGram add(RawGram g) {
+      Gram gram = _gram.deep_clone();
+      gram.add(g._gram);
+      return new RawGram(gram, ArrayUtils.add(_xy.clone(), g._xy), _yy + g._yy, _wsum + g._wsum);
+    }
+
+    RawGram subtract(RawGram g) {
+      Gram neg = g._gram.deep_clone();
+      neg.mul(-1);
+      neg.add(_gram);
+      return new RawGram(neg, ArrayUtils.subtract(_xy, g._xy), _yy - g._yy, _wsum - g._wsum);
+    }
+  }
+}
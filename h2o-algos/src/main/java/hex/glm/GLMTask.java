@@ -18,8 +18,10 @@ import water.util.ArrayUtils;
 import water.util.FrameUtils;
 import water.util.MathUtils;
 import water.util.MathUtils.BasicStats;
+import water.util.RandomUtils;
 
 import java.util.Arrays;
+import java.util.Random;
 
 import static hex.glm.GLMModel.GLMParameters.DispersionMethod.deviance;
 import static hex.glm.GLMModel.GLMParameters.Family.gaussian;
@@ -35,6 +37,7 @@ import static org.apache.commons.math3.special.Gamma.*;
  * GLMGradientTask   - computes gradient at given Beta, used by L-BFGS, for KKT condition check
  * GLMLineSearchTask - computes residual deviance(s) at given beta(s), used by line search (both L-BFGS and IRLSM)
  * GLMIterationTask  - used by IRLSM to compute Gram matrix and response t(X) W X, t(X)Wz
+ * GLMSGDTask        - one epoch of the stochastic gradient descent solver
  *
  * @author tomasnykodym
  */
@@ -1501,6 +1504,212 @@ public abstract class GLMTask  {
     }
   }
   
+  /**
+   * Coefficients and Adam moments of the stochastic gradient descent solver.  Besides the input/output of a
+   * {@link GLMSGDTask}, it is the node-local state shared (without locking) by the map calls of the task on a node.
+   */
+  static final class SGDState extends Iced<SGDState> {
+    double[] _beta;
+    double[] _m;       // first moment estimates
+    double[] _v;       // second moment estimates
+    long _steps;       // mini-batch updates made so far
+    double _likelihood; // likelihood of the rows of the last epoch, at the coefficients before their mini-batch update
+    long _nobs;        // rows of the last epoch
+
+    SGDState(double[] beta) {
+      _beta = beta.clone();
+      _m = MemoryManager.malloc8d(beta.length);
+      _v = MemoryManager.malloc8d(beta.length);
+    }
+
+    private void add(SGDState st) {
+      ArrayUtils.add(_beta, st._beta);
+      ArrayUtils.add(_m, st._m);
+      ArrayUtils.add(_v, st._v);
+      _steps += st._steps;
+      _likelihood += st._likelihood;
+      _nobs += st._nobs;
+    }
+
+    private void div(int n) {
+      ArrayUtils.div(_beta, n);
+      ArrayUtils.div(_m, n);
+      ArrayUtils.div(_v, n);
+      _steps /= n;
+    }
+  }
+
+  /**
+   * One epoch of the stochastic gradient descent solver, a single sequential pass over the (optionally row-sampled)
+   * chunks.
+   * <p/>
+   * Every node updates its own copy of the coefficients by mini-batches of rows, its map calls share the copy without
+   * locking (Hogwild!, as the DeepLearningTask does); the copies of the nodes are averaged in reduce.  The updates are
+   * made by Adam, or by plain SGD with the SVRG variance reduction when the full gradient at a snapshot of the
+   * coefficients is given.  The L1 penalty is applied by the proximal (soft-thresholding) step, the L2 penalty is
+   * added to the gradient.
+   */
+  static class GLMSGDTask extends FrameTask2<GLMSGDTask> {
+    private static final double BETA1 = .9;
+    private static final double BETA2 = .999;
+    private static final double EPS = 1e-8;
+
+    final GLMWeightsFun _glmf;
+    final double _lr;
+    final double _l1pen;
+    final double _l2pen;
+    final double _scale;        // scales the mean gradient of a mini-batch to the gradient of the objective
+    final double _sampleRate;
+    final int _batchSize;
+    final long _seed;
+    final double[] _snapshot;   // SVRG snapshot of the coefficients, null for Adam
+    final double[] _fullGrad;   // gradient of the objective at the snapshot, without the L2 penalty
+    SGDState _st;               // input, node-local state in map, averaged output
+    int _nodes = 1;
+
+    private transient double[] _grad;
+    private transient double _gsum;
+    private transient int _n;
+    private transient double _likelihood;
+    private transient long _nobs;
+    private transient double _sparseOffset;
+    private transient double _snapshotSparseOffset;
+    private transient Random _rng;
+
+    GLMSGDTask(Key jobKey, DataInfo dinfo, GLMParameters parms, SGDState st, double lr, double l1pen, double l2pen,
+               double scale, long seed, double[] snapshot, double[] fullGrad) {
+      super(null, dinfo, jobKey);
+      _glmf = new GLMWeightsFun(parms);
+      _st = st;
+      _lr = lr;
+      _l1pen = l1pen;
+      _l2pen = l2pen;
+      _scale = scale;
+      _sampleRate = parms._sgd_sample_rate;
+      _batchSize = parms._sgd_batch_size;
+      _seed = seed;
+      _snapshot = snapshot;
+      _fullGrad = fullGrad;
+    }
+
+    @Override public boolean handlesSparseData(){return true;}
+
+    @Override
+    public void setupLocal() {
+      super.setupLocal();
+      _st = IcedUtils.deepCopy(_st);
+      _st._likelihood = 0;
+      _st._nobs = 0;
+    }
+
+    @Override
+    public void map(Chunk[] chks) {
+      _rng = _sampleRate < 1 ? RandomUtils.getRNG(_seed + chks[0].start()) : null;
+      super.map(chks);
+    }
+
+    @Override
+    public void chunkInit() {
+      _grad = MemoryManager.malloc8d(_st._beta.length);
+      _sparseOffset = _sparse ? GLM.sparseOffset(_st._beta, _dinfo) : 0;
+      _snapshotSparseOffset = _sparse && _snapshot != null ? GLM.sparseOffset(_snapshot, _dinfo) : 0;
+    }
+
+    @Override
+    protected void processRow(Row r) {
+      if (_rng != null && _rng.nextDouble() >= _sampleRate) return;
+      double y = r.response(0);
+      double mu = _glmf.linkInv(r.innerProduct(_st._beta) + _sparseOffset + r.offset);
+      _likelihood += r.weight * likelihood(y, mu);
+      double g = gradientMultiplier(y, mu, r.weight);
+      if (_snapshot != null)
+        g -= gradientMultiplier(y, _glmf.linkInv(r.innerProduct(_snapshot) + _snapshotSparseOffset + r.offset), r.weight);
+      r.addToArray(g, _grad);
+      _gsum += g;
+      ++_nobs;
+      if (++_n == _batchSize)
+        update();
+    }
+
+    // Derivative of the likelihood by eta, as in GLMGenericGradientTask
+    private double gradientMultiplier(double y, double mu, double w) {
+      double var = _glmf.variance(mu);
+      if (var < GLMModel._EPS) var = GLMModel._EPS;
+      return w * (mu - y) / (var * _glmf.linkDeriv(mu));
+    }
+
+    // Likelihood at the scale of the GLMGradientTask of the family, the objective is compared to the gradient solver's
+    private double likelihood(double y, double mu) {
+      return _glmf._family == gaussian ? (mu - y) * (mu - y) : _glmf.likelihood(y, mu);
+    }
+
+    private void update() {
+      final double[] beta = _st._beta, m = _st._m, v = _st._v;
+      final int P = beta.length - 1;
+      if (_sparse && _dinfo._normSub != null) { // sparse rows are not centered
+        int ns = _dinfo.numStart();
+        for (int i = 0; i < _dinfo._nums; ++i)
+          _grad[ns + i] -= _dinfo._normSub[i] * _dinfo._normMul[i] * _gsum;
+      }
+      final double t = ++_st._steps;
+      final double c1 = 1 - Math.pow(BETA1, t), c2 = 1 - Math.pow(BETA2, t);
+      final double mult = _scale / _n;
+      for (int j = 0; j <= P; ++j) {
+        if (j == P && !_dinfo._intercept) break;
+        double g = _grad[j] * mult;
+        _grad[j] = 0;
+        if (_fullGrad != null) g += _fullGrad[j];
+        if (j < P) g += _l2pen * beta[j];
+        double b, step;
+        if (_snapshot == null) {
+          m[j] = BETA1 * m[j] + (1 - BETA1) * g;
+          v[j] = BETA2 * v[j] + (1 - BETA2) * g * g;
+          step = _lr / (Math.sqrt(v[j] / c2) + EPS);
+          b = beta[j] - step * m[j] / c1;
+        } else {
+          step = _lr;
+          b = beta[j] - step * g;
+        }
+        if (j < P && _l1pen > 0) { // proximal step
+          double thr = step * _l1pen;
+          b = b > thr ? b - thr : b < -thr ? b + thr : 0;
+        }
+        beta[j] = b;
+      }
+      _gsum = 0;
+      _n = 0;
+      if (_sparse) _sparseOffset = GLM.sparseOffset(beta, _dinfo);
+    }
+
+    @Override
+    public void chunkDone() {
+      if (_n > 0) update();
+      _grad = null;
+      synchronized (_st) {
+        _st._likelihood += _likelihood;
+        _st._nobs += _nobs;
+      }
+    }
+
+    /** Average the coefficients of the nodes, no-op between the map calls of a node (they share the state) */
+    @Override
+    public void reduce(GLMSGDTask other) {
+      if (other._st == _st || other._st._nobs == 0) return;
+      if (_st._nobs == 0) {
+        _st = other._st;
+        _nodes = other._nodes;
+      } else {
+        _st.add(other._st);
+        _nodes += other._nodes;
+      }
+    }
+
+    @Override
+    public void postGlobal() {
+      if (_nodes > 1) _st.div(_nodes);
+    }
+  }
+
   /**
    * One iteration of glm, computes weighted gram matrix and t(x)*y vector and t(y)*y scalar.
    *
@@ -1523,6 +1732,9 @@ public abstract class GLMTask  {
     double _sumsqe;
     int _c = -1;
     boolean _hasConstraints = false;
+    boolean _skipCatXcat; // the categorical block of the gram is added from a cache
+    private transient Gram.CatBlock _cachedCats;
+    private transient Gram.RowPanel _panel;
     
     public double[] getXY() {
       return _xy;
@@ -1558,12 +1770,20 @@ public abstract class GLMTask  {
 
     @Override public boolean handlesSparseData(){return true;}
 
+    /** Leave out the categorical block of the gram (see {@link Gram#catBlock()}), add the cached one in the end */
+    public GLMIterationTask skipCatXcat(Gram.CatBlock cachedCats) {
+      _skipCatXcat = true;
+      _cachedCats = cachedCats;
+      return this;
+    }
+
     transient private double _sparseOffset;
 
     @Override
     public void chunkInit() {
       // initialize
       _gram = new Gram(_dinfo.fullN(), _dinfo.largestCat(), _dinfo.numNums(), _dinfo._cats,true);
+      _panel = _sparse ? null : Gram.RowPanel.make(_gram, !_skipCatXcat);
       _xy = MemoryManager.malloc8d(_dinfo.fullN()+1); // + 1 is for intercept
       if(_sparse)
         _sparseOffset = GLM.sparseOffset(_beta,_dinfo);
@@ -1620,11 +1840,19 @@ public abstract class GLMTask  {
       }
       if(_dinfo._intercept)
         _xy[_xy.length-1] += wz;
-      _gram.addRow(r,w);
+      if(_panel != null)
+        _panel.addRow(r,w);
+      else
+        _gram.addRow(r,w,!_skipCatXcat);
     }
 
     @Override
-    public void chunkDone(){adjustForSparseStandardizedZeros();}
+    public void chunkDone(){
+      if(_panel != null) {
+        _panel.flush();
+        _panel = null;
+      }
+    }
 
     @Override
     public void reduce(GLMIterationTask git){
@@ -1639,6 +1867,14 @@ public abstract class GLMTask  {
       super.reduce(git);
     }
 
+    @Override
+    public void postGlobal() {
+      // the adjustment uses the products of the intercept with the categorical columns, add the cached ones first
+      if(_cachedCats != null)
+        _gram.addCatBlock(_cachedCats);
+      adjustForSparseStandardizedZeros();
+    }
+
     private void adjustForSparseStandardizedZeros(){
       if(_sparse && _dinfo._normSub != null) { // need to adjust gram for missing centering!
         int ns = _dinfo.numStart();
@@ -788,6 +788,10 @@ public final class Gram extends Iced<Gram> {
   }
 
   public final void addRowSparse(DataInfo.Row r, double w) {
+    addRowSparse(r, w, true);
+  }
+
+  final void addRowSparse(DataInfo.Row r, double w, boolean catXcat) {
     final int intercept = _hasIntercept?1:0;
     final int denseRowStart = _fullN - _denseN - _diagN - intercept; // we keep dense numbers at the right bottom of the matrix, -1 is for intercept
     assert _denseN + denseRowStart == _xx.length-intercept;
@@ -805,32 +809,51 @@ public final class Gram extends Iced<Gram> {
       for(int j = 0; j < r.nBins; ++j)
         mrow[r.binIds[j]] += d;
     }
+    if(catXcat)
+      addCats(r.binIds, r.nBins, w);
+  }
+
+  // Categorical block: intercept*intercept, intercept X cat, cat X cat and the diagonal
+  private void addCats(int[] binIds, int nBins, double w) {
     if(_hasIntercept){
+      final double [] interceptRow = _xx[_xx.length-1];
       // intercept*intercept
       interceptRow[interceptRow.length-1] += w;
       // intercept X cat
-      for(int j = 0; j < r.nBins; ++j)
-        interceptRow[r.binIds[j]] += w;
+      for(int j = 0; j < nBins; ++j)
+        interceptRow[binIds[j]] += w;
     }
-    final boolean hasDiag = (_diagN > 0 && r.nBins > 0 && r.binIds[0] < _diagN);
+    final boolean hasDiag = (_diagN > 0 && nBins > 0 && binIds[0] < _diagN);
     // cat X cat
-    for(int i = hasDiag?1:0; i < r.nBins; ++i){
-      final double [] mrow = _xx[r.binIds[i] - _diagN];
+    for(int i = hasDiag?1:0; i < nBins; ++i){
+      final double [] mrow = _xx[binIds[i] - _diagN];
       for(int j = 0; j <= i; ++j)
-        mrow[r.binIds[j]] += w;
+        mrow[binIds[j]] += w;
     }
     // DIAG
-    if(hasDiag && r.nBins > 0)
-      _diag[r.binIds[0]] += w;
+    if(hasDiag)
+      _diag[binIds[0]] += w;
   }
+
   public final void addRow(DataInfo.Row row, double w) {
+    addRow(row, w, true);
+  }
+
+  /**
+   * @param catXcat add the categorical block (see {@link #catBlock()}), false if it is added from a cache
+   */
+  public final void addRow(DataInfo.Row row, double w, boolean catXcat) {
     if(row.numIds == null)
-      addRowDense(row,w);
+      addRowDense(row, w, true, catXcat);
     else
-      addRowSparse(row, w);
+      addRowSparse(row, w, catXcat);
   }
 
   public final void   addRowDense(DataInfo.Row row, double w) {
+    addRowDense(row, w, true, true);
+  }
+
+  final void addRowDense(DataInfo.Row row, double w, boolean numXnum, boolean catXcat) {
     final int intercept = _hasIntercept?1:0;
     final int denseRowStart = _fullN - _denseN - _diagN - intercept; // we keep dense numbers at the right bottom of the matrix, -1 is for intercept
     final int denseColStart = _fullN - _denseN - intercept;
@@ -841,32 +864,151 @@ public final class Gram extends Iced<Gram> {
     for(int i = 0; i < _denseN; ++i) if(row.numVals[i] != 0) {
       final double [] mrow = _xx[i+denseRowStart];
       final double d = w * row.numVals[i];
-      for(int j = 0; j <= i; ++j) if(row.numVals[j] != 0)
-        mrow[j+denseColStart] += d* row.numVals[j];
+      if(numXnum)
+        for(int j = 0; j <= i; ++j) if(row.numVals[j] != 0)
+          mrow[j+denseColStart] += d* row.numVals[j];
       if(_hasIntercept)
         interceptRow[i+denseColStart] += d; // intercept*x[i]
       // nums * cats
       for(int j = 0; j < row.nBins; ++j)
         mrow[row.binIds[j]] += d;
     }
-    if(_hasIntercept){
-      // intercept*intercept
-      interceptRow[_denseN+denseColStart] += w;
-      // intercept X cat
-      for(int j = 0; j < row.nBins; ++j)
-        interceptRow[row.binIds[j]] += w;
+    if(catXcat)
+      addCats(row.binIds, row.nBins, w);
+  }
+  /**
+   * Categorical block of a Gram: the products of the categorical columns with themselves and with the intercept.  It
+   * only depends on the row weights, so it can be cached across iterations when they do not depend on the coefficients.
+   */
+  public static final class CatBlock {
+    final double[] _diag;
+    final double[][] _xx;         // rows of the categorical columns after the diagonal ones
+    final double[] _intercept;    // intercept X cat and intercept*intercept (last)
+    CatBlock(double[] diag, double[][] xx, double[] intercept) {
+      _diag = diag;
+      _xx = xx;
+      _intercept = intercept;
     }
-    final boolean hasDiag = (_diagN > 0 && row.nBins > 0 && row.binIds[0] < _diagN);
-    // cat X cat
-    for(int i = hasDiag?1:0; i < row.nBins; ++i){
-      final double [] mrow = _xx[row.binIds[i] - _diagN];
-      for(int j = 0; j <= i; ++j)
-        mrow[row.binIds[j]] += w;
+  }
+
+  // Number of expanded categorical columns
+  private int catN() { return _fullN - _denseN - (_hasIntercept?1:0); }
+
+  /** @return a copy of the categorical block */
+  public CatBlock catBlock() {
+    final int catN = catN();
+    double[][] xx = new double[catN - _diagN][];
+    for(int i = 0; i < xx.length; ++i)
+      xx[i] = _xx[i].clone();
+    double[] intercept = null;
+    if(_hasIntercept) {
+      final double[] interceptRow = _xx[_xx.length-1];
+      intercept = Arrays.copyOf(interceptRow, catN + 1);
+      intercept[catN] = interceptRow[interceptRow.length-1];
+    }
+    return new CatBlock(_diag.clone(), xx, intercept);
+  }
+
+  /** Add a categorical block, of a Gram of the same shape built with {@code catXcat} false */
+  public void addCatBlock(CatBlock cb) {
+    final int catN = catN();
+    assert cb._diag.length == _diagN && cb._xx.length == catN - _diagN;
+    ArrayUtils.add(_diag, cb._diag);
+    for(int i = 0; i < cb._xx.length; ++i)
+      ArrayUtils.add(_xx[i], cb._xx[i]);
+    if(_hasIntercept) {
+      final double[] interceptRow = _xx[_xx.length-1];
+      for(int j = 0; j < catN; ++j)
+        interceptRow[j] += cb._intercept[j];
+      interceptRow[interceptRow.length-1] += cb._intercept[catN];
+    }
+  }
+
+  /**
+   * Buffer of dense rows added to a Gram.  The products of the numeric columns - the bulk of the work for wide data -
+   * are not added row by row as rank-1 updates of the whole numeric block, but a panel of rows at a time, as a
+   * symmetric rank-k update computed tile by tile: every entry is a dot product of two (weighted) columns of the
+   * panel, and a tile of panel columns is reused for all the rows of the block while it is in the cache.  The other
+   * parts of the rows (categorical columns, intercept) are added right away.  Sparse rows are added as they are.
+   * <p/>
+   * Not thread safe, meant to be used by a single map call; {@link #flush()} must be called before the Gram is used.
+   */
+  public static final class RowPanel {
+    /** Rows buffered in a panel */
+    public static final int ROWS = 256;
+    /** Fewest numeric columns for which buffering the rows pays off */
+    public static final int MIN_COLS = Integer.parseInt(H2O.getSysProperty("glm.gram.panel_min_cols", "32"));
+    private static final int TILE = 64;  // panel columns in a tile, 64 x ROWS doubles fit in L2
+
+    private final Gram _gram;
+    private final boolean _catXcat;
+    private final double[][] _x;   // column-major panel: _x[col][row]
+    private final double[][] _wx;  // weighted columns
+    private final double[] _w;
+    private int _n;
+
+    private RowPanel(Gram gram, boolean catXcat) {
+      _gram = gram;
+      _catXcat = catXcat;
+      _x = new double[gram._denseN][ROWS];
+      _wx = new double[gram._denseN][ROWS];
+      _w = new double[ROWS];
+    }
+
+    /**
+     * @param catXcat add the categorical block of the rows, false if it is added from a cache
+     * @return a panel adding to the Gram, null if it has too few numeric columns to be worth it
+     */
+    public static RowPanel make(Gram gram, boolean catXcat) {
+      return gram._denseN < MIN_COLS ? null : new RowPanel(gram, catXcat);
+    }
+
+    public void addRow(DataInfo.Row row, double w) {
+      if(row.numIds != null) { // sparse rows only touch their non-zeros
+        _gram.addRowSparse(row, w, _catXcat);
+        return;
+      }
+      _gram.addRowDense(row, w, false, _catXcat);
+      final double[] vals = row.numVals;
+      for(int i = 0; i < _x.length; ++i)
+        _x[i][_n] = vals[i];
+      _w[_n++] = w;
+      if(_n == ROWS)
+        flush();
+    }
+
+    /** Add the buffered rows to the Gram */
+    public void flush() {
+      final int n = _n;
+      if(n == 0) return;
+      final int p = _x.length;
+      for(int i = 0; i < p; ++i) {
+        final double[] x = _x[i], wx = _wx[i];
+        for(int k = 0; k < n; ++k)
+          wx[k] = _w[k] * x[k];
+      }
+      final int intercept = _gram._hasIntercept?1:0;
+      final int rowStart = _gram._fullN - _gram._denseN - _gram._diagN - intercept;
+      final int colStart = _gram._fullN - _gram._denseN - intercept;
+      for(int jb = 0; jb < p; jb += TILE) {
+        final int je = Math.min(p, jb + TILE);
+        for(int i = jb; i < p; ++i) {
+          final double[] mrow = _gram._xx[i + rowStart];
+          final double[] wx = _wx[i];
+          final int jend = Math.min(je, i + 1);
+          for(int j = jb; j < jend; ++j) {
+            final double[] x = _x[j];
+            double d = 0;
+            for(int k = 0; k < n; ++k)
+              d += wx[k] * x[k];
+            mrow[j + colStart] += d;
+          }
+        }
+      }
+      _n = 0;
     }
-    // DIAG
-    if(hasDiag)
-      _diag[row.binIds[0]] += w;
   }
+
   public void mul(double x){
     if(_diag != null)for(int i = 0; i < _diag.length; ++i)
       _diag[i] *= x;
@@ -50,6 +50,8 @@ public class DRFV3 extends SharedTreeV3<DRF, DRFV3, DRFV3.DRFParametersV3> {
                 "col_sample_rate_per_tree",
                 "min_split_improvement",
                 "histogram_type",
+                "binned_histograms",
+                "histogram_subtraction",
                 "categorical_encoding",
                 "calibrate_model",
                 "calibration_frame",
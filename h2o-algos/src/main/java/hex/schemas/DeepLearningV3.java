@@ -96,6 +96,7 @@ public class DeepLearningV3 extends ModelBuilderSchema<DeepLearning,DeepLearning
         "reproducible",
         "export_weights_and_biases",
         "mini_batch_size",
+        "mini_batch_gemm",
         "categorical_encoding",
         "elastic_averaging",
         "elastic_averaging_moving_rate",
@@ -642,6 +643,10 @@ public class DeepLearningV3 extends ModelBuilderSchema<DeepLearning,DeepLearning
         help = "Mini-batch size (smaller leads to better fit, larger can speed up and generalize better).")
     public int mini_batch_size;
 
+    @API(level = API.Level.expert, direction=API.Direction.INOUT, gridable = true,
+        help = "Process the whole mini-batch per layer with cache-blocked matrix-matrix kernels (required for mini_batch_size > 1).")
+    public boolean mini_batch_gemm;
+
     @API(level = API.Level.expert, direction=API.Direction.INOUT, gridable = true,
         help = "Elastic averaging between compute nodes can improve distributed model convergence. #Experimental")
     public boolean elastic_averaging;
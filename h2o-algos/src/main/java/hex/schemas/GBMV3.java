@@ -57,6 +57,8 @@ public class GBMV3 extends SharedTreeV3<GBM,GBMV3,GBMV3.GBMParametersV3> {
       "col_sample_rate_per_tree",
       "min_split_improvement",
       "histogram_type",
+      "binned_histograms",
+      "histogram_subtraction",
       "max_abs_leafnode_pred",
       "pred_noise_bandwidth",
       "categorical_encoding",
@@ -73,7 +75,9 @@ public class GBMV3 extends SharedTreeV3<GBM,GBMV3,GBMV3.GBMParametersV3> {
       "gainslift_bins", 
       "auc_type", 
       "interaction_constraints",
-      "auto_rebalance"
+      "auto_rebalance",
+      "grow_policy",
+      "max_leaves"
     };
 
     // Input fields
@@ -104,6 +108,12 @@ public class GBMV3 extends SharedTreeV3<GBM,GBMV3,GBMV3.GBMParametersV3> {
     @API(help="Allow automatic rebalancing of training and validation datasets", level = API.Level.expert)
     public boolean auto_rebalance = true;
 
+    @API(help="Grow policy - depthwise grows the trees level by level, lossguide always expands the leaves with the largest gain first", values = { "depthwise", "lossguide"}, level = API.Level.secondary, gridable = true)
+    public GBMParameters.GrowPolicy grow_policy;
+
+    @API(help="For grow_policy=lossguide only: maximum number of leaves of a tree (0 means no limit)", level = API.Level.secondary, gridable = true)
+    public int max_leaves;
+
 //    // TODO debug only, remove!
 //    @API(help="Internal flag, use new version of histo tsk if set", level = API.Level.expert, gridable = false)
 //    public boolean use_new_histo_tsk;
@@ -104,6 +104,10 @@ public class GLMV3 extends ModelBuilderSchema<GLM,GLMV3,GLMV3.GLMParametersV3> {
             "constraint_alpha",     // default to 0.1
             "constraint_beta",      // default to 0.9
             "constraint_c0",        // default to 10
+            "sgd_batch_size",       // default to 256
+            "sgd_learning_rate",    // default to 0.01
+            "sgd_sample_rate",      // default to 1
+            "sgd_variance_reduction", // default to false
     };
 
     @API(help = "Seed for pseudo random number generator (if applicable).", gridable = true)
@@ -140,7 +144,8 @@ public class GLMV3 extends ModelBuilderSchema<GLM,GLMV3,GLMV3.GLMParametersV3> {
     @API(help = "AUTO will set the solver based on given data and the other parameters. IRLSM is fast on on problems" +
             " with small number of predictors and for lambda-search with L1 penalty, L_BFGS scales better for datasets" +
             " with many columns.", values = {"AUTO", "IRLSM", "L_BFGS","COORDINATE_DESCENT_NAIVE", 
-            "COORDINATE_DESCENT", "GRADIENT_DESCENT_LH", "GRADIENT_DESCENT_SQERR"}, level = Level.critical)
+            "COORDINATE_DESCENT", "GRADIENT_DESCENT_LH", "GRADIENT_DESCENT_SQERR", "STOCHASTIC_GRADIENT_DESCENT"},
+            level = Level.critical)
     public Solver solver;
 
     @API(help = "Distribution of regularization between the L1 (Lasso) and L2 (Ridge) penalties. A value of 1 for " +
@@ -391,6 +396,18 @@ public class GLMV3 extends ModelBuilderSchema<GLM,GLMV3,GLMV3.GLMParametersV3> {
     @API(help="For constrained GLM only.  It affects the initial setting of epsilon_k = 1/c_0.", 
             level = API.Level.expert, direction = API.Direction.INOUT, gridable = true)
     public double constraint_c0;
+
+    @API(help="Mini-batch size of the STOCHASTIC_GRADIENT_DESCENT solver, the number of rows the gradient of an update is computed from. Must be > 0.", level = API.Level.expert, gridable = true)
+    public int sgd_batch_size;
+
+    @API(help="Learning rate of the STOCHASTIC_GRADIENT_DESCENT solver, decays with the square root of the epoch. Must be > 0.", level = API.Level.expert, gridable = true)
+    public double sgd_learning_rate;
+
+    @API(help="Fraction of the rows the STOCHASTIC_GRADIENT_DESCENT solver samples in each epoch. Must be in (0, 1].", level = API.Level.expert, gridable = true)
+    public double sgd_sample_rate;
+
+    @API(help="Use the SVRG variance reduction (plain steps corrected by a full gradient taken once per epoch) instead of Adam steps in the STOCHASTIC_GRADIENT_DESCENT solver.", level = API.Level.expert, gridable = true)
+    public boolean sgd_variance_reduction;
     /////////////////////
   }
 }
@@ -85,6 +85,12 @@ public class SharedTreeV3<B extends SharedTree, S extends SharedTreeV3<B,S,P>, P
     @API(help="What type of histogram to use for finding optimal split points", values = { "AUTO", "UniformAdaptive", "Random", "QuantilesGlobal", "RoundRobin", "UniformRobust"}, level = API.Level.secondary, gridable = true)
     public SharedTreeParameters.HistogramType histogram_type;
 
+    @API(help="Build histograms in two tight passes: bin all rows of a node first, then accumulate the bins. Produces the same histograms, usually faster on wide numeric data.", level = API.Level.expert, gridable = false)
+    public boolean binned_histograms;
+
+    @API(help="Only build histograms of the smaller child of a split and derive the histograms of the larger child by subtracting them from the histograms of the parent, where the larger child bins a column the same way as the parent. Produces the same splits up to floating-point rounding.", level = API.Level.expert, gridable = false)
+    public boolean histogram_subtraction;
+
     @API(help="Use Platt Scaling (default) or Isotonic Regression to calculate calibrated class probabilities. Calibration can provide more accurate estimates of class probabilities.", level = API.Level.expert)
     public boolean calibrate_model;
 
@@ -141,6 +141,11 @@ public final class DHistogram extends Iced<DHistogram> {
   public transient boolean _absoluteSplitPts;
   public Key<HistoSplitPoints> _globalSplitPointsKey; // key under which original top-level quantiles are stored;
   final double[] _customSplitPoints; // explicitly given split points (for UniformRobust)
+  // Histogram subtraction: a derived histogram is not accumulated from the data (only the observed min/max are),
+  // its bins are filled in as the histogram of the parent node minus the histogram of the sibling node
+  boolean _derived;
+  transient DHistogram _parent, _sibling;
+  transient double[] _valsExact; // values of the bins before their precision was reduced, until a child is derived
 
 
   /**
@@ -657,6 +662,215 @@ public final class DHistogram extends Iced<DHistogram> {
     }
   }
 
+  /**
+   * Can this histogram be built by {@link #updateHistoBinned}?
+   */
+  boolean canUpdateBinned() {
+    return !_intOpt && _vals_dim == 3 && !_useUplift && _nbin < BinnedRows.MAX_BIN;
+  }
+
+  /**
+   * Binned version of method updateHisto for the basic histograms (weight, wY, wYY) - produces identical
+   * results. Instead of binning and accumulating row by row, the rows are first binned in one pass into
+   * a compact bin-index array and then accumulated by a second tight loop that only reads sequentially
+   * laid out data (bins, weights and targets).
+   *
+   * NOTE: Any changes to this method need to be also made in the original updateHisto function.
+   *
+   * @param ws optional vector of weights, indexed indirectly using rows indices
+   * @param cs chunk data, indexed indirectly using rows indices
+   * @param ys targets, uses absolute indexing
+   * @param rows row indices
+   * @param hi upper boundary in rows array (exclusive)
+   * @param lo lower boundary in rows array (inclusive)
+   * @param binned per-thread buffers, indexed the same way as ys
+   */
+  void updateHistoBinned(double[] ws, double[] cs, double[] ys, int[] rows, final int hi, final int lo,
+                         BinnedRows binned) {
+    assert canUpdateBinned();
+    final short[] bins = binned._bins;
+    final double[] bws = binned._ws;
+    final int nbin = _nbin;
+    double min2 = _min2, maxIn = _maxIn;
+
+    // Pass 1: bin all rows (and gather weights), zero-weight rows are skipped as in updateHisto
+    final boolean uniform = _splitPts == null && _splitPtsFloat == null;
+    final double min = _min, step = _step;
+    for (int r = lo; r < hi; r++) {
+      final int k = rows[r];
+      if (ws != null) {
+        final double weight = ws[k];
+        bws[r] = weight;
+        if (weight == 0) {
+          bins[r] = BinnedRows.SKIP;
+          continue;
+        }
+      }
+      final double col_data = cs[k];
+      if (col_data < min2) min2 = col_data;
+      if (col_data > maxIn) maxIn = col_data;
+      final int b;
+      if (!uniform)
+        b = bin(col_data);
+      else if (Double.isNaN(col_data))
+        b = nbin;
+      else { // same as bin(), infinities end up in the first/last bin
+        final double pos = (col_data - min) * step;
+        b = pos <= 0 ? 0 : (pos >= nbin ? nbin - 1 : (int) pos);
+      }
+      bins[r] = (short) b;
+    }
+    _min2 = min2;
+    _maxIn = maxIn;
+
+    // Pass 2: accumulate
+    final double[] vals = _vals;
+    if (ws == null) {
+      for (int r = lo; r < hi; r++) {
+        final int binDimStart = 3 * (bins[r] & 0xFFFF);
+        final double y = ys[r];
+        vals[binDimStart + 0] += 1;
+        vals[binDimStart + 1] += y;
+        vals[binDimStart + 2] += y * y;
+      }
+    } else {
+      for (int r = lo; r < hi; r++) {
+        final short b = bins[r];
+        if (b == BinnedRows.SKIP)
+          continue;
+        final int binDimStart = 3 * (b & 0xFFFF);
+        final double weight = bws[r];
+        final double wy = weight * ys[r];
+        vals[binDimStart + 0] += weight;
+        vals[binDimStart + 1] += wy;
+        vals[binDimStart + 2] += wy * ys[r];
+      }
+    }
+  }
+
+  /**
+   * Per-thread buffers used by {@link #updateHistoBinned}: bin index and weight of each row.
+   */
+  static final class BinnedRows {
+    static final short SKIP = -1; // marks rows with zero weight (bin 0xFFFF is never used)
+    static final int MAX_BIN = 0xFFFF;
+    final short[] _bins; // unsigned
+    final double[] _ws;
+
+    BinnedRows(int maxRows) {
+      _bins = MemoryManager.malloc2(maxRows);
+      _ws = MemoryManager.malloc8d(maxRows);
+    }
+  }
+
+  /**
+   * Can this (not yet accumulated) histogram be derived as the histogram of the parent node minus the histogram of
+   * the sibling node? All three histograms need to bin the rows the same way and track the same statistics, the
+   * parent also needs to be accumulated already.
+   */
+  boolean canDeriveFrom(DHistogram parent, DHistogram sibling) {
+    return parent._vals != null && sameBinning(parent) && sameBinning(sibling);
+  }
+
+  private boolean sameBinning(DHistogram h) {
+    return hasUniformBins() && h.hasUniformBins() &&
+            _nbin == h._nbin && _min == h._min && _maxEx == h._maxEx && _step == h._step && _isInt == h._isInt &&
+            _intOpt == h._intOpt && _vals_dim == h._vals_dim && _useUplift == h._useUplift &&
+            // SE of the fallback predictions are only additive if the predictions are the same
+            Double.compare(_pred1, h._pred1) == 0 && Double.compare(_pred2, h._pred2) == 0;
+  }
+
+  // Split points of other histogram types depend on the seed, which is different for each node
+  boolean hasUniformBins() {
+    return _splitPts == null && (_histoType == HistogramType.UniformAdaptive ||
+            _histoType == HistogramType.UniformRobust && _customSplitPoints == null);
+  }
+
+  void markDerived(DHistogram parent, DHistogram sibling) {
+    assert canDeriveFrom(parent, sibling);
+    _derived = true;
+    _parent = parent;
+    _sibling = sibling;
+  }
+
+  /**
+   * Derived histograms only track the observed range of the column (it determines the bins on the next level),
+   * the bins are filled in by {@link #derive}.
+   */
+  void updateMinMax(double[] ws, Object cs, int[] rows, int hi, int lo) {
+    assert _derived;
+    if (_intOpt) {
+      final int[] ics = (int[]) cs;
+      // same conversions as in updateHistoInt
+      int min2_int = _min2 == Double.MAX_VALUE ? Integer.MAX_VALUE : (int) _min2;
+      int maxIn_int = _maxIn == -Double.MIN_VALUE ? Integer.MIN_VALUE : (int) _maxIn;
+      for (int r = lo; r < hi; r++) {
+        final int k = rows[r];
+        if (ws != null && ws[k] == 0)
+          continue;
+        final int col_data = ics[k];
+        if (col_data != INT_NA) {
+          if (col_data < min2_int) min2_int = col_data;
+          if (col_data > maxIn_int) maxIn_int = col_data;
+        }
+      }
+      _min2 = min2_int;
+      _maxIn = maxIn_int;
+    } else {
+      final double[] dcs = (double[]) cs;
+      double min2 = _min2, maxIn = _maxIn;
+      for (int r = lo; r < hi; r++) {
+        final int k = rows[r];
+        if (ws != null && ws[k] == 0)
+          continue;
+        final double col_data = dcs[k];
+        if (col_data < min2) min2 = col_data;
+        if (col_data > maxIn) maxIn = col_data;
+      }
+      _min2 = min2;
+      _maxIn = maxIn;
+    }
+  }
+
+  /**
+   * Fills in the bins of a derived histogram as parent minus sibling (including the NA bin, the additional
+   * statistics and the uplift statistics). Bins with no weight left are cleared to get rid of the round-off.
+   */
+  void derive() {
+    assert _derived;
+    if (_vals != null) { // no rows of this node were seen otherwise
+      // the sibling still has full precision, so does the parent if its precision was reduced
+      subtract(_vals, _parent._valsExact != null ? _parent._valsExact : _parent._vals, _sibling._vals, _vals_dim, true);
+      if (_useUplift) // counts of rows, no round-off
+        subtract(_valsUplift, _parent._valsUplift, _sibling._valsUplift, _valsDimUplift, false);
+    }
+    _parent._valsExact = null;
+    _parent = null;
+    _sibling = null;
+  }
+
+  /**
+   * Drops the values of full precision, no child will be derived from this histogram.
+   */
+  void dropExactVals() {
+    _valsExact = null;
+  }
+
+  private static void subtract(double[] res, double[] parent, double[] sibling, int dim, boolean clearEmpty) {
+    assert parent.length == res.length;
+    System.arraycopy(parent, 0, res, 0, res.length);
+    if (sibling == null)
+      return; // sibling has no rows in this column
+    for (int i = 0; i < res.length; i += dim) {
+      if (clearEmpty && parent[i] - sibling[i] <= parent[i] * 1e-12) { // first value of the bin is the weight
+        Arrays.fill(res, i, i + dim, 0);
+        continue;
+      }
+      for (int j = i; j < i + dim; j++)
+        res[j] -= sibling[j];
+    }
+  }
+
   /**
    * This is an integer version of method updateHisto - optimized for handling small
    * positive integer numbers and low-cardinality categoricals.
@@ -730,9 +944,13 @@ public final class DHistogram extends Iced<DHistogram> {
   /**
    * Cast bin values (except for sums of weights) to floats to drop least significant bits.
    * Improves reproducibility (drop bits most affected by floating point error).
+   * @param keepExact keep the values of full precision too until the split of the node is decided, the histograms of
+   *                  the larger child can be derived from them (see {@link #dropExactVals})
    */
-  public void reducePrecision(){
+  public void reducePrecision(boolean keepExact){
     if(_vals == null) return;
+    if(keepExact)
+      _valsExact = _vals.clone();
     for(int i = 0; i < _vals.length; i+=_vals_dim) {
       _vals[i+1] = (float)_vals[i+1];
       _vals[i+2] = (float)_vals[i+2];
@@ -53,6 +53,10 @@ public class DTree extends Iced {
   public final transient int[] _cols; // Per-tree selection of columns to consider for splits
   public transient SharedTreeModel.SharedTreeParameters _parms;
   public boolean _checkConstraintConsistency;
+  // Leaf-wise growth (GBM grow_policy=lossguide): children of a split are only made once the split is picked
+  // for expansion, see SharedTree.ScoreBuildOneTree
+  public transient boolean _lossguide;
+  public transient int _maxLeaves; // 0 means no limit
 
 
   private boolean checkConstraintConsistency(){
@@ -608,7 +612,7 @@ public class DTree extends Iced {
   // column.  Includes a split-decision: which child does this Row belong to?
   // Does not contain a histogram describing how the decision was made.
   public static class DecidedNode extends Node {
-    public final Split _split;         // Split: col, equal/notequal/less/greater, nrows, MSE
+    public Split _split;               // Split: col, equal/notequal/less/greater, nrows, MSE; null if not split
     public final float _splat;         // Split At point: lower bin-edge of split
     // _equals\_nids[] \   0   1
     // ----------------+----------
@@ -619,6 +623,7 @@ public class DTree extends Iced {
     transient byte _nodeType; // Complex encoding: see the compressed struct comments
     transient int _size = 0;  // Compressed byte size of this subtree
     transient int _nnodes = 0; // Number of nodes in this subtree
+    transient PendingSplit _pending; // Leaf-wise growth: what is needed to make the children later
 
     public DecidedNode(DecidedNode node, DTree tree){
       super(tree, node._pid, node._nid, true);
@@ -733,6 +738,7 @@ public class DTree extends Iced {
         // because all responses are now constant.
         _splat = Float.NaN;
         Arrays.fill(_nids, ScoreBuildHistogram.UNDECIDED_CHILD_NODE_ID);
+        dropExactVals(hs);
         return;
       }
       if(cs != null) {
@@ -744,16 +750,123 @@ public class DTree extends Iced {
         }
       }
       _splat = _split.splat(hs);
+      if (_tree._lossguide) { // children are made once the split is picked for expansion
+        Arrays.fill(_nids, ScoreBuildHistogram.UNDECIDED_CHILD_NODE_ID);
+        _pending = new PendingSplit(hs, cs, n._bics, ics);
+        return;
+      }
+      makeChildren(hs, cs, n._bics, ics, false);
+    }
+
+    private void makeChildren(DHistogram hs[], Constraints cs, BranchInteractionConstraints bics, GlobalInteractionConstraints ics, boolean leaves) {
       for(int way = 0; way <2; way++ ) { // left / right
+        if (leaves) { // children will not be split, no need for histograms
+          _nids[way] = ScoreBuildHistogram.UNDECIDED_CHILD_NODE_ID;
+          continue;
+        }
         // Prepare the next level of constraints if monotone or interaction constraints are set
         Constraints ncs = cs != null ? _split.nextLevelConstraints(cs, way, _splat, _tree._parms) : null;
-        BranchInteractionConstraints nbics = n._bics != null ? n._bics.nextLevelInteractionConstraints(ics, _split._col) : null;
+        BranchInteractionConstraints nbics = bics != null ? bics.nextLevelInteractionConstraints(ics, _split._col) : null;
         // Create children histograms, not yet populated, but the ranges are set
         DHistogram nhists[] = _split.nextLevelHistos(hs, way,_splat, _tree._parms, ncs, nbics); //maintains the full range for NAvsREST
         assert nhists==null || nhists.length==_tree._ncols;
         // Assign a new (yet undecided) node to each child, and connect this (the parent) decided node and the newly made histograms to it
         _nids[way] = nhists == null ? ScoreBuildHistogram.UNDECIDED_CHILD_NODE_ID : makeUndecidedNode(nhists,ncs, nbics)._nid;
       }
+      if (_tree._parms._histogram_subtraction)
+        deriveLargerChild(hs);
+    }
+
+    /** Leaf-wise growth: is the split waiting to be picked for expansion? */
+    public boolean isPending() {
+      return _pending != null;
+    }
+
+    /** Reduction of squared error achieved by the split */
+    public double gain() {
+      return _split.pre_split_se() - _split.se();
+    }
+
+    /**
+     * Leaf-wise growth: applies the pending split - makes the children of this node.
+     * @param leaves the children will not be split any further (their histograms won't be built)
+     */
+    public void expand(boolean leaves) {
+      assert isPending();
+      PendingSplit p = _pending;
+      _pending = null;
+      makeChildren(p._hs, p._cs, p._bics, p._ics, leaves);
+    }
+
+    /**
+     * Leaf-wise growth: drops the pending split, this node becomes a leaf (same as a node that cannot be split,
+     * see UndecidedNode#doNotSplit).
+     */
+    public void dropSplit() {
+      assert isPending();
+      dropExactVals(_pending._hs);
+      _pending = null;
+      _split = null;
+      if (_pid == NO_PARENT) return;
+      DecidedNode dn = _tree.decided(_pid);
+      for (int i = 0; i < dn._nids.length; i++)
+        if (dn._nids[i] == _nid)
+          dn._nids[i] = ScoreBuildHistogram.UNDECIDED_CHILD_NODE_ID;
+    }
+
+    /** @return depth of this node, root has depth 0 */
+    public int depth() {
+      int depth = 0;
+      for (int pid = _pid; pid != NO_PARENT; pid = _tree.node(pid)._pid)
+        depth++;
+      return depth;
+    }
+
+    private static final class PendingSplit {
+      final DHistogram[] _hs;
+      final Constraints _cs;
+      final BranchInteractionConstraints _bics;
+      final GlobalInteractionConstraints _ics;
+
+      PendingSplit(DHistogram[] hs, Constraints cs, BranchInteractionConstraints bics, GlobalInteractionConstraints ics) {
+        _hs = hs;
+        _cs = cs;
+        _bics = bics;
+        _ics = ics;
+      }
+    }
+
+    // Histogram subtraction: each row of the parent goes to exactly one of the children, the histograms of
+    // the larger child don't need to be built if they bin the rows the same way as the parent and can be derived
+    // as parent minus the smaller sibling
+    private void deriveLargerChild(DHistogram[] hs) {
+      final boolean[] derived = new boolean[hs.length];
+      if (_nids[0] != ScoreBuildHistogram.UNDECIDED_CHILD_NODE_ID && _nids[1] != ScoreBuildHistogram.UNDECIDED_CHILD_NODE_ID) {
+        final int small = _split._n0 <= _split._n1 ? 0 : 1;
+        UndecidedNode smallNode = _tree.undecided(_nids[small]);
+        UndecidedNode largeNode = _tree.undecided(_nids[1 - small]);
+        for (int j = 0; j < hs.length; j++) {
+          DHistogram h = largeNode._hs[j];
+          DHistogram sibling = smallNode._hs[j];
+          if (hs[j] == null || h == null || sibling == null)
+            continue;
+          if (smallNode._scoreCols != null && ArrayUtils.find(smallNode._scoreCols, j) < 0)
+            continue; // sibling histogram will not be built
+          if (h.canDeriveFrom(hs[j], sibling)) {
+            h.markDerived(hs[j], sibling);
+            derived[j] = true;
+          }
+        }
+      } // else rows of the other child are not tracked
+      for (int j = 0; j < hs.length; j++)
+        if (hs[j] != null && !derived[j])
+          hs[j].dropExactVals();
+    }
+
+    private static void dropExactVals(DHistogram[] hs) {
+      for (DHistogram h : hs)
+        if (h != null)
+          h.dropExactVals();
     }
 
     public int getChildNodeID(Chunk [] chks, int row ) {
@@ -3,6 +3,7 @@ package hex.tree;
 import hex.quantile.Quantile;
 import hex.quantile.QuantileModel;
 import water.DKV;
+import water.H2O;
 import water.Job;
 import water.Key;
 import water.fvec.Frame;
@@ -13,6 +14,12 @@ import water.util.ArrayUtils;
  */
 class GlobalQuantilesCalc {
 
+    /**
+     * Approximate the split points with quantile sketches computed in a single pass over all columns
+     * instead of exact quantiles (refinement passes per column and probability)
+     */
+    static boolean USE_SKETCH = H2O.getSysBoolProperty("tree.GlobalQuantilesCalc.sketch", false);
+
     /**
      * Calculates split points for histogram type = QuantilesGlobal.
      * 
@@ -39,6 +46,7 @@ class GlobalQuantilesCalc {
             p._train = tmpFrameKey;
             p._weights_column = weightsColumn;
             p._combine_method = QuantileModel.CombineMethod.INTERPOLATE;
+            p._sketch = USE_SKETCH;
             p._probs = new double[N];
             for (int i = 0; i < N; ++i) //compute quantiles such that they span from (inclusive) min...maxEx (exclusive)
                 p._probs[i] = i * 1. / N;
@@ -72,6 +72,8 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
   final int _respIdx;
   final int _predsIdx;
   final boolean _reproducibleHistos;
+  final boolean _binnedHistos;
+  final boolean _histogramSubtraction;
   // only for debugging purposes
   final boolean _reduceHistoPrecision; // if enabled allows to test that histograms are 100% reproducible when reproducibleHistos are enabled
   transient Consumer<DHistogram[][]> _hcsMonitor;
@@ -104,6 +106,8 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
     // override defaults using debugging parameters where applicable
     SharedTree.SharedTreeDebugParams dp = sb._st.getDebugParams();
     _reproducibleHistos = tree._parms.forceStrictlyReproducibleHistograms() || dp._reproducible_histos;
+    _binnedHistos = tree._parms._binned_histograms;
+    _histogramSubtraction = tree._parms._histogram_subtraction;
     _reduceHistoPrecision = !dp._keep_orig_histo_precision;
     if (_reproducibleHistos && treeNum == 0 && k == 0 && leaf == 0) {
       Log.info("Using a deterministic way of building histograms");
@@ -395,6 +399,7 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
       double[] resp = null;
       double[] preds = null;
       double[] treatment = null;
+      DHistogram.BinnedRows binned = null;
       final int maxWorkId = _allocator.getMaxId(id);
       for(int i = _allocator.allocateWork(id); i < maxWorkId; i = _allocator.allocateWork(id)) {
         if (cs == null) { // chunk data cache doesn't exist yet
@@ -404,12 +409,15 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
             preds = MemoryManager.malloc8d(_maxChunkSz);
           if (_treatmentIdx >= 0)
             treatment = MemoryManager.malloc8d(_maxChunkSz);
+          if (_binnedHistos)
+            binned = new DHistogram.BinnedRows(_maxChunkSz);
         }
-        cs = computeChunk(i, cs, _ws[i], resp, preds, treatment);
+        cs = computeChunk(i, cs, _ws[i], resp, preds, treatment, binned);
       }
     }
 
-    private Object computeChunk(int id, Object cs, double[] ws, double[] resp, double[] preds, double[] treatment){
+    private Object computeChunk(int id, Object cs, double[] ws, double[] resp, double[] preds, double[] treatment,
+                                DHistogram.BinnedRows binned){
       int [] nh = _nhs[id];
       int [] rs = _rss[id];
       Chunk resChk = _chks[id][_workIdx];
@@ -439,7 +447,12 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
             }
             extracted = true;
           }
-          h.updateHisto(ws, resp, cs, ys, preds, rs, hi, lo, treatment);
+          if (h._derived) // bins are derived from the parent and sibling in postGlobal
+            h.updateMinMax(ws, cs, rs, hi, lo);
+          else if (binned != null && h.canUpdateBinned())
+            h.updateHistoBinned(ws, (double[]) cs, ys, rs, hi, lo, binned);
+          else
+            h.updateHisto(ws, resp, cs, ys, preds, rs, hi, lo, treatment);
         }
       }
       return cs;
@@ -454,12 +467,18 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
 
   @Override public void postGlobal(){
     _hcs = ArrayUtils.transpose(_hcs);
+    // derived histograms first - siblings need to keep full precision
+    for(DHistogram [] ary:_hcs)
+      for(DHistogram dh:ary) {
+        if (dh != null && dh._derived)
+          dh.derive();
+      }
     for(DHistogram [] ary:_hcs)
       for(DHistogram dh:ary) {
         if (dh == null)
           continue;
         if (_reduceHistoPrecision) 
-          dh.reducePrecision();
+          dh.reducePrecision(_histogramSubtraction && dh.hasUniformBins()); // others are never derived
       }
     if (_hcsMonitor != null)
       _hcsMonitor.accept(_hcs);
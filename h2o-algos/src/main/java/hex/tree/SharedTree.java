@@ -699,27 +699,80 @@ public abstract class SharedTree<
         DTree.DecidedNode dn = _st.makeDecided(udn, sbh._hcs[leaf - leafOffset], udn._cs);
         if (LOG.isTraceEnabled()) LOG.trace(dn + "\n" + dn._split);
         if (dn._split == null) udn.doNotSplit();
-        else {
-          _did_split = true;
-          DTree.Split s = dn._split; // Accumulate squared error improvements per variable
-          float improvement;
-          if(_st.isUplift()){
-            // gain after split should be higher, gain can be negative
-            improvement = (float) Math.abs(s.upliftGain() - s.preSplitUpliftGain());
-          } else {
-            improvement = (float) (s.pre_split_se() - s.se());
-          }
-          assert (improvement >= 0);
-          AtomicUtils.FloatArray.add(_improvPerVar, s.col(), improvement);
+        else if (dn.isPending()) {
+          if (dn.depth() >= _tree._parms._max_depth) dn.dropSplit();
         }
+        else recordSplit(dn);
       }
+      if (_tree._lossguide)
+        expandBestLeaves(tmax);
       _leafOffsets[_k] = tmax;          // Setup leafs for next tree level
       int new_leafs = _tree.len() - tmax; //new_leafs can be 0 if no actual splits were made
       _hcs[_k] = new DHistogram[new_leafs][/*ncol*/];
       for (int nl = tmax; nl < _tree.len(); nl++)
         _hcs[_k][nl - tmax] = _tree.undecided(nl)._hs;
 //      if (_did_split && new_leafs > 0) _tree._depth++;
-      if (_did_split) _tree._depth++; //
+      if (_did_split && !_tree._lossguide) _tree._depth++; // leaf-wise growth tracks the depth of expanded nodes
+    }
+
+    private void recordSplit(DTree.DecidedNode dn) {
+      _did_split = true;
+      DTree.Split s = dn._split; // Accumulate squared error improvements per variable
+      float improvement;
+      if(_st.isUplift()){
+        // gain after split should be higher, gain can be negative
+        improvement = (float) Math.abs(s.upliftGain() - s.preSplitUpliftGain());
+      } else {
+        improvement = (float) (s.pre_split_se() - s.se());
+      }
+      assert (improvement >= 0);
+      AtomicUtils.FloatArray.add(_improvPerVar, s.col(), improvement);
+    }
+
+    /**
+     * Leaf-wise growth: every pass over the data builds the histograms of all leaves that are new since the last
+     * pass and finds their best splits. The splits are not applied right away, instead the pending splits of all
+     * leaves of the tree compete and the better half of them (by gain, at least one) is expanded, as long as
+     * the tree has fewer than max_leaves leaves. The remaining ones wait for the next pass, when they compete
+     * with the splits of the new leaves.
+     *
+     * Compared to picking a single leaf per pass this needs only a logarithmic number of passes, yet the leaf
+     * budget is spent on the leaves with the largest gain.
+     */
+    private void expandBestLeaves(int tmax) {
+      while (true) {
+        List<DTree.DecidedNode> pending = new ArrayList<>();
+        int splits = 0;
+        for (int nid = 0; nid < tmax; nid++) {
+          DTree.Node n = _tree.node(nid);
+          if (!(n instanceof DTree.DecidedNode))
+            continue;
+          DTree.DecidedNode dn = (DTree.DecidedNode) n;
+          if (dn.isPending()) pending.add(dn);
+          else if (dn._split != null) splits++;
+        }
+        if (pending.isEmpty())
+          return;
+        // a tree with N splits has N+1 leaves
+        final int budget = _tree._maxLeaves > 0 ? _tree._maxLeaves - 1 - splits : Integer.MAX_VALUE;
+        if (budget <= 0) {
+          for (DTree.DecidedNode dn : pending)
+            dn.dropSplit();
+          return;
+        }
+        pending.sort((a, b) -> a.gain() != b.gain() ? Double.compare(b.gain(), a.gain()) : Integer.compare(a.nid(), b.nid()));
+        final int n = Math.min(budget, (pending.size() + 1) / 2);
+        for (int i = 0; i < n; i++) {
+          DTree.DecidedNode dn = pending.get(i);
+          // children of the last splits or at the maximum depth are leaves, don't build their histograms
+          final int depth = dn.depth() + 1;
+          dn.expand(n == budget || depth >= _tree._parms._max_depth);
+          _tree._depth = Math.max(_tree._depth, depth);
+          recordSplit(dn);
+        }
+        if (_tree.len() > tmax)
+          return; // new leaves to build histograms for
+      }
     }
   }
 
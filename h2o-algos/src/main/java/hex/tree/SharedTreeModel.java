@@ -67,6 +67,10 @@ public abstract class SharedTreeModel<
     }
     public HistogramType _histogram_type = HistogramType.AUTO; // What type of histogram to use for finding optimal split points
 
+    public boolean _binned_histograms = false; // Build histograms by binning the rows first and accumulating the bins in a separate pass
+
+    public boolean _histogram_subtraction = false; // Derive histograms of the larger child as parent minus sibling where binned like the parent
+
     public double _r2_stopping = Double.MAX_VALUE; // Stop when the r^2 metric equals or exceeds this value
 
     public int _nbins_top_level = 1<<10; //hardcoded maximum top-level number of bins for real-valued columns
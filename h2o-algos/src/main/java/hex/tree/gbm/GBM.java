@@ -188,6 +188,14 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       error("_max_abs_leafnode_pred", "max_abs_leafnode_pred must be larger than 0.");
     if (_parms._pred_noise_bandwidth < 0)
       error("_pred_noise_bandwidth", "pred_noise_bandwidth must be >= 0.");
+    if (_parms._max_leaves < 0 || _parms._max_leaves == 1)
+      error("_max_leaves", "max_leaves must be 0 (no limit) or at least 2.");
+    if (_parms._grow_policy == GBMModel.GBMParameters.GrowPolicy.lossguide) {
+      if (_parms._max_leaves == 0 && _parms._max_depth == Integer.MAX_VALUE)
+        warn("_max_leaves", "Neither max_leaves nor max_depth are limited, grow_policy=lossguide will grow complete trees.");
+    } else if (_parms._max_leaves > 0) {
+      warn("_max_leaves", "max_leaves is only used with grow_policy=lossguide and will be ignored.");
+    }
 
     if ((_train != null) && (_parms._monotone_constraints != null)) {
       TreeUtils.checkMonotoneConstraints(this, _train, _parms._monotone_constraints);
@@ -619,6 +627,10 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
         // Initially setup as-if an empty-split had just happened
         if (_model._output._distribution[k] != 0) {
           ktrees[k] = new DTree(_train, _ncols, _mtry, _mtry_per_tree, rseed, _parms);
+          if (_parms._grow_policy == GBMModel.GBMParameters.GrowPolicy.lossguide) {
+            ktrees[k]._lossguide = true;
+            ktrees[k]._maxLeaves = _parms._max_leaves;
+          }
           DHistogram[] hist = DHistogram.initialHist(_train, _ncols, adj_nbins, hcs[k][0], rseed, _parms, getGlobalSplitPointsKeys(), cs, false, _ics);
           new UndecidedNode(ktrees[k], DTree.NO_PARENT, hist, cs, bics); // The "root" node
         }
@@ -643,9 +655,10 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       // ----
       // ESL2, page 387.  Step 2b ii.
       // One Big Loop till the ktrees are of proper depth.
-      // Adds a layer to the trees each pass.
-      int depth = 0;
-      for (; depth < _parms._max_depth; depth++) {
+      // Adds a layer to the trees each pass (leaf-wise growth expands the best leaves each pass and limits the depth
+      // per node).
+      final int maxPasses = _parms._grow_policy == GBMModel.GBMParameters.GrowPolicy.lossguide ? Integer.MAX_VALUE : _parms._max_depth;
+      for (int pass = 0; pass < maxPasses; pass++) {
         hcs = buildLayer(_train, _parms._nbins, ktrees, leaves, hcs, _parms._build_tree_one_node);
         // If we did not make any new splits, then the tree is split-to-death
         if (hcs == null) break;
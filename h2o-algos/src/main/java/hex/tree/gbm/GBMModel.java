@@ -27,6 +27,13 @@ public class GBMModel extends SharedTreeModelWithContributions<GBMModel, GBMMode
     public double _pred_noise_bandwidth;
     public KeyValue[] _monotone_constraints;
     public String[][] _interaction_constraints;
+    public GrowPolicy _grow_policy;
+    public int _max_leaves; // Only for grow_policy == lossguide, 0 means no limit
+
+    public enum GrowPolicy {
+      depthwise, // level by level, up to max_depth
+      lossguide  // leaf-wise, leaves with the largest gain first
+    }
 
     public GBMParameters() {
       super();
@@ -38,6 +45,8 @@ public class GBMModel extends SharedTreeModelWithContributions<GBMModel, GBMMode
       _max_depth = 5;
       _max_abs_leafnode_pred = Double.MAX_VALUE;
       _pred_noise_bandwidth =0;
+      _grow_policy = GrowPolicy.depthwise;
+      _max_leaves = 0;
     }
 
     @Override
@@ -2,12 +2,18 @@ package hex.deeplearning;
 
 import static hex.deeplearning.Neurons.*;
 
+import hex.deeplearning.DeepLearningModel.DeepLearningParameters;
 import org.junit.*;
+import water.Scope;
+import water.fvec.Frame;
+import water.fvec.FrameTestUtil;
 import water.util.ArrayUtils;
 import water.util.Log;
 import water.util.PrettyPrint;
 import java.util.Random;
 
+import static org.junit.Assert.*;
+
 public class NeuronsTest extends water.TestUtil {
   @BeforeClass public static void setup() { stall_till_cloudsize(1); }
 
@@ -109,4 +115,98 @@ public class NeuronsTest extends water.TestUtil {
     System.out.println("optimized dense row * dense time: " + PrettyPrint.msecs(System.currentTimeMillis()-start, true));
   }
 
+  @Test
+  public void gemmTest() {
+    final int rows = 37, cols = 1100, n = 7; // remainder rows of the 4-wide tiles and more than one column block
+    Random rng = new Random(0xBEEF);
+    float[] a = new float[rows * cols];
+    for (int i = 0; i < a.length; ++i) a[i] = (float) rng.nextGaussian();
+    double[] y = new double[rows];
+    for (int row = 0; row < rows; ++row) y[row] = rng.nextGaussian();
+    byte[] bits = new byte[(rows + 7) / 8];
+    rng.nextBytes(bits);
+    double[][] x = new double[n][cols];
+    float[] xPanel = new float[n * cols];
+    for (int mb = 0; mb < n; ++mb)
+      for (int col = 0; col < cols; ++col) {
+        x[mb][col] = rng.nextFloat() < 0.3 ? 0 : (float) rng.nextGaussian();
+        xPanel[mb * cols + col] = (float) x[mb][col];
+      }
+
+    for (byte[] rowBits : new byte[][]{null, bits}) {
+      double[][] res = new double[n][rows];
+      gemm(res, a, xPanel, y, rowBits, n);
+      for (int mb = 0; mb < n; ++mb) {
+        double[] expected = new double[rows];
+        gemv_naive(expected, a, x[mb], y, rowBits);
+        assertArrayEquals(expected, res[mb], 1e-3);
+      }
+    }
+
+    double[] g = new double[n];
+    for (int mb = 0; mb < n; ++mb) g[mb] = mb == 3 ? 0 : rng.nextGaussian();
+    final int row = 5;
+    float[] e = new float[n * cols];
+    gemm_error(e, a, row * cols, g, cols, n);
+    float[] grad = new float[cols];
+    gemm_gradient(grad, xPanel, g, cols, n);
+    for (int col = 0; col < cols; ++col) {
+      double expected = 0;
+      for (int mb = 0; mb < n; ++mb) {
+        assertEquals(g[mb] * a[row * cols + col], e[mb * cols + col], 1e-5);
+        expected += g[mb] * x[mb][col];
+      }
+      assertEquals(expected, grad[col], 1e-4);
+    }
+  }
+
+  private static Frame makeRegressionFrame(int n, long seed) {
+    Random rng = new Random(seed);
+    final int p = 10;
+    double[][] x = new double[p][n];
+    double[] y = new double[n];
+    for (int i = 0; i < n; ++i) {
+      double eta = 0;
+      for (int j = 0; j < p; ++j) {
+        x[j][i] = rng.nextGaussian();
+        eta += (j % 3 - 1) * Math.sin(x[j][i]);
+      }
+      y[i] = eta + 0.1 * rng.nextGaussian();
+    }
+    return FrameTestUtil.createXYFrame(x, y);
+  }
+
+  private static DeepLearningModel trainMiniBatch(Frame fr, boolean gemm, int miniBatchSize) {
+    DeepLearningParameters parms = new DeepLearningParameters();
+    parms._train = fr._key;
+    parms._response_column = "y";
+    parms._hidden = new int[]{50, 50};
+    parms._epochs = 10;
+    parms._reproducible = true;
+    parms._seed = 0xdecaf;
+    parms._mini_batch_gemm = gemm;
+    parms._mini_batch_size = miniBatchSize;
+    DeepLearningModel dl = new DeepLearning(parms).trainModel().get();
+    Scope.track_generic(dl);
+    return dl;
+  }
+
+  @Test
+  public void miniBatchGemmTrainingTest() {
+    Scope.enter();
+    try {
+      Frame fr = makeRegressionFrame(5000, 0xC0FFEE);
+      double mse = trainMiniBatch(fr, false, 1)._output._training_metrics._MSE;
+      // mini-batch size 1 keeps the per-row kernels
+      assertEquals(mse, trainMiniBatch(fr, true, 1)._output._training_metrics._MSE, 0);
+      // mini-batch gradient updates converge to a comparable fit
+      DeepLearningModel dl = trainMiniBatch(fr, true, 16);
+      assertEquals(16, dl.model_info().get_params()._mini_batch_size);
+      assertTrue("MSE " + dl._output._training_metrics._MSE + " vs " + mse,
+              dl._output._training_metrics._MSE < Math.max(2 * mse, 0.1 * fr.vec("y").sigma() * fr.vec("y").sigma()));
+    } finally {
+      Scope.exit();
+    }
+  }
+
 }
@@ -0,0 +1,172 @@
+package hex.glm;
+
+import hex.Model;
+import hex.glm.GLMModel.GLMParameters;
+import hex.glm.GLMModel.GLMParameters.Family;
+import hex.grid.Grid;
+import hex.grid.GridSearch;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.DKV;
+import water.Job;
+import water.Key;
+import water.MRTask;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.FrameTestUtil;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+import water.util.ArrayUtils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GLMPathCacheTest extends TestUtil {
+
+  @BeforeClass
+  public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  // numeric predictors of different scales, a categorical predictor and row weights
+  private static Frame makeFrame(Family family, int n, long seed) {
+    Random rnd = new Random(seed);
+    int p = 4;
+    double[][] x = new double[p][n];
+    double[] w = new double[n], y = new double[n];
+    String[] cat = new String[n], domain = new String[]{"a", "b", "c", "d", "e"};
+    for (int i = 0; i < n; ++i) {
+      double eta = -.5;
+      for (int j = 0; j < p; ++j) {
+        x[j][i] = (j + 1) * (rnd.nextGaussian() + j);
+        eta += (j % 2 == 0 ? .3 : -.2) * x[j][i] / (j + 1);
+      }
+      int c = rnd.nextInt(domain.length);
+      cat[i] = domain[c];
+      eta += .25 * c;
+      w[i] = .5 + rnd.nextDouble();
+      y[i] = family == Family.binomial ? (rnd.nextDouble() < 1 / (1 + Math.exp(-eta)) ? 1 : 0) : eta + rnd.nextGaussian();
+    }
+    String[] numNames = ArrayUtils.append(FrameTestUtil.xNames(p), "w");
+    double[][] numCols = ArrayUtils.append(x, w);
+    if (family == Family.binomial) {
+      String[] ys = Arrays.stream(y).mapToObj(v -> v == 1 ? "1" : "0").toArray(String[]::new);
+      return FrameTestUtil.createNumCatFrame(numNames, numCols, new String[]{"c", "y"}, new String[][]{cat, ys});
+    }
+    return FrameTestUtil.createNumCatFrame(ArrayUtils.append(numNames, "y"), ArrayUtils.append(numCols, y),
+            new String[]{"c"}, new String[][]{cat});
+  }
+
+  private static GLMParameters params(Frame fr, Family family, double[] alpha, double[] lambda) {
+    GLMParameters params = new GLMParameters(family);
+    params._response_column = "y";
+    params._weights_column = "w";
+    params._train = fr._key;
+    params._alpha = alpha;
+    params._lambda = lambda;
+    params._seed = 42;
+    return params;
+  }
+
+  private static GLMModel train(GLMParameters params) {
+    GLMModel model = new GLM(params).trainModel().get();
+    Scope.track_generic(model);
+    assertFalse("cache of the job is cleared", GLMPathCache.isCached(model._output._job._key));
+    return model;
+  }
+
+  /**
+   * Trains a cross-validated model and compares each of its cross-validation models with a model trained in another
+   * job on the rows of the fold, the latter neither subtracts grams nor starts from solutions of other models.
+   */
+  private static void assertFoldsMatchOwnRows(Frame fr, GLMParameters params, double tol) {
+    params._nfolds = 5;
+    params._keep_cross_validation_models = true;
+    params._keep_cross_validation_fold_assignment = true;
+    GLMModel cv = train(params);
+    Frame folds = Scope.track(DKV.<Frame>getGet(cv._output._cross_validation_fold_assignment_frame_id));
+    for (int i = 0; i < params._nfolds; ++i) {
+      GLMModel fold = Scope.track_generic(DKV.<GLMModel>getGet(cv._output._cross_validation_models[i]));
+      final int f = i;
+      Vec fw = new MRTask() {
+        @Override
+        public void map(Chunk w, Chunk fa, NewChunk nc) {
+          for (int r = 0; r < w._len; ++r)
+            nc.addNum(fa.at8(r) == f ? 0 : w.atd(r));
+        }
+      }.doAll(Vec.T_NUM, fr.vec("w"), folds.vec(0)).outputFrame().vec(0);
+      Frame own = new Frame(Key.<Frame>make(), fr.names(), fr.vecs());
+      own.add("fw", fw);
+      DKV.put(Scope.track(own));
+      GLMParameters ownParams = (GLMParameters) params.clone();
+      ownParams._train = own._key;
+      ownParams._weights_column = "fw";
+      ownParams._ignored_columns = new String[]{"w"};
+      ownParams._nfolds = 0;
+      ownParams._fold_assignment = null;
+      ownParams._keep_cross_validation_models = false;
+      ownParams._keep_cross_validation_fold_assignment = false;
+      assertArrayEquals("fold " + i, train(ownParams).beta(), fold.beta(), tol);
+    }
+  }
+
+  @Test
+  public void testGaussianGramFromCache() {
+    Scope.enter();
+    try {
+      Frame fr = makeFrame(Family.gaussian, 5000, 1234);
+      // folds subtract their holdout rows from the gram of the main model
+      assertFoldsMatchOwnRows(fr, params(fr, Family.gaussian, new double[]{.5}, new double[]{1e-3}), 1e-8);
+      assertFoldsMatchOwnRows(fr, params(fr, Family.gaussian, new double[]{0, .5}, new double[]{1e-2, 1e-3}), 1e-8);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testBinomialWarmStart() {
+    Scope.enter();
+    try {
+      Frame fr = makeFrame(Family.binomial, 5000, 4321);
+      // the second alpha of a fold starts from the first one solved on the rows of the fold
+      assertFoldsMatchOwnRows(fr, params(fr, Family.binomial, new double[]{.3, .5}, new double[]{1e-3}), 1e-3);
+      // every lambda of a fold starts from the nearest one solved on the rows of the fold
+      GLMParameters params = params(fr, Family.binomial, new double[]{.5}, new double[]{1e-2, 1e-3});
+      params._cold_start = true;
+      assertFoldsMatchOwnRows(fr, params, 1e-3);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testGaussianGramSharedByGridModels() {
+    Scope.enter();
+    try {
+      Frame fr = makeFrame(Family.gaussian, 5000, 2345);
+      GLMParameters params = params(fr, Family.gaussian, null, new double[]{1e-3});
+      Map<String, Object[]> hyperParams = new HashMap<>();
+      hyperParams.put("_alpha", new double[][]{{0}, {.5}, {1}});
+      int computed = GLMPathCache.gramsComputed();
+      Job<Grid> job = GridSearch.startGridSearch(null, params, hyperParams, 1);
+      Grid grid = Scope.track_generic(job.get());
+      // the models of a sequential grid search run in the job of the grid, the first one computes the gram
+      assertEquals(1, GLMPathCache.gramsComputed() - computed);
+      assertFalse("cache of the grid is cleared", GLMPathCache.isCached(job._key));
+      assertEquals(3, grid.getModelCount());
+      for (Key<Model> key : grid.getModelKeys()) {
+        GLMModel model = Scope.track_generic((GLMModel) key.get());
+        assertArrayEquals(train((GLMParameters) model._parms.clone()).beta(), model.beta(), 1e-8);
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+}
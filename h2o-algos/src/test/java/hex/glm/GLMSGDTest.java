@@ -0,0 +1,150 @@
+package hex.glm;
+
+import hex.ModelMetricsBinomialGLM;
+import hex.ModelMetricsRegressionGLM;
+import hex.glm.GLMModel.GLMParameters;
+import hex.glm.GLMModel.GLMParameters.Family;
+import hex.glm.GLMModel.GLMParameters.Solver;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Scope;
+import water.TestUtil;
+import water.exceptions.H2OModelBuilderIllegalArgumentException;
+import water.fvec.Frame;
+import water.fvec.FrameTestUtil;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GLMSGDTest extends TestUtil {
+
+  @BeforeClass
+  public static void setup() {
+    stall_till_cloudsize(1);
+  }
+
+  // n rows, p predictors of which the first 5 are informative, density is the fraction of non-zero values
+  private static Frame makeFrame(Family family, int n, int p, double density, long seed) {
+    Random rnd = new Random(seed);
+    double[][] x = new double[p][n];
+    double[] y = new double[n];
+    for (int i = 0; i < n; ++i) {
+      double eta = -.2;
+      for (int j = 0; j < p; ++j) {
+        x[j][i] = rnd.nextDouble() < density ? rnd.nextGaussian() + 1 : 0;
+        if (j < 5) eta += ((j % 4) - 1.5) * .4 * x[j][i];
+      }
+      y[i] = family == Family.binomial ? (rnd.nextDouble() < 1 / (1 + Math.exp(-eta)) ? 1 : 0) : eta + rnd.nextGaussian();
+    }
+    if (family == Family.binomial)
+      return FrameTestUtil.createXYFrame(x, Arrays.stream(y).mapToObj(v -> v == 1 ? "1" : "0").toArray(String[]::new));
+    return FrameTestUtil.createXYFrame(x, y);
+  }
+
+  private static GLMModel train(Frame fr, Family family, Solver solver, double lambda, double alpha) {
+    return train(fr, params(family, solver, lambda, alpha));
+  }
+
+  private static GLMParameters params(Family family, Solver solver, double lambda, double alpha) {
+    GLMParameters params = new GLMParameters(family);
+    params._response_column = "y";
+    params._solver = solver;
+    params._lambda = new double[]{lambda};
+    params._alpha = new double[]{alpha};
+    params._seed = 42;
+    return params;
+  }
+
+  private static GLMModel train(Frame fr, GLMParameters params) {
+    params._train = fr._key;
+    GLMModel model = new GLM(params).trainModel().get();
+    Scope.track_generic(model);
+    return model;
+  }
+
+  @Test
+  public void testBinomialMatchesIRLSM() {
+    Scope.enter();
+    try {
+      Frame fr = makeFrame(Family.binomial, 20000, 10, 1, 1234);
+      GLMModel irlsm = train(fr, Family.binomial, Solver.IRLSM, 0, 0);
+      GLMModel sgd = train(fr, Family.binomial, Solver.STOCHASTIC_GRADIENT_DESCENT, 0, 0);
+      double dev = ((ModelMetricsBinomialGLM) irlsm._output._training_metrics)._resDev;
+      double devSGD = ((ModelMetricsBinomialGLM) sgd._output._training_metrics)._resDev;
+      assertEquals(dev, devSGD, 1e-3 * dev);
+      double[] beta = irlsm.beta(), betaSGD = sgd.beta();
+      for (int i = 0; i < beta.length; ++i)
+        assertEquals("coefficient " + i, beta[i], betaSGD[i], .05);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testSparseLasso() {
+    Scope.enter();
+    try {
+      Frame fr = makeFrame(Family.gaussian, 20000, 50, .05, 4321);
+      GLMModel irlsm = train(fr, Family.gaussian, Solver.IRLSM, 1e-3, 1);
+      GLMModel sgd = train(fr, Family.gaussian, Solver.STOCHASTIC_GRADIENT_DESCENT, 1e-3, 1);
+      double dev = ((ModelMetricsRegressionGLM) irlsm._output._training_metrics)._resDev;
+      double devSGD = ((ModelMetricsRegressionGLM) sgd._output._training_metrics)._resDev;
+      assertEquals(dev, devSGD, 1e-2 * dev);
+      // the proximal step zeroes out coefficients of the noise predictors
+      int zeros = 0;
+      double[] betaSGD = sgd.beta();
+      for (int i = 5; i < betaSGD.length - 1; ++i)
+        if (betaSGD[i] == 0) zeros++;
+      assertTrue("zero coefficients " + zeros, zeros > 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testVarianceReduction() {
+    Scope.enter();
+    try {
+      Frame fr = makeFrame(Family.gaussian, 20000, 10, 1, 99);
+      GLMModel irlsm = train(fr, Family.gaussian, Solver.IRLSM, 0, 0);
+      GLMParameters params = params(Family.gaussian, Solver.STOCHASTIC_GRADIENT_DESCENT, 0, 0);
+      params._sgd_variance_reduction = true;
+      params._sgd_batch_size = 64;
+      params._sgd_learning_rate = 0.005;
+      params._sgd_sample_rate = 0.5;
+      GLMModel svrg = train(fr, params);
+      double dev = ((ModelMetricsRegressionGLM) irlsm._output._training_metrics)._resDev;
+      double devSVRG = ((ModelMetricsRegressionGLM) svrg._output._training_metrics)._resDev;
+      assertEquals(dev, devSVRG, 1e-2 * dev);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test(expected = H2OModelBuilderIllegalArgumentException.class)
+  public void testInvalidSampleRate() {
+    Scope.enter();
+    try {
+      Frame fr = makeFrame(Family.gaussian, 100, 2, 1, 42);
+      GLMParameters params = params(Family.gaussian, Solver.STOCHASTIC_GRADIENT_DESCENT, 0, 0);
+      params._sgd_sample_rate = 0;
+      train(fr, params);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test(expected = H2OModelBuilderIllegalArgumentException.class)
+  public void testUnsupportedFamily() {
+    Scope.enter();
+    try {
+      Frame fr = makeFrame(Family.gaussian, 100, 2, 1, 42);
+      train(fr, Family.tweedie, Solver.STOCHASTIC_GRADIENT_DESCENT, 0, 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+}
@@ -2105,6 +2105,59 @@ public class GLMTest {
     }
   }
 
+  /**
+   * Strong rules carry over only the non-zero columns between the lambdas.  Columns screened in but ended up at zero
+   * are dropped from the active set and the KKT check has to add back those which are needed.  Test the lambda path
+   * on wide data with few informative predictors gives the same solutions as fitting the individual lambdas.
+   */
+  @Test
+  public void testStrongRulesLambdaPath() {
+    Scope.enter();
+    try {
+      Random rnd = new Random(42);
+      int n = 1000, p = 300;
+      double[][] x = new double[p][n];
+      String[] y = new String[n];
+      for (int i = 0; i < n; ++i) {
+        double s = 0;
+        for (int j = 0; j < p; ++j) {
+          x[j][i] = rnd.nextDouble() < .1 ? rnd.nextGaussian() : 0;
+          if (j < 10) s += (1 + j % 3) * x[j][i];
+        }
+        y[i] = s + rnd.nextGaussian() > 0 ? "1" : "0";
+      }
+      Frame fr = FrameTestUtil.createXYFrame(x, y);
+      for (Solver s : new Solver[]{Solver.IRLSM, Solver.COORDINATE_DESCENT}) {
+        GLMParameters params = new GLMParameters(Family.binomial);
+        params._response_column = "y";
+        params._train = fr._key;
+        params._solver = s;
+        params._alpha = new double[]{1};
+        params._lambda_search = true;
+        params._nlambdas = 20;
+        params._lambda_min_ratio = 1e-2;
+        params._objective_epsilon = 1e-8;
+        params._beta_epsilon = 1e-8;
+        GLMModel path = new GLM(params).trainModel().get();
+        Scope.track_generic(path);
+        assertEquals(params._nlambdas, path._output._submodels.length);
+        for (int i : new int[]{params._nlambdas / 2, params._nlambdas - 1}) {
+          GLMModel.Submodel sm = path._output._submodels[i];
+          params._lambda_search = false;
+          params._lambda = new double[]{sm.lambda_value};
+          GLMModel single = new GLM(params).trainModel().get();
+          Scope.track_generic(single);
+          GLMModel.Submodel sm2 = single._output._submodels[0];
+          assertEquals(s + " lambda " + sm.lambda_value, sm2.devianceTrain, sm.devianceTrain, 1e-3 * sm2.devianceTrain);
+          params._lambda = null;
+          params._lambda_search = true;
+        }
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
   /** Test large GLM POJO model generation.
    *  Make a 10K predictor model, emit, javac, and score with it.
    */
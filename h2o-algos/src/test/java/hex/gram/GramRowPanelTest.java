@@ -0,0 +1,150 @@
+package hex.gram;
+
+import hex.DataInfo;
+import hex.glm.GLMModel.GLMParameters;
+import hex.glm.GLMModel.GLMWeightsFun;
+import hex.glm.GLMTask.GLMIterationTask;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GramRowPanelTest extends TestUtil {
+
+  private static Frame _fr;
+  private static DataInfo _dinfo; // only makes the rows
+
+  @BeforeClass
+  public static void setup() {
+    stall_till_cloudsize(1);
+    _fr = new TestFrameBuilder()
+            .withColNames("x", "y")
+            .withVecTypes(Vec.T_NUM, Vec.T_NUM)
+            .withDataForCol(0, ard(1, 2))
+            .withDataForCol(1, ard(3, 4))
+            .build();
+    _dinfo = new DataInfo(_fr, null, 1, false, DataInfo.TransformType.NONE, DataInfo.TransformType.NONE, false, false,
+            false, /* weights */ false, /* offset */ false, /* fold */ false);
+  }
+
+  @AfterClass
+  public static void teardown() {
+    if (_dinfo != null) _dinfo.remove();
+    if (_fr != null) _fr.delete();
+  }
+
+  // 2 categorical columns with 5 and 3 levels, then the numeric ones
+  private static final int CATS = 5 + 3;
+
+  private static Gram newGram(int nums) {
+    return new Gram(CATS + nums, 5, nums, 2, true);
+  }
+
+  private static DataInfo.Row[] rows(int n, int nums, long seed) {
+    Random rnd = new Random(seed);
+    DataInfo.Row[] rows = new DataInfo.Row[n];
+    for (int i = 0; i < n; i++) {
+      double[] vals = new double[nums];
+      for (int j = 0; j < nums; j++)
+        vals[j] = rnd.nextInt(4) == 0 ? 0 : rnd.nextGaussian();
+      rows[i] = _dinfo.new Row(false, vals, new int[]{rnd.nextInt(5), 5 + rnd.nextInt(3)}, new double[1], i, 0);
+      rows[i].weight = rnd.nextDouble();
+    }
+    return rows;
+  }
+
+  private static void assertGramEquals(Gram expected, Gram actual) {
+    double[][] exx = expected.getXX();
+    double[][] axx = actual.getXX();
+    assertEquals(exx.length, axx.length);
+    for (int i = 0; i < exx.length; i++)
+      assertArrayEquals(exx[i], axx[i], 1e-10 * (1 + Math.abs(exx[i][i])));
+  }
+
+  @Test
+  public void testPanelMatchesRankOneUpdates() {
+    final int nums = Math.max(Gram.RowPanel.MIN_COLS, 70);  // more than one tile
+    DataInfo.Row[] rows = rows(2 * Gram.RowPanel.ROWS + 17, nums, 42); // full panels and a partial one
+    Gram expected = newGram(nums);
+    for (DataInfo.Row r : rows) expected.addRow(r, r.weight);
+    Gram actual = newGram(nums);
+    Gram.RowPanel panel = Gram.RowPanel.make(actual, true);
+    assertNotNull(panel);
+    for (DataInfo.Row r : rows) panel.addRow(r, r.weight);
+    panel.flush();
+    assertGramEquals(expected, actual);
+  }
+
+  @Test
+  public void testPanelNotUsedForNarrowData() {
+    assertNull(Gram.RowPanel.make(newGram(Gram.RowPanel.MIN_COLS - 1), true));
+  }
+
+  @Test
+  public void testCachedCatBlock() {
+    final int nums = 10;
+    DataInfo.Row[] rows = rows(500, nums, 7);
+    Gram expected = newGram(nums);
+    for (DataInfo.Row r : rows) expected.addRow(r, r.weight);
+    Gram.CatBlock cats = expected.catBlock();
+    // same rows with other numeric values: the categorical block does not change
+    Gram actual = newGram(nums);
+    Gram other = newGram(nums);
+    for (DataInfo.Row r : rows) {
+      for (int j = 0; j < nums; j++) r.numVals[j] *= 2;
+      actual.addRow(r, r.weight, false);
+      other.addRow(r, r.weight);
+    }
+    actual.addCatBlock(cats);
+    assertGramEquals(other, actual);
+  }
+
+  @Test
+  public void testCachedCatBlockSparseStandardized() {
+    Scope.enter();
+    try {
+      Random rnd = new Random(11);
+      final int n = 1000;
+      String[] c = new String[n];
+      double[] x = new double[n], z = new double[n], y = new double[n];
+      for (int i = 0; i < n; i++) {
+        c[i] = "l" + rnd.nextInt(4);
+        x[i] = rnd.nextInt(10) == 0 ? rnd.nextGaussian() : 0;
+        z[i] = rnd.nextInt(20) == 0 ? 1 + rnd.nextDouble() : 0;
+        y[i] = rnd.nextGaussian();
+      }
+      Frame fr = Scope.track(new TestFrameBuilder()
+              .withColNames("c", "x", "z", "y")
+              .withVecTypes(Vec.T_CAT, Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, c)
+              .withDataForCol(1, x)
+              .withDataForCol(2, z)
+              .withDataForCol(3, y)
+              .withChunkLayout(300, 300, 400)
+              .build());
+      DataInfo dinfo = new DataInfo(fr, null, 1, false, DataInfo.TransformType.STANDARDIZE, DataInfo.TransformType.NONE,
+              false, false, false, /* weights */ false, /* offset */ false, /* fold */ false);
+      Scope.track_generic(dinfo);
+      GLMWeightsFun glmw = new GLMWeightsFun(new GLMParameters(GLMParameters.Family.gaussian));
+      double[] beta = new double[dinfo.fullN() + 1];
+      // sparse rows are not centered, the gram is adjusted for it in the end
+      GLMIterationTask dense = new GLMIterationTask(null, dinfo, glmw, beta).setSparse(false).doAll(dinfo._adaptedFrame);
+      GLMIterationTask sparse = new GLMIterationTask(null, dinfo, glmw, beta).setSparse(true).doAll(dinfo._adaptedFrame);
+      GLMIterationTask cached = new GLMIterationTask(null, dinfo, glmw, beta).setSparse(true)
+              .skipCatXcat(sparse.getGram().catBlock()).doAll(dinfo._adaptedFrame);
+      assertGramEquals(dense.getGram(), sparse.getGram());
+      assertGramEquals(sparse.getGram(), cached.getGram());
+      assertArrayEquals(sparse.getXY(), cached.getXY(), 1e-10);
+    } finally {
+      Scope.exit();
+    }
+  }
+}
@@ -6,9 +6,12 @@ import org.junit.Ignore;
 import org.junit.Test;
 import water.*;
 import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
 import water.util.ArrayUtils;
 
 import java.util.Arrays;
+import java.util.Random;
 
 import static org.junit.Assert.assertFalse;
 
@@ -715,4 +718,80 @@ public class QuantileTest extends TestUtil {
     }
   }
 
+  @Test public void testSketchExactOnSmallData() {
+    try {
+      Scope.enter();
+      Random rnd = new Random(42);
+      double[][] d = new double[60][2];
+      for (int i = 0; i < d.length; i++) {
+        d[i][0] = rnd.nextGaussian();
+        d[i][1] = i % 7 == 0 ? Double.NaN : rnd.nextInt(10);
+      }
+      Frame fr = Scope.track(ArrayUtils.frame(d));
+      double[][] exact = quantiles(fr, false);
+      double[][] sketched = quantiles(fr, true);
+      for (int c = 0; c < exact.length; c++)
+        Assert.assertArrayEquals(exact[c], sketched[c], 1e-10);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test public void testSketchRankError() {
+    try {
+      Scope.enter();
+      final int n = 200000;
+      Random rnd = new Random(0xDEAD);
+      double[] uniform = new double[n], gauss = new double[n], expo = new double[n];
+      for (int i = 0; i < n; i++) {
+        uniform[i] = rnd.nextDouble();
+        gauss[i] = rnd.nextGaussian() * 1000;
+        expo[i] = -Math.log(rnd.nextDouble());
+      }
+      Frame fr = Scope.track(new TestFrameBuilder()
+              .withColNames("uniform", "gauss", "expo")
+              .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, uniform)
+              .withDataForCol(1, gauss)
+              .withDataForCol(2, expo)
+              .withChunkLayout(50000, 30000, 70000, 50000)
+              .build());
+      double[][] sketched = quantiles(fr, true);
+      double[][] cols = {uniform, gauss, expo};
+      double[] probs = new QuantileModel.QuantileParameters()._probs;
+      for (int c = 0; c < cols.length; c++) {
+        double[] sorted = cols[c].clone();
+        Arrays.sort(sorted);
+        for (int p = 0; p < probs.length; p++) {
+          // fraction of the rows below the approximate quantile
+          int rank = Arrays.binarySearch(sorted, sketched[c][p]);
+          double q = (rank < 0 ? -rank - 1 : rank) / (double) n;
+          Assert.assertEquals(fr.name(c) + " " + probs[p], probs[p], q, 0.005);
+        }
+      }
+      // the extremes are exact
+      QuantileSketch s = QuantileSketch.sketch(new Vec[]{fr.vec(1)}, null, QuantileSketch.DEFAULT_COMPRESSION)[0];
+      Assert.assertEquals(fr.vec(1).min(), s.quantile(0), 0);
+      Assert.assertEquals(fr.vec(1).max(), s.quantile(1), 0);
+      Assert.assertEquals(n, s.total(), 0);
+      Assert.assertTrue(s.size() <= QuantileSketch.DEFAULT_COMPRESSION);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  private static double[][] quantiles(Frame fr, boolean sketch) {
+    QuantileModel.QuantileParameters parms = new QuantileModel.QuantileParameters();
+    parms._train = fr._key;
+    parms._sketch = sketch;
+    Job<QuantileModel> job = new Quantile(parms).trainModel();
+    QuantileModel qm = job.get();
+    job.remove();
+    try {
+      return qm._output._quantiles;
+    } finally {
+      qm.delete();
+    }
+  }
+
 }
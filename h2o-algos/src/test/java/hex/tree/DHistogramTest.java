@@ -1,5 +1,9 @@
 package hex.tree;
 
+import hex.genmodel.algos.tree.SharedTreeNode;
+import hex.genmodel.algos.tree.SharedTreeSubgraph;
+import hex.tree.gbm.GBM;
+import hex.tree.gbm.GBMModel;
 import hex.tree.uplift.UpliftDRFModel;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -7,10 +11,14 @@ import water.*;
 import water.fvec.C0DChunk;
 import water.fvec.Chunk;
 import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
 import water.util.ArrayUtils;
 
 import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import static org.junit.Assert.*;
 
@@ -205,6 +213,107 @@ public class DHistogramTest extends TestUtil {
     assertArrayEquals(histo._vals, histoOpt._vals, 0);
   }
 
+  @Test
+  public void testUpdateHistoBinned() {
+    int N = 10000;
+    double[] ys = new double[N];
+    double[] data = new double[N];
+    double[] weights = new double[N];
+    Random r = new Random(42);
+    for (int i = 0; i < N; i++) {
+      ys[i] = r.nextGaussian();
+      data[i] = i % 100 == 0 ? Double.NaN : (i % 333 == 0 ? Double.POSITIVE_INFINITY : -1 + 3 * r.nextDouble());
+      weights[i] = i % 7 == 0 ? 0 : r.nextDouble();
+    }
+    // shuffled subset of rows, binned kernel indexes ys by position, original data by row
+    int[] rows = ArrayUtils.seq(0, N);
+    ArrayUtils.shuffleArray(rows, new Random(42));
+    int lo = 100, hi = N - 100;
+
+    for (SharedTreeModel.SharedTreeParameters.HistogramType type : new SharedTreeModel.SharedTreeParameters.HistogramType[]{
+            SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive,
+            SharedTreeModel.SharedTreeParameters.HistogramType.Random}) {
+      for (double[] ws : new double[][]{null, weights}) {
+        DHistogram histo = new DHistogram("orig", 20, 1024, (byte) 0, -1, 2, false, false, -0.001,
+                type, 42L, null, null, false, false, null, null);
+        histo.init();
+        histo.updateHisto(ws, null, data, ys, null, rows, hi, lo, null);
+
+        DHistogram histoBinned = new DHistogram("binned", 20, 1024, (byte) 0, -1, 2, false, false, -0.001,
+                type, 42L, null, null, false, false, null, null);
+        histoBinned.init();
+        assertTrue(histoBinned.canUpdateBinned());
+        histoBinned.updateHistoBinned(ws, data, ys, rows, hi, lo, new DHistogram.BinnedRows(N));
+
+        assertEquals(histo._min2, histoBinned._min2, 0);
+        assertEquals(histo._maxIn, histoBinned._maxIn, 0);
+        assertArrayEquals(histo._vals, histoBinned._vals, 0);
+      }
+    }
+  }
+
+  @Test
+  public void testDeriveHistogram() {
+    int N = 10000;
+    double[] ys = new double[N];
+    double[] data = new double[N];
+    double[] weights = new double[N];
+    double[] resp = new double[N];
+    double[] treatment = new double[N];
+    Random r = new Random(42);
+    for (int i = 0; i < N; i++) {
+      ys[i] = r.nextGaussian();
+      data[i] = i % 100 == 0 ? Double.NaN : -1 + 3 * r.nextDouble();
+      weights[i] = i % 7 == 0 ? 0 : r.nextInt(3);
+      resp[i] = r.nextInt(2);
+      treatment[i] = r.nextInt(2);
+    }
+    int[] rows = ArrayUtils.seq(0, N);
+    ArrayUtils.shuffleArray(rows, new Random(42));
+    int lo = 100, mid = 3000, hi = N - 100;
+
+    for (boolean uplift : new boolean[]{false, true}) {
+      for (double[] ws : new double[][]{null, weights}) {
+        DHistogram[] hs = new DHistogram[4];
+        for (int i = 0; i < hs.length; i++) {
+          hs[i] = new DHistogram("h" + i, 20, 1024, (byte) 0, -1, 2, false, false, -0.001,
+                  SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive, 42L + i, null, null, false,
+                  uplift, uplift ? UpliftDRFModel.UpliftDRFParameters.UpliftMetricType.KL : null, null);
+        }
+        DHistogram parent = hs[0], sibling = hs[1], derived = hs[2], expected = hs[3];
+        parent.init();
+        parent.updateHisto(ws, resp, data, ys, null, rows, hi, lo, treatment);
+        assertTrue(derived.canDeriveFrom(parent, sibling));
+        derived.markDerived(parent, sibling);
+        sibling.init();
+        sibling.updateHisto(ws, resp, data, ys, null, rows, mid, lo, treatment);
+        derived.init();
+        derived.updateMinMax(ws, data, rows, hi, mid);
+        derived.derive();
+        expected.init();
+        expected.updateHisto(ws, resp, data, ys, null, rows, hi, mid, treatment);
+
+        assertEquals(expected._min2, derived._min2, 0);
+        assertEquals(expected._maxIn, derived._maxIn, 0);
+        assertArrayEquals(expected._vals, derived._vals, 1e-8);
+        if (uplift)
+          assertArrayEquals(expected._valsUplift, derived._valsUplift, 0);
+      }
+    }
+
+    // different binning
+    DHistogram parent = new DHistogram("parent", 20, 1024, (byte) 0, -1, 2, false, false, -0.001,
+            SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive, 42L, null, null, false, false, null, null);
+    parent.init();
+    DHistogram child = new DHistogram("child", 20, 1024, (byte) 0, -1, 1.5, false, false, -0.001,
+            SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive, 42L, null, null, false, false, null, null);
+    assertFalse(child.canDeriveFrom(parent, child));
+    // split points depend on the seed
+    DHistogram random = new DHistogram("random", 20, 1024, (byte) 0, -1, 2, false, false, -0.001,
+            SharedTreeModel.SharedTreeParameters.HistogramType.Random, 42L, null, null, false, false, null, null);
+    assertFalse(random.canDeriveFrom(parent, random));
+  }
+
   @Test
   public void testUseIntOpt() {
     try {
@@ -317,4 +426,110 @@ public class DHistogramTest extends TestUtil {
     assertEquals(2, histo.nonEmptyBins());
   }
 
+  public static class DerivedHistogramsMonitor implements Consumer<DHistogram[][]> {
+    static final AtomicInteger _derived = new AtomicInteger();
+
+    @SuppressWarnings("unused")
+    public DerivedHistogramsMonitor(int tree, int k, int leaf) {
+    }
+
+    @Override
+    public void accept(DHistogram[][] hcs) {
+      for (DHistogram[] hs : hcs)
+        for (DHistogram h : hs)
+          if (h != null && h._derived)
+            _derived.incrementAndGet();
+    }
+  }
+
+  @Test
+  public void testGBMWithHistogramSubtraction() {
+    Scope.enter();
+    try {
+      // integer columns with fewer values than bins: the bins of the children mostly stay the same as the parent's
+      final int N = 5000;
+      Random r = new Random(7);
+      double[][] xs = new double[3][N];
+      double[] y = new double[N];
+      for (int i = 0; i < N; i++) {
+        for (int j = 0; j < xs.length; j++)
+          xs[j][i] = r.nextInt(8 + 4 * j);
+        y[i] = xs[0][i] * xs[1][i] - 3 * xs[2][i] + r.nextGaussian();
+      }
+      checkHistogramSubtraction(xs, y, 20, true);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testGBMWithHistogramSubtractionRealValued() {
+    Scope.enter();
+    try {
+      // real-valued columns: the children refine their bins to the observed range, only the histograms binned like
+      // the parent's (here of the integer column) can be derived and the trees must not change
+      final int N = 5000;
+      Random r = new Random(11);
+      double[][] xs = new double[3][N];
+      double[] y = new double[N];
+      for (int i = 0; i < N; i++) {
+        xs[0][i] = r.nextGaussian();
+        xs[1][i] = 2 * r.nextGaussian();
+        xs[2][i] = r.nextInt(10);
+        y[i] = Math.sin(xs[0][i]) * xs[1][i] - 0.5 * xs[2][i] * xs[2][i] + 0.1 * r.nextGaussian();
+      }
+      checkHistogramSubtraction(xs, y, 1024, true);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  private static void checkHistogramSubtraction(double[][] xs, double[] y, int nbinsTopLevel, boolean expectDerived) {
+    TestFrameBuilder builder = new TestFrameBuilder()
+            .withColNames("x0", "x1", "x2", "y")
+            .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM, Vec.T_NUM)
+            .withChunkLayout(1000, 1500, 2500);
+    for (int j = 0; j < xs.length; j++)
+      builder.withDataForCol(j, xs[j]);
+    Frame fr = Scope.track(builder.withDataForCol(xs.length, y).build());
+    SharedTree.SharedTreeDebugParams debugParms = new SharedTree.SharedTreeDebugParams();
+    debugParms._histo_monitor_class = DerivedHistogramsMonitor.class.getName();
+    DerivedHistogramsMonitor._derived.set(0);
+    try {
+      GBMModel[] models = new GBMModel[2];
+      for (int i = 0; i < models.length; i++) {
+        GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+        parms._train = fr._key;
+        parms._response_column = "y";
+        parms._ntrees = 10;
+        parms._max_depth = 6;
+        parms._min_rows = 5;
+        parms._nbins_top_level = nbinsTopLevel;
+        parms._seed = 42;
+        parms._histogram_subtraction = i == 1;
+        GBM gbm = new GBM(parms);
+        gbm.setDebugParams(debugParms);
+        models[i] = Scope.track_generic(gbm.trainModel().get());
+      }
+      if (expectDerived)
+        assertTrue(DerivedHistogramsMonitor._derived.get() > 0);
+      for (int t = 0; t < models[0]._output._ntrees; t++) {
+        SharedTreeSubgraph tree0 = models[0].getSharedTreeSubgraph(t, 0);
+        SharedTreeSubgraph tree1 = models[1].getSharedTreeSubgraph(t, 0);
+        assertEquals("tree " + t, tree0.nodesArray.size(), tree1.nodesArray.size());
+        for (int n = 0; n < tree0.nodesArray.size(); n++) {
+          SharedTreeNode node0 = tree0.nodesArray.get(n);
+          SharedTreeNode node1 = tree1.nodesArray.get(n);
+          assertEquals("tree " + t + ", node " + n, node0.getColName(), node1.getColName());
+          assertEquals("tree " + t + ", node " + n, node0.getSplitValue(), node1.getSplitValue(), 0);
+          assertEquals("tree " + t + ", node " + n, node0.getPredValue(), node1.getPredValue(), 1e-6);
+        }
+      }
+      Frame preds0 = Scope.track(models[0].score(fr));
+      Frame preds1 = Scope.track(models[1].score(fr));
+      assertFrameEquals(preds0, preds1, 1e-6);
+    } finally {
+      DerivedHistogramsMonitor._derived.set(0);
+    }
+  }
 }
@@ -159,6 +159,36 @@ public class GBMTest extends TestUtil {
     }
   }
 
+  @Test public void testGBMLossguide() {
+    try {
+      Scope.enter();
+      Frame fr = Scope.track(parseTestFile("./smalldata/logreg/prostate.csv"));
+      GBMModel.GBMParameters parms = makeGBMParameters();
+      parms._train = fr._key;
+      parms._response_column = "AGE";
+      parms._ignored_columns = new String[]{"ID"};
+      parms._ntrees = 5;
+      parms._grow_policy = GBMModel.GBMParameters.GrowPolicy.lossguide;
+      parms._max_leaves = 8;
+      parms._max_depth = 0;
+      parms._min_rows = 1;
+
+      GBMModel gbm = new GBM(parms).trainModel().get();
+      Scope.track_generic(gbm);
+      assertTrue(gbm._output._treeStats._max_leaves <= 8);
+      assertTrue(gbm._output._treeStats._min_leaves > 1);
+
+      // the depth limit still applies
+      parms._max_depth = 2;
+      GBMModel shallow = new GBM(parms).trainModel().get();
+      Scope.track_generic(shallow);
+      assertTrue(shallow._output._treeStats._max_depth <= 2);
+      assertTrue(shallow._output._treeStats._max_leaves <= 4);
+    } finally {
+      Scope.exit();
+    }
+  }
+
   @Test public void testMOJOandPOJOSupportedCategoricalEncodings() throws Exception {
     try {
       Scope.enter();
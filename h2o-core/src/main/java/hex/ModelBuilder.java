@@ -475,6 +475,36 @@ abstract public class ModelBuilder<M extends Model<M,P,O>, P extends Model.Param
     }
   }
 
+  /**
+   * Called on every node when a job that trained models by {@link #trainModelNested(Job, Key, Model.Parameters, Frame)}
+   * (e.g. a grid search) is done. Lets the algos drop node-local state shared by the models of the job.
+   *
+   * @param job key of the containing job
+   */
+  public static void nestedJobDone(Key<Job> job) {
+    new NestedJobDoneTask(job).doAllNodes();
+  }
+
+  private static class NestedJobDoneTask extends MRTask<NestedJobDoneTask> {
+    private final Key<Job> _jobKey;
+    private NestedJobDoneTask(Key<Job> jobKey) {
+      _jobKey = jobKey;
+    }
+    @Override
+    protected void setupLocal() {
+      for (ModelBuilder mb : BUILDERS)
+        mb.onNestedJobDone(_jobKey);
+    }
+  }
+
+  /**
+   * Drops node-local state shared by the models trained as part of a containing job, see {@link #nestedJobDone(Key)}.
+   * Called on the startup-once instance of the builder.
+   *
+   * @param job key of the containing job
+   */
+  protected void onNestedJobDone(Key<Job> job) {}
+
   /** Model-specific implementation of model training
    * @return A F/J Job, which, when executed, does the build.  F/J is NOT started.  */
   abstract protected Driver trainModelImpl();
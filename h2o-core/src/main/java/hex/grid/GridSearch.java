@@ -171,6 +171,7 @@ public final class GridSearch<MP extends Model.Parameters> {
           }
         } finally {
           grid.unlock(_job);
+          ModelBuilder.nestedJobDone(_job._key);
         }
         afterGridCompleted(grid);
         tryComplete();
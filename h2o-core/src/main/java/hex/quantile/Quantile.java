@@ -39,6 +39,8 @@ public class Quantile extends ModelBuilder<QuantileModel,QuantileModel.QuantileP
     for( double p : _parms._probs )
       if( p < 0.0 || p > 1.0 )
         error("_probs","Probabilities must be between 0 and 1");
+    if( _parms._sketch && !(_parms._sketch_compression >= 10) )
+      error("_sketch_compression", "Compression of the quantile sketch must be at least 10");
     _ncols = train().numCols()-numSpecialCols(); //offset/weights/nfold - should only ever be weights
     if ( numSpecialCols() == 1 && _weights == null)
       throw new IllegalArgumentException("The only special Vec that is supported for Quantiles is observation weights.");
@@ -76,6 +78,10 @@ public class Quantile extends ModelBuilder<QuantileModel,QuantileModel.QuantileP
         // ---
         // Run the main Quantile Loop
         Vec vecs[] = train().vecs();
+        if( _parms._sketch ) {
+          computeSketched(model, vecs);
+          return;
+        }
         for( int n=0; n<_ncols; n++ ) {
           if( stop_requested() ) return; // Stopped/cancelled
           Vec vec = vecs[n];
@@ -113,6 +119,31 @@ public class Quantile extends ModelBuilder<QuantileModel,QuantileModel.QuantileP
         if( model != null ) model.unlock(_job);
       }
     }
+
+    // All quantiles of all columns from sketches computed in a single pass
+    private void computeSketched(QuantileModel model, Vec[] vecs) {
+      int[] cols = new int[_ncols];
+      Vec[] sketched = new Vec[_ncols];
+      int nsketched = 0;
+      for( int n=0; n<_ncols; n++ ) {
+        Vec vec = vecs[n];
+        if (vec.isBad() || vec.isCategorical() || vec.isString() || vec.isTime() || vec.isUUID())
+          Arrays.fill(model._output._quantiles[n], Double.NaN);
+        else {
+          cols[nsketched] = n;
+          sketched[nsketched++] = vec;
+        }
+      }
+      if( nsketched > 0 ) {
+        QuantileSketch[] sketches = QuantileSketch.sketch(Arrays.copyOf(sketched, nsketched), _weights, _parms._sketch_compression);
+        for( int i=0; i<nsketched; i++ )
+          model._output._quantiles[cols[i]] = sketches[i].quantiles(_parms._probs);
+      }
+      model._output._iterations = 1;
+      model.update(_job);
+      _job.update(_ncols * _parms._probs.length);
+      Log.debug("Quantile: sketched " + nsketched + " columns in a single pass");
+    }
   }
 
   public static class StratifiedQuantilesTask extends H2O.H2OCountedCompleter<StratifiedQuantilesTask> {
@@ -0,0 +1,266 @@
+package hex.quantile;
+
+import water.Iced;
+import water.MRTask;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.Vec;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable sketch of a distribution (a merging t-digest) for approximate quantiles in a single pass over the data.
+ * <p/>
+ * The values are summarized by at most about {@code compression} centroids (weighted means of adjacent values).  The
+ * centroids are small in the tails and larger in the middle of the distribution, so the rank error of a quantile is
+ * about {@code 1/compression} at the median and much smaller at the extremes; the minimum and the maximum are
+ * exact.  As long as no centroids were merged (up to about {@code compression/2} rows), the quantiles are exact and
+ * equal to {@link QuantileModel.CombineMethod#INTERPOLATE}.
+ * <p/>
+ * Sketches of chunks are combined by {@link #merge}, see {@link SketchTask}.
+ */
+public class QuantileSketch extends Iced<QuantileSketch> {
+
+  public static final double DEFAULT_COMPRESSION = 200;
+
+  private final double _compression;
+  // Centroids sorted by their means
+  private int _n;
+  private double[] _means;
+  private double[] _weights;
+  // Values added since the last compression, never sent over the wire
+  private transient int _nbuf;
+  private transient double[] _buf;
+  private transient double[] _bufWeights;
+
+  private double _total;
+  private double _min = Double.POSITIVE_INFINITY;
+  private double _max = Double.NEGATIVE_INFINITY;
+
+  public QuantileSketch() {
+    this(DEFAULT_COMPRESSION);
+  }
+
+  public QuantileSketch(double compression) {
+    if (!(compression >= 10))
+      throw new IllegalArgumentException("Compression of a quantile sketch must be at least 10, got: " + compression);
+    _compression = compression;
+    _means = new double[0];
+    _weights = new double[0];
+  }
+
+  public void add(double x) {
+    add(x, 1);
+  }
+
+  /** Add a value with a weight, NAs and values without weight are skipped */
+  public void add(double x, double w) {
+    if (Double.isNaN(x) || !(w > 0)) return;
+    if (_buf == null) {
+      _buf = new double[(int) (5 * _compression)];
+      _bufWeights = new double[_buf.length];
+    } else if (_nbuf == _buf.length) compress();
+    _buf[_nbuf] = x;
+    _bufWeights[_nbuf++] = w;
+    _total += w;
+    if (x < _min) _min = x;
+    if (x > _max) _max = x;
+  }
+
+  /** Add the values of the other sketch to this one */
+  public QuantileSketch merge(QuantileSketch that) {
+    that.compress();
+    if (that._n == 0) return this;
+    compress();
+    int n = _n + that._n;
+    double[] means = new double[n], weights = new double[n];
+    // both are sorted: merge them
+    int i = 0, j = 0, k = 0;
+    while (i < _n || j < that._n) {
+      if (j == that._n || (i < _n && _means[i] <= that._means[j])) {
+        means[k] = _means[i];
+        weights[k++] = _weights[i++];
+      } else {
+        means[k] = that._means[j];
+        weights[k++] = that._weights[j++];
+      }
+    }
+    _total += that._total;
+    _min = Math.min(_min, that._min);
+    _max = Math.max(_max, that._max);
+    collapse(means, weights, n);
+    return this;
+  }
+
+  /** Merge the values added since the last call into the centroids */
+  public void compress() {
+    if (_nbuf == 0) return;
+    sort(_buf, _bufWeights, 0, _nbuf - 1);
+    int n = _n + _nbuf;
+    double[] means = new double[n], weights = new double[n];
+    int i = 0, j = 0, k = 0;
+    while (i < _n || j < _nbuf) {
+      if (j == _nbuf || (i < _n && _means[i] <= _buf[j])) {
+        means[k] = _means[i];
+        weights[k++] = _weights[i++];
+      } else {
+        means[k] = _buf[j];
+        weights[k++] = _bufWeights[j++];
+      }
+    }
+    _nbuf = 0;
+    collapse(means, weights, n);
+  }
+
+  // Single pass over sorted centroids, adjacent centroids are combined while they span at most one unit of the
+  // scale function k(q) = compression / (2 pi) * asin(2q - 1)
+  private void collapse(double[] means, double[] weights, int n) {
+    int k = 0;
+    double soFar = 0; // weight of the centroids before the current one
+    double kLeft = scale(0);
+    for (int i = 1; i < n; i++) {
+      double w = weights[k] + weights[i];
+      if (scale((soFar + w) / _total) - kLeft <= 1) {
+        means[k] += (means[i] - means[k]) * weights[i] / w;
+        weights[k] = w;
+      } else {
+        soFar += weights[k];
+        kLeft = scale(soFar / _total);
+        k++;
+        means[k] = means[i];
+        weights[k] = weights[i];
+      }
+    }
+    _n = n == 0 ? 0 : k + 1;
+    _means = Arrays.copyOf(means, _n);
+    _weights = Arrays.copyOf(weights, _n);
+  }
+
+  private double scale(double q) {
+    return _compression / (2 * Math.PI) * Math.asin(2 * Math.min(q, 1) - 1);
+  }
+
+  /**
+   * @return approximate quantile for probability {@code p}; the position of the quantile among the (weighted) rows
+   * is {@code p * (total weight - 1)}, like in {@link Quantile}.  NaN if there are no values.
+   */
+  public double quantile(double p) {
+    compress();
+    if (_n == 0) return Double.NaN;
+    final double last = _total - 1;    // position of the maximum
+    final double h = p * last;         // desired position
+    // Centroid i holds the rows at positions [c, c + w) and its mean sits at position c + (w - 1) / 2
+    double c = 0;
+    double prevPos = 0, prevMean = _min;
+    for (int i = 0; i < _n; i++) {
+      double pos = c + (_weights[i] - 1) / 2;
+      if (h <= pos)
+        return interpolate(prevPos, prevMean, pos, _means[i], h);
+      prevPos = pos;
+      prevMean = _means[i];
+      c += _weights[i];
+    }
+    return interpolate(prevPos, prevMean, last, _max, h);
+  }
+
+  public double[] quantiles(double[] probs) {
+    double[] res = new double[probs.length];
+    for (int i = 0; i < probs.length; i++)
+      res[i] = quantile(probs[i]);
+    return res;
+  }
+
+  private static double interpolate(double pos0, double x0, double pos1, double x1, double pos) {
+    if (pos1 <= pos0 || pos <= pos0) return x0;
+    if (pos >= pos1) return x1;
+    return x0 + (x1 - x0) * (pos - pos0) / (pos1 - pos0);
+  }
+
+  /** Total weight of the values */
+  public double total() {
+    return _total;
+  }
+
+  /** Number of centroids */
+  public int size() {
+    compress();
+    return _n;
+  }
+
+  // Quick sort of values with their weights
+  private static void sort(double[] xs, double[] ws, int lo, int hi) {
+    while (lo < hi) {
+      double pivot = xs[(lo + hi) >>> 1];
+      int i = lo, j = hi;
+      while (i <= j) {
+        while (xs[i] < pivot) i++;
+        while (xs[j] > pivot) j--;
+        if (i <= j) {
+          double t = xs[i]; xs[i] = xs[j]; xs[j] = t;
+          t = ws[i]; ws[i] = ws[j]; ws[j] = t;
+          i++;
+          j--;
+        }
+      }
+      // recurse into the smaller part
+      if (j - lo < hi - i) {
+        sort(xs, ws, lo, j);
+        lo = i;
+      } else {
+        sort(xs, ws, i, hi);
+        hi = j;
+      }
+    }
+  }
+
+  /**
+   * Sketches all columns of a frame in a single pass; the last column holds the observation weights if weighted.
+   */
+  public static class SketchTask extends MRTask<SketchTask> {
+    final double _compression;
+    final boolean _weighted;
+    public QuantileSketch[] _sketches;
+
+    public SketchTask(double compression, boolean weighted) {
+      _compression = compression;
+      _weighted = weighted;
+    }
+
+    @Override
+    public void map(Chunk[] cs) {
+      final int ncols = _weighted ? cs.length - 1 : cs.length;
+      final int len = cs[0]._len;
+      final double[] ws = _weighted ? cs[ncols].getDoubles() : null;
+      final double[] vals = new double[len];
+      _sketches = new QuantileSketch[ncols];
+      for (int c = 0; c < ncols; c++) {
+        QuantileSketch s = _sketches[c] = new QuantileSketch(_compression);
+        cs[c].getDoubles(vals, 0, len);
+        for (int row = 0; row < len; row++)
+          s.add(vals[row], ws == null ? 1 : ws[row]);
+        s.compress();
+      }
+    }
+
+    @Override
+    public void reduce(SketchTask t) {
+      for (int c = 0; c < _sketches.length; c++)
+        _sketches[c].merge(t._sketches[c]);
+    }
+  }
+
+  /**
+   * @return sketches of the given vecs, computed in a single pass
+   */
+  public static QuantileSketch[] sketch(Vec[] vecs, Vec weights, double compression) {
+    Frame fr = new Frame(vecs);
+    if (weights != null) fr.add("weights", weights);
+    QuantileSketch[] res = new SketchTask(compression, weights != null).doAll(fr)._sketches;
+    if (res == null) { // no chunks
+      res = new QuantileSketch[vecs.length];
+      for (int i = 0; i < res.length; i++) res[i] = new QuantileSketch(compression);
+    }
+    return res;
+  }
+
+}
@@ -531,6 +531,8 @@ public final class AutoBuffer implements AutoCloseable {
   //int zeros() { return _zeros; }
 
   public int position () { return _bb.position(); }
+  // Bytes left in the buffer; the whole rest of the message only for messages read from a byte array
+  int remaining() { return _bb.remaining(); }
 
   public AutoBuffer position(int p) {_bb.position(p); return this;}
   /** Skip over some bytes in the byte buffer.  Caller is responsible for not
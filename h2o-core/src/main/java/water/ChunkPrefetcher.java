@@ -0,0 +1,167 @@
+package water;
+
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.util.Log;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-ahead of the chunks of the node-local execution of an {@link MRTask} over a {@link Frame}.
+ * <p/>
+ * Chunks swapped out to ice_root, or not read yet from a {@code FileVec} (e.g. on S3 or HDFS), are loaded
+ * synchronously by the map call, which stalls the F/J worker on I/O.  When the read-ahead is enabled
+ * ({@code -Dsys.ai.h2o.mrtask.prefetch.depth=k}), every map call first requests the chunks the worker is going to
+ * map next to be loaded by a small pool of I/O threads ({@code -Dsys.ai.h2o.mrtask.prefetch.threads}).
+ * <p/>
+ * MRTask divides the chunks in halves, forks the left half and descends into the right one; the forked halves are
+ * then popped in LIFO order.  A worker thus maps its chunks in decreasing order, and the chunks read ahead of chunk
+ * {@code i} are {@code i-1 .. i-k}.  Only chunks homed on this node (or all of them, for a task run locally) are
+ * loaded, and chunks already in memory are skipped.
+ */
+public final class ChunkPrefetcher {
+
+  /** Number of chunks read ahead of a map call, 0 to disable */
+  public static final int DEPTH = Integer.parseInt(H2O.getSysProperty("mrtask.prefetch.depth", "0"));
+  private static final int THREADS = Integer.parseInt(H2O.getSysProperty("mrtask.prefetch.threads", "4"));
+  private static final int QUEUE_SIZE = Integer.parseInt(H2O.getSysProperty("mrtask.prefetch.queue", "256"));
+
+  // State of a chunk in an execution
+  private static final int NONE = 0;
+  private static final int REQUESTED = 1;
+  private static final int LOADED = 2;
+  private static final int MAPPED = 3;
+
+  public static class Stats {
+    public final AtomicLong requested = new AtomicLong(); // read-ahead requests queued
+    public final AtomicLong dropped = new AtomicLong();   // read-ahead requests not queued, the pool was busy
+    public final AtomicLong loaded = new AtomicLong();    // chunks (of all vecs) loaded by the pool
+    public final AtomicLong hits = new AtomicLong();      // map calls finding their chunks read ahead
+    public final AtomicLong late = new AtomicLong();      // map calls started before the read-ahead completed
+    public final AtomicLong misses = new AtomicLong();    // map calls loading chunks which were not read ahead
+  }
+
+  private static final Stats STATS = new Stats();
+
+  /** @return statistics of the read-ahead on this node */
+  public static Stats getStats() { return STATS; }
+
+  private static class PoolHolder {
+    static final ThreadPoolExecutor POOL = makePool();
+
+    private static ThreadPoolExecutor makePool() {
+      final AtomicInteger n = new AtomicInteger();
+      ThreadPoolExecutor pool = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS,
+              new ArrayBlockingQueue<Runnable>(QUEUE_SIZE), r -> {
+        Thread t = new Thread(r, "ChunkPrefetch-" + n.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+      });
+      pool.allowCoreThreadTimeOut(true);
+      return pool;
+    }
+  }
+
+  private final Vec[] _vecs;
+  private final boolean _runLocal;
+  private final int _depth;
+  private final AtomicIntegerArray _state;
+  private volatile boolean _stopped;
+
+  private ChunkPrefetcher(Vec[] vecs, int nchunks, boolean runLocal, int depth) {
+    _vecs = vecs;
+    _runLocal = runLocal;
+    _depth = depth;
+    _state = new AtomicIntegerArray(nchunks);
+  }
+
+  /**
+   * @return a read-ahead for a node-local execution over the frame, null if disabled or not worth it (a single chunk,
+   * or only volatile vecs which are never swapped out)
+   */
+  static ChunkPrefetcher make(Frame fr, boolean runLocal) {
+    return make(fr, runLocal, DEPTH);
+  }
+
+  static ChunkPrefetcher make(Frame fr, boolean runLocal, int depth) {
+    if (depth <= 0 || H2O.ARGS.client || fr.numCols() == 0) return null;
+    final int nchunks = fr.anyVec().nChunks();
+    if (nchunks < 2) return null;
+    int n = 0;
+    Vec[] vecs = fr.vecs().clone();
+    for (Vec v : vecs)
+      if (v != null && !v.isVolatile()) vecs[n++] = v;
+    return n == 0 ? null : new ChunkPrefetcher(Arrays.copyOf(vecs, n), nchunks, runLocal, depth);
+  }
+
+  /** Called by the map call of chunk {@code cidx} before it extracts its chunks */
+  void map(int cidx) {
+    switch (_state.getAndSet(cidx, MAPPED)) {
+      case LOADED:    STATS.hits.incrementAndGet(); break;
+      case REQUESTED: STATS.late.incrementAndGet(); break;
+      default:        if (!isLoaded(cidx)) STATS.misses.incrementAndGet();
+    }
+    for (int c = cidx - 1; c >= Math.max(0, cidx - _depth); c--)
+      request(c);
+  }
+
+  /** Called when the node-local execution is done, drops pending requests */
+  void stop() {
+    _stopped = true;
+  }
+
+  private void request(final int cidx) {
+    if (_state.get(cidx) != NONE || !(_runLocal || _vecs[0].chunkKey(cidx).home()) || isLoaded(cidx)) return;
+    if (!_state.compareAndSet(cidx, NONE, REQUESTED)) return;
+    try {
+      PoolHolder.POOL.execute(() -> load(cidx));
+      STATS.requested.incrementAndGet();
+    } catch (RejectedExecutionException e) {
+      _state.compareAndSet(cidx, REQUESTED, NONE);
+      STATS.dropped.incrementAndGet();
+    }
+  }
+
+  private void load(int cidx) {
+    try {
+      for (Vec v : _vecs) {
+        if (_stopped || _state.get(cidx) == MAPPED) return;
+        Value val = Value.STORE_get(v.chunkKey(cidx));
+        if (val != null && isLoaded(val)) continue;
+        v.chunkForChunkIdx(cidx); // loads the bytes (from disk, or from the home node if run locally) and the POJO
+        STATS.loaded.incrementAndGet();
+      }
+      _state.compareAndSet(cidx, REQUESTED, LOADED);
+    } catch (Throwable t) {
+      // The map call loads the chunk itself and reports a possible failure
+      Log.debug("Read-ahead of chunk " + cidx + " failed: " + t);
+      _state.compareAndSet(cidx, REQUESTED, NONE);
+    }
+  }
+
+  // For testing
+  boolean isReadAhead(int cidx) {
+    return _state.get(cidx) == LOADED;
+  }
+
+  // All vecs have the chunk in memory
+  private boolean isLoaded(int cidx) {
+    for (Vec v : _vecs) {
+      Value val = Value.STORE_get(v.chunkKey(cidx));
+      if (val == null || !isLoaded(val)) return false;
+    }
+    return true;
+  }
+
+  private static boolean isLoaded(Value val) {
+    return val.rawPOJO() != null || val.rawMem() != null;
+  }
+
+}
@@ -23,6 +23,8 @@ class Cleaner extends Thread {
   static volatile long HEAP_USED_AT_LAST_GC;
   static volatile long KV_USED_AT_LAST_GC;
   static volatile long TIME_AT_LAST_GC=System.currentTimeMillis();
+  // Order in which cached Values are cleaned; initialized before THE_CLEANER builds its first histogram
+  private static final EvictionPolicy POLICY = EvictionPolicy.current();
   static final Cleaner THE_CLEANER = new Cleaner();
   static void kick_store_cleaner() {
     synchronized(THE_CLEANER) { THE_CLEANER.notifyAll(); }
@@ -104,10 +106,10 @@ class Cleaner extends Thread {
       // If not forced cleaning, expand the cleaning age to allows Values
       // more than 5sec old
       if( !force ) clean_to_age = Math.max(clean_to_age,now-5000);
-      if( DESIRED == -1 ) clean_to_age = now;  // Test mode: clean all
+      if( DESIRED == -1 ) clean_to_age = now+POLICY.maxBoost();  // Test mode: clean all
 
       // No logging if under memory pressure: can deadlock the cleaner thread
-      String s = h+" DESIRED="+(DESIRED>>20)+"M dirtysince="+(now-dirty)+" force="+force+" clean2age="+(now-clean_to_age);
+      String s = h+" DESIRED="+(DESIRED>>20)+"M dirtysince="+(now-dirty)+" force="+force+" clean2age="+(now-clean_to_age)+" policy="+POLICY;
       if( MemoryManager.canAlloc() ) Log.debug(s);
       else                           System.err.println(s);
       long cleaned = 0;         // Disk i/o bytes
@@ -131,9 +133,10 @@ class Cleaner extends Thread {
         if( val.isLockable() ) continue; // we do not want to throw out Lockables.
         boolean isChunk = p instanceof Chunk && !((Chunk)p).isVolatile();
         // Ignore things younger than the required age.  In particular, do
-        // not spill-to-disk all dirty things we find.
+        // not spill-to-disk all dirty things we find.  The age is given by the
+        // eviction policy (last access time, possibly boosted).
         long touched = val._lastAccessedTime;
-        if( touched > clean_to_age ) { // Too recently touched?
+        if( POLICY.priority(val) > clean_to_age ) { // Too recently touched?
           // But can toss out a byte-array if already deserialized & on disk
           // (no need for both forms).  Note no savings for Chunks, for which m==p._mem
           if( val.isPersisted() && m != null && p != null && !isChunk ) {
@@ -154,7 +157,10 @@ class Cleaner extends Thread {
         // Should I further force it from memory?
         if( isChunk && !val.isPersisted() && !diskFull && ((Key)ok).home() ) { // && (force || (lazyPersist() && lazy_clean(key)))) {
           long now_ns = System.nanoTime();
-          try { val.storePersist(); } // Write to disk
+          try {                 // Write to disk
+            val.storePersist();
+            if( val.isPersisted() ) POLICY.recordSpill(val);
+          }
           catch( FileNotFoundException fnfe ) { continue; } // Can happen due to racing key delete/remove
           catch( IOException e ) {
             Log.warn( isDiskFull()
@@ -243,7 +249,7 @@ class Cleaner extends Thread {
       Arrays.fill(_hs, 0);
       _when = System.currentTimeMillis();
       _eldest = eldest; // Eldest seen in some prior pass
-      _hStep = Math.max(1,(_when-eldest)/_hs.length);
+      _hStep = Math.max(1,(_when+POLICY.maxBoost()-eldest)/_hs.length); // priorities can be ahead of time
       boolean clean = _dirty==Long.MAX_VALUE;
       // Compute the hard way
       Object[] kvs = H2O.STORE.raw_array();
@@ -271,12 +277,13 @@ class Cleaner extends Thread {
         if( len == 0 ) continue;
         cached += len; // Accumulate total amount of cached keys
 
-        if( val._lastAccessedTime < oldest ) { // Found an older Value?
+        long priority = POLICY.priority(val);
+        if( priority < oldest ) { // Found an older Value?
           vold = val; // Record oldest Value seen
-          oldest = val._lastAccessedTime;
+          oldest = priority;
         }
         // Compute histogram bucket
-        int idx = (int)((val._lastAccessedTime - eldest)/_hStep);
+        int idx = (int)((priority - eldest)/_hStep);
         if( idx < 0 ) idx = 0;
         else if( idx >= _hs.length ) idx = _hs.length-1;
         _hs[idx] += len;      // Bump histogram bucket
@@ -0,0 +1,96 @@
+package water;
+
+import water.util.Log;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
+
+/**
+ * Policy deciding in which order the {@link Cleaner} spills and frees cached Values.
+ *
+ * The Cleaner builds a histogram of cached bytes over the <em>priority</em> of each Value and then cleans
+ * everything with a priority lower than the cut-off needed to get under the desired cache level. The priority
+ * is a point in time: the default policy ({@link Lru}) uses the time of the last access, other policies can
+ * push a Value into the future (by at most {@link #maxBoost()} msec) to keep it cached longer than
+ * recency alone would.
+ *
+ * Every policy collects hit/miss/spill/reload counters, they are reported by {@link water.util.WaterMeterIo}.
+ *
+ * The policy is chosen by system property {@value #PROP_POLICY} ("lru" or "tinylfu").
+ */
+public abstract class EvictionPolicy {
+
+  static final String PROP_POLICY = SYSTEM_PROP_PREFIX + "cleaner.policy";
+
+  private static final EvictionPolicy POLICY = make(System.getProperty(PROP_POLICY, "lru"));
+
+  /** @return eviction policy used by this node */
+  public static EvictionPolicy current() { return POLICY; }
+
+  static EvictionPolicy make(String name) {
+    switch (name.toLowerCase()) {
+      case "lru":
+        return new Lru();
+      case "tinylfu":
+        return new TinyLfuEvictionPolicy();
+      default:
+        Log.warn("Unknown eviction policy '" + name + "', using LRU.");
+        return new Lru();
+    }
+  }
+
+  /** Counters are updated on every DKV read, LongAdder keeps concurrent readers from contending on them. */
+  public static class Stats {
+    public final LongAdder hits = new LongAdder();
+    public final LongAdder misses = new LongAdder();
+    public final LongAdder spills = new LongAdder();
+    public final LongAdder spill_bytes = new LongAdder();
+    public final LongAdder reloads = new LongAdder();
+    public final LongAdder reload_bytes = new LongAdder();
+  }
+
+  private final Stats _stats = new Stats();
+
+  public Stats getStats() { return _stats; }
+
+  /** @return short name of the policy */
+  public abstract String name();
+
+  /**
+   * Priority of a cached Value, Values with a lower priority are cleaned first.
+   * @param v cached value
+   * @return time in msec, between the last access of the Value and last access + {@link #maxBoost()}
+   */
+  abstract long priority(Value v);
+
+  /** @return how far (in msec) can a priority be ahead of the time of the last access */
+  long maxBoost() { return 0; }
+
+  /** Called on every read of the Value's content (before the content is materialized). */
+  void recordAccess(Value v) {
+    if (v.rawMem() == null && v.rawPOJO() == null && v.isPersisted())
+      _stats.misses.increment(); // needs to be reloaded from the backend
+    else
+      _stats.hits.increment();
+  }
+
+  void recordSpill(Value v) {
+    _stats.spills.increment();
+    _stats.spill_bytes.add(v._max);
+  }
+
+  void recordReload(Value v, int bytes) {
+    _stats.reloads.increment();
+    _stats.reload_bytes.add(bytes);
+  }
+
+  @Override public String toString() { return name(); }
+
+  /** Least-recently-used first, the original Cleaner behavior. */
+  static class Lru extends EvictionPolicy {
+    @Override public String name() { return "lru"; }
+    @Override long priority(Value v) { return v._lastAccessedTime; }
+  }
+
+}
@@ -2,6 +2,7 @@ package water;
 
 import water.nbhm.NonBlockingHashMap;
 import water.nbhm.NonBlockingHashMapLong;
+import water.network.CompressedByteChannel;
 import water.network.SocketChannelFactory;
 import water.util.*;
 
@@ -13,7 +14,9 @@ import java.nio.channels.ByteChannel;
 import java.nio.channels.SocketChannel;
 import java.util.*;
 import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A <code>Node</code> in an <code>H2O</code> Cloud.
@@ -29,6 +32,7 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
   transient private SocketChannelFactory _socketFactory;
   transient private H2OSecurityManager _security;
   transient private PriorityBlockingQueue<ByteBuffer> _outgoingMsgQ;
+  transient private MessageStats _msgStats;
 
   transient short _unique_idx; // Dense integer index, skipping 0.  NOT cloud-wide unique.
   transient boolean _announcedLostContact;  // True if heartbeat published a no-contact msg
@@ -192,6 +196,7 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
     _security = H2OSecurityManager.instance();
     _socketFactory = SocketChannelFactory.instance(_security);
     _outgoingMsgQ = makeOutgoingMessageQueue();
+    _msgStats = new MessageStats();
     _sendThread = null; // initialized lazily
   }
 
@@ -408,6 +413,10 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
   private transient int _socksAvail=_socks.length;
   // Count of concurrent TCP requests both incoming and outgoing
   static final AtomicInteger TCPS = new AtomicInteger(0);
+  // Send big messages in LZ4 compressed blocks, worth it when the network (not the CPU) is the bottleneck
+  static final boolean TCP_COMPRESS = H2O.getSysBoolProperty("network.compress", false);
+  // Blocks of big messages shorter than this are sent uncompressed
+  static final int TCP_COMPRESS_MIN_BYTES = Integer.parseInt(H2O.getSysProperty("network.compress.minBytes", "4096"));
 
   ByteChannel getTCPSocket() throws IOException {
     // Under lock, claim an existing open socket if possible
@@ -431,7 +440,7 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
     boolean res = sock2.connect( _key );
     assert res && !sock2.isConnectionPending() && sock2.isBlocking() && sock2.isConnected() && sock2.isOpen();
     ByteBuffer bb = ByteBuffer.allocate(6).order(ByteOrder.nativeOrder());
-    bb.put((byte)2);
+    bb.put(TCP_COMPRESS ? TCPReceiverThread.TCP_BIG_COMPRESSED : TCPReceiverThread.TCP_BIG);
     bb.putShort(H2O.SELF._timestamp);
     bb.putChar((char)H2O.H2O_PORT);
     bb.put((byte)0xef);
@@ -440,6 +449,8 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
     while(bb.hasRemaining()) {
       wrappedSocket.write(bb);
     }
+    if (TCP_COMPRESS)
+      wrappedSocket = new CompressedByteChannel(wrappedSocket, TCP_COMPRESS_MIN_BYTES);
     TCPS.incrementAndGet();     // Cluster-wide counting
     return wrappedSocket;
   }
@@ -520,6 +531,31 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
     });
   }
   
+  /** Statistics of the small messages sent to this node */
+  public static class MessageStats {
+    public final AtomicLong messages = new AtomicLong();
+    public final AtomicLong batches = new AtomicLong();
+    public final AtomicLong bytes = new AtomicLong();
+    public final AtomicLong merged_ackacks = new AtomicLong(); // ACKACKs sent as a part of another ACKACK
+    public final AtomicInteger max_queue_depth = new AtomicInteger();
+  }
+
+  public MessageStats getMessageStats() { return _msgStats; }
+
+  /** @return number of small messages waiting to be sent to this node */
+  public int getMessageQueueDepth() { return _outgoingMsgQ.size(); }
+
+  // Once a batch of small messages carried more than one message (the queue is
+  // busy), the next batch waits up to this long for more messages before it is
+  // sent.  Fewer, bigger writes at the cost of latency; zero (the default)
+  // disables the waiting, request/response traffic is usually latency bound.
+  static final long COALESCE_LINGER_NS = 1000L * Integer.parseInt(H2O.getSysProperty("network.coalesce.lingerMicros", "0"));
+  // A batch is sent without waiting once it holds this many bytes
+  static final int COALESCE_MAX_BYTES = Integer.parseInt(H2O.getSysProperty("network.coalesce.maxBytes", "16384"));
+  // Max number of ACKACKs merged into a single message, see UDPAckAck
+  static final int MAX_MERGED_ACKACKS = 128;
+  private static final int ACKACK_SIZE = 1+2+2+4;
+
   // Private thread serving (actually ships the bytes over) small msg Q.
   // Buffers the small messages together and sends the bytes over via TCP channel.
   private static String SEND_THREAD_NAME_PREFIX = "TCP-SMALL-SEND-";
@@ -529,6 +565,10 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
 
     private final ByteBuffer _bb; // Reusable output large buffer
 
+    private final int[] _ackacks = new int[MAX_MERGED_ACKACKS]; // Task#s of the ACKACKs of the current batch
+    private int _nackacks;
+    private boolean _busy;      // Last batch carried more than one message
+
     SmallMessagesSendThread(){
       super(SEND_THREAD_NAME_PREFIX + H2ONode.this);
       ThreadHelper.initCommonThreadProperties(this);
@@ -579,17 +619,37 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
               _outgoingMsgQ.put(bb); // put back and give someone else a chance to deliver
               break; // terminate
             }
+            int depth = _outgoingMsgQ.size()+1;
+            if( depth > _msgStats.max_queue_depth.get() ) _msgStats.max_queue_depth.set(depth);
+            int msgs = 0;
+            long deadline = 0;
             while( bb != null ) {         // while have an BB to process
               assert !bb.isDirect() : "Direct BBs already got recycled";
               assert bb.limit()+1+2 <= _bb.capacity() : "Small message larger than the output buffer";
-              if( _bb.remaining() < bb.limit()+1+2 )
-                sendBuffer();     // Send full batch; reset _bb so taken bb fits
-              _bb.putChar((char)bb.limit());
-              _bb.put(bb.array(),0,bb.limit()); // Jam this BB into the existing batch BB, all in one go (it all fits)
-              _bb.put((byte)0xef);// Sentinel byte
+              msgs++;
+              if( isAckAck(bb) ) {      // ACKACKs of the batch are merged into one message
+                if( _nackacks == _ackacks.length ) putAckAcks();
+                _ackacks[_nackacks++] = bb.getInt(1+2+2);
+              } else {
+                if( _bb.remaining() < bb.limit()+1+2 )
+                  sendBuffer();   // Send full batch; reset _bb so taken bb fits
+                _bb.putChar((char)bb.limit());
+                _bb.put(bb.array(),0,bb.limit()); // Jam this BB into the existing batch BB, all in one go (it all fits)
+                _bb.put((byte)0xef);// Sentinel byte
+              }
               bb = _outgoingMsgQ.poll();  // Go get more, same batch
+              if( bb == null && _busy && COALESCE_LINGER_NS > 0 && _bb.position() < COALESCE_MAX_BYTES ) {
+                // Busy queue: wait a little for more messages to ship in the same batch
+                long now = System.nanoTime();
+                if( deadline == 0 ) deadline = now+COALESCE_LINGER_NS;
+                if( now < deadline )
+                  try { bb = _outgoingMsgQ.poll(deadline-now, TimeUnit.NANOSECONDS); } catch (InterruptedException ignored) { }
+              }
             }
+            putAckAcks();
             sendBuffer();         // Send final trailing BBs
+            _msgStats.messages.addAndGet(msgs);
+            _busy = msgs > 1;
           } catch (IllegalMonitorStateException imse) { /* ignore */
           } catch (InterruptedException e) { /*ignore*/ }
         }
@@ -600,8 +660,32 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
       }
     }
 
+    private boolean isAckAck(ByteBuffer bb) {
+      return bb.limit() == ACKACK_SIZE && bb.get(0) == (byte)UDP.udp.ackack.ordinal();
+    }
+
+    // Jam the pending ACKACKs into the batch as a single message: an ACKACK
+    // followed by the task#s of the other ACKACKs
+    private void putAckAcks() {
+      if( _nackacks == 0 ) return;
+      final int len = ACKACK_SIZE+4*(_nackacks-1);
+      if( _bb.remaining() < len+1+2 )
+        sendBuffer();
+      _bb.putChar((char)len);
+      _bb.put((byte)UDP.udp.ackack.ordinal()).putShort(H2O.SELF.getTimestamp()).putChar((char)H2O.H2O_PORT);
+      for( int i = 0; i < _nackacks; i++ )
+        _bb.putInt(_ackacks[i]);
+      _bb.put((byte)0xef);
+      _msgStats.merged_ackacks.addAndGet(_nackacks-1);
+      _nackacks = 0;
+    }
+
     void sendBuffer(){
       int retries = 0;
+      if( _bb.position() > 0 ) {
+        _msgStats.batches.incrementAndGet();
+        _msgStats.bytes.addAndGet(_bb.position());
+      }
       _bb.flip();                 // limit set to old position; position set to 0
       while (keepSending() && _bb.hasRemaining()) {
         try {
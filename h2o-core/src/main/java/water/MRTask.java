@@ -193,6 +193,11 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   /** Used to invoke profiling.  Call as: <code>new MRTask().profile().doAll();*/
   public T profile() { _profile = new MRProfile(this); return (T)this; }
 
+  // Metrics of the node-local execution, shared by all local instances; only when MRTaskMetrics are enabled
+  transient MRTaskMetrics.Recorder _metrics;
+  // Read-ahead of the chunks of the node-local execution, shared by all local instances; only when enabled
+  transient ChunkPrefetcher _prefetch;
+
   /** Get the resulting Frame from this invoked MRTask.  <b>This Frame is not
    *  in the DKV.</b> AppendableVec instances are closed into Vec instances,
    *  which then appear in the DKV.
@@ -695,6 +700,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   private void setupLocal0() {
     if(_profile != null)
       (_profile = new MRProfile(this))._localstart = System.currentTimeMillis();
+    _metrics = MRTaskMetrics.isEnabled() ? new MRTaskMetrics.Recorder(this) : null;
     // Make a blockable Futures for both internal and user work to block on.
     _fs = new Futures();
     if(modifiesVolatileVecs() && _fr != null){
@@ -726,6 +732,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       _lo = 0;  _hi = _fr.numCols()==0 ? 0 : _fr.anyVec().nChunks(); // Do All Chunks
       // get the Vecs from the K/V store, to avoid racing fetches from the map calls
       _fr.vecs();
+      _prefetch = ChunkPrefetcher.make(_fr, _run_local);
     } else if( _keys != null ) {    // Else doing a set of Keys
       _lo = 0;  _hi = _keys.length; // Do All Keys
     }
@@ -782,7 +789,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
           _hi > _lo && _keys[_lo].home() ) {
         assert(_keys == null || !H2O.ARGS.client) : "Client node should not process any keys in MRTask!";
         if(_profile!=null) _profile._userstart = System.currentTimeMillis();
+        final long mapstart = _metrics != null ? System.nanoTime() : 0;
         if( _keys != null ) map(_keys[_lo]);
+        if( _metrics != null ) _metrics.map(System.nanoTime() - mapstart);
         _res = self();        // Save results since called map() at least once!
         if (_postMap != null)
           _postMap.call(_keys[_lo]);
@@ -793,6 +802,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       if( _run_local || v0.chunkKey(_lo).home() ) { // And chunk is homed here?
         assert(_run_local || !H2O.ARGS.client) : "Client node should not process any keys in MRTask!";
 
+        if( _prefetch != null ) _prefetch.map(_lo); // Read ahead of the next map calls of this thread
         // Make decompression chunk headers for these chunks
         NewChunk[] appendableChunks = null;
         Chunk[] bvs = FrameUtils.extractChunks(_fr, _lo, _run_local);
@@ -809,6 +819,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         // Call all the various map() calls that apply
         if(_profile!=null)
           _profile._userstart = System.currentTimeMillis();
+        final long mapstart = _metrics != null ? System.nanoTime() : 0;
 
         int num_fr_vecs = _fr.vecs().length;
         int num_outputs = _output_types == null? 0 : _output_types.length;
@@ -834,6 +845,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         }
         if (num_outputs >= 0)
           map(bvs, appendableChunks);
+        if( _metrics != null ) _metrics.map(System.nanoTime() - mapstart);
 
         _res = self();          // Save results since called map() at least once!
         // Further D/K/V put any new vec results.
@@ -886,6 +898,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   // Block for other queued pending tasks.
   // Copy any final results into 'this', such that a return of 'this' has the results.
   private void postLocal0() {
+    if( _prefetch != null ) { _prefetch.stop(); _prefetch = null; }
     closeLocal();               // User's node-local cleanup
     if(_profile!=null) _profile._closeLocalDone = System.currentTimeMillis();
     reduce3(_nleft);            // Reduce global results from neighbors.
@@ -905,13 +918,22 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         _fr.postWrite(_fs).blockForPending();
       postGlobal();             // User's continuation work
     }
+    if( _metrics != null ) {
+      _metrics.finish();
+      _metrics = null;
+    }
 
   }
 
   // Block for RPCs to complete, then reduce global results into self results
   private void reduce3( RPC<T> rpc ) {
     if( rpc == null ) return;
+    final long waitstart = _metrics != null ? System.nanoTime() : 0;
     T mrt = rpc.get();          // This is a blocking remote call
+    if( _metrics != null ) {
+      _metrics.remote(rpc, System.nanoTime() - waitstart);
+      mrt._metrics = _metrics;  // The remote copy reduces locally from now on
+    }
     // Note: because _fs is transient it is not set or cleared by the RPC.
     // Because the MRT object is a clone of 'self' it's likely to contain a ptr
     // to the self _fs which will be not-null and still have local pending
@@ -934,7 +956,12 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         _appendables[i].reduce(mrt._appendables[i]);
     if( _ex == null ) _ex = mrt._ex;
     // User's reduction
-    reduce(mrt);
+    if( _metrics != null ) {
+      final long start = System.nanoTime();
+      reduce(mrt);
+      _metrics._reduce_ns.addAndGet(System.nanoTime() - start);
+    } else
+      reduce(mrt);
   }
 
   // Full local work-tree cancellation
@@ -0,0 +1,261 @@
+package water;
+
+import water.nbhm.NonBlockingHashMap;
+import water.util.Log;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in instrumentation of {@link MRTask}s: per task class, the time spent in map and reduce calls, waiting for the
+ * results of remote nodes and (de)serializing the remote work, and the bytes moved between the nodes.
+ * <p/>
+ * Enable it on all nodes with {@code -Dsys.ai.h2o.mrtask.metrics=true}, or at runtime by {@link #setEnabled(boolean)}
+ * (REST: {@code POST /3/MRTaskMetrics}).  Every node keeps the totals per task class and a ring buffer of its most
+ * recent task executions; they are collected from all nodes by {@link #collect()} and exposed as JSON by
+ * {@code GET /3/MRTaskMetrics} and in the Prometheus text format by {@code GET /3/MRTaskMetrics.txt}.
+ * <p/>
+ * Unlike {@code MRTask.profile()}, the metrics describe whole node-local executions of a task (all chunks of the
+ * node), not the tree of the forked subtasks.  Map and reduce times are summed over all threads, the other times are
+ * wall times.
+ */
+public final class MRTaskMetrics {
+
+  private static volatile boolean _enabled = H2O.getSysBoolProperty("mrtask.metrics", false);
+  // Capacity of the ring buffer of recent executions
+  private static final int HISTORY = historySize(H2O.getSysProperty("mrtask.metrics.history", "256"));
+
+  private static final NonBlockingHashMap<String, Totals> TOTALS = new NonBlockingHashMap<>();
+  private static final Execution[] RECENT = new Execution[HISTORY];
+  private static final AtomicLong EXECUTIONS = new AtomicLong();
+
+  private MRTaskMetrics() {}
+
+  // Invalid values must not fail the static initialization (and with it every MRTask), use the default instead
+  static int historySize(String value) {
+    try {
+      int size = Integer.parseInt(value.trim());
+      if (size > 0 && size <= 1 << 20) return size;
+    } catch (NumberFormatException e) {
+      // fall through
+    }
+    Log.warn("Invalid value of sys.ai.h2o.mrtask.metrics.history: '" + value + "', using 256.");
+    return 256;
+  }
+
+  public static boolean isEnabled() { return _enabled; }
+
+  /** Enable or disable the metrics on all nodes of the cloud */
+  public static void setEnabled(boolean enabled) {
+    new SetEnabledTask(enabled).doAllNodes();
+  }
+
+  private static class SetEnabledTask extends MRTask<SetEnabledTask> {
+    private final boolean _enable;
+    SetEnabledTask(boolean enable) { super(H2O.GUI_PRIORITY); _enable = enable; }
+    @Override protected void setupLocal() { _enabled = _enable; }
+  }
+
+  /** Measures of a single execution of a task, or their sums */
+  public static class Measures extends Iced<Measures> {
+    public long wall_ns;           // Node-local execution, from the setup to the last local reduce
+    public long map_ns;            // User map calls
+    public long maps;              // Number of map calls (chunks or keys)
+    public long reduce_ns;         // User reduce calls
+    public long remote_wait_ns;    // Waiting for the results of the remote nodes
+    public long serialize_ns;      // Serializing (and sending) the remote work
+    public long deserialize_ns;    // Deserializing the results of the remote nodes
+    public long sent_bytes;        // Remote work sent to other nodes
+    public long received_bytes;    // Results received from other nodes
+
+    void add(Measures m) {
+      wall_ns += m.wall_ns;
+      map_ns += m.map_ns;
+      maps += m.maps;
+      reduce_ns += m.reduce_ns;
+      remote_wait_ns += m.remote_wait_ns;
+      serialize_ns += m.serialize_ns;
+      deserialize_ns += m.deserialize_ns;
+      sent_bytes += m.sent_bytes;
+      received_bytes += m.received_bytes;
+    }
+  }
+
+  /** Totals of the executions of a task class on a node */
+  public static class Totals extends Measures {
+    public String task;
+    public long executions;
+  }
+
+  /** A recent execution of a task on a node */
+  public static class Execution extends Measures {
+    public String task;
+    public long start_ms;
+  }
+
+  /** Totals and recent executions of a node */
+  public static class NodeMetrics extends Iced<NodeMetrics> {
+    public String node;
+    public Totals[] totals;
+    public Execution[] recent; // the oldest first
+  }
+
+  /**
+   * Measures of one node-local execution of an MRTask, shared by all local instances of the task (the instances
+   * forked for the chunks of this node).  Made on the top local instance when the metrics are enabled.
+   */
+  static final class Recorder {
+    private final String _task;
+    private final long _start = System.nanoTime();
+    private final long _startMs = System.currentTimeMillis();
+    final AtomicLong _map_ns = new AtomicLong();
+    final AtomicLong _maps = new AtomicLong();
+    final AtomicLong _reduce_ns = new AtomicLong();
+    final AtomicLong _remote_wait_ns = new AtomicLong();
+    final AtomicLong _serialize_ns = new AtomicLong();
+    final AtomicLong _deserialize_ns = new AtomicLong();
+    final AtomicLong _sent_bytes = new AtomicLong();
+    final AtomicLong _received_bytes = new AtomicLong();
+
+    Recorder(MRTask<?> task) {
+      _task = task.getClass().getName();
+    }
+
+    void map(long ns) {
+      _map_ns.addAndGet(ns);
+      _maps.incrementAndGet();
+    }
+
+    void remote(RPC<?> rpc, long waitNs) {
+      _remote_wait_ns.addAndGet(waitNs);
+      _serialize_ns.addAndGet(rpc._ser_ns);
+      _deserialize_ns.addAndGet(rpc._deser_ns);
+      _sent_bytes.addAndGet(rpc._sent_bytes);
+      _received_bytes.addAndGet(rpc.size_rez());
+    }
+
+    void finish() {
+      Execution e = new Execution();
+      e.task = _task;
+      e.start_ms = _startMs;
+      e.wall_ns = System.nanoTime() - _start;
+      e.map_ns = _map_ns.get();
+      e.maps = _maps.get();
+      e.reduce_ns = _reduce_ns.get();
+      e.remote_wait_ns = _remote_wait_ns.get();
+      e.serialize_ns = _serialize_ns.get();
+      e.deserialize_ns = _deserialize_ns.get();
+      e.sent_bytes = _sent_bytes.get();
+      e.received_bytes = _received_bytes.get();
+      record(e);
+    }
+  }
+
+  private static void record(Execution e) {
+    Totals t = TOTALS.get(e.task);
+    if (t == null) {
+      Totals t2 = new Totals();
+      t2.task = e.task;
+      t = TOTALS.putIfAbsent(e.task, t2);
+      if (t == null) t = t2;
+    }
+    synchronized (t) {
+      t.executions++;
+      t.add(e);
+    }
+    RECENT[(int) (EXECUTIONS.getAndIncrement() % RECENT.length)] = e;
+  }
+
+  /** @return totals and recent executions of this node */
+  static NodeMetrics local() {
+    NodeMetrics nm = new NodeMetrics();
+    nm.node = H2O.SELF.getIpPortString();
+    List<Totals> totals = new ArrayList<>();
+    for (Totals t : TOTALS.values()) {
+      Totals c = new Totals();
+      synchronized (t) {
+        c.task = t.task;
+        c.executions = t.executions;
+        c.add(t);
+      }
+      totals.add(c);
+    }
+    totals.sort(Comparator.comparing((Totals t) -> t.task));
+    nm.totals = totals.toArray(new Totals[0]);
+    final long n = EXECUTIONS.get();
+    final int len = (int) Math.min(n, RECENT.length);
+    List<Execution> recent = new ArrayList<>(len);
+    for (long i = n - len; i < n; i++) {
+      Execution e = RECENT[(int) (i % RECENT.length)];
+      if (e != null) recent.add(e);
+    }
+    nm.recent = recent.toArray(new Execution[0]);
+    return nm;
+  }
+
+  /** @return metrics of all nodes of the cloud, indexed by the node index */
+  public static NodeMetrics[] collect() {
+    return new CollectTask().doAllNodes()._nodes;
+  }
+
+  private static class CollectTask extends MRTask<CollectTask> {
+    NodeMetrics[] _nodes;
+    CollectTask() { super(H2O.GUI_PRIORITY); }
+    @Override protected void setupLocal() {
+      _nodes = new NodeMetrics[H2O.CLOUD.size()];
+      _nodes[H2O.SELF.index()] = local();
+    }
+    @Override public void reduce(CollectTask that) {
+      for (int i = 0; i < _nodes.length; i++)
+        if (_nodes[i] == null) _nodes[i] = that._nodes[i];
+    }
+  }
+
+  /** @return the totals of the nodes in the Prometheus text exposition format */
+  public static String toPrometheus(NodeMetrics[] nodes) {
+    StringBuilder sb = new StringBuilder();
+    counter(sb, nodes, "h2o_mrtask_executions_total", "Node-local executions of the task", 0);
+    counter(sb, nodes, "h2o_mrtask_maps_total", "Map calls (chunks or keys) of the task", 1);
+    counter(sb, nodes, "h2o_mrtask_wall_seconds_total", "Wall time of the node-local executions", 2);
+    counter(sb, nodes, "h2o_mrtask_map_seconds_total", "Time in map calls, summed over threads", 3);
+    counter(sb, nodes, "h2o_mrtask_reduce_seconds_total", "Time in reduce calls, summed over threads", 4);
+    counter(sb, nodes, "h2o_mrtask_remote_wait_seconds_total", "Time waiting for the results of remote nodes", 5);
+    counter(sb, nodes, "h2o_mrtask_serialize_seconds_total", "Time serializing and sending work to remote nodes", 6);
+    counter(sb, nodes, "h2o_mrtask_deserialize_seconds_total", "Time deserializing the results of remote nodes", 7);
+    counter(sb, nodes, "h2o_mrtask_sent_bytes_total", "Bytes of work sent to remote nodes", 8);
+    counter(sb, nodes, "h2o_mrtask_received_bytes_total", "Bytes of results received from remote nodes", 9);
+    return sb.toString();
+  }
+
+  private static void counter(StringBuilder sb, NodeMetrics[] nodes, String name, String help, int what) {
+    sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    sb.append("# TYPE ").append(name).append(" counter\n");
+    for (NodeMetrics nm : nodes) {
+      if (nm == null) continue;
+      for (Totals t : nm.totals) {
+        sb.append(name).append("{node=\"").append(escape(nm.node)).append("\",task=\"").append(escape(t.task)).append("\"} ");
+        switch (what) {
+          case 0: sb.append(t.executions); break;
+          case 1: sb.append(t.maps); break;
+          case 2: sb.append(t.wall_ns / 1e9); break;
+          case 3: sb.append(t.map_ns / 1e9); break;
+          case 4: sb.append(t.reduce_ns / 1e9); break;
+          case 5: sb.append(t.remote_wait_ns / 1e9); break;
+          case 6: sb.append(t.serialize_ns / 1e9); break;
+          case 7: sb.append(t.deserialize_ns / 1e9); break;
+          case 8: sb.append(t.sent_bytes); break;
+          case 9: sb.append(t.received_bytes); break;
+          default: throw H2O.fail();
+        }
+        sb.append('\n');
+      }
+    }
+  }
+
+  private static String escape(String s) {
+    return s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+  }
+
+}
@@ -86,6 +86,10 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
   // if should remain the same size.
   int _size;
   int _size_rez;                // Size of received results
+  // Cost of the wire transfer, for MRTaskMetrics
+  int _sent_bytes;              // Size of the sent DTask
+  long _ser_ns;                 // Time serializing & sending the DTask
+  long _deser_ns;               // Time receiving & deserializing the results
 
   // Magic Cookies
   static final byte SERVER_UDP_SEND = 10;
@@ -197,11 +201,14 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
           AutoBuffer ab = new AutoBuffer(_target,_dt.priority());
           try {
             final boolean t;
+            final long ns = System.nanoTime();
             ab.putTask(UDP.udp.exec, _tasknum).put1(CLIENT_UDP_SEND);
             ab.put(_dt);
             t = ab.hasTCP();
             assert sz_check(ab) : "Resend of " + _dt.getClass() + " changes size from " + _size + " to " + ab.size() + " for task#" + _tasknum;
             ab.close();        // Then close; send final byte
+            _ser_ns = System.nanoTime() - ns;
+            _sent_bytes = ab.size();
             _sentTcp = t;  // Set after close (and any other possible fail)
             break;             // Break out of retry loop
           } catch( AutoBuffer.AutoBufferException e ) {
@@ -618,9 +625,11 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
           ab.drainClose();
         } else {
 //          UDPTimeOutThread.PENDING.remove(_tasknum);
+          final long ns = System.nanoTime();
           _dt.read(ab);             // Read the answer (under lock?)
           _size_rez = ab.size();    // Record received size
           ab.close();               // Also finish the read (under lock?  even if canceled, since need to drain TCP)
+          _deser_ns = System.nanoTime() - ns;
           if (!isCancelled())       // Can be canceled already (locally by MRTask while recieving remote answer)
             _dt.onAck();            // One time only execute (before sending ACKACK)
           _done = true;             // Only read one (of many) response packets
@@ -0,0 +1,143 @@
+package water;
+
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
+
+/**
+ * Frequency- and cost-aware eviction policy in the spirit of W-TinyLFU.
+ *
+ * Recency is the base of the priority (Values that were touched recently are the "window" that is never cleaned
+ * before older data). On top of it every Value gets a boost proportional to how often its Key was accessed
+ * recently - estimated by a TinyLFU frequency sketch - and to how expensive it is to bring the Value back:
+ * <ul>
+ *   <li>Values with a copy on this node's disk only need to be re-read,</li>
+ *   <li>Values that haven't been spilled yet also need to be written out first,</li>
+ *   <li>Values homed on a different node have to be fetched over the network.</li>
+ * </ul>
+ * Iterative algorithms (eg. GBM) that read the same chunks in every iteration thus keep them cached, while
+ * Values that are read once (eg. parse input, temporary frames) are spilled first.
+ *
+ * Tuning: {@value #PROP_BOOST_MS} (msec of boost per estimated access and unit of cost) and
+ * {@value #PROP_SKETCH_SIZE} (number of 64-bit words of the sketch, 16 counters each).
+ */
+class TinyLfuEvictionPolicy extends EvictionPolicy {
+
+  static final String PROP_BOOST_MS = SYSTEM_PROP_PREFIX + "cleaner.tinylfu.boostMs";
+  static final String PROP_SKETCH_SIZE = SYSTEM_PROP_PREFIX + "cleaner.tinylfu.sketchSize";
+
+  static final int MAX_COST = 3;
+
+  private final FrequencySketch _sketch;
+  private final long _boostMs;
+
+  TinyLfuEvictionPolicy() {
+    this(Integer.getInteger(PROP_SKETCH_SIZE, 1 << 16), Long.getLong(PROP_BOOST_MS, 1000));
+  }
+
+  TinyLfuEvictionPolicy(int sketchSize, long boostMs) {
+    _sketch = new FrequencySketch(sketchSize);
+    _boostMs = boostMs;
+  }
+
+  @Override public String name() { return "tinylfu"; }
+
+  @Override void recordAccess(Value v) {
+    super.recordAccess(v);
+    _sketch.increment(v._key.hashCode());
+  }
+
+  @Override long priority(Value v) {
+    return v._lastAccessedTime + _sketch.frequency(v._key.hashCode()) * cost(v) * _boostMs;
+  }
+
+  @Override long maxBoost() { return FrequencySketch.MAX_FREQUENCY * MAX_COST * _boostMs; }
+
+  // Relative cost of dropping the Value from memory, 1..MAX_COST
+  static int cost(Value v) {
+    if (!v._key.home())
+      return 3; // remote fetch
+    return v.isPersisted() ? 1 : 2;
+  }
+
+  /**
+   * Count-min sketch with 4-bit counters (estimates up to {@link #MAX_FREQUENCY}), 16 counters per 64-bit word.
+   * Each item has four counters, the i-th one in the word picked by the i-th hash of the item; the low bits of the
+   * item's hash select which group of four counters of a word the item uses. Once the number of increments reaches
+   * 10x the number of words all counters are halved, so that the estimates reflect recent history.
+   *
+   * Updates are not synchronized: the sketch tolerates lost updates from racing threads.
+   */
+  static final class FrequencySketch {
+    static final int MAX_FREQUENCY = 15;
+
+    private static final long[] SEED = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    private final long[] _table;
+    private final int _tableMask;
+    private final int _sampleSize;
+    private int _size;
+
+    FrequencySketch(int size) {
+      int len = Integer.highestOneBit(Math.max(size - 1, 1)) << 1; // power of 2
+      _table = new long[len];
+      _tableMask = len - 1;
+      _sampleSize = 10 * len;
+    }
+
+    int frequency(int hash) {
+      hash = spread(hash);
+      int start = (hash & 3) << 2;
+      int freq = Integer.MAX_VALUE;
+      for (int i = 0; i < 4; i++) {
+        int index = indexOf(hash, i);
+        int count = (int) ((_table[index] >>> ((start + i) << 2)) & 0xfL);
+        freq = Math.min(freq, count);
+      }
+      return freq;
+    }
+
+    void increment(int hash) {
+      hash = spread(hash);
+      int start = (hash & 3) << 2;
+      boolean added = false;
+      for (int i = 0; i < 4; i++) {
+        added |= incrementAt(indexOf(hash, i), start + i);
+      }
+      if (added && ++_size >= _sampleSize)
+        reset();
+    }
+
+    private boolean incrementAt(int i, int j) {
+      int offset = j << 2;
+      long mask = 0xfL << offset;
+      if ((_table[i] & mask) != mask) {
+        _table[i] += 1L << offset;
+        return true;
+      }
+      return false;
+    }
+
+    private void reset() {
+      int count = 0;
+      for (int i = 0; i < _table.length; i++) {
+        count += Long.bitCount(_table[i] & ONE_MASK);
+        _table[i] = (_table[i] >>> 1) & RESET_MASK;
+      }
+      _size = (_size >>> 1) - (count >>> 2);
+    }
+
+    private int indexOf(int item, int i) {
+      long hash = (item + SEED[i]) * SEED[i];
+      hash += hash >>> 32;
+      return ((int) hash) & _tableMask;
+    }
+
+    private static int spread(int x) {
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      return (x >>> 16) ^ x;
+    }
+  }
+
+}
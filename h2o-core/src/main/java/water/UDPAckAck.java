@@ -11,6 +11,9 @@ class UDPAckAck extends UDP {
   // Received an ACKACK for a remote Task.  Drop the task tracking
   @Override AutoBuffer call(AutoBuffer ab) {
     ab._h2o.remove_task_tracking(ab.getTask());
+    // ACKACKs sent together are merged into one, the task#s of the others follow
+    while( ab.remaining() >= 4 )
+      ab._h2o.remove_task_tracking(ab.get4());
     return ab;
   }
 
@@ -146,7 +146,7 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
    *  speed.  Will (re)build the POJO from the _mem array.  Never returns NULL.
    *  @return The POJO, probably the cached instance.  */
   public final <T extends Iced> T get() {
-    touch();
+    access();
     Iced pojo = (Iced)_pojo;    // Read once!
     if( pojo != null ) return (T)pojo;
     pojo = TypeMap.newInstance(_type);
@@ -165,7 +165,7 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
    *  Will (re)build the POJO from the _mem array.  Never returns NULL.
    *  @return The POJO, probably the cached instance.  */
   public final <T extends Freezable> T getFreezable() {
-    touch();
+    access();
     Freezable pojo = _pojo;     // Read once!
     if( pojo != null ) return (T)pojo;
     pojo = TypeMap.newFreezable(_type);
@@ -177,6 +177,8 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   // Time of last access to this value.
   transient long _lastAccessedTime = System.currentTimeMillis();
   private void touch() {_lastAccessedTime = System.currentTimeMillis();}
+  // Read of the content: touch & let the eviction policy know
+  private void access() { touch(); EvictionPolicy.current().recordAccess(this); }
   // Exposed and used for testing only; used to trigger premature cleaning/disk-swapping
   void touchAt(long time) {_lastAccessedTime = time;}
 
@@ -259,6 +261,7 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     try {
       byte[] res = H2O.getPM().load(backend(), this);
       assert !isDeleted();        // Race in user-land: load-after-delete
+      if( res != null && onICE() ) EvictionPolicy.current().recordReload(this, res.length); // reload of spilled data
       return res;
     } catch( IOException ioe ) { throw Log.throwErr(ioe); }
   }
@@ -0,0 +1,26 @@
+package water.api;
+
+import water.MRTaskMetrics;
+import water.api.schemas3.MRTaskMetricsV3;
+
+public class MRTaskMetricsHandler extends Handler {
+  @SuppressWarnings("unused") // called through reflection by RequestServer
+  public MRTaskMetricsV3 fetch(int version, MRTaskMetricsV3 s) {
+    s.enabled = MRTaskMetrics.isEnabled();
+    s.nodes = MRTaskMetrics.collect();
+    return s;
+  }
+
+  @SuppressWarnings("unused") // called through reflection by RequestServer
+  public MRTaskMetricsV3 prometheus(int version, MRTaskMetricsV3 s) {
+    s.enabled = MRTaskMetrics.isEnabled();
+    s.prometheus = MRTaskMetrics.toPrometheus(MRTaskMetrics.collect());
+    return s;
+  }
+
+  @SuppressWarnings("unused") // called through reflection by RequestServer
+  public MRTaskMetricsV3 enable(int version, MRTaskMetricsV3 s) {
+    MRTaskMetrics.setEnabled(s.enabled);
+    return fetch(version, s);
+  }
+}
@@ -380,6 +380,18 @@ public class RegisterV3Api extends AbstractRegister {
             "GET /3/WaterMeterIo", WaterMeterIoHandler.class, "fetch_all",
             "Return IO usage snapshot of all nodes in the H2O cluster.");
 
+    context.registerEndpoint("mrtaskMetrics",
+            "GET /3/MRTaskMetrics", MRTaskMetricsHandler.class, "fetch",
+            "Return MRTask metrics (totals per task class and recent task executions) of all nodes in the H2O cluster.");
+
+    context.registerEndpoint("mrtaskMetricsPrometheus",
+            "GET /3/MRTaskMetrics.txt", MRTaskMetricsHandler.class, "prometheus",
+            "Return MRTask metrics of all nodes in the H2O cluster in the Prometheus text format.");
+
+    context.registerEndpoint("mrtaskMetricsEnable",
+            "POST /3/MRTaskMetrics", MRTaskMetricsHandler.class, "enable",
+            "Enable or disable recording of MRTask metrics on all nodes in the H2O cluster.");
+
     // Node persistent storage
     context.registerEndpoint("npsContains",
             "GET /3/NodePersistentStorage/categories/{category}/names/{name}/exists",
@@ -4,6 +4,7 @@ import org.apache.commons.lang.exception.ExceptionUtils;
 import water.*;
 import water.api.schemas3.H2OErrorV3;
 import water.api.schemas3.H2OModelBuilderErrorV3;
+import water.api.schemas3.MRTaskMetricsV3;
 import water.api.schemas99.AssemblyV99;
 import water.exceptions.*;
 import water.init.NodePersistentStorage;
@@ -779,6 +780,10 @@ public class RequestServer extends HttpServlet {
       case html: // return JSON for html requests
       case json:
         return new NanoResponse(http_response_header, MIME_JSON, s.toJsonBytes());
+      case txt:
+        if (s instanceof MRTaskMetricsV3)
+          return new NanoResponse(http_response_header, MIME_PLAINTEXT, ((MRTaskMetricsV3) s).prometheus);
+        throw new H2OIllegalArgumentException("Cannot generate text for type: " + s.getClass().getSimpleName());
       case xml:
         throw H2O.unimpl("Unknown type: " + type.toString());
       case java:
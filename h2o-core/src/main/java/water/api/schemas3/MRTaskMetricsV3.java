@@ -0,0 +1,16 @@
+package water.api.schemas3;
+
+import water.Iced;
+import water.MRTaskMetrics;
+import water.api.API;
+
+public class MRTaskMetricsV3 extends RequestSchemaV3<Iced, MRTaskMetricsV3> {
+  @API(help="Whether MRTask metrics are recorded (set to enable or disable them on all nodes)", direction = API.Direction.INOUT)
+  public boolean enabled;
+
+  @API(help="Totals per task class and recent task executions of every node", direction = API.Direction.OUTPUT)
+  public MRTaskMetrics.NodeMetrics[] nodes;
+
+  @API(help="Totals per task class in the Prometheus text format", direction = API.Direction.OUTPUT)
+  public String prometheus;
+}
@@ -11,6 +11,18 @@ public class WaterMeterIoV3 extends RequestSchemaV3<WaterMeterIo, WaterMeterIoV3
   @API(help="array of IO info", direction = API.Direction.OUTPUT)
   public WaterMeterIo.IoStatsEntry persist_stats[];
 
+  @API(help="array of cache (Cleaner eviction policy) info", direction = API.Direction.OUTPUT)
+  public WaterMeterIo.CacheStatsEntry cache_stats[];
+
+  @API(help="array of compressed TCP transfer info", direction = API.Direction.OUTPUT)
+  public WaterMeterIo.WireStatsEntry wire_stats[];
+
+  @API(help="array of small message (per peer send queue) info", direction = API.Direction.OUTPUT)
+  public WaterMeterIo.MessageStatsEntry message_stats[];
+
+  @API(help="array of MRTask chunk read-ahead info", direction = API.Direction.OUTPUT)
+  public WaterMeterIo.PrefetchStatsEntry prefetch_stats[];
+
   // Version&Schema-specific filling into the implementation object
   public WaterMeterIo createImpl() {
     WaterMeterIo obj = new WaterMeterIo();
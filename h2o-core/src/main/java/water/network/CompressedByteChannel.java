@@ -0,0 +1,169 @@
+package water.network;
+
+import water.util.LZ4;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wrapper of a (possibly SSL) socket channel which sends the written bytes in LZ4 compressed blocks.
+ * <p/>
+ * Every block is sent as a 9 byte header - the length of the data, the length of the block on the wire and the codec
+ * - followed by the block.  Blocks shorter than {@code minBytes} and blocks which do not get smaller by compression
+ * are sent as they are.  A read never consumes more bytes from the underlying channel than the blocks it decodes,
+ * so the raw handshake bytes exchanged on the underlying socket at the end of a message are left intact.
+ */
+public class CompressedByteChannel implements ByteChannel {
+
+  /** Maximal length of the data in a block */
+  public static final int BLOCK_SIZE = 1 << 16;
+
+  private static final int HEADER_SIZE = 4 + 4 + 1;
+  private static final byte CODEC_NONE = 0;
+  private static final byte CODEC_LZ4 = 1;
+
+  public static class Stats {
+    public final AtomicLong sent_blocks = new AtomicLong();
+    public final AtomicLong sent_compressed_blocks = new AtomicLong();
+    public final AtomicLong sent_bytes = new AtomicLong();
+    public final AtomicLong sent_wire_bytes = new AtomicLong();
+    public final AtomicLong compress_ns = new AtomicLong();
+    public final AtomicLong received_blocks = new AtomicLong();
+    public final AtomicLong received_bytes = new AtomicLong();
+    public final AtomicLong received_wire_bytes = new AtomicLong();
+    public final AtomicLong decompress_ns = new AtomicLong();
+  }
+
+  private static final Stats STATS = new Stats();
+
+  /** @return statistics of all compressed channels of this node */
+  public static Stats getStats() { return STATS; }
+
+  private final ByteChannel _chan;
+  private final int _minBytes;
+  private final ByteBuffer _header = ByteBuffer.allocate(HEADER_SIZE);
+  // Lazily allocated, a channel is used either for writing or for reading
+  private byte[] _raw;     // data of the current block
+  private byte[] _wire;    // block as sent over the wire (preceded by the header when writing)
+  private ByteBuffer _in;  // decoded data not read yet
+
+  /**
+   * @param chan channel to wrap
+   * @param minBytes blocks shorter than this are not compressed
+   */
+  public CompressedByteChannel(ByteChannel chan, int minBytes) {
+    _chan = chan;
+    _minBytes = minBytes;
+  }
+
+  /** @return the wrapped channel */
+  public ByteChannel channel() {
+    return _chan;
+  }
+
+  @Override
+  public int write(ByteBuffer src) throws IOException {
+    allocateBuffers();
+    final int n = src.remaining();
+    while (src.hasRemaining()) {
+      final int len = Math.min(src.remaining(), BLOCK_SIZE);
+      src.get(_raw, 0, len);
+      int wireLen = len;
+      byte codec = CODEC_NONE;
+      if (len >= _minBytes) {
+        long ns = System.nanoTime();
+        int packed = LZ4.compress(_raw, 0, len, _wire, HEADER_SIZE);
+        STATS.compress_ns.addAndGet(System.nanoTime() - ns);
+        if (packed < len) {
+          wireLen = packed;
+          codec = CODEC_LZ4;
+          STATS.sent_compressed_blocks.incrementAndGet();
+        }
+      }
+      if (codec == CODEC_NONE)
+        System.arraycopy(_raw, 0, _wire, HEADER_SIZE, len);
+      ByteBuffer bb = ByteBuffer.wrap(_wire, 0, HEADER_SIZE + wireLen);
+      bb.putInt(len).putInt(wireLen).put(codec).position(0);
+      while (bb.hasRemaining())
+        _chan.write(bb);
+      STATS.sent_blocks.incrementAndGet();
+      STATS.sent_bytes.addAndGet(len);
+      STATS.sent_wire_bytes.addAndGet(HEADER_SIZE + wireLen);
+    }
+    return n;
+  }
+
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    if ((_in == null || !_in.hasRemaining()) && !readBlock())
+      return -1;
+    final int n = Math.min(dst.remaining(), _in.remaining());
+    dst.put(_in.array(), _in.position(), n);
+    _in.position(_in.position() + n);
+    return n;
+  }
+
+  // Reads and decodes the next block, false on the end of stream
+  private boolean readBlock() throws IOException {
+    _header.clear();
+    if (!readFully(_header, true)) return false;
+    _header.flip();
+    final int len = _header.getInt();
+    final int wireLen = _header.getInt();
+    final byte codec = _header.get();
+    if (len <= 0 || len > BLOCK_SIZE || wireLen <= 0 || wireLen > LZ4.maxCompressedLength(BLOCK_SIZE) ||
+            (codec != CODEC_NONE && codec != CODEC_LZ4))
+      throw new IOException("Communication protocol failure: malformed compressed block header (length " + len +
+              ", wire length " + wireLen + ", codec " + codec + ")");
+    allocateBuffers();
+    if (codec == CODEC_NONE) {
+      if (wireLen != len)
+        throw new IOException("Communication protocol failure: uncompressed block of length " + len + " has wire length " + wireLen);
+      readFully(ByteBuffer.wrap(_raw, 0, len), false);
+    } else {
+      readFully(ByteBuffer.wrap(_wire, 0, wireLen), false);
+      long ns = System.nanoTime();
+      try {
+        LZ4.decompress(_wire, 0, wireLen, _raw, 0, len);
+      } catch (IllegalArgumentException e) {
+        throw new IOException("Communication protocol failure: corrupted compressed block", e);
+      }
+      STATS.decompress_ns.addAndGet(System.nanoTime() - ns);
+    }
+    STATS.received_blocks.incrementAndGet();
+    STATS.received_bytes.addAndGet(len);
+    STATS.received_wire_bytes.addAndGet(HEADER_SIZE + wireLen);
+    _in = ByteBuffer.wrap(_raw, 0, len);
+    return true;
+  }
+
+  private void allocateBuffers() {
+    if (_raw != null) return;
+    _raw = new byte[BLOCK_SIZE];
+    _wire = new byte[HEADER_SIZE + LZ4.maxCompressedLength(BLOCK_SIZE)];
+  }
+
+  private boolean readFully(ByteBuffer bb, boolean eofAllowed) throws IOException {
+    while (bb.hasRemaining()) {
+      if (_chan.read(bb) == -1) {
+        if (eofAllowed && bb.position() == 0) return false;
+        throw new EOFException("End of stream in the middle of a compressed block");
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean isOpen() {
+    return _chan.isOpen();
+  }
+
+  @Override
+  public void close() throws IOException {
+    _chan.close();
+  }
+
+}
@@ -1,15 +1,12 @@
 package water.parser;
 
-import java.util.concurrent.atomic.AtomicInteger;
-
 import water.Iced;
-import water.util.IcedHashMap;
 import water.util.Log;
 import water.util.PrettyPrint;
 
 /** Class for tracking categorical (factor) columns.
  *
- *  Basically a wrapper around non blocking hash map.
+ *  Basically a wrapper around a concurrent string-to-id dictionary ({@link CategoricalDictionary}).
  *  In the first pass, we just collect set of unique strings per column
  *  (if there are less than MAX_CATEGORICAL_COUNT unique elements).
  *  
@@ -24,26 +21,21 @@ import water.util.PrettyPrint;
 public final class Categorical extends Iced {
 
   public static final int MAX_CATEGORICAL_COUNT = 10000000;
-  transient AtomicInteger _id = new AtomicInteger();
   int _maxId = -1;
-  volatile IcedHashMap<BufferedString, Integer> _map;
+  // Node-local: Categoricals are shared by the parse threads of a node, never sent over the wire
+  transient volatile CategoricalDictionary _map;
   boolean maxDomainExceeded = false;
 
-  Categorical() { _map = new IcedHashMap<>(); }
+  Categorical() { _map = new CategoricalDictionary(); }
 
   /** Add key to this map (treated as hash set in this case). */
   int addKey(BufferedString str) {
     // _map is shared and be cast to null (if categorical is killed) -> grab local copy
-    IcedHashMap<BufferedString, Integer> m = _map;
+    CategoricalDictionary m = _map;
     if( m == null ) return Integer.MAX_VALUE;     // Nuked already
-    Integer res = m.get(str);
-    if( res != null ) return res; // Recorded already
-    assert str.length() < 65535; // Length limit so 65535 can be used as a sentinel
-    int newVal = _id.incrementAndGet();
-    res = m.putIfAbsent(new BufferedString(str), newVal);
-    if( res != null ) return res;
-    if( m.size() > MAX_CATEGORICAL_COUNT) maxDomainExceeded = true;
-    return newVal;
+    int res = m.addKey(str);
+    if( res > MAX_CATEGORICAL_COUNT && m.size() > MAX_CATEGORICAL_COUNT) maxDomainExceeded = true;
+    return res;
   }
   final boolean containsKey(BufferedString key){ return _map.containsKey(key); }
   @Override public String toString() {
@@ -52,12 +44,12 @@ public final class Categorical extends Iced {
 
   int getTokenId( BufferedString str ) { return _map.get(str); }
   
-  int maxId() { return _maxId == -1 ? _id.get() : _maxId; }
+  int maxId() { return _maxId == -1 ? _map.maxId() : _maxId; }
   int size() { return _map.size(); }
   boolean isMapFull() { return maxDomainExceeded; }
 
   BufferedString[] getColumnDomain() {
-    return  _map.keySet().toArray(new BufferedString[_map.size()]);
+    return _map.keys();
   }
 
   /**
@@ -67,7 +59,7 @@ public final class Categorical extends Iced {
    */
   void convertToUTF8(int col) {
     int hexConvLeft = 10;
-    BufferedString[] bStrs = _map.keySet().toArray(new BufferedString[_map.size()]);
+    BufferedString[] bStrs = _map.keys();
     StringBuilder hexSB = new StringBuilder();
     for (int i = 0; i < bStrs.length; i++) {
       String s = bStrs[i].toString(); // converts to String using UTF-8 encoding
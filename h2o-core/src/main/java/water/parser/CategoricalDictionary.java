@@ -0,0 +1,275 @@
+package water.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Concurrent dictionary of byte strings to int ids, used to collect the domains of categorical columns during parse.
+ *
+ * Unlike a {@code Map<BufferedString,Integer>} it doesn't create any objects per entry: the bytes of the strings
+ * are appended into arena pages and the entries live in primitive arrays of an open-addressing hash table
+ * (64-bit hash, address of the string in the arena and the id).
+ *
+ * The dictionary is split into segments by the top bits of the hash. Lookups are lock-free, insertions take
+ * the lock of the segment. Entries are published by writing their id last, a lookup that races with an insertion
+ * (or with a resize of the table) can miss the new key - {@link #addKey} re-checks under the lock.
+ *
+ * Ids are assigned sequentially starting from 1.
+ */
+final class CategoricalDictionary {
+
+  private static final int SEGMENT_BITS = 4;
+  private static final int INITIAL_CAPACITY = 8;  // slots per segment
+  private static final int INITIAL_PAGE_SIZE = 256;
+  private static final int MAX_PAGE_SIZE = 1 << 20;
+
+  private static final int FREE = 0;
+  private static final int TOMBSTONE = -1;
+
+  private final Segment[] _segments = new Segment[1 << SEGMENT_BITS];
+  private final AtomicInteger _lastId = new AtomicInteger();
+
+  CategoricalDictionary() {
+    for (int i = 0; i < _segments.length; i++)
+      _segments[i] = new Segment();
+  }
+
+  /**
+   * Adds the key if not present yet.
+   * @return id of the key
+   */
+  int addKey(BufferedString str) {
+    final byte[] buf = str.getBuffer();
+    final int off = str.getOffset(), len = str.length();
+    final long hash = hash(buf, off, len);
+    Segment seg = segment(hash);
+    int id = seg.find(hash, buf, off, len);
+    if (id != FREE) return id;
+    synchronized (seg) {
+      id = seg.find(hash, buf, off, len); // lost the race with an insertion?
+      if (id != FREE) return id;
+      id = _lastId.incrementAndGet();
+      seg.insert(hash, buf, off, len, id);
+      return id;
+    }
+  }
+
+  /** @return id of the key, -1 if the key is not present */
+  int get(BufferedString str) {
+    final byte[] buf = str.getBuffer();
+    final int off = str.getOffset(), len = str.length();
+    final long hash = hash(buf, off, len);
+    int id = segment(hash).find(hash, buf, off, len);
+    return id == FREE ? -1 : id;
+  }
+
+  boolean containsKey(BufferedString str) {
+    return get(str) != -1;
+  }
+
+  /** Associates the key with a given id, replacing the current id if the key is already present. */
+  void put(BufferedString str, int id) {
+    assert id > 0;
+    final byte[] buf = str.getBuffer();
+    final int off = str.getOffset(), len = str.length();
+    final long hash = hash(buf, off, len);
+    Segment seg = segment(hash);
+    synchronized (seg) {
+      int slot = seg.findSlot(hash, buf, off, len);
+      if (slot >= 0) seg._table._ids.set(slot, id);
+      else seg.insert(hash, buf, off, len, id);
+    }
+  }
+
+  void remove(BufferedString str) {
+    final byte[] buf = str.getBuffer();
+    final int off = str.getOffset(), len = str.length();
+    final long hash = hash(buf, off, len);
+    Segment seg = segment(hash);
+    synchronized (seg) {
+      int slot = seg.findSlot(hash, buf, off, len);
+      if (slot >= 0) {
+        seg._table._ids.set(slot, TOMBSTONE);
+        seg._size--;
+      }
+    }
+  }
+
+  int size() {
+    int size = 0;
+    for (Segment seg : _segments)
+      size += seg._size;
+    return size;
+  }
+
+  /** @return highest id assigned so far */
+  int maxId() {
+    return _lastId.get();
+  }
+
+  /** @return copies of all keys, in no particular order */
+  BufferedString[] keys() {
+    List<BufferedString> keys = new ArrayList<>(size());
+    for (Segment seg : _segments) {
+      synchronized (seg) {
+        Table t = seg._table;
+        for (int i = 0; i < t._hashes.length; i++) {
+          if (t._ids.get(i) > 0)
+            keys.add(seg.key(t._addrs[i]));
+        }
+      }
+    }
+    return keys.toArray(new BufferedString[keys.size()]);
+  }
+
+  @Override public String toString() {
+    StringBuilder sb = new StringBuilder("{");
+    for (BufferedString key : keys()) {
+      if (sb.length() > 1) sb.append(", ");
+      sb.append(key).append('=').append(get(key));
+    }
+    return sb.append('}').toString();
+  }
+
+  private Segment segment(long hash) {
+    return _segments[(int) (hash >>> (64 - SEGMENT_BITS))];
+  }
+
+  // 64-bit FNV-1a with a final avalanche (MurmurHash3 fmix64)
+  static long hash(byte[] buf, int off, int len) {
+    long h = 0xcbf29ce484222325L;
+    for (int i = off; i < off + len; i++) {
+      h ^= buf[i];
+      h *= 0x100000001b3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  private static final class Table {
+    final long[] _hashes;
+    final long[] _addrs; // page index (high 32 bits) and offset in the page (low 32 bits) of the key
+    final AtomicIntegerArray _ids; // FREE, TOMBSTONE or the id; written last when publishing an entry
+    final int _mask;
+
+    Table(int capacity) {
+      _hashes = new long[capacity];
+      _addrs = new long[capacity];
+      _ids = new AtomicIntegerArray(capacity);
+      _mask = capacity - 1;
+    }
+  }
+
+  private static final class Segment {
+    volatile Table _table = new Table(INITIAL_CAPACITY);
+    // Arena of the keys: each key is stored as a 2-byte length followed by the bytes. Pages are never moved,
+    // readers see the pages referenced by an entry because the page is written before the entry is published.
+    byte[][] _pages = new byte[0][];
+    int _pageEnd; // first free byte of the last page, guarded by the segment
+    int _size; // live entries, guarded by the segment (read racily by size())
+    int _used; // used slots (including tombstones), guarded by the segment
+
+    int find(long hash, byte[] buf, int off, int len) {
+      Table t = _table;
+      int slot = findSlot(t, hash, buf, off, len);
+      return slot < 0 ? FREE : t._ids.get(slot);
+    }
+
+    int findSlot(long hash, byte[] buf, int off, int len) {
+      return findSlot(_table, hash, buf, off, len);
+    }
+
+    private int findSlot(Table t, long hash, byte[] buf, int off, int len) {
+      int i = (int) hash & t._mask;
+      while (true) {
+        int id = t._ids.get(i);
+        if (id == FREE) return -1;
+        if (id != TOMBSTONE && t._hashes[i] == hash && keyEquals(t._addrs[i], buf, off, len)) return i;
+        i = (i + 1) & t._mask;
+      }
+    }
+
+    private boolean keyEquals(long addr, byte[] buf, int off, int len) {
+      byte[] page = _pages[(int) (addr >>> 32)];
+      int p = (int) addr;
+      if ((((page[p] & 0xFF) << 8) | (page[p + 1] & 0xFF)) != len) return false;
+      p += 2;
+      for (int i = 0; i < len; i++)
+        if (page[p + i] != buf[off + i]) return false;
+      return true;
+    }
+
+    BufferedString key(long addr) {
+      byte[] page = _pages[(int) (addr >>> 32)];
+      int p = (int) addr;
+      int len = ((page[p] & 0xFF) << 8) | (page[p + 1] & 0xFF);
+      byte[] bytes = new byte[len];
+      System.arraycopy(page, p + 2, bytes, 0, len);
+      return new BufferedString(bytes, 0, len);
+    }
+
+    // Called under the segment lock, the key must not be present
+    void insert(long hash, byte[] buf, int off, int len, int id) {
+      assert len < 65535; // Length limit so 65535 can be used as a sentinel
+      Table t = _table;
+      if ((_used + 1) * 2 > t._hashes.length)
+        t = _table = rehash(t);
+      long addr = append(buf, off, len);
+      int i = (int) hash & t._mask;
+      while (t._ids.get(i) != FREE)
+        i = (i + 1) & t._mask;
+      t._hashes[i] = hash;
+      t._addrs[i] = addr;
+      t._ids.set(i, id); // publish
+      _used++;
+      _size++;
+    }
+
+    private long append(byte[] buf, int off, int len) {
+      int n = _pages.length;
+      if (n == 0 || _pageEnd + 2 + len > _pages[n - 1].length) {
+        int size = n == 0 ? INITIAL_PAGE_SIZE : Math.min(_pages[n - 1].length << 1, MAX_PAGE_SIZE);
+        byte[][] pages = Arrays.copyOf(_pages, n + 1);
+        pages[n] = new byte[Math.max(size, 2 + len)];
+        _pages = pages;
+        _pageEnd = 0;
+        n++;
+      }
+      byte[] page = _pages[n - 1];
+      int p = _pageEnd;
+      page[p] = (byte) (len >>> 8);
+      page[p + 1] = (byte) len;
+      System.arraycopy(buf, off, page, p + 2, len);
+      _pageEnd = p + 2 + len;
+      return ((long) (n - 1) << 32) | p;
+    }
+
+    // Drops tombstones and grows the table if needed, the old table stays valid for concurrent readers
+    private Table rehash(Table old) {
+      int capacity = old._hashes.length;
+      while (_size * 4 >= capacity) // keep the load factor under 1/2 after the next insertions
+        capacity <<= 1;
+      Table t = new Table(capacity);
+      for (int j = 0; j < old._hashes.length; j++) {
+        int id = old._ids.get(j);
+        if (id <= 0) continue;
+        int i = (int) old._hashes[j] & t._mask;
+        while (t._ids.get(i) != FREE)
+          i = (i + 1) & t._mask;
+        t._hashes[i] = old._hashes[j];
+        t._addrs[i] = old._addrs[j];
+        t._ids.set(i, id);
+      }
+      _used = _size;
+      return t;
+    }
+  }
+
+}
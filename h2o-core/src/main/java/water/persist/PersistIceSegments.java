@@ -0,0 +1,383 @@
+package water.persist;
+
+import water.Key;
+import water.Value;
+import water.util.Log;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
+
+/**
+ * Spill store for the ice_root that appends spilled Values into large preallocated, memory-mapped segment files
+ * instead of writing each Value into its own file (see {@link PersistFS}).
+ *
+ * Location of each spilled Value is kept in an in-memory index (segment, offset, length), loading a Value is
+ * a single copy from the mapped segment (see {@link #slice(Value)} for a zero-copy view). Space of deleted Values
+ * is reclaimed by a background compactor: live Values of sealed segments with a low fraction of live data are
+ * moved to the current segment and the old segment file is removed.
+ *
+ * Values that don't fit in a segment are delegated to {@link PersistFS}. All non-spill operations (file-system
+ * access, disk space) are delegated to {@link PersistFS} as well.
+ *
+ * Enabled by system property {@value #PROP_ENABLED}.
+ */
+public final class PersistIceSegments extends Persist {
+
+  static final String PROP_ENABLED = SYSTEM_PROP_PREFIX + "persist.ice.segments";
+  static final String PROP_SEGMENT_SIZE = SYSTEM_PROP_PREFIX + "persist.ice.segments.size";
+  static final String PROP_COMPACTION_THRESHOLD = SYSTEM_PROP_PREFIX + "persist.ice.segments.compactionThreshold";
+  static final String PROP_COMPACTION_INTERVAL = SYSTEM_PROP_PREFIX + "persist.ice.segments.compactionIntervalMs";
+
+  private static final int DEFAULT_SEGMENT_SIZE = 256 << 20;
+  private static final double DEFAULT_COMPACTION_THRESHOLD = 0.25;
+  private static final long DEFAULT_COMPACTION_INTERVAL = 10_000;
+
+  private final PersistFS _fs;
+  private final File _segDir;
+  private final int _segmentSize;
+  private final double _compactionThreshold;
+
+  // Location of spilled values, values delegated to PersistFS have no segment
+  private final ConcurrentHashMap<Key, Slot> _index = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Integer, Segment> _segments = new ConcurrentHashMap<>();
+  private Segment _current; // segment currently being appended to, guarded by `this`
+  private int _nextSegmentId; // guarded by `this`
+  private final Compactor _compactor; // null if background compaction is disabled
+
+  static boolean isEnabled() {
+    return Boolean.getBoolean(PROP_ENABLED);
+  }
+
+  PersistIceSegments(PersistFS fs) {
+    this(fs,
+         Integer.getInteger(PROP_SEGMENT_SIZE, DEFAULT_SEGMENT_SIZE),
+         Double.parseDouble(System.getProperty(PROP_COMPACTION_THRESHOLD, String.valueOf(DEFAULT_COMPACTION_THRESHOLD))),
+         Long.getLong(PROP_COMPACTION_INTERVAL, DEFAULT_COMPACTION_INTERVAL));
+  }
+
+  /**
+   * @param fs local file-system persist the ice_root is located on
+   * @param segmentSize size of a segment file in bytes
+   * @param compactionThreshold sealed segments with a lower fraction of live data are compacted
+   * @param compactionIntervalMs how often the compactor runs, 0 disables background compaction
+   */
+  PersistIceSegments(PersistFS fs, int segmentSize, double compactionThreshold, long compactionIntervalMs) {
+    if (segmentSize <= 0)
+      throw new IllegalArgumentException("Segment size needs to be positive, got " + segmentSize);
+    _fs = fs;
+    _segDir = new File(fs._dir, "segments");
+    _segmentSize = segmentSize;
+    _compactionThreshold = compactionThreshold;
+    if (compactionIntervalMs > 0) {
+      _compactor = new Compactor(compactionIntervalMs);
+      _compactor.start();
+    } else
+      _compactor = null;
+  }
+
+  private static final class Segment {
+    final int _id;
+    final File _file;
+    final MappedByteBuffer _buf;
+    int _end; // allocation pointer, guarded by the owning PersistIceSegments
+    volatile boolean _sealed;
+    final AtomicLong _live = new AtomicLong(); // bytes of live (not deleted) values
+    final AtomicBoolean _dropped = new AtomicBoolean();
+
+    Segment(int id, File file, MappedByteBuffer buf) {
+      _id = id;
+      _file = file;
+      _buf = buf;
+    }
+  }
+
+  private static final class Slot {
+    final Segment _seg; // null if the value is stored by PersistFS
+    final int _off;
+    final int _len;
+
+    Slot(Segment seg, int off, int len) {
+      _seg = seg;
+      _off = off;
+      _len = len;
+    }
+
+    ByteBuffer view() {
+      ByteBuffer bb = _seg._buf.duplicate();
+      bb.position(_off);
+      bb.limit(_off + _len);
+      return bb.slice();
+    }
+  }
+
+  private static final Slot IN_FS = new Slot(null, 0, 0);
+
+  // Store Value v to a segment.
+  @Override
+  public void store(Value v) throws IOException {
+    assert !v.isPersisted();
+    byte[] m = v.memOrLoad(); // we are not single threaded anymore
+    if (m != null && m.length != v._max) {
+      Log.warn("Value size mismatch? " + v._key + " byte[].len=" + m.length + " v._max=" + v._max);
+      v._max = m.length; // Implies update of underlying POJO, then re-serializing it without K/V storing it
+    }
+    if (m.length > _segmentSize) { // doesn't fit, use a dedicated file
+      _fs.store(v);
+      release(_index.put(v._key, IN_FS));
+      return;
+    }
+    Slot slot = allocate(m.length);
+    slot.view().put(m);
+    release(_index.put(v._key, slot));
+  }
+
+  @Override
+  public byte[] load(Value v) throws IOException {
+    Slot slot = _index.get(v._key);
+    if (slot == null) { // racey delete of a spilled value
+      assert !v.isPersisted() : v._key;
+      return null; // No value
+    }
+    if (slot._seg == null)
+      return _fs.load(v);
+    if (slot._len < v._max) {
+      assert !v.isPersisted() : slot._len + " " + v._max + " " + v._key;
+      return null;
+    }
+    byte[] b = new byte[v._max];
+    slot.view().get(b);
+    return b;
+  }
+
+  /**
+   * Zero-copy view of a spilled Value.
+   *
+   * @param v spilled value
+   * @return read-only view of the spilled bytes in the mapped segment, null if the value is not spilled to a segment
+   */
+  public ByteBuffer slice(Value v) {
+    Slot slot = _index.get(v._key);
+    return slot == null || slot._seg == null ? null : slot.view().asReadOnlyBuffer();
+  }
+
+  @Override
+  public void delete(Value v) {
+    Slot slot = _index.remove(v._key);
+    if (slot == IN_FS)
+      _fs.delete(v);
+    else
+      release(slot);
+  }
+
+  private synchronized Slot allocate(int len) throws IOException {
+    if (_current == null || _current._end + len > _segmentSize) {
+      if (_current != null)
+        seal(_current);
+      _current = newSegment();
+    }
+    Slot slot = new Slot(_current, _current._end, len);
+    _current._end += len;
+    _current._live.addAndGet(len);
+    return slot;
+  }
+
+  private Segment newSegment() throws IOException {
+    if (!_segDir.mkdirs() && !_segDir.exists())
+      throw new IOException("mkdirs failed making " + _segDir);
+    int id = _nextSegmentId++;
+    File f = new File(_segDir, "segment_" + id + ".ice");
+    try (RandomAccessFile raf = new RandomAccessFile(f, "rw")) {
+      raf.setLength(_segmentSize);
+      MappedByteBuffer buf = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, _segmentSize);
+      Segment seg = new Segment(id, f, buf);
+      _segments.put(id, seg);
+      return seg;
+    }
+  }
+
+  private void seal(Segment seg) {
+    seg._sealed = true;
+    if (seg._live.get() == 0)
+      drop(seg);
+  }
+
+  private void release(Slot slot) {
+    if (slot == null || slot._seg == null)
+      return;
+    Segment seg = slot._seg;
+    if (seg._live.addAndGet(-slot._len) == 0 && seg._sealed)
+      drop(seg);
+  }
+
+  // Views of the segment handed out before it was dropped stay valid (the file is not unmapped)
+  private void drop(Segment seg) {
+    if (!seg._dropped.compareAndSet(false, true))
+      return;
+    _segments.remove(seg._id);
+    if (!seg._file.delete()) {
+      Log.debug("Failed to delete ice segment " + seg._file + ", will retry on exit");
+      seg._file.deleteOnExit();
+    }
+  }
+
+  /**
+   * Moves live values out of sealed segments with a low fraction of live data.
+   * @return number of values moved
+   */
+  int compact() throws IOException {
+    Set<Segment> candidates = new HashSet<>();
+    for (Segment seg : _segments.values()) {
+      if (seg._sealed && seg._live.get() < _compactionThreshold * seg._end)
+        candidates.add(seg);
+    }
+    if (candidates.isEmpty())
+      return 0;
+    int moved = 0;
+    for (Map.Entry<Key, Slot> e : _index.entrySet()) {
+      Slot slot = e.getValue();
+      if (!candidates.contains(slot._seg))
+        continue;
+      byte[] data = new byte[slot._len];
+      slot.view().get(data);
+      Slot relocated = allocate(slot._len);
+      relocated.view().put(data);
+      if (_index.replace(e.getKey(), slot, relocated)) {
+        release(slot);
+        moved++;
+      } else { // value was deleted or re-stored in the meantime
+        release(relocated);
+      }
+    }
+    return moved;
+  }
+
+  int segmentCount() {
+    return _segments.size();
+  }
+
+  private class Compactor extends Thread {
+    private final long _intervalMs;
+    private volatile boolean _stopped;
+
+    Compactor(long intervalMs) {
+      super("IceCompactor");
+      setDaemon(true);
+      _intervalMs = intervalMs;
+    }
+
+    @Override
+    public void run() {
+      while (!_stopped) {
+        try {
+          Thread.sleep(_intervalMs);
+          int moved = compact();
+          if (moved > 0)
+            Log.debug("Ice segment compaction moved " + moved + " values, " + segmentCount() + " segments remain.");
+        } catch (InterruptedException e) {
+          return;
+        } catch (Throwable t) {
+          if (!_stopped)
+            Log.err("Ice segment compaction failed", t);
+        }
+      }
+    }
+
+    // Waits for a running compaction to finish
+    void shutdown() {
+      _stopped = true;
+      interrupt();
+      try {
+        join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  @Override
+  public void cleanUp() {
+    if (_compactor != null)
+      _compactor.shutdown(); // the compactor must not move values of the dropped segments
+    synchronized (this) {
+      _current = null;
+    }
+    _index.clear();
+    for (Segment seg : _segments.values()) {
+      drop(seg);
+    }
+    _fs.cleanUp();
+  }
+
+  @Override public long getUsableSpace() {
+    return _fs.getUsableSpace();
+  }
+
+  @Override public long getTotalSpace() {
+    return _fs.getTotalSpace();
+  }
+
+  @Override
+  public Key uriToKey(URI uri) {
+    return _fs.uriToKey(uri);
+  }
+
+  @Override
+  public ArrayList<String> calcTypeaheadMatches(String src, int limit) {
+    return _fs.calcTypeaheadMatches(src, limit);
+  }
+
+  @Override
+  public void importFiles(String path, String pattern, ArrayList<String> files, ArrayList<String> keys, ArrayList<String> fails, ArrayList<String> dels) {
+    _fs.importFiles(path, pattern, files, keys, fails, dels);
+  }
+
+  @Override
+  public boolean delete(String path) {
+    return _fs.delete(path);
+  }
+
+  @Override
+  public OutputStream create(String path, boolean overwrite) {
+    return _fs.create(path, overwrite);
+  }
+
+  @Override
+  public PersistEntry[] list(String path) {
+    return _fs.list(path);
+  }
+
+  @Override
+  public InputStream open(String path) {
+    return _fs.open(path);
+  }
+
+  @Override
+  public boolean mkdirs(String path) {
+    return _fs.mkdirs(path);
+  }
+
+  @Override
+  public boolean exists(String path) {
+    return _fs.exists(path);
+  }
+
+  @Override
+  public String getParent(String path) {
+    return _fs.getParent(path);
+  }
+
+  @Override
+  public boolean isDirectory(String path) {
+    return _fs.isDirectory(path);
+  }
+
+}
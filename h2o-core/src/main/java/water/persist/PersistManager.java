@@ -158,6 +158,10 @@ public class PersistManager {
 //      }
     }
 
+    if (ice instanceof PersistFS && PersistIceSegments.isEnabled()) {
+      Log.info("Spilling to memory-mapped segment files in ice_root.");
+      ice = new PersistIceSegments((PersistFS) ice);
+    }
     I[Value.ICE] = ice;
     I[Value.NFS] = new PersistNFS();
 
@@ -35,6 +35,8 @@ class BinaryMerge extends DTask<BinaryMerge> {
   private transient int _retBatchSize; // no need to match batchsize of RadixOrder.
 
   private final boolean _allLeft, _allRight;
+  // A heavy left MSB is merged in parts by several nodes, each part joins a contiguous range of its sorted left rows
+  final int _part, _nparts;
   private boolean[] _stringCols;
   private boolean[] _intCols;
   final long _mergeId;
@@ -85,7 +87,14 @@ class BinaryMerge extends DTask<BinaryMerge> {
 
   // In X[Y], 'left'=i and 'right'=x
   BinaryMerge(FFSB leftSB, FFSB riteSB, boolean allLeft, long mergeId) {
+    this(leftSB, riteSB, allLeft, mergeId, 0, 1);
+  }
+
+  BinaryMerge(FFSB leftSB, FFSB riteSB, boolean allLeft, long mergeId, int part, int nparts) {
     assert riteSB._msb!=-1 || allLeft;
+    assert 0 <= part && part < nparts;
+    _part = part;
+    _nparts = nparts;
     _mergeId = mergeId;
     _leftSB = leftSB;
     _riteSB = riteSB;
@@ -194,6 +203,13 @@ class BinaryMerge extends DTask<BinaryMerge> {
     // in the same MSB/MSB pair along with the keys that may match the very
     // lowest right keys, because stitching assumes unique MSB/MSB pairs.
 
+    if (_nparts > 1) { // merge only the share of this part of the left rows, the parts cover them in order
+      long leftRows = leftTo - _leftFrom - 1;
+      long partFrom = _leftFrom + leftRows * _part / _nparts;
+      leftTo = _leftFrom + 1 + leftRows * (_part + 1) / _nparts;
+      _leftFrom = partFrom;
+    }
+
     long retSize = leftTo - _leftFrom - 1;   // since leftTo and leftFrom are 1 outside the extremes
     assert retSize >= 0; // retSize is number of rows to include in final merged frame
     if (retSize==0) { tryComplete(); return; } // nothing can match, even when allLeft
@@ -606,7 +622,7 @@ class BinaryMerge extends DTask<BinaryMerge> {
           for (int index = 0; index < frameLikeChunks4String[col][b].length; index++)
             nc.addStr(frameLikeChunks4String[col][b][index]);
           Chunk ck = nc.compress();
-          DKV.put(getKeyForMSBComboPerCol(_leftSB._msb, _riteSB._msb, col, b, _mergeId), ck, fs, true);
+          DKV.put(getKeyForMSBComboPerCol(_leftSB._msb, _riteSB._msb, _part, col, b, _mergeId), ck, fs, true);
           frameLikeChunks4String[col][b] = null; //free mem as early as possible (it's now in the store)
         }
       } else if( _intCols[col] ) {
@@ -618,13 +634,13 @@ class BinaryMerge extends DTask<BinaryMerge> {
             else                    nc.addNum(l, 0);
           }
           Chunk ck = nc.compress();
-          DKV.put(getKeyForMSBComboPerCol(_leftSB._msb, _riteSB._msb, col, b, _mergeId), ck, fs, true);
+          DKV.put(getKeyForMSBComboPerCol(_leftSB._msb, _riteSB._msb, _part, col, b, _mergeId), ck, fs, true);
           frameLikeChunksLong[col][b] = null; //free mem as early as possible (it's now in the store)
         }
       } else {
         for (int b = 0; b < nbatch; b++) {
           Chunk ck = new NewChunk(frameLikeChunks[col][b]).compress();
-          DKV.put(getKeyForMSBComboPerCol(_leftSB._msb, _riteSB._msb, col, b, _mergeId), ck, fs, true);
+          DKV.put(getKeyForMSBComboPerCol(_leftSB._msb, _riteSB._msb, _part, col, b, _mergeId), ck, fs, true);
           frameLikeChunks[col][b] = null; //free mem as early as possible (it's now in the store)
         }
       }
@@ -1010,7 +1026,7 @@ class BinaryMerge extends DTask<BinaryMerge> {
           for (int index = 0; index < frameLikeChunks4String[col][b].length; index++)
             nc.addStr(frameLikeChunks4String[col][b][index]);
           Chunk ck = nc.compress();
-          DKV.put(getKeyForMSBComboPerCol(_leftSB._msb, _riteSB._msb, col, b, _mergeId), ck, fs, true);
+          DKV.put(getKeyForMSBComboPerCol(_leftSB._msb, _riteSB._msb, _part, col, b, _mergeId), ck, fs, true);
           frameLikeChunks4String[col][b] = null; //free mem as early as possible (it's now in the store)
       } else if( _intCols[col] ) {
           NewChunk nc = new NewChunk(null,-1);
@@ -1019,11 +1035,11 @@ class BinaryMerge extends DTask<BinaryMerge> {
             else                    nc.addNum(l, 0);
           }
           Chunk ck = nc.compress();
-          DKV.put(getKeyForMSBComboPerCol(_leftSB._msb, _riteSB._msb, col, b, _mergeId), ck, fs, true);
+          DKV.put(getKeyForMSBComboPerCol(_leftSB._msb, _riteSB._msb, _part, col, b, _mergeId), ck, fs, true);
           frameLikeChunksLong[col][b] = null; //free mem as early as possible (it's now in the store)
       } else {
           Chunk ck = new NewChunk(frameLikeChunks[col][b]).compress();
-          DKV.put(getKeyForMSBComboPerCol(_leftSB._msb, _riteSB._msb, col, b, _mergeId), ck, fs, true);
+          DKV.put(getKeyForMSBComboPerCol(_leftSB._msb, _riteSB._msb, _part, col, b, _mergeId), ck, fs, true);
           frameLikeChunks[col][b] = null; //free mem as early as possible (it's now in the store)
       }
     }
@@ -1031,12 +1047,17 @@ class BinaryMerge extends DTask<BinaryMerge> {
   }
 
 
-  static Key getKeyForMSBComboPerCol(/*Frame leftFrame, Frame rightFrame,*/ int leftMSB, int rightMSB, int col /*final table*/, int batch, long mergeId) {
+  static Key getKeyForMSBComboPerCol(/*Frame leftFrame, Frame rightFrame,*/ int leftMSB, int rightMSB, int part, int col /*final table*/, int batch, long mergeId) {
     return Key.make("__binary_merge__Chunk_for_col" + col + "_batch" + batch
         // + rightFrame._key.toString() + "_joined_with" + leftFrame._key.toString()
-        + "_leftSB._msb" + leftMSB + "_riteSB._msb" + rightMSB + "_" + mergeId,
-      Key.HIDDEN_USER_KEY, false, SplitByMSBLocal.ownerOfMSB(rightMSB==-1 ? leftMSB : rightMSB)
-    ); //TODO home locally
+        + "_leftSB._msb" + leftMSB + "_riteSB._msb" + rightMSB + "_part" + part + "_" + mergeId,
+      Key.HIDDEN_USER_KEY, false, mergeNode(leftMSB, rightMSB, part, mergeId)
+    );
+  }
+
+  /** Node merging the given part of an MSB pair, the chunks of the result are homed there */
+  static H2ONode mergeNode(int leftMSB, int rightMSB, int part, long mergeId) {
+    return SplitByMSBLocal.ownerOfPart(rightMSB==-1 ? leftMSB : rightMSB, part, mergeId);
   }
 
   static class GetRawRemoteRows extends DTask<GetRawRemoteRows> {
@@ -0,0 +1,351 @@
+package water.rapids;
+
+import water.*;
+import water.fvec.*;
+import water.parser.BufferedString;
+import water.util.Log;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Broadcast hash join of a big frame with a small one.
+ * <p/>
+ * The rows of the small frame are collected into a compact hash index - the join keys encoded as longs, chained by
+ * hash, and the other columns as plain arrays - which is replicated to every node with the join task.  The big frame
+ * is then joined in a single pass over its chunks, without moving or sorting it.  One-to-many matches produce a row
+ * for every matching row of the small frame, in the order of the small frame.
+ * <p/>
+ * Like the radix {@link Merge}, the join columns are the first {@code ncols} columns of both frames, NA keys never
+ * match, and the result holds all the columns of the big frame followed by the non-key columns of the small one.
+ * Unlike the radix merge, the rows of the result come in the order of the big frame, not sorted by the key.
+ */
+public class BroadcastJoin {
+
+  /** Most rows of the small frame, the index is addressed by ints */
+  public static final int MAX_ROWS = 120000000;
+  // Fraction of the free memory of the smallest node the index may take when chosen automatically
+  private static final double MEMORY_FRACTION = Double.parseDouble(H2O.getSysProperty("merge.broadcast.memory_fraction", "0.1"));
+  // Smallest big frame and rows ratio for which the broadcast join is chosen automatically; below them the radix
+  // merge is fast enough and its result is sorted by the key
+  private static final long MIN_ROWS = Long.parseLong(H2O.getSysProperty("merge.broadcast.min_rows", "1000000"));
+  private static final long MIN_RATIO = Long.parseLong(H2O.getSysProperty("merge.broadcast.ratio", "10"));
+
+  private BroadcastJoin() {}
+
+  /**
+   * @return why the small frame cannot be broadcast to join the big one, null if it can
+   */
+  public static String unsupported(Frame big, Frame small, int ncols) {
+    if (small.numRows() > MAX_ROWS || small.numRows() * ncols >= Integer.MAX_VALUE)
+      return "the smaller frame has too many rows";
+    for (int i = 0; i < small.numCols(); i++) {
+      Vec v = small.vec(i);
+      if (v.isUUID() || (i < ncols && big.vec(i).isUUID()))
+        return "column " + small.name(i) + " is a UUID column";
+      // the columns are kept as doubles
+      if (i >= ncols && v.isInt() && Math.max(Math.abs(v.min()), Math.abs(v.max())) > (1L << 53))
+        return "column " + small.name(i) + " holds integers too large for a double";
+    }
+    return null;
+  }
+
+  /**
+   * @return true if the broadcast join of the frames is expected to be cheaper than a radix merge: the big frame is
+   * large, the small one is much smaller and its index fits comfortably in the memory of every node
+   */
+  public static boolean preferred(Frame big, Frame small, int ncols) {
+    if (big.numRows() < MIN_ROWS || small.numRows() * MIN_RATIO > big.numRows())
+      return false;
+    if (unsupported(big, small, ncols) != null)
+      return false;
+    long minMem = Long.MAX_VALUE;
+    for (H2ONode h2o : H2O.CLOUD._memary)
+      minMem = Math.min(minMem, h2o._heartbeat.get_free_mem());
+    return indexBytes(small, ncols) <= MEMORY_FRACTION * minMem;
+  }
+
+  // Estimated size of the index of the small frame
+  static long indexBytes(Frame small, int ncols) {
+    final long rows = small.numRows();
+    long bytes = rows * (4 + 4 + 4 + 8L * ncols); // chain head, next, (load factor) and encoded keys
+    for (Vec v : small.vecs())
+      bytes += v.isString() ? 2 * v.byteSize() + 48 * rows : 8 * rows; // String objects, or doubles
+    return bytes;
+  }
+
+  /**
+   * Join the big frame with the small one on their first {@code ncols} columns.
+   * @param allBig keep the rows of the big frame without a match, with NAs in the columns of the small frame
+   * @return a new frame, without a key
+   */
+  public static Frame join(Frame big, Frame small, int ncols, boolean allBig) {
+    String err = unsupported(big, small, ncols);
+    if (err != null)
+      throw new IllegalArgumentException("Cannot merge with the hash method: " + err + ".  Use the radix method.");
+    long t0 = System.nanoTime();
+    Index index = Index.build(big, small, ncols);
+    Log.debug("Broadcast join: index of " + index._next.length + " rows built in " + (System.nanoTime() - t0) / 1e9 + " seconds.");
+    t0 = System.nanoTime();
+
+    final int npay = small.numCols() - ncols;
+    String[] names = Arrays.copyOf(big.names(), big.numCols() + npay);
+    System.arraycopy(small.names(), ncols, names, big.numCols(), npay);
+    String[][] domains = Arrays.copyOf(big.domains(), big.numCols() + npay);
+    System.arraycopy(small.domains(), ncols, domains, big.numCols(), npay);
+    byte[] types = Arrays.copyOf(big.types(), big.numCols() + npay);
+    System.arraycopy(small.types(), ncols, types, big.numCols(), npay);
+    Frame res = new JoinTask(index, allBig).doAll(types, big).outputFrame(names, domains);
+    Log.debug("Broadcast join: " + big.numRows() + " rows probed in " + (System.nanoTime() - t0) / 1e9 + " seconds.");
+    return res;
+  }
+
+  /**
+   * Hash index of the small frame.  Only the rows without an NA key are indexed.  Keys are encoded as longs: the
+   * value of integer columns, the level of categorical columns (in the domain of the small frame), the bits of real
+   * columns and the position of the string in {@link #_dicts} for string columns.
+   */
+  static class Index extends Iced<Index> {
+    int _ncols;
+    boolean[] _intKeys;  // keys compared as longs rather than as doubles
+    int[][] _catMaps;    // level of the big frame -> level of the small frame, -1 if missing
+    String[][] _dicts;   // distinct strings of the string keys
+    long[] _keys;        // _ncols keys per row
+    int[] _head;         // first row of each hash bucket, -1 for none
+    int[] _next;         // next row in the bucket, -1 for none
+    double[][] _num;     // non-key columns, NaN for NA; null for string columns
+    String[][] _str;     // non-key string columns, null for NA
+
+    static Index build(Frame big, Frame small, int ncols) {
+      Index ix = new Index();
+      ix._ncols = ncols;
+      ix._intKeys = new boolean[ncols];
+      ix._catMaps = new int[ncols][];
+      ix._dicts = new String[ncols][];
+      for (int i = 0; i < ncols; i++) {
+        Vec bv = big.vec(i), sv = small.vec(i);
+        ix._intKeys[i] = sv.isCategorical() || (bv.isInt() && sv.isInt());
+        if (sv.isCategorical()) {
+          HashMap<String, Integer> levels = new HashMap<>();
+          for (int l = 0; l < sv.domain().length; l++) levels.put(sv.domain()[l], l);
+          int[] map = ix._catMaps[i] = new int[bv.domain().length];
+          for (int l = 0; l < map.length; l++) {
+            Integer sl = levels.get(bv.domain()[l]);
+            map[l] = sl == null ? -1 : sl;
+          }
+        }
+      }
+      Part[] parts = new CollectTask(ncols, ix._intKeys).doAll(small)._parts;
+      int n = 0;
+      for (Part p : parts) if (p != null) n += p._n;
+
+      // Concatenate the chunks, numbering the distinct strings of the keys
+      final int npay = small.numCols() - ncols;
+      ix._keys = new long[n * ncols];
+      ix._num = new double[npay][];
+      ix._str = new String[npay][];
+      for (int j = 0; j < npay; j++) {
+        if (small.vec(ncols + j).isString()) ix._str[j] = new String[n];
+        else ix._num[j] = new double[n];
+      }
+      @SuppressWarnings("unchecked")
+      HashMap<String, Integer>[] ids = new HashMap[ncols];
+      int r0 = 0;
+      for (Part p : parts) {
+        if (p == null || p._n == 0) continue;
+        System.arraycopy(p._keys, 0, ix._keys, r0 * ncols, p._n * ncols);
+        for (int i = 0; i < ncols; i++) {
+          if (p._strKeys[i] == null) continue;
+          if (ids[i] == null) ids[i] = new HashMap<>();
+          for (int r = 0; r < p._n; r++) {
+            Integer id = ids[i].get(p._strKeys[i][r]);
+            if (id == null) ids[i].put(p._strKeys[i][r], id = ids[i].size());
+            ix._keys[(r0 + r) * ncols + i] = id;
+          }
+        }
+        for (int j = 0; j < npay; j++) {
+          if (ix._str[j] != null) System.arraycopy(p._str[j], 0, ix._str[j], r0, p._n);
+          else System.arraycopy(p._num[j], 0, ix._num[j], r0, p._n);
+        }
+        r0 += p._n;
+      }
+      for (int i = 0; i < ncols; i++) {
+        if (!small.vec(i).isString()) continue;
+        String[] dict = ix._dicts[i] = new String[ids[i] == null ? 0 : ids[i].size()];
+        if (ids[i] != null)
+          for (java.util.Map.Entry<String, Integer> e : ids[i].entrySet()) dict[e.getValue()] = e.getKey();
+      }
+
+      // Chain the rows by hash; inserted backwards so that the matches come in the order of the small frame
+      int cap = 2;
+      while (cap < 2L * n) cap <<= 1;
+      ix._head = new int[cap];
+      Arrays.fill(ix._head, -1);
+      ix._next = new int[n];
+      for (int r = n - 1; r >= 0; r--) {
+        int b = hash(ix._keys, r * ncols, ncols) & (cap - 1);
+        ix._next[r] = ix._head[b];
+        ix._head[b] = r;
+      }
+      return ix;
+    }
+  }
+
+  static int hash(long[] keys, int off, int ncols) {
+    long h = 0;
+    for (int i = off; i < off + ncols; i++)
+      h = (h + keys[i]) * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  private static long realKey(double d) {
+    return Double.doubleToLongBits(d == 0 ? 0.0 : d); // -0.0 == 0.0
+  }
+
+  // Rows of a chunk of the small frame, without the rows with an NA key
+  private static class Part extends Iced<Part> {
+    int _n;
+    long[] _keys;
+    String[][] _strKeys; // string keys, numbered when the parts are concatenated
+    double[][] _num;
+    String[][] _str;
+  }
+
+  private static class CollectTask extends MRTask<CollectTask> {
+    final int _ncols;
+    final boolean[] _intKeys;
+    Part[] _parts;      // by chunk index
+
+    CollectTask(int ncols, boolean[] intKeys) {
+      _ncols = ncols;
+      _intKeys = intKeys;
+    }
+
+    @Override
+    protected void setupLocal() {
+      _parts = new Part[_fr.anyVec().nChunks()];
+    }
+
+    @Override
+    public void map(Chunk[] cs) {
+      final int len = cs[0]._len;
+      final int npay = cs.length - _ncols;
+      Part p = new Part();
+      p._keys = new long[len * _ncols];
+      p._strKeys = new String[_ncols][];
+      for (int i = 0; i < _ncols; i++)
+        if (cs[i].vec().isString()) p._strKeys[i] = new String[len];
+      p._num = new double[npay][];
+      p._str = new String[npay][];
+      for (int j = 0; j < npay; j++) {
+        if (cs[_ncols + j].vec().isString()) p._str[j] = new String[len];
+        else p._num[j] = new double[len];
+      }
+      BufferedString bs = new BufferedString();
+      int n = 0;
+      rows:
+      for (int r = 0; r < len; r++) {
+        for (int i = 0; i < _ncols; i++) {
+          if (cs[i].isNA(r)) continue rows;
+          if (p._strKeys[i] != null) p._strKeys[i][n] = cs[i].atStr(bs, r).toString();
+          else p._keys[n * _ncols + i] = _intKeys[i] ? cs[i].at8(r) : realKey(cs[i].atd(r));
+        }
+        for (int j = 0; j < npay; j++) {
+          Chunk c = cs[_ncols + j];
+          if (p._str[j] != null) p._str[j][n] = c.isNA(r) ? null : c.atStr(bs, r).toString();
+          else p._num[j][n] = c.atd(r);
+        }
+        n++;
+      }
+      p._n = n;
+      _parts[cs[0].cidx()] = p;
+    }
+
+    @Override
+    public void reduce(CollectTask that) {
+      if (_parts == that._parts) return;
+      for (int i = 0; i < _parts.length; i++)
+        if (_parts[i] == null) _parts[i] = that._parts[i];
+    }
+  }
+
+  private static class JoinTask extends MRTask<JoinTask> {
+    final Index _index;
+    final boolean _allBig;
+    transient HashMap<BufferedString, Integer>[] _dictIds;
+
+    JoinTask(Index index, boolean allBig) {
+      _index = index;
+      _allBig = allBig;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void setupLocal() {
+      _dictIds = new HashMap[_index._ncols];
+      for (int i = 0; i < _index._ncols; i++) {
+        String[] dict = _index._dicts[i];
+        if (dict == null) continue;
+        _dictIds[i] = new HashMap<>();
+        for (int id = 0; id < dict.length; id++) _dictIds[i].put(new BufferedString(dict[id]), id);
+      }
+    }
+
+    @Override
+    public void map(Chunk[] cs, NewChunk[] ncs) {
+      final Index ix = _index;
+      final int ncols = ix._ncols;
+      final int mask = ix._head.length - 1;
+      final long[] key = new long[ncols];
+      BufferedString bs = new BufferedString();
+      for (int r = 0; r < cs[0]._len; r++) {
+        int m = encode(cs, r, key, bs) ? ix._head[hash(key, 0, ncols) & mask] : -1;
+        boolean matched = false;
+        for (; m != -1; m = ix._next[m]) {
+          if (!equals(ix._keys, m * ncols, key)) continue;
+          addRow(cs, r, ncs, m);
+          matched = true;
+        }
+        if (!matched && _allBig)
+          addRow(cs, r, ncs, -1);
+      }
+    }
+
+    // Encode the key of row r of the big frame, false if it cannot match
+    private boolean encode(Chunk[] cs, int r, long[] key, BufferedString bs) {
+      for (int i = 0; i < key.length; i++) {
+        Chunk c = cs[i];
+        if (c.isNA(r)) return false;
+        if (_dictIds[i] != null) {
+          Integer id = _dictIds[i].get(c.atStr(bs, r));
+          if (id == null) return false;
+          key[i] = id;
+        } else if (_index._catMaps[i] != null) {
+          if ((key[i] = _index._catMaps[i][(int) c.at8(r)]) == -1) return false;
+        } else {
+          key[i] = _index._intKeys[i] ? c.at8(r) : realKey(c.atd(r));
+        }
+      }
+      return true;
+    }
+
+    private static boolean equals(long[] keys, int off, long[] key) {
+      for (int i = 0; i < key.length; i++)
+        if (keys[off + i] != key[i]) return false;
+      return true;
+    }
+
+    // Row r of the big frame followed by row m of the small frame (NAs if -1)
+    private void addRow(Chunk[] cs, int r, NewChunk[] ncs, int m) {
+      for (int c = 0; c < cs.length; c++)
+        cs[c].extractRows(ncs[c], r, r + 1);
+      for (int j = 0; j < ncs.length - cs.length; j++) {
+        NewChunk nc = ncs[cs.length + j];
+        if (m == -1) nc.addNA();
+        else if (_index._str[j] != null) nc.addStr(_index._str[j][m]);
+        else if (Double.isNaN(_index._num[j][m])) nc.addNA();
+        else nc.addNum(_index._num[j][m]);
+      }
+    }
+  }
+}
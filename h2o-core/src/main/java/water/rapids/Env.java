@@ -267,6 +267,7 @@ public class Env extends Iced {
     init(new AstSetLevel());
     init(new AstPivot());
     init(new AstRankWithinGroupBy()); // provide ranking withing groupby groups sorted after certain columns
+    init(new AstWindow());      // lag, lead, rolling and cumulative aggregates over ordered partitions
 
     // Assignment; all of these lean heavily on Copy-On-Write optimizations.
     init(new AstAppend());      // Add a column
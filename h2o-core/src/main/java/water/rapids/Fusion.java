@@ -0,0 +1,409 @@
+package water.rapids;
+
+import water.Iced;
+import water.MRTask;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+import water.rapids.ast.AstExec;
+import water.rapids.ast.AstPrimitive;
+import water.rapids.ast.AstRoot;
+import water.rapids.ast.params.AstId;
+import water.rapids.ast.prims.math.AstUniOp;
+import water.rapids.ast.prims.operators.AstBinOp;
+import water.rapids.ast.prims.operators.AstIfElse;
+import water.rapids.ast.prims.operators.AstLAnd;
+import water.rapids.ast.prims.operators.AstLOr;
+import water.rapids.vals.ValFrame;
+import water.rapids.vals.ValNum;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Fused evaluation of element-wise expressions.
+ * <p/>
+ * Eagerly, every element-wise primitive (binary operators, unary math functions, ifelse) runs its own MRTask and
+ * writes a temporary Frame that the next primitive reads back, e.g. {@code (> (log (+ (* x 2) y)) 3)} makes four
+ * passes over the data and allocates four Frames.  With fusion enabled ({@link Session#fuseElementwise()}) the
+ * nested element-wise calls are first collected into a DAG; all other arguments (column selections, variables,
+ * calls of other functions) are evaluated as usual and become the leaves of the DAG.  The whole DAG is then computed
+ * by a single MRTask that decodes every input chunk once and writes only the NewChunks of the result.  Identical
+ * leaves and subexpressions are shared, so they are also computed only once.
+ * <p/>
+ * The result is the same as with eager evaluation.  Only numeric columns are fused and the widening rules of the
+ * operators are followed; anything else (categorical or string columns, rows, broadcasting of a single-row Frame,
+ * scalar ifelse tests, ...) falls back to the eager primitives, which are passed the already evaluated leaves.
+ */
+public class Fusion {
+
+  /** @return true if the primitive can be fused with the element-wise primitives of its arguments */
+  public static boolean isElementwise(AstPrimitive prim) {
+    // Logical && and || don't evaluate their right argument when the left one decides, keep them eager
+    return prim instanceof AstUniOp || prim instanceof AstIfElse ||
+        (prim instanceof AstBinOp && !(prim instanceof AstLAnd) && !(prim instanceof AstLOr));
+  }
+
+  /**
+   * Apply an element-wise primitive, evaluating it together with the nested element-wise primitives of its arguments.
+   * Same contract as {@link AstPrimitive#apply(Env, Env.StackHelp, AstRoot[])}.
+   */
+  public static Val apply(Env env, Env.StackHelp stk, AstPrimitive prim, AstRoot[] asts) {
+    Builder builder = new Builder(env, stk);
+    Node[] args = builder.args(asts);
+    Node root = builder.node(prim, asts[0], args);
+    if (root.isFrame() && builder._nops > 1)
+      return new ValFrame(builder.evaluate(root));
+    // Not worth fusing (or not fusable at all) - run the primitive on the evaluated arguments
+    AstRoot[] evaluated = new AstRoot[asts.length];
+    evaluated[0] = asts[0];
+    for (int i = 0; i < args.length; i++)
+      evaluated[i + 1] = args[i].ast();
+    return prim.apply(env, stk, evaluated);
+  }
+
+  /** Collects the DAG of element-wise nodes, evaluating (and tracking) the leaves. */
+  private static final class Builder {
+    private final Env _env;
+    private final Env.StackHelp _stk;
+    private final ArrayList<Node> _nodes = new ArrayList<>(); // all nodes, index of a node is its buffer slot
+    private final ArrayList<Vec> _vecs = new ArrayList<>(); // inputs of the fused task
+    private int _nops;
+
+    Builder(Env env, Env.StackHelp stk) {
+      _env = env;
+      _stk = stk;
+    }
+
+    Node[] args(AstRoot[] asts) {
+      _nops++;
+      Node[] args = new Node[asts.length - 1];
+      for (int i = 1; i < asts.length; i++)
+        args[i - 1] = compile(asts[i]);
+      return args;
+    }
+
+    private Node compile(AstRoot ast) {
+      if (ast instanceof AstExec) {
+        AstRoot[] asts = ((AstExec) ast)._asts;
+        if (asts[0] instanceof AstId) { // name lookup has no side effects, the lookup is repeated by eager evaluation
+          Val fun = asts[0].exec(_env);
+          if (fun.isFun() && isElementwise(fun.getFun()) && fun.getFun().nargs() == asts.length)
+            return node(fun.getFun(), asts[0], args(asts));
+        }
+      }
+      return leaf(_stk.track(ast.exec(_env)));
+    }
+
+    private Node leaf(Val val) {
+      if (val.isNum())
+        return intern(new Const(val.getNum(), val));
+      if (val.isFrame()) {
+        Frame fr = val.getFrame();
+        boolean fusable = fr.numCols() > 0 && (_vecs.isEmpty() || _vecs.get(0).isCompatibleWith(fr.anyVec()));
+        for (Vec vec : fr.vecs())
+          fusable &= vec.isNumeric();
+        if (fusable) {
+          for (Node n : _nodes)
+            if (n instanceof Input && ((Input) n).sameAs(fr))
+              return n;
+          Input in = new Input(_vecs.size(), fr, val);
+          _vecs.addAll(Arrays.asList(fr.vecs()));
+          return intern(in);
+        }
+      }
+      return intern(new Opaque(val));
+    }
+
+    Node node(AstPrimitive prim, AstRoot fun, Node[] args) {
+      Node n;
+      if (prim instanceof AstUniOp) n = new Unary((AstUniOp) prim, args);
+      else if (prim instanceof AstBinOp) n = new Binary((AstBinOp) prim, args);
+      else n = new IfElse(args);
+      n._fun = fun;
+      if (n.isConst()) // all arguments are scalars, same as the eager evaluation
+        return intern(new Const(n.constValue(), null));
+      if (n.isFrame()) {
+        for (Node other : _nodes)
+          if (n.sameAs(other))
+            return other;
+      }
+      return intern(n);
+    }
+
+    private Node intern(Node n) {
+      n._slot = _nodes.size();
+      _nodes.add(n);
+      return n;
+    }
+
+    Frame evaluate(Node root) {
+      Frame input = new Frame(_vecs.toArray(new Vec[0]));
+      return new FusedTask(root, _nodes.size())
+          .doAll(root._ncols, Vec.T_NUM, input)
+          .outputFrame(root._names, null);
+    }
+  }
+
+  private static class FusedTask extends MRTask<FusedTask> {
+    private final Node _root;
+    private final int _nslots;
+
+    FusedTask(Node root, int nslots) {
+      _root = root;
+      _nslots = nslots;
+    }
+
+    @Override
+    public void map(Chunk[] cs, NewChunk[] ncs) {
+      Buffers bufs = new Buffers(cs, _nslots);
+      for (int col = 0; col < ncs.length; col++) {
+        double[] res = _root.value(bufs, col);
+        NewChunk nc = ncs[col];
+        for (int i = 0; i < bufs._len; i++)
+          nc.addNum(res[i]);
+      }
+    }
+  }
+
+  /** Per-chunk evaluation state: one buffer per node, remembering which column it holds. */
+  static final class Buffers {
+    final Chunk[] _cs;
+    final int _len;
+    final double[][] _bufs;
+    final int[] _cols;
+
+    Buffers(Chunk[] cs, int nslots) {
+      _cs = cs;
+      _len = cs[0]._len;
+      _bufs = new double[nslots][];
+      _cols = new int[nslots];
+      Arrays.fill(_cols, -1);
+    }
+  }
+
+  /**
+   * Node of the expression DAG.  A node is either a scalar, a numeric Frame-valued expression with {@code _ncols}
+   * columns, or opaque (it can't be fused).
+   */
+  abstract static class Node extends Iced<Node> {
+    int _slot;
+    int _ncols; // 0 for scalars, -1 for opaque nodes
+    transient String[] _names;
+    transient long _nrows;
+    transient AstRoot _fun;
+
+    boolean isConst() { return _ncols == 0; }
+    boolean isFrame() { return _ncols > 0; }
+    double constValue() { throw new IllegalStateException(); }
+
+    /** Values of the column {@code col} of this node in the current chunk. */
+    final double[] value(Buffers bufs, int col) {
+      if (_ncols <= 1) col = 0; // scalars and single columns are widened, compute them once per chunk
+      double[] buf = bufs._bufs[_slot];
+      if (bufs._cols[_slot] == col) return buf; // shared node already evaluated
+      if (buf == null) buf = bufs._bufs[_slot] = new double[bufs._len];
+      compute(bufs, col, buf);
+      bufs._cols[_slot] = col;
+      return buf;
+    }
+
+    abstract void compute(Buffers bufs, int col, double[] res);
+
+    /** @return the expression of this node for the eager evaluation, with the leaves already evaluated */
+    abstract AstRoot ast();
+
+    boolean sameAs(Node n) { return false; }
+
+    void widen(Node[] args) {
+      _ncols = 0;
+      for (Node arg : args) {
+        if (!arg.isFrame()) continue;
+        if (_ncols > 0 && arg._nrows != _nrows) { // row broadcasting is left to the eager evaluation
+          _ncols = -1;
+          return;
+        }
+        _nrows = arg._nrows;
+        _ncols = Math.max(_ncols, arg._ncols);
+      }
+    }
+  }
+
+  /** Leaf already evaluated by the eager evaluation. */
+  private static abstract class Leaf extends Node {
+    final transient Val _val;
+
+    Leaf(Val val) { _val = val; }
+
+    @Override AstRoot ast() { return new AstValue(_val); }
+  }
+
+  private static final class Const extends Leaf {
+    final double _d;
+
+    Const(double d, Val val) {
+      super(val == null ? new ValNum(d) : val);
+      _d = d;
+      _ncols = 0;
+    }
+
+    @Override double constValue() { return _d; }
+
+    @Override void compute(Buffers bufs, int col, double[] res) { Arrays.fill(res, 0, bufs._len, _d); }
+  }
+
+  private static final class Input extends Leaf {
+    final int _off; // index of the first column in the input of the fused task
+    final transient Vec[] _vecs;
+
+    Input(int off, Frame fr, Val val) {
+      super(val);
+      _off = off;
+      _vecs = fr.vecs();
+      _names = fr.names();
+      _ncols = fr.numCols();
+      _nrows = fr.numRows();
+    }
+
+    boolean sameAs(Frame fr) {
+      return Arrays.equals(_vecs, fr.vecs()) && Arrays.equals(_names, fr.names());
+    }
+
+    @Override void compute(Buffers bufs, int col, double[] res) { bufs._cs[_off + col].getDoubles(res, 0, bufs._len); }
+  }
+
+  private static final class Opaque extends Leaf {
+    Opaque(Val val) {
+      super(val);
+      _ncols = -1;
+    }
+
+    @Override void compute(Buffers bufs, int col, double[] res) { throw new IllegalStateException(); }
+  }
+
+  /** Application of an element-wise primitive. */
+  private static abstract class Op extends Node {
+    final Node[] _args;
+
+    Op(Node[] args) { _args = args; }
+
+    @Override AstRoot ast() {
+      AstRoot[] asts = new AstRoot[_args.length + 1];
+      asts[0] = _fun;
+      for (int i = 0; i < _args.length; i++)
+        asts[i + 1] = _args[i].ast();
+      return new AstExec(asts);
+    }
+
+    @Override boolean sameAs(Node n) {
+      if (n.getClass() != getClass() || !_fun.str().equals(n._fun.str())) return false;
+      Node[] args = ((Op) n)._args;
+      for (int i = 0; i < _args.length; i++)
+        if (args[i] != _args[i]) return false;
+      return true;
+    }
+
+    boolean anyOpaque() {
+      for (Node arg : _args)
+        if (arg._ncols < 0) return true;
+      return false;
+    }
+  }
+
+  private static final class Unary extends Op {
+    final AstUniOp _op;
+
+    Unary(AstUniOp op, Node[] args) {
+      super(args);
+      _op = op;
+      Node arg = args[0];
+      _ncols = arg._ncols;
+      _nrows = arg._nrows;
+      if (isFrame()) { // same naming as AstUniOp: op(name)
+        _names = new String[_ncols];
+        for (int i = 0; i < _ncols; i++)
+          _names[i] = op.str() + "(" + arg._names[i] + ")";
+      }
+    }
+
+    @Override double constValue() { return _op.op(_args[0].constValue()); }
+
+    @Override void compute(Buffers bufs, int col, double[] res) {
+      double[] a = _args[0].value(bufs, col);
+      for (int i = 0; i < bufs._len; i++)
+        res[i] = _op.op(a[i]);
+    }
+  }
+
+  private static final class Binary extends Op {
+    final AstBinOp _op;
+
+    Binary(AstBinOp op, Node[] args) {
+      super(args);
+      _op = op;
+      if (anyOpaque()) {
+        _ncols = -1;
+        return;
+      }
+      widen(args);
+      if (!isFrame()) return;
+      Node l = args[0], r = args[1];
+      if (l.isFrame() && r.isFrame() && l._ncols != r._ncols && l._ncols != 1 && r._ncols != 1)
+        _ncols = -1; // incompatible widths, let the eager evaluation report it
+      else // names of the widest argument, the left one if both are equally wide (as AstBinOp does)
+        _names = (l.isFrame() && l._ncols == _ncols ? l : r)._names;
+    }
+
+    @Override double constValue() { return _op.op(_args[0].constValue(), _args[1].constValue()); }
+
+    @Override void compute(Buffers bufs, int col, double[] res) {
+      double[] l = _args[0].value(bufs, col);
+      double[] r = _args[1].value(bufs, col);
+      for (int i = 0; i < bufs._len; i++)
+        res[i] = _op.op(l[i], r[i]);
+    }
+  }
+
+  /** Frame test of ifelse, both branches are computed and selected between; result columns are named C1, C2, ... */
+  private static final class IfElse extends Op {
+    IfElse(Node[] args) {
+      super(args);
+      Node tst = args[0];
+      _ncols = -1;
+      if (!tst.isFrame() || anyOpaque()) return;
+      for (int i = 1; i < args.length; i++)
+        if (args[i].isFrame() && (args[i]._ncols != tst._ncols || args[i]._nrows != tst._nrows))
+          return; // AstIfElse doesn't widen the branches
+      _ncols = tst._ncols;
+      _nrows = tst._nrows;
+      _names = new String[_ncols]; // AstIfElse doesn't keep any names
+      for (int i = 0; i < _ncols; i++)
+        _names[i] = Frame.defaultColName(i);
+    }
+
+    @Override void compute(Buffers bufs, int col, double[] res) {
+      double[] tst = _args[0].value(bufs, col);
+      double[] yes = _args[1].value(bufs, col);
+      double[] no = _args[2].value(bufs, col);
+      for (int i = 0; i < bufs._len; i++)
+        res[i] = Double.isNaN(tst[i]) ? Double.NaN : tst[i] == 0 ? no[i] : yes[i];
+    }
+  }
+
+  /** Value that was already evaluated, used to hand the leaves of a DAG back to the eager evaluation. */
+  private static final class AstValue extends AstRoot<AstValue> {
+    private final transient Val _val;
+
+    AstValue(Val val) { _val = val; }
+
+    @Override public Val exec(Env env) { return env.returning(_val); }
+
+    @Override public String str() { return _val.toString(); }
+
+    @Override public String example() { return null; }
+
+    @Override public String description() { return null; }
+  }
+
+}
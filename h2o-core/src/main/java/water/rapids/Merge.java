@@ -2,6 +2,7 @@ package water.rapids;
 
 import water.*;
 import water.fvec.*;
+import water.util.ArrayUtils;
 import water.util.Log;
 
 import java.math.BigInteger;
@@ -81,8 +82,28 @@ public class Merge {
   // single-threaded driver logic.  Merge left and right frames based on common columns.
   public static Frame merge(final Frame leftFrame, final Frame riteFrame, final int leftCols[], final int riteCols[],
                             boolean allLeft, int[][] id_maps, int[] ascendingL, int[] ascendingR) {
+    return merge(leftFrame, riteFrame, leftCols, riteCols, allLeft, id_maps, ascendingL, ascendingR, H2O.CLOUD.size());
+  }
+
+  /**
+   * @param splitNodes the merge of a heavy left MSB is split over up to this many nodes (the size of the cloud, unless
+   *                   testing the split on a smaller cloud)
+   */
+  static Frame merge(final Frame leftFrame, final Frame riteFrame, final int leftCols[], final int riteCols[],
+                     boolean allLeft, int[][] id_maps, int[] ascendingL, int[] ascendingR, int splitNodes) {
     if (allLeft && (riteFrame.numRows()==0))
       return sortOnly(leftFrame,  leftCols, id_maps, ascendingL);
+    final long mergeId = nextMergeId();
+    try {
+      return merge(leftFrame, riteFrame, leftCols, riteCols, allLeft, id_maps, ascendingL, ascendingR, splitNodes, mergeId);
+    } finally {
+      SplitByMSBLocal.clearOwners(mergeId);
+    }
+  }
+
+  private static Frame merge(final Frame leftFrame, final Frame riteFrame, final int leftCols[], final int riteCols[],
+                             boolean allLeft, int[][] id_maps, int[] ascendingL, int[] ascendingR, int splitNodes,
+                             final long mergeId) {
     final boolean hasRite = riteCols.length > 0;
 
     // if there are NaN or null values in the rite frames in the merge columns, it is decided by Matt Dowle to not
@@ -120,9 +141,15 @@ public class Merge {
     // and right in parallel was a little slower (97s) than one by one (89s).
     // empty frame will come back with base = Long.MIN_VALUE (-9223372036854775808).  
     // TODO: retest in future
-    final long mergeId = nextMergeId();
-    RadixOrder leftIndex = createIndex(true ,leftFrame,leftCols,id_maps, ascendingL, mergeId);
-    RadixOrder riteIndex = createIndex(false,rightFrame,riteCols,id_maps, ascendingR, mergeId);
+    RadixOrder leftIndex = new RadixOrder(leftFrame, true, leftCols, id_maps, ascendingL, mergeId);
+    RadixOrder riteIndex = new RadixOrder(rightFrame, false, riteCols, id_maps, ascendingR, mergeId);
+    // The MSBs of both sides share their owners, balanced by the rows of both sides; the merge of a left MSB holding
+    // more than the share of a node (a heavy key) is split over several nodes
+    long[] leftHist = leftIndex.msbHistogram();
+    setOwners(mergeId, ArrayUtils.add(leftHist.clone(), riteIndex.msbHistogram()));
+    final int[] leftParts = SplitByMSBLocal.mergeParts(leftHist, splitNodes);
+    createIndex(true, leftIndex);
+    createIndex(false, riteIndex);
 
     // TODO: start merging before all indexes had been created. Use callback?
     boolean leftFrameEmpty = (leftFrame.numRows()==0);
@@ -151,12 +178,14 @@ public class Merge {
       // The overlapping one with the right base is dealt with inside
       if (allLeft) { // no need to iterate from 0 to 255, only need to go from leftbase MSB to min(max leftMSB, ritebaseMSB)
         for (int leftMSB = 0; leftMSB < leftMSBfrom; leftMSB++) {  // grab only left frame and add to final merged frame
-          BinaryMerge bm = new BinaryMerge(new BinaryMerge.FFSB(leftFrame, leftMSB, leftShift,
-                  leftIndex._bytesUsed, leftIndex._base), new BinaryMerge.FFSB(rightFrame,/*rightMSB*/-1, riteShift,
-                  riteIndex._bytesUsed, riteIndex._base),
-                  true, mergeId);
-          bmList.add(bm);
-          fs.add(new RPC<>(SplitByMSBLocal.ownerOfMSB(leftMSB), bm).call());
+          for (int part = 0; part < leftParts[leftMSB]; part++) {
+            BinaryMerge bm = new BinaryMerge(new BinaryMerge.FFSB(leftFrame, leftMSB, leftShift,
+                    leftIndex._bytesUsed, leftIndex._base), new BinaryMerge.FFSB(rightFrame,/*rightMSB*/-1, riteShift,
+                    riteIndex._bytesUsed, riteIndex._base),
+                    true, mergeId, part, leftParts[leftMSB]);
+            bmList.add(bm);
+            fs.add(new RPC<>(BinaryMerge.mergeNode(leftMSB, -1, part, mergeId), bm).call());
+          }
         }
       }
     } else {
@@ -182,11 +211,13 @@ public class Merge {
       // run the merge for the whole lefts that start after the last right
       if (allLeft) {  // not worthy restricting length here unless store column max.
         for (int leftMSB = (int) leftMSBto + 1; leftMSB <= 255; leftMSB++) {
-          BinaryMerge bm = new BinaryMerge(new BinaryMerge.FFSB(leftFrame, leftMSB, leftShift, leftIndex._bytesUsed,
-                  leftIndex._base), new BinaryMerge.FFSB(rightFrame,/*rightMSB*/-1, riteShift, 
-                  riteIndex._bytesUsed, riteIndex._base), true, mergeId);
-          bmList.add(bm);
-          fs.add(new RPC<>(SplitByMSBLocal.ownerOfMSB(leftMSB), bm).call());
+          for (int part = 0; part < leftParts[leftMSB]; part++) {
+            BinaryMerge bm = new BinaryMerge(new BinaryMerge.FFSB(leftFrame, leftMSB, leftShift, leftIndex._bytesUsed,
+                    leftIndex._base), new BinaryMerge.FFSB(rightFrame,/*rightMSB*/-1, riteShift, 
+                    riteIndex._bytesUsed, riteIndex._base), true, mergeId, part, leftParts[leftMSB]);
+            bmList.add(bm);
+            fs.add(new RPC<>(BinaryMerge.mergeNode(leftMSB, -1, part, mergeId), bm).call());
+          }
         }
       }
     } else if (!leftFrameEmpty){
@@ -218,16 +249,18 @@ public class Merge {
       assert rightMSBto >= rightMSBfrom;
 
       for (int rightMSB = rightMSBfrom; rightMSB <= rightMSBto; rightMSB++) {
-        BinaryMerge bm = new BinaryMerge(new BinaryMerge.FFSB(leftFrame, leftMSB, leftShift, leftIndex._bytesUsed, leftIndex._base),
-                new BinaryMerge.FFSB(rightFrame, rightMSB, riteShift, riteIndex._bytesUsed, riteIndex._base),
-                allLeft, mergeId);
-        bmList.add(bm);
-        // TODO: choose the bigger side to execute on (where that side of index
-        // already is) to minimize transfer.  within BinaryMerge it will
-        // recalculate the extents in terms of keys and bsearch for them within
-        // the (then local) both sides
-        H2ONode node = SplitByMSBLocal.ownerOfMSB(rightMSB);
-        fs.add(new RPC<>(node, bm).call());
+        for (int part = 0; part < leftParts[leftMSB]; part++) {
+          BinaryMerge bm = new BinaryMerge(new BinaryMerge.FFSB(leftFrame, leftMSB, leftShift, leftIndex._bytesUsed, leftIndex._base),
+                  new BinaryMerge.FFSB(rightFrame, rightMSB, riteShift, riteIndex._bytesUsed, riteIndex._base),
+                  allLeft, mergeId, part, leftParts[leftMSB]);
+          bmList.add(bm);
+          // TODO: choose the bigger side to execute on (where that side of index
+          // already is) to minimize transfer.  within BinaryMerge it will
+          // recalculate the extents in terms of keys and bsearch for them within
+          // the (then local) both sides
+          H2ONode node = BinaryMerge.mergeNode(leftMSB, rightMSB, part, mergeId);
+          fs.add(new RPC<>(node, bm).call());
+        }
       }
     }
     Log.debug("took: " + String.format("%.3f", (System.nanoTime() - t0) / 1e9) +" seconds.");
@@ -267,6 +300,7 @@ public class Merge {
     long chunkSizes[] = new long[numChunks];
     int chunkLeftMSB[] = new int[numChunks];  // using too much space repeating the same value here, but, limited
     int chunkRightMSB[] = new int[numChunks];
+    int chunkPart[] = new int[numChunks];
     int chunkBatch[] = new int[numChunks];
     int k = 0;
     for( BinaryMerge thisbm : bmList ) {
@@ -276,6 +310,7 @@ public class Merge {
         chunkSizes[k] = thisChunkSizes[j];
         chunkLeftMSB [k] = thisbm._leftSB._msb;
         chunkRightMSB[k] = thisbm._riteSB._msb;
+        chunkPart[k] = thisbm._part;
         chunkBatch[k] = j;
         k++;
       }
@@ -322,7 +357,7 @@ public class Merge {
     Log.info("Finally stitch together by overwriting dummies ...");
     t0 = System.nanoTime();
     Frame fr = new Frame(names, vecs);
-    ChunkStitcher ff = new ChunkStitcher(chunkSizes, chunkLeftMSB, chunkRightMSB, chunkBatch, mergeId);
+    ChunkStitcher ff = new ChunkStitcher(chunkSizes, chunkLeftMSB, chunkRightMSB, chunkPart, chunkBatch, mergeId);
     ff.doAll(fr);
     Log.debug("took: " + (System.nanoTime() - t0) / 1e9+" seconds");
     
@@ -340,7 +375,7 @@ public class Merge {
       if (leftSortedOXHeader != null) {
         SortCombine bm = new SortCombine(new SortCombine.FFSB(leftFrame, leftMSB), leftSortedOXHeader, mergeId);
         bmList.add(bm);
-        fs.add(new RPC<>(SplitByMSBLocal.ownerOfMSB(leftMSB), bm).call());
+        fs.add(new RPC<>(SplitByMSBLocal.ownerOfMSB(leftMSB, mergeId), bm).call());
       }
     }
     Log.debug("took: " + String.format("%.3f", (System.nanoTime() - t0) / 1e9)+" seconds.");
@@ -472,7 +507,7 @@ public class Merge {
     Log.info("Finally stitch together by overwriting dummies ...");
     t0 = System.nanoTime();
     Frame fr = new Frame(names, vecs);
-    ChunkStitcher ff = new ChunkStitcher(chunkSizes, chunkLeftMSB, chunkRightMSB, chunkBatch, mergeId);
+    ChunkStitcher ff = new ChunkStitcher(chunkSizes, chunkLeftMSB, chunkRightMSB, null, chunkBatch, mergeId);
     ff.doAll(fr);
     Log.debug("took: " + (System.nanoTime() - t0) / 1e9+" seconds.");
     return fr;
@@ -481,7 +516,17 @@ public class Merge {
   public static Frame sortOnly(final Frame leftFrame, final int leftCols[], int[][] id_maps, int[] ascendingL) {
     final long t0 = System.nanoTime();
     final long mergeId = nextMergeId();
-    createIndex(true, leftFrame, leftCols, id_maps, ascendingL, mergeId);  // sort the columns.
+    try {
+      RadixOrder index = new RadixOrder(leftFrame, true, leftCols, id_maps, ascendingL, mergeId);
+      setOwners(mergeId, index.msbHistogram());
+      createIndex(true, index);  // sort the columns.
+      return sortIndexed(leftFrame, t0, mergeId);
+    } finally {
+      SplitByMSBLocal.clearOwners(mergeId);
+    }
+  }
+
+  private static Frame sortIndexed(final Frame leftFrame, final long t0, final long mergeId) {
     Log.info("Making BinaryMerge RPC calls ... ");
     List<SortCombine> bmList = gatherSameMSBRows(leftFrame, mergeId); // For each MSB, gather sorted rows with same MSB into one spot
     Log.info("Allocating and populating chunk info (e.g. size and batch number) ...");
@@ -515,32 +560,38 @@ public class Merge {
             chunkBatch, mergeId);
   }
   
-  private static RadixOrder createIndex(boolean isLeft, Frame fr, int[] cols, int[][] id_maps, int[] ascending, 
-                                        long mergeId) {
+  private static void setOwners(long mergeId, long[] msbHist) {
+    int nodes = H2O.CLOUD.size();
+    if (nodes > 1)
+      SplitByMSBLocal.setOwners(mergeId, SplitByMSBLocal.balanceOwners(msbHist, nodes));
+  }
+
+  private static void createIndex(boolean isLeft, RadixOrder idxTask) {
     Log.info("Creating "+(isLeft ? "left" : "right")+" index ...");
     long t0 = System.nanoTime();
-    RadixOrder idxTask = new RadixOrder(fr, isLeft, cols, id_maps, ascending, mergeId);
     H2O.submitTask(idxTask);    // each of those launches an MRTask
     idxTask.join(); 
     Log.debug("*** Creating "+(isLeft ? "left" : "right")+" index took: " + (System.nanoTime() - t0) / 1e9 + " seconds ***");
-    return idxTask;
   }
 
   static class ChunkStitcher extends MRTask<ChunkStitcher> {
     final long _chunkSizes[];
     final int  _chunkLeftMSB[];
     final int  _chunkRightMSB[];
+    final int  _chunkPart[];  // null when no MSB merge was split into parts
     final int  _chunkBatch[];
     final long _mergeId;
     ChunkStitcher(long[] chunkSizes,
                   int[]  chunkLeftMSB,
                   int[]  chunkRightMSB,
+                  int[]  chunkPart,
                   int[]  chunkBatch, 
                   long mergeId
     ) {
       _chunkSizes   = chunkSizes;
       _chunkLeftMSB = chunkLeftMSB;
       _chunkRightMSB= chunkRightMSB;
+      _chunkPart    = chunkPart;
       _chunkBatch   = chunkBatch;
       _mergeId = mergeId;
     }
@@ -551,7 +602,8 @@ public class Merge {
       for (int i=0;i<cs.length;++i) {
         Key destKey = cs[i].vec().chunkKey(chkIdx);
         assert(cs[i].len() == _chunkSizes[chkIdx]);
-        Key k = BinaryMerge.getKeyForMSBComboPerCol(_chunkLeftMSB[chkIdx], _chunkRightMSB[chkIdx], i,
+        Key k = BinaryMerge.getKeyForMSBComboPerCol(_chunkLeftMSB[chkIdx], _chunkRightMSB[chkIdx],
+                _chunkPart == null ? 0 : _chunkPart[chkIdx], i,
                 _chunkBatch[chkIdx], _mergeId);
         Chunk ck = DKV.getGet(k);
         DKV.put(destKey, ck, fs, /*don't cache*/true);
@@ -2,6 +2,7 @@ package water.rapids;
 
 import water.*;
 import water.fvec.Chunk;
+import water.util.ArrayUtils;
 import water.util.MathUtils;
 
 import java.math.BigInteger;
@@ -14,6 +15,7 @@ class RadixCount extends MRTask<RadixCount> {
     long _val[][];
   }
   private Long2DArray _counts;
+  long[] _msbHist; // rows in each MSB over the whole frame, returned to the caller
   private final int _shift;
   private final int _col;
   private final BigInteger _base;
@@ -105,6 +107,12 @@ class RadixCount extends MRTask<RadixCount> {
         }
       }
     }
+    _msbHist = tmp.clone(); // tmp is kept in _counts, the reduce adds into _msbHist
+  }
+
+  @Override public void reduce(RadixCount that) {
+    if (_msbHist == null) _msbHist = that._msbHist;
+    else if (that._msbHist != null) ArrayUtils.add(_msbHist, that._msbHist);
   }
 
   @Override protected void closeLocal() {
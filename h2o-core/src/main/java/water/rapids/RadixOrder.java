@@ -9,6 +9,7 @@ import water.util.Log;
 import water.util.MathUtils;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 
 import static java.math.BigInteger.ONE;
 import static java.math.BigInteger.ZERO;
@@ -44,46 +45,75 @@ class RadixOrder extends H2O.H2OCountedCompleter<RadixOrder> {
     _mergeId =  mergeId;
   }
 
+  // Rows in each MSB of the first key column, counted by msbHistogram() before the index is created
+  private long[] _msbHist;
+
+  /**
+   * Count the rows in each MSB of the first key column.  Called by Merge before the index is created, so that the
+   * MSBs can be assigned to the nodes by the distribution of the keys of both sides of a merge.
+   * @return rows in each MSB, all zeros when there are no key columns or rows
+   */
+  long[] msbHistogram() {
+    if (_msbHist != null) return _msbHist;
+    initBaseShift();
+    if( _whichCols.length > 0 )
+      _msbHist = new RadixCount(_isLeft, _base[0], _shift[0], _whichCols[0], _id_maps, _ascending[0], _mergeId).doAll(_DF.vec(_whichCols[0]))._msbHist;
+    if (_msbHist == null) _msbHist = new long[256]; // no key columns or no chunks
+    return _msbHist;
+  }
+
   @Override
   public void compute2() {
     long t0 = System.nanoTime(), t1;
-    initBaseShift();
+    long[] msbHist = msbHistogram();
+    Log.debug("Time of MSB count MRTask left local on each node (no reduce): " + ((t1=System.nanoTime()) - t0) / 1e9+" seconds."); t0=t1;
 
     // The MSB is stored (seemingly wastefully on first glance) because we need
     // it when aligning two keys in Merge()
     int keySize = ArrayUtils.sum(_bytesUsed);
     // 256MB is the DKV limit.  / 2 because we fit o and x together in one OXBatch.
     int batchSize = OPTIMAL_BATCHSIZE ; // larger, requires more memory with less remote row fetch and vice versa for smaller
-    // go through all node memory and reduce batchSize if needed
-    long minMem = Long.MAX_VALUE; // memory size of nodes with smallest memory
+
+    // Rows each node sorts, by the owners of the MSBs (balanced by Merge over the key distribution of both sides)
+    final int nodes = H2O.CLOUD.size();
+    long[] nodeRows = new long[nodes];
+    if( _whichCols.length > 0 ) {
+      final long fairShare = _DF.numRows() / nodes;
+      for (int msb = 0; msb < 256; msb++) {
+        H2ONode owner = SplitByMSBLocal.ownerOfMSB(msb, _mergeId);
+        nodeRows[owner.index()] += msbHist[msb];
+        if (nodes > 1 && msbHist[msb] > fairShare)
+          Log.warn("MSB " + msb + " of the " + (_isLeft ? "left" : "right") + " index holds " + msbHist[msb] + " of " +
+                  _DF.numRows() + " rows, more than the share of a node; it is sorted by node " + owner + " alone.");
+      }
+    } else {
+      Arrays.fill(nodeRows, _DF.numRows());
+    }
+
+    // At some point, the compare columns of all the MSBs a node owns will be stored at that node, and an array of size
+    // batchsize by numCols will be created for each sorted chunk on top of that.  The batch size is derived from the
+    // memory left on the node the distribution of the keys loads the most.  Memory is in bytes.
+    long dataSetMemoryPerRow = 8*((long) _DF.numCols())*MEM_MULTIPLIER; // 8 to translate 64 bits into 8 bytes, MEM_MULTIPLIER to scale up
+    long minFreeMem = Long.MAX_VALUE; // memory left for the batches on the most loaded node
     for (H2ONode h2o : H2O.CLOUD._memary) {
       long mem = h2o._heartbeat.get_free_mem(); // in bytes
-      if (mem < minMem)
-        minMem = mem;
+      long sortMemory = _whichCols.length*nodeRows[h2o.index()]*8*MEM_MULTIPLIER;
+      if (mem < sortMemory) // if not enough, just throw an error and get out
+        throw new RuntimeException("The memory of node " + h2o + " is too small to accommodate the sorting/merging " +
+                "operation.  Make sure the node has at least "+sortMemory+" bytes of free memory.");
+      minFreeMem = Math.min(minFreeMem, mem - sortMemory);
     }
-    // at some point, a MSB worth of compare columns will be stored at any one node.  Make sure we have enough memory
-    // for that.
-    long minSortMemory = _whichCols.length*Math.max(_DF.numRows(), batchSize)*8*MEM_MULTIPLIER;
-    if (minMem < minSortMemory) // if not enough, just throw an error and get out
-      throw new RuntimeException("The minimum memory per node needed is too small to accommodate the sorting/merging " +
-              "operation.  Make sure the smallest node has at least "+minSortMemory+" bytes of memory.");
-    // an array of size batchsize by numCols will be created for each sorted chunk in the end.  Memory is in bytes
-    long dataSetMemoryPerRow = 8*((long) _DF.numCols())*MEM_MULTIPLIER; // 8 to translate 64 bits into 8 bytes, MEM_MULTIPLIER to scale up
-    long batchMemory = Math.max((long) batchSize*dataSetMemoryPerRow, minSortMemory); // memory needed to store one chunk of dataset frame
-    if (batchMemory > minMem) {  // batchsize is too big for node with smallest memory, reduce it
-      batchSize = (int) Math.floor(minMem/dataSetMemoryPerRow);
+    long batchMemory = (long) batchSize*dataSetMemoryPerRow; // memory needed to store one chunk of dataset frame
+    if (batchMemory > minFreeMem) {  // batchsize is too big for the most loaded node, reduce it
+      batchSize = (int) Math.floor(minFreeMem/dataSetMemoryPerRow);
       if (batchSize == 0)
-        throw new RuntimeException("The minimum memory per node needed is too small to accommodate the sorting/merging " +
-                "operation.  Make sure the smallest node has at least "+minMem*100+" bytes of memory.");
+        throw new RuntimeException("The memory per node left after sorting is too small to accommodate the " +
+                "sorting/merging operation.  Make sure the most loaded node has at least "+dataSetMemoryPerRow*100+" more bytes of memory.");
     }
     
     // The Math.max ensures that batches of o and x are aligned, even for wide
     // keys.  To save % and / in deep iteration; e.g. in insert().
-    Log.debug("Time to use rollup stats to determine biggestBit: " + ((t1=System.nanoTime()) - t0) / 1e9+" seconds."); t0=t1;
-
-    if( _whichCols.length > 0 ) // batchsize is not used here
-      new RadixCount(_isLeft, _base[0], _shift[0], _whichCols[0], _id_maps, _ascending[0], _mergeId).doAll(_DF.vec(_whichCols[0]));
-    Log.debug("Time of MSB count MRTask left local on each node (no reduce): " + ((t1=System.nanoTime()) - t0) / 1e9+" seconds."); t0=t1;
+    Log.debug("Time to use rollup stats to determine batchSize: " + ((t1=System.nanoTime()) - t0) / 1e9+" seconds."); t0=t1;
 
     // NOT TO DO:  we do need the full allocation of x[] and o[].  We need o[] anyway.  x[] will be compressed and dense.
     // o is the full ordering vector of the right size
@@ -108,7 +138,7 @@ class RadixOrder extends H2O.H2OCountedCompleter<RadixOrder> {
     RPC[] radixOrders = new RPC[256];
     Log.info("Sending SingleThreadRadixOrder async RPC calls ... ");
     for (int i = 0; i < 256; i++)
-      radixOrders[i] = new RPC<>(SplitByMSBLocal.ownerOfMSB(i), new SingleThreadRadixOrder(_DF, _isLeft, batchSize,
+      radixOrders[i] = new RPC<>(SplitByMSBLocal.ownerOfMSB(i, _mergeId), new SingleThreadRadixOrder(_DF, _isLeft, batchSize,
               keySize, /*nGroup,*/ i, _mergeId)).call();
     Log.debug("took : " + ((t1=System.nanoTime()) - t0) / 1e9); t0=t1;
 
@@ -54,6 +54,13 @@ public class Session {
 
   private final Properties properties = new Properties();
 
+  /**
+   * Session property enabling the fused evaluation of element-wise expressions, see {@link Fusion}.  Defaults to the
+   * value of the system property with the same name.
+   */
+  public static final String PROP_FUSE = "rapids.fuse";
+  private static final String FUSE_DEFAULT = String.valueOf(H2O.getSysBoolProperty(PROP_FUSE, false));
+
   /**
    * Constructor
    */
@@ -84,6 +91,11 @@ public class Session {
     return properties.getProperty(key, defaultValue);
   }
 
+  /** Evaluate nested element-wise primitives by a single fused MRTask instead of one MRTask per primitive? */
+  public boolean fuseElementwise() {
+    return Boolean.parseBoolean(getProperty(PROP_FUSE, FUSE_DEFAULT));
+  }
+
   /**
    * Execute an AstRoot in the current Session with much assertion-checking
    * @param ast Rapids expression to execute
@@ -320,7 +320,7 @@ class SortCombine extends DTask<SortCombine> {
         for (int index = 0; index < frameLikeChunks4String[col][b].length; index++)
           nc.addStr(frameLikeChunks4String[col][b][index]);
         Chunk ck = nc.compress();
-        DKV.put(BinaryMerge.getKeyForMSBComboPerCol(_leftSB._msb, -1, col, b, mergeId), ck, fs, true);
+        DKV.put(BinaryMerge.getKeyForMSBComboPerCol(_leftSB._msb, -1, 0, col, b, mergeId), ck, fs, true);
         frameLikeChunks4String[col][b] = null; //free mem as early as possible (it's now in the store)
       } else if (_intCols[col]) {
         NewChunk nc = new NewChunk(null, -1);
@@ -329,11 +329,11 @@ class SortCombine extends DTask<SortCombine> {
           else nc.addNum(l, 0);
         }
         Chunk ck = nc.compress();
-        DKV.put(BinaryMerge.getKeyForMSBComboPerCol(_leftSB._msb, -1, col, b, mergeId), ck, fs, true);
+        DKV.put(BinaryMerge.getKeyForMSBComboPerCol(_leftSB._msb, -1, 0, col, b, mergeId), ck, fs, true);
         frameLikeChunksLong[col][b] = null; //free mem as early as possible (it's now in the store)
       } else {
         Chunk ck = new NewChunk(frameLikeChunks[col][b]).compress();
-        DKV.put(BinaryMerge.getKeyForMSBComboPerCol(_leftSB._msb, -1, col, b, mergeId), ck, fs, true);
+        DKV.put(BinaryMerge.getKeyForMSBComboPerCol(_leftSB._msb, -1, 0, col, b, mergeId), ck, fs, true);
         frameLikeChunks[col][b] = null; //free mem as early as possible (it's now in the store)
       }
     }
@@ -1,6 +1,7 @@
 package water.rapids;
 
 import water.*;
+import water.nbhm.NonBlockingHashMapLong;
 import water.fvec.Chunk;
 import water.util.ArrayUtils;
 import water.util.Log;
@@ -192,24 +193,93 @@ class SplitByMSBLocal extends MRTask<SplitByMSBLocal> {
     }
   }
 
-  static H2ONode ownerOfMSB(int MSBvalue) {
-    // TO DO: this isn't properly working for efficiency. This value should pick the value of where it is, somehow.
-    //        Why not getSortedOXHeader(MSBvalue).home_node() ?
-    //int blocksize = (int) Math.ceil(256. / H2O.CLOUD.size());
-    //H2ONode node = H2O.CLOUD._memary[MSBvalue / blocksize];
-    return H2O.CLOUD._memary[MSBvalue % H2O.CLOUD.size()];   // spread it around more.
+  // Owners (node indices) of the MSBs of the running merges, set on all nodes by Merge before the indexes are created
+  // and cleared when the merge is done.  The left and right index share the owners, so that MSB i of both sides lives
+  // on the same node as it did with the round-robin owners.  Without owners the MSBs are spread round-robin.
+  private static final NonBlockingHashMapLong<int[]> MSB_OWNERS = new NonBlockingHashMapLong<>();
+
+  static H2ONode ownerOfMSB(int MSBvalue, long mergeId) {
+    int[] owners = MSB_OWNERS.get(mergeId);
+    return H2O.CLOUD._memary[owners != null ? owners[MSBvalue] : MSBvalue % H2O.CLOUD.size()];   // spread it around more.
+  }
+
+  /** Node merging the given part of a (heavy) MSB, the parts of an MSB are spread over the nodes from its owner on */
+  static H2ONode ownerOfPart(int MSBvalue, int part, long mergeId) {
+    if (part == 0) return ownerOfMSB(MSBvalue, mergeId);
+    return H2O.CLOUD._memary[(ownerOfMSB(MSBvalue, mergeId).index() + part) % H2O.CLOUD.size()];
+  }
+
+  /**
+   * Assign the MSBs to the nodes so that every node sorts (and holds) about the same number of rows: the biggest MSBs
+   * first, each to the least loaded node, preferring the round-robin owner on a tie.  An MSB is never split by the
+   * sort, so an MSB bigger than the fair share of a node (a heavy key range, e.g. one key holding a third of the rows)
+   * ends up alone on its node while the other MSBs are moved away from it; its merge is split by {@link #mergeParts}.
+   * @param msbHist number of rows in each MSB, of both sides of a merge
+   * @return owner (node index) of each MSB
+   */
+  static int[] balanceOwners(long[] msbHist, int nodes) {
+    Integer[] order = new Integer[256];
+    for (int msb = 0; msb < 256; msb++) order[msb] = msb;
+    Arrays.sort(order, (a, b) -> Long.compare(msbHist[b], msbHist[a])); // stable: ties stay in MSB order
+    long[] load = new long[nodes];
+    int[] owners = new int[256];
+    for (int msb : order) {
+      int best = msb % nodes;
+      for (int n = 0; n < nodes; n++)
+        if (load[n] < load[best]) best = n;
+      owners[msb] = best;
+      load[best] += msbHist[msb];
+    }
+    return owners;
+  }
+
+  /**
+   * Number of parts the merge of each left MSB is split into: an MSB holding k times the fair share of a node is
+   * merged by k nodes (at most all of them), each joining a contiguous range of its sorted left rows.
+   * @param msbHist number of rows in each MSB of the left index
+   * @param nodes number of nodes to split a heavy MSB over
+   */
+  static int[] mergeParts(long[] msbHist, int nodes) {
+    int[] parts = new int[256];
+    long total = ArrayUtils.sum(msbHist);
+    for (int msb = 0; msb < 256; msb++) {
+      long p = total == 0 ? 1 : (msbHist[msb] * nodes + total - 1) / total;
+      parts[msb] = (int) Math.max(1, Math.min(nodes, p));
+    }
+    return parts;
+  }
+
+  /** Make the owners of the MSBs of a merge known to all nodes */
+  static void setOwners(long mergeId, int[] owners) {
+    new SetOwnersTask(mergeId, owners).doAllNodes();
+  }
+
+  /** Forget the owners of the MSBs of a merge on all nodes */
+  static void clearOwners(long mergeId) {
+    if (H2O.CLOUD.size() == 1) return; // never set
+    new SetOwnersTask(mergeId, null).doAllNodes();
+  }
+
+  private static class SetOwnersTask extends MRTask<SetOwnersTask> {
+    final long _mergeId;
+    final int[] _owners;
+    SetOwnersTask(long mergeId, int[] owners) { _mergeId = mergeId; _owners = owners; }
+    @Override public void setupLocal() {
+      if (_owners == null) MSB_OWNERS.remove(_mergeId);
+      else MSB_OWNERS.put(_mergeId, _owners);
+    }
   }
 
   static Key getNodeOXbatchKey(boolean isLeft, int MSBvalue, int node, int batch, long mergeId) {
     return Key.make("__radix_order__NodeOXbatch_MSB" + MSBvalue + "_node" + node + "_batch" + batch +  "_"
                     + mergeId + (isLeft ? "_LEFT" : "_RIGHT"),
-            Key.HIDDEN_USER_KEY, false, SplitByMSBLocal.ownerOfMSB(MSBvalue));
+            Key.HIDDEN_USER_KEY, false, SplitByMSBLocal.ownerOfMSB(MSBvalue, mergeId));
   }
 
   static Key getSortedOXbatchKey(boolean isLeft, int MSBvalue, int batch, long mergeId) {
     return Key.make("__radix_order__SortedOXbatch_MSB" + MSBvalue + "_batch" + batch + "_"
                     + mergeId + (isLeft ? "_LEFT" : "_RIGHT"),
-            Key.HIDDEN_USER_KEY, false, SplitByMSBLocal.ownerOfMSB(MSBvalue));
+            Key.HIDDEN_USER_KEY, false, SplitByMSBLocal.ownerOfMSB(MSBvalue, mergeId));
   }
 
 
@@ -222,7 +292,7 @@ class SplitByMSBLocal extends MRTask<SplitByMSBLocal> {
   static Key getMSBNodeHeaderKey(boolean isLeft, int MSBvalue, int node, long mergeId) {
     return Key.make("__radix_order__OXNodeHeader_MSB" + MSBvalue + "_node" + node + "_" + mergeId
                     + (isLeft ? "_LEFT" : "_RIGHT"),
-            Key.HIDDEN_USER_KEY, false, SplitByMSBLocal.ownerOfMSB(MSBvalue));
+            Key.HIDDEN_USER_KEY, false, SplitByMSBLocal.ownerOfMSB(MSBvalue, mergeId));
   }
 
   static class MSBNodeHeader extends Iced {
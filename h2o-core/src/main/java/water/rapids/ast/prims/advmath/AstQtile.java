@@ -15,18 +15,19 @@ import water.rapids.ast.params.AstNumList;
 
 /**
  * Quantiles:
- * (quantile %frame [numnber_list_probs] "string_interpolation_type")
+ * (quantile %frame [numnber_list_probs] "string_interpolation_type" weights_column [sketch])
+ * If the optional sketch flag is 1, the quantiles of all columns are approximated in a single pass.
  */
 public class AstQtile extends AstPrimitive {
   @Override
   public String[] args() {
-    return new String[]{"ary", "probs", "interpolationMethod", "weights_column"};
+    return new String[]{"ary", "probs", "interpolationMethod", "weights_column", "sketch"};
   }
 
   @Override
   public int nargs() {
-    return 1 + 4;
-  }
+    return -1;
+  } // (quantile ary probs interpolationMethod weights_column [sketch])
 
   @Override
   public String str() {
@@ -35,6 +36,8 @@ public class AstQtile extends AstPrimitive {
 
   @Override
   public ValFrame apply(Env env, Env.StackHelp stk, AstRoot asts[]) {
+    if (asts.length != 1 + 4 && asts.length != 1 + 5)
+      throw new IllegalArgumentException("Incorrect number of arguments; '" + str() + "' expects 4 or 5 but was passed " + (asts.length - 1));
     QuantileModel.QuantileParameters parms = new QuantileModel.QuantileParameters();
     Frame fr = stk.track(asts[1].exec(env)).getFrame();
     Frame fr_wkey = new Frame(fr); // Force a bogus Key for Quantiles ModelBuilder
@@ -48,6 +51,7 @@ public class AstQtile extends AstPrimitive {
     String inter = asts[3].exec(env).getStr();
     parms._combine_method = QuantileModel.CombineMethod.valueOf(inter.toUpperCase());
     parms._weights_column = asts[4].str().equals("_") ? null : asts[4].str();
+    parms._sketch = asts.length > 5 && asts[5].exec(env).getNum() == 1;
 
     // Compute Quantiles
     Job j = new Quantile(parms).trainModel();
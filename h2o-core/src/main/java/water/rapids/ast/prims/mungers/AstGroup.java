@@ -38,99 +38,110 @@ import java.util.Arrays;
  */
 public class AstGroup extends AstPrimitive {
 
+  // Group-by on numeric columns with the primitive GroupTable, can be disabled to use the G-based tasks
+  private static final boolean USE_GROUP_TABLE = H2O.getSysBoolProperty("rapids.groupby.groupTable", true);
+
   private final boolean _per_node_aggregates;
+  private final boolean _use_group_table;
 
   public AstGroup() {
     this(true);
   }
 
   public AstGroup(boolean perNodeAggregates) {
+    this(perNodeAggregates, USE_GROUP_TABLE);
+  }
+
+  public AstGroup(boolean perNodeAggregates, boolean useGroupTable) {
     _per_node_aggregates = perNodeAggregates;
+    _use_group_table = useGroupTable;
   }
 
   public enum NAHandling {ALL, RM, IGNORE}
 
-  // Functions handled by GroupBy
+  // Functions handled by GroupBy.  The aggregate of a function lives in slots [off, off+len) of an array (a whole
+  // array per group in G, a window of a flat array shared by all groups in GroupTable).
   public enum FCN {
     nrow() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0]++;
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off]++;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        d0s[0] += d1s[0];
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        d0s[off0] += d1s[off1];
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        return ds[0];
+      public double postPass(double ds[], int off, int len, long n) {
+        return ds[off];
       }
     },
     mean() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] += d1;
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off] += d1;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        d0s[0] += d1s[0];
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        d0s[off0] += d1s[off1];
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        return ds[0] / n;
+      public double postPass(double ds[], int off, int len, long n) {
+        return ds[off] / n;
       }
     },
     sum() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] += d1;
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off] += d1;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        d0s[0] += d1s[0];
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        d0s[off0] += d1s[off1];
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        return ds[0];
+      public double postPass(double ds[], int off, int len, long n) {
+        return ds[off];
       }
     },
     sumSquares() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] += d1 * d1;
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off] += d1 * d1;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        d0s[0] += d1s[0];
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        d0s[off0] += d1s[off1];
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        return ds[0];
+      public double postPass(double ds[], int off, int len, long n) {
+        return ds[off];
       }
     },
     var() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] += d1 * d1;
-        d0s[1] += d1;
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off] += d1 * d1;
+        d0s[off + 1] += d1;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        ArrayUtils.add(d0s, d1s);
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        d0s[off0] += d1s[off1];
+        d0s[off0 + 1] += d1s[off1 + 1];
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        double numerator = ds[0] - ds[1] * ds[1] / n;
+      public double postPass(double ds[], int off, int len, long n) {
+        double numerator = ds[off] - ds[off + 1] * ds[off + 1] / n;
         if (Math.abs(numerator) < 1e-5) numerator = 0;
         return numerator / (n - 1);
       }
@@ -142,19 +153,20 @@ public class AstGroup extends AstPrimitive {
     },
     sdev() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] += d1 * d1;
-        d0s[1] += d1;
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off] += d1 * d1;
+        d0s[off + 1] += d1;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        ArrayUtils.add(d0s, d1s);
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        d0s[off0] += d1s[off1];
+        d0s[off0 + 1] += d1s[off1 + 1];
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        double numerator = ds[0] - ds[1] * ds[1] / n;
+      public double postPass(double ds[], int off, int len, long n) {
+        double numerator = ds[off] - ds[off + 1] * ds[off + 1] / n;
         if (Math.abs(numerator) < 1e-5) numerator = 0;
         return Math.sqrt(numerator / (n - 1));
       }
@@ -166,18 +178,18 @@ public class AstGroup extends AstPrimitive {
     },
     min() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] = Math.min(d0s[0], d1);
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off] = Math.min(d0s[off], d1);
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        op(d0s, d1s[0]);
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        op(d0s, off0, d1s[off1]);
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        return ds[0];
+      public double postPass(double ds[], int off, int len, long n) {
+        return ds[off];
       }
 
       @Override
@@ -187,18 +199,18 @@ public class AstGroup extends AstPrimitive {
     },
     max() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[0] = Math.max(d0s[0], d1);
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off] = Math.max(d0s[off], d1);
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        op(d0s, d1s[0]);
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        op(d0s, off0, d1s[off1]);
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        return ds[0];
+      public double postPass(double ds[], int off, int len, long n) {
+        return ds[off];
       }
 
       @Override
@@ -209,17 +221,17 @@ public class AstGroup extends AstPrimitive {
     median() {  // we will be doing our own thing here for median
 
       @Override
-      public void op(double[] d0s, double d1) {
+      public void op(double[] d0s, int off, double d1) {
         ;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
         ;
       }
 
       @Override
-      public double postPass(double ds[], long n) {
+      public double postPass(double ds[], int off, int len, long n) {
         return 0;
       }
 
@@ -230,18 +242,22 @@ public class AstGroup extends AstPrimitive {
     },
     mode() {
       @Override
-      public void op(double[] d0s, double d1) {
-        d0s[(int) d1]++;
+      public void op(double[] d0s, int off, double d1) {
+        d0s[off + (int) d1]++;
       }
 
       @Override
-      public void atomic_op(double[] d0s, double[] d1s) {
-        ArrayUtils.add(d0s, d1s);
+      public void atomic_op(double[] d0s, int off0, double[] d1s, int off1, int len) {
+        for (int i = 0; i < len; i++)
+          d0s[off0 + i] += d1s[off1 + i];
       }
 
       @Override
-      public double postPass(double ds[], long n) {
-        return ArrayUtils.maxIndex(ds);
+      public double postPass(double ds[], int off, int len, long n) {
+        int result = 0;
+        for (int i = 1; i < len; i++)
+          if (ds[off + i] > ds[off + result]) result = i;
+        return result;
       }
 
       @Override
@@ -250,11 +266,23 @@ public class AstGroup extends AstPrimitive {
       }
     },;
 
-    public abstract void op(double[] d0, double d1);
+    public abstract void op(double[] d0, int off, double d1);
+
+    public abstract void atomic_op(double[] d0, int off0, double[] d1, int off1, int len);
 
-    public abstract void atomic_op(double[] d0, double[] d1);
+    public abstract double postPass(double ds[], int off, int len, long n);
 
-    public abstract double postPass(double ds[], long n);
+    public void op(double[] d0, double d1) {
+      op(d0, 0, d1);
+    }
+
+    public void atomic_op(double[] d0, double[] d1) {
+      atomic_op(d0, 0, d1, 0, d0.length);
+    }
+
+    public double postPass(double ds[], long n) {
+      return postPass(ds, 0, ds.length, n);
+    }
 
     public double[] initVal(int maxx) {
       return new double[]{0};
@@ -303,6 +331,9 @@ public class AstGroup extends AstPrimitive {
   public ValFrame performGroupingWithAggregations(Frame fr, int[] gbCols, AGG[] aggs) {
     final boolean hasMedian = hasMedian(aggs);
     final byte[] gbColsTypes = ArrayUtils.select(fr.types(), gbCols);
+
+    if (_use_group_table && !hasMedian && ArrayUtils.occurrenceCount(gbColsTypes, Vec.T_STR) == 0)
+      return new ValFrame(groupNumeric(fr, gbCols, aggs));
     
     final IcedHashSet<G> gss = doGroups(fr, gbCols,  gbColsTypes, aggs, hasMedian, _per_node_aggregates);
     final G[] grps = gss.toArray(new G[gss.size()]);
@@ -319,6 +350,29 @@ public class AstGroup extends AstPrimitive {
     return new ValFrame(f);
   }
 
+  // Group-by on numeric columns, all groups and aggregates are kept in primitive GroupTables
+  private static Frame groupNumeric(Frame fr, int[] gbCols, AGG[] aggs) {
+    long start = System.currentTimeMillis();
+    final GroupTable groups = new GBTaskGroupTable(gbCols, aggs).doAll(fr).getGroups();
+    Log.info("Group By Task done in " + (System.currentTimeMillis() - start) / 1000. + " (s)");
+    final int[] order = groups.sortedOrder();
+    MRTask mrFill = new MRTask() {
+      @Override
+      public void map(Chunk[] c, NewChunk[] ncs) {
+        int start = (int) c[0].start();
+        for (int i = 0; i < c[0]._len; ++i) {
+          int g = order[i + start];  // One Group per row
+          int j = 0;
+          for (; j < groups._nkeys; j++)
+            ncs[j].addNum(groups.key(g, j));
+          for (int a = 0; a < groups._naggs; a++)
+            ncs[j++].addNum(groups.postPass(g, a));
+        }
+      }
+    };
+    return buildOutput(gbCols, aggs.length, fr, prepareFCNames(fr, aggs), order.length, mrFill);
+  }
+
   private static boolean hasMedian(AGG[] aggs) {
     for (AGG agg : aggs) 
       if (FCN.median.equals(agg._fcn))
@@ -356,7 +410,7 @@ public class AstGroup extends AstPrimitive {
     };
   }
 
-  private String[] prepareFCNames(Frame fr, AGG[] aggs) {
+  private static String[] prepareFCNames(Frame fr, AGG[] aggs) {
     String[] fcnames = new String[aggs.length];
     for (int i = 0; i < aggs.length; i++) {
       if (aggs[i]._fcn.toString() != "nrow") {
@@ -741,6 +795,98 @@ public class AstGroup extends AstPrimitive {
     }
   }
 
+  // --------------------------------------------------------------------------
+  // Group-by on numeric columns without median: the groups are collected in
+  // GroupTables (flat primitive arrays) instead of a hash set of G objects.
+  // Each map groups its chunk in a private table, then merges it into the
+  // node-local tables.  The node-local groups are partitioned by their hash,
+  // every partition is locked separately, so concurrent merges of different
+  // maps rarely block each other, and the results of the remote nodes are
+  // merged partition by partition in parallel.
+  private static class GBTaskGroupTable extends MRTask<GBTaskGroupTable> {
+    private static final int PARTITION_BITS = 4;
+
+    final int[] _gbCols;
+    final AGG[] _aggs;
+    GroupTable[] _parts; // Node-local, shared by all maps on the node
+
+    GBTaskGroupTable(int[] gbCols, AGG[] aggs) {
+      _gbCols = gbCols;
+      _aggs = aggs;
+    }
+
+    @Override
+    protected void setupLocal() {
+      _parts = new GroupTable[1 << PARTITION_BITS];
+      for (int p = 0; p < _parts.length; p++)
+        _parts[p] = new GroupTable(_gbCols.length, _aggs);
+    }
+
+    @Override
+    public void map(Chunk[] cs) {
+      final int len = cs[0]._len;
+      final int nkeys = _gbCols.length;
+      // Group ids of the rows in a chunk-local table
+      GroupTable local = new GroupTable(nkeys, _aggs);
+      long[] keys = new long[len * nkeys];
+      for (int c = 0; c < nkeys; c++) {
+        double[] col = cs[_gbCols[c]].getDoubles();
+        for (int row = 0; row < len; row++)
+          keys[row * nkeys + c] = Double.doubleToLongBits(col[row]);
+      }
+      int[] gids = new int[len];
+      for (int row = 0; row < len; row++)
+        gids[row] = local.findOrAdd(keys, row * nkeys, GroupTable.hash(keys, row * nkeys, nkeys));
+      // Aggregates, column by column
+      for (int a = 0; a < _aggs.length; a++)
+        local.accumulate(a, gids, cs[_aggs[a]._col].getDoubles(), len);
+      // Merge into the node-local partitions
+      int[] pstart = new int[_parts.length + 1];
+      for (int g = 0; g < local._size; g++)
+        pstart[GroupTable.partition(local._hashes[g], PARTITION_BITS) + 1]++;
+      for (int p = 0; p < _parts.length; p++)
+        pstart[p + 1] += pstart[p];
+      int[] byPart = new int[local._size];
+      int[] pos = Arrays.copyOf(pstart, _parts.length);
+      for (int g = 0; g < local._size; g++)
+        byPart[pos[GroupTable.partition(local._hashes[g], PARTITION_BITS)]++] = g;
+      for (int p = 0; p < _parts.length; p++) {
+        if (pstart[p] == pstart[p + 1]) continue;
+        synchronized (_parts[p]) {
+          for (int i = pstart[p]; i < pstart[p + 1]; i++)
+            _parts[p].merge(local, byPart[i]);
+        }
+      }
+    }
+
+    @Override
+    public void reduce(GBTaskGroupTable t) {
+      if (t._parts != null && _parts != t._parts) { // Result of another node, its partitions are disjoint - merge them in parallel
+        final GroupTable[] parts = _parts, other = t._parts;
+        H2O.submitTask(new LocalMR(new MrFun() {
+          @Override
+          protected void map(int p) {
+            synchronized (parts[p]) {
+              parts[p].merge(other[p]);
+            }
+          }
+        }, parts.length)).join();
+      }
+    }
+
+    @Override
+    protected void closeLocal() {
+      for (GroupTable part : _parts)
+        synchronized (part) {
+          part.trim(); // Less to send over the wire
+        }
+    }
+
+    GroupTable getGroups() {
+      return GroupTable.concat(_parts);
+    }
+  }
+
   public static class MedianResult extends Iced {
     int[] _medianCols;
     double[] _medians;
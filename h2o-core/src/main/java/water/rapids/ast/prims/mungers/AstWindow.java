@@ -0,0 +1,573 @@
+package water.rapids.ast.prims.mungers;
+
+import water.Iced;
+import water.MRTask;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.NewChunk;
+import water.fvec.Vec;
+import water.rapids.Env;
+import water.rapids.ast.AstParameter;
+import water.rapids.ast.AstPrimitive;
+import water.rapids.ast.AstRoot;
+import water.rapids.vals.ValFrame;
+import water.util.ArrayUtils;
+
+/**
+ * Window functions over ordered partitions of a frame:
+ * <pre>
+ *   (window frame partition_by order_by column fun size by_range new_colname)
+ * </pre>
+ * The frame is sorted by the partition_by columns followed by the order_by columns (ascending), and a new column
+ * new_colname with the value of the window function for each row is appended.  The sorted frame is returned.
+ * <ul>
+ *   <li>lag, lead: the value of column size rows before/after the current row within the same partition</li>
+ *   <li>sum, mean, min, max, count: aggregate of column over the rows of the partition preceding the current row,
+ *   the current row included.  If size is 0, all the preceding rows are used (cumulative aggregate).  Otherwise the
+ *   window has size rows, or if by_range is 1 the rows whose last order_by value is within size of the value of the
+ *   current row (e.g. a time range in milliseconds for a time column).  The size must be a whole number, a range
+ *   window requires a positive size.</li>
+ * </ul>
+ * NAs in the column are skipped by the aggregates, an aggregate of a window without any values is NA (count is 0).
+ * NAs in partition_by columns form a partition of their own.
+ * <p/>
+ * After the sort, the rows of a partition are contiguous.  A quick pass collects the first and the last partition of
+ * each chunk, then the function is computed in a single pass: a window reaching over the boundary of a chunk reads the
+ * rows of the neighbouring chunks it needs chunk by chunk, and takes the aggregates of the chunks it covers whole from
+ * their last partitions.  Cumulative aggregates carry the aggregates of the last partitions over to the next chunks.
+ */
+public class AstWindow extends AstPrimitive {
+
+  enum Fun {lag, lead, sum, mean, min, max, count}
+
+  @Override
+  public String[] args() {
+    return new String[]{"frame", "partition_by", "order_by", "column", "fun", "size", "by_range", "new_colname"};
+  }
+
+  @Override
+  public String str() {
+    return "window";
+  }
+
+  @Override
+  public int nargs() {
+    return 1 + 8;
+  } // (window frame partition_by order_by column fun size by_range new_colname)
+
+  @Override
+  public ValFrame apply(Env env, Env.StackHelp stk, AstRoot asts[]) {
+    Frame fr = stk.track(asts[1].exec(env)).getFrame();
+    int[] partCols = ((AstParameter) asts[2]).columns(fr.names());
+    int[] orderCols = ((AstParameter) asts[3]).columns(fr.names());
+    int[] cols = ((AstParameter) asts[4]).columns(fr.names());
+    Fun fun = Fun.valueOf(asts[5].exec(env).getStr());
+    double sizeArg = asts[6].exec(env).getNum();
+    boolean byRange = asts[7].exec(env).getNum() == 1;
+    String newColName = asts[8].exec(env).getStr();
+
+    if (cols.length != 1)
+      throw new IllegalArgumentException("Window functions take only a single column, got: " + cols.length);
+    Vec v = fr.vec(cols[0]);
+    if (!v.isNumeric() && !v.isTime())
+      throw new IllegalArgumentException("Expected a numeric column for window function. Got: " + v.get_type_str());
+    for (int c : ArrayUtils.append(partCols, orderCols))
+      if (fr.vec(c).isString() || fr.vec(c).isUUID())
+        throw new IllegalArgumentException("Cannot partition or order by column " + fr.name(c) + " of type " +
+                fr.vec(c).get_type_str());
+    // a range can be longer than Integer.MAX_VALUE (e.g. 30 days in msec), it must not be truncated
+    if (!(sizeArg >= 0) || sizeArg != Math.rint(sizeArg) || sizeArg >= Long.MAX_VALUE)
+      throw new IllegalArgumentException("Window size must be a non-negative integer, got: " + sizeArg);
+    long size = (long) sizeArg;
+    if ((fun == Fun.lag || fun == Fun.lead) && (size < 1 || byRange))
+      throw new IllegalArgumentException(fun + " requires a positive number of rows, got: " + size);
+    if (byRange) {
+      if (size < 1)
+        throw new IllegalArgumentException("A range window requires a positive size, got: " + size);
+      if (orderCols.length == 0)
+        throw new IllegalArgumentException("A range window requires an order_by column");
+      Vec t = fr.vec(orderCols[orderCols.length - 1]);
+      if (!t.isNumeric() && !t.isTime())
+        throw new IllegalArgumentException("A range window requires a numeric or time order_by column. Got: " +
+                t.get_type_str());
+    }
+    return new ValFrame(window(fr, partCols, orderCols, cols[0], fun, size, byRange, newColName));
+  }
+
+  static Frame window(Frame fr, int[] partCols, int[] orderCols, int col, Fun fun, long size, boolean byRange,
+                      String newColName) {
+    int[] sortCols = ArrayUtils.append(partCols, orderCols);
+    Frame sorted = sortCols.length == 0 ? new Frame(fr) : fr.sort(sortCols);
+
+    // Partition columns, the range column and the column of the values
+    Frame wfr = new Frame();
+    for (int c : partCols)
+      wfr.add(fr.name(c), sorted.vec(c));
+    if (byRange)
+      wfr.add(fr.name(orderCols[orderCols.length - 1]), sorted.vec(orderCols[orderCols.length - 1]));
+    wfr.add(fr.name(col), sorted.vec(col));
+
+    BoundaryTask bounds = new BoundaryTask(partCols.length, byRange, wfr.anyVec().nChunks()).doAll(wfr);
+    State[] carry = size == 0 && fun != Fun.lag && fun != Fun.lead ? bounds.carry() : null;
+    Vec res = new WindowTask(partCols.length, byRange, fun, size, bounds, carry).doAll(Vec.T_NUM, wfr)
+            .outputFrame().anyVec();
+    sorted.add(newColName, res);
+    return sorted;
+  }
+
+  /**
+   * Aggregates of a run of rows of a partition
+   */
+  static class State extends Iced<State> {
+    final double[] _key;
+    double _sum;
+    long _cnt;
+    double _min = Double.POSITIVE_INFINITY;
+    double _max = Double.NEGATIVE_INFINITY;
+    boolean _wholeChunk; // the run spans the whole chunk
+    int _rows;           // rows of the run
+    double _tFirst = Double.NaN; // range values of the first and the last row of the run
+    double _tLast = Double.NaN;
+
+    State(double[] key) {
+      _key = key;
+    }
+
+    void add(double d) {
+      if (Double.isNaN(d)) return;
+      _sum += d;
+      _cnt++;
+      if (d < _min) _min = d;
+      if (d > _max) _max = d;
+    }
+
+    State add(State s) {
+      State res = new State(_key);
+      res._sum = _sum + s._sum;
+      res._cnt = _cnt + s._cnt;
+      res._min = Math.min(_min, s._min);
+      res._max = Math.max(_max, s._max);
+      res._rows = _rows + s._rows;
+      return res;
+    }
+
+    boolean sameKey(double[] key) {
+      for (int i = 0; i < _key.length; i++)
+        if (Double.doubleToLongBits(_key[i]) != Double.doubleToLongBits(key[i])) return false;
+      return true;
+    }
+
+    double get(Fun fun) {
+      switch (fun) {
+        case count: return _cnt;
+        case sum:   return _cnt == 0 ? Double.NaN : _sum;
+        case mean:  return _cnt == 0 ? Double.NaN : _sum / _cnt;
+        case min:   return _cnt == 0 ? Double.NaN : _min;
+        case max:   return _cnt == 0 ? Double.NaN : _max;
+        default: throw new IllegalArgumentException("Not an aggregate: " + fun);
+      }
+    }
+  }
+
+  /**
+   * Collects the first and the last partition of each chunk: the windows reaching over the boundaries of a chunk take
+   * their rows, the aggregates of the last partition are carried over to the chunks following it.
+   */
+  private static class BoundaryTask extends MRTask<BoundaryTask> {
+    final int _npart;
+    final boolean _byRange;
+    State[] _first; // keys and rows of the first partition of each chunk
+    State[] _last;  // keys, rows, range values and aggregates of the last partition of each chunk
+
+    BoundaryTask(int npart, boolean byRange, int nchunks) {
+      _npart = npart;
+      _byRange = byRange;
+      _first = new State[nchunks];
+      _last = new State[nchunks];
+    }
+
+    @Override
+    public void map(Chunk[] cs) {
+      final int len = cs[0]._len;
+      if (len == 0) return;
+      final Chunk x = cs[cs.length - 1];
+      State s = new State(key(cs, _npart, len - 1));
+      double[] key = new double[_npart];
+      int row = len - 1;
+      for (; row >= 0; row--) {
+        if (!s.sameKey(fill(cs, _npart, row, key))) break;
+        s.add(x.atd(row));
+      }
+      s._rows = len - 1 - row;
+      s._wholeChunk = row < 0;
+      if (_byRange) {
+        s._tFirst = cs[_npart].atd(row + 1);
+        s._tLast = cs[_npart].atd(len - 1);
+      }
+      State f = s;
+      if (!s._wholeChunk) {
+        f = new State(key(cs, _npart, 0));
+        row = 1;
+        while (row < len && f.sameKey(fill(cs, _npart, row, key))) row++;
+        f._rows = row;
+      }
+      _first[cs[0].cidx()] = f;
+      _last[cs[0].cidx()] = s;
+    }
+
+    @Override
+    public void reduce(BoundaryTask t) {
+      for (int i = 0; i < _last.length; i++) {
+        if (_first[i] == null) _first[i] = t._first[i];
+        if (_last[i] == null) _last[i] = t._last[i];
+      }
+    }
+
+    /**
+     * @return aggregates of the rows before each chunk, of the partition of the last of those rows
+     */
+    State[] carry() {
+      State[] carry = new State[_last.length];
+      State end = null;
+      for (int c = 0; c < _last.length; c++) {
+        carry[c] = end;
+        State s = _last[c];
+        if (s == null) continue; // empty chunk
+        end = s._wholeChunk && end != null && end.sameKey(s._key) ? end.add(s) : s;
+      }
+      return carry;
+    }
+  }
+
+  private static class WindowTask extends MRTask<WindowTask> {
+    final int _npart;
+    final boolean _byRange;
+    final Fun _fun;
+    final long _size;
+    final State[] _first;
+    final State[] _last;
+    final State[] _carry;
+
+    WindowTask(int npart, boolean byRange, Fun fun, long size, BoundaryTask bounds, State[] carry) {
+      _npart = npart;
+      _byRange = byRange;
+      _fun = fun;
+      _size = size;
+      _first = bounds._first;
+      _last = bounds._last;
+      _carry = carry;
+    }
+
+    @Override
+    public void map(Chunk[] cs, NewChunk nc) {
+      final int len = cs[0]._len;
+      if (len == 0) return;
+      if (_carry != null) {
+        cumulative(cs, nc);
+        return;
+      }
+      final double[][] keys = new double[_npart][];
+      for (int p = 0; p < _npart; p++)
+        keys[p] = cs[p].getDoubles();
+      final double[] t = _byRange ? cs[_npart].getDoubles() : null;
+      final double[] x = cs[cs.length - 1].getDoubles();
+      switch (_fun) {
+        case lag:  lag(cs[0], keys, x, nc); return;
+        case lead: lead(cs[0], keys, x, nc); return;
+        default:   aggregate(cs[0], keys, t, x, nc);
+      }
+    }
+
+    // The rows before the chunk are read in one piece, only the rows of the first partition of the chunk look there
+    private void lag(Chunk c, double[][] keys, double[] x, NewChunk nc) {
+      final int len = x.length;
+      final long start = c.start();
+      final long size = Math.min(_size, _fr.numRows());
+      final int head = _first[c.cidx()]._rows;
+      final long lo = Math.max(start - size, partitionStart(c.cidx(), keys, start - size));
+      final long hi = start - size + Math.min(head, size);
+      final double[] prev = lo < hi ? read(_fr.lastVec(), lo, hi) : null;
+      for (int i = 0; i < len; i++) {
+        long j = i - size;
+        if (j >= 0)
+          nc.addNum(samePartition(keys, i, (int) j) ? x[(int) j] : Double.NaN);
+        else
+          nc.addNum(start + j >= lo && start + j < hi ? prev[(int) (start + j - lo)] : Double.NaN);
+      }
+    }
+
+    // The rows after the chunk are read in one piece, only the rows of the last partition of the chunk look there
+    private void lead(Chunk c, double[][] keys, double[] x, NewChunk nc) {
+      final int len = x.length;
+      final long end = c.start() + len;
+      final long size = Math.min(_size, _fr.numRows());
+      final int tail = len - _last[c.cidx()]._rows;
+      final long lo = Math.max(end, end - len + tail + size);
+      final long hi = Math.min(end + size, partitionEnd(c.cidx(), keys, end + size));
+      final double[] next = lo < hi ? read(_fr.lastVec(), lo, hi) : null;
+      for (int i = 0; i < len; i++) {
+        long j = i + size;
+        if (j < len)
+          nc.addNum(samePartition(keys, i, (int) j) ? x[(int) j] : Double.NaN);
+        else
+          nc.addNum(end - len + j >= lo && end - len + j < hi ? next[(int) (end - len + j - lo)] : Double.NaN);
+      }
+    }
+
+    // First row of the partition of the first row of the chunk, searched back to the given row at most
+    private long partitionStart(int cidx, double[][] keys, long limit) {
+      final double[] key = rowKey(keys, 0);
+      long start = _fr.anyVec().espc()[cidx];
+      for (int k = cidx - 1; k >= 0 && start > limit; k--) {
+        State s = _last[k];
+        if (s == null) continue; // empty chunk
+        if (!s.sameKey(key)) break;
+        start -= s._rows;
+        if (!s._wholeChunk) break;
+      }
+      return start;
+    }
+
+    // End of the partition of the last row of the chunk, searched up to the given row at most
+    private long partitionEnd(int cidx, double[][] keys, long limit) {
+      final double[] key = rowKey(keys, keys.length == 0 ? 0 : keys[0].length - 1);
+      long end = _fr.anyVec().espc()[cidx + 1];
+      for (int k = cidx + 1; k < _first.length && end < limit; k++) {
+        State s = _first[k];
+        if (s == null) continue; // empty chunk
+        if (!s.sameKey(key)) break;
+        end += s._rows;
+        if (!s._wholeChunk) break;
+      }
+      return end;
+    }
+
+    // Sliding window [lo, i] over the rows of the chunk: running sum and count, and a monotonic deque of the rows of
+    // the min/max; the rows before the chunk come from the halo of the first partition
+    private void aggregate(Chunk c, double[][] keys, double[] t, double[] x, NewChunk nc) {
+      final int len = x.length;
+      final int head = _first[c.cidx()]._rows;
+      final boolean isMin = _fun == Fun.min;
+      Halo halo = Halo.make(this, c, keys, t);
+      final int[] dq = new int[len];
+      int qhead = 0, qtail = 0;
+      double sum = 0;
+      long cnt = 0;
+      int lo = 0;
+      for (int i = 0; i < len; i++) {
+        final double d = x[i];
+        if (!Double.isNaN(d)) {
+          sum += d;
+          cnt++;
+          while (qtail > qhead && (isMin ? x[dq[qtail - 1]] >= d : x[dq[qtail - 1]] <= d)) qtail--;
+          dq[qtail++] = i;
+        }
+        for (; lo < i && (!samePartition(keys, lo, i) || (_byRange ? !(t[lo] >= t[i] - _size) : i - lo >= _size)); lo++) {
+          if (!Double.isNaN(x[lo])) {
+            sum -= x[lo];
+            cnt--;
+          }
+        }
+        while (qtail > qhead && dq[qhead] < lo) qhead++;
+        if (_byRange && Double.isNaN(t[i])) {
+          nc.addNA();
+          continue;
+        }
+        double s = sum;
+        long n = cnt;
+        double m = qtail > qhead ? x[dq[qhead]] : Double.NaN;
+        if (halo != null && i < head && lo == 0) {
+          State h = halo.window(i);
+          if (h == null) {
+            halo = null; // the windows of the next rows don't reach before the chunk either
+          } else if (h._cnt > 0) {
+            s += h._sum;
+            n += h._cnt;
+            double hm = isMin ? h._min : h._max;
+            m = Double.isNaN(m) ? hm : isMin ? Math.min(m, hm) : Math.max(m, hm);
+          }
+        }
+        switch (_fun) {
+          case count: nc.addNum(n); break;
+          case sum:   nc.addNum(n == 0 ? Double.NaN : s); break;
+          case mean:  nc.addNum(n == 0 ? Double.NaN : s / n); break;
+          case min:
+          case max:   nc.addNum(m); break;
+        }
+      }
+    }
+
+    private void cumulative(Chunk[] cs, NewChunk nc) {
+      final Chunk x = cs[cs.length - 1];
+      double[] key = key(cs, _npart, 0);
+      State carry = _carry[cs[0].cidx()];
+      State s = carry != null && carry.sameKey(key) ? carry.add(new State(key)) : new State(key);
+      double[] rowKey = new double[_npart];
+      for (int row = 0; row < cs[0]._len; row++) {
+        if (!s.sameKey(fill(cs, _npart, row, rowKey)))
+          s = new State(key(cs, _npart, row));
+        s.add(x.atd(row));
+        nc.addNum(s.get(_fun));
+      }
+    }
+
+    // Values of the rows [from, to) of the vec, read chunk by chunk
+    private static double[] read(Vec v, long from, long to) {
+      double[] vals = new double[(int) (to - from)];
+      for (long row = from; row < to; ) {
+        Chunk c = v.chunkForRow(row);
+        int off = (int) (row - c.start());
+        int n = (int) Math.min(c._len - off, to - row);
+        System.arraycopy(c.getDoubles(new double[n], off, off + n), 0, vals, (int) (row - from), n);
+        row += n;
+      }
+      return vals;
+    }
+
+    private static double[] rowKey(double[][] keys, int i) {
+      double[] key = new double[keys.length];
+      for (int p = 0; p < keys.length; p++)
+        key[p] = keys[p][i];
+      return key;
+    }
+
+    private static boolean samePartition(double[][] keys, int i, int j) {
+      for (double[] k : keys)
+        if (Double.doubleToLongBits(k[i]) != Double.doubleToLongBits(k[j])) return false;
+      return true;
+    }
+  }
+
+  /**
+   * Rows of the partition of the first row of a chunk that precede the chunk.  Gives the aggregates of the rows from
+   * the start of the window of a row of the chunk up to the chunk, the start of the window only moves forward.  The
+   * chunks the start of the windows passes are read once, the chunks after it are summarized by their last partitions.
+   */
+  private static class Halo {
+    final WindowTask _task;
+    final long[] _espc;
+    final long _start;    // first row of the chunk
+    final long _begin;    // first row of the partition looked at
+    final int _k0;        // chunk of _begin
+    final State[] _after; // aggregates of the rows after chunk _k0 + i up to the chunk
+    final double[] _t;    // range values of the rows of the chunk
+    int _k;               // chunk of the start of the window
+    int _loaded = -1;     // chunk of the arrays below
+    long _from;           // first row of the arrays below
+    double[] _tk;         // range values of the rows of the loaded chunk
+    double[] _sum, _min, _max; // aggregates of the rows from each row of the loaded chunk up to the chunk
+    long[] _cnt;
+    long _pos;            // start of the window of the last row
+
+    private Halo(WindowTask task, long[] espc, long start, long begin, int k0, State[] after, double[] t) {
+      _task = task;
+      _espc = espc;
+      _start = start;
+      _begin = begin;
+      _k0 = _k = k0;
+      _after = after;
+      _t = t;
+      _pos = begin;
+    }
+
+    /**
+     * @return halo of the chunk, null if the windows of its rows don't reach before it
+     */
+    static Halo make(WindowTask task, Chunk c, double[][] keys, double[] t) {
+      final int cidx = c.cidx();
+      final long start = c.start();
+      if (!task._byRange && task._size <= 1)
+        return null;
+      final double[] key = WindowTask.rowKey(keys, 0);
+      final double tmin = task._byRange ? t[0] - task._size : Double.NaN;
+      final long[] espc = task._fr.anyVec().espc();
+      long begin = start;
+      int k0 = cidx;
+      for (int k = cidx - 1; k >= 0; k--) {
+        State s = task._last[k];
+        if (s == null) continue; // empty chunk
+        if (!s.sameKey(key) || (task._byRange && !(s._tLast >= tmin))) break;
+        begin -= s._rows;
+        k0 = k;
+        if (!s._wholeChunk || (task._byRange ? !(s._tFirst >= tmin) : start - begin >= task._size - 1)) break;
+      }
+      if (k0 == cidx)
+        return null;
+      State[] after = new State[cidx - k0];
+      State acc = new State(key);
+      for (int k = cidx - 1; k >= k0; k--) {
+        after[k - k0] = acc;
+        if (task._last[k] != null) acc = acc.add(task._last[k]);
+      }
+      return new Halo(task, espc, start, begin, k0, after, t);
+    }
+
+    /**
+     * @return aggregates of the rows of the window of the i-th row of the chunk before the chunk, null if none
+     */
+    State window(int i) {
+      long pos = _task._byRange ? seek(_t[i] - _task._size) : Math.max(_begin, _start + i - (_task._size - 1));
+      if (pos >= _start)
+        return null;
+      moveTo(pos);
+      int j = (int) (pos - _from);
+      State res = new State(null);
+      res._sum = _sum[j];
+      res._cnt = _cnt[j];
+      res._min = _min[j];
+      res._max = _max[j];
+      return res;
+    }
+
+    // First row with range value at least tmin
+    private long seek(double tmin) {
+      for (; _pos < _start; _pos++) {
+        moveTo(_pos);
+        if (_tk[(int) (_pos - _from)] >= tmin) break;
+      }
+      return _pos;
+    }
+
+    private void moveTo(long pos) {
+      while (_espc[_k + 1] <= pos) _k++;
+      if (_loaded != _k)
+        load(_k);
+    }
+
+    private void load(int k) {
+      Chunk cx = _task._fr.lastVec().chunkForChunkIdx(k);
+      _from = Math.max(_begin, _espc[k]);
+      final int off = (int) (_from - _espc[k]), n = cx._len - off;
+      final double[] x = cx.getDoubles(new double[n], off, cx._len);
+      _tk = _task._byRange ? _task._fr.vec(_task._npart).chunkForChunkIdx(k).getDoubles(new double[n], off, cx._len) : null;
+      _sum = new double[n + 1];
+      _cnt = new long[n + 1];
+      _min = new double[n + 1];
+      _max = new double[n + 1];
+      State a = _after[k - _k0];
+      _sum[n] = a._sum;
+      _cnt[n] = a._cnt;
+      _min[n] = a._min;
+      _max[n] = a._max;
+      for (int j = n - 1; j >= 0; j--) {
+        final double d = x[j];
+        final boolean na = Double.isNaN(d);
+        _sum[j] = na ? _sum[j + 1] : _sum[j + 1] + d;
+        _cnt[j] = na ? _cnt[j + 1] : _cnt[j + 1] + 1;
+        _min[j] = na ? _min[j + 1] : Math.min(_min[j + 1], d);
+        _max[j] = na ? _max[j + 1] : Math.max(_max[j + 1], d);
+      }
+      _loaded = k;
+    }
+  }
+
+  private static double[] key(Chunk[] cs, int npart, int row) {
+    return fill(cs, npart, row, new double[npart]);
+  }
+
+  private static double[] fill(Chunk[] cs, int npart, int row, double[] key) {
+    for (int p = 0; p < npart; p++)
+      key[p] = cs[p].atd(row);
+    return key;
+  }
+}
@@ -0,0 +1,221 @@
+package water.rapids.ast.prims.mungers;
+
+import water.Iced;
+
+import java.util.Arrays;
+
+/**
+ * Groups with numeric keys and their aggregates, used by {@link AstGroup} instead of a hash set of
+ * {@link AstGroup.G} objects.
+ * <p/>
+ * There are no objects per group: the key, the aggregate slots and the row counts of group {@code g} are stored at
+ * offsets {@code g * _nkeys}, {@code g * _width} and {@code g * _naggs} of flat primitive arrays.  Groups are looked
+ * up by an open-addressing index of group ids; the index is not serialized, it is rebuilt when needed.
+ * <p/>
+ * Keys are compared by the bits of the key values ({@link Double#doubleToLongBits}, so all NaNs are one key), which
+ * is how {@link AstGroup.G#equals} compares them.
+ */
+final class GroupTable extends Iced<GroupTable> {
+
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+  private static final int MAX_INDEX_CAPACITY = 1 << 30;
+
+  final int _nkeys;
+  final AstGroup.AGG[] _aggs;
+  final int[] _offs; // offset of the slots of each aggregate in the slots of a group, the last one is _width
+  final int _width;
+  final int _naggs;
+  private final double[] _init; // slots of a new group
+
+  int _size; // number of groups
+  long[] _keys;
+  int[] _hashes;
+  double[] _vals;
+  long[] _ns;
+  private transient int[] _index; // group id + 1, 0 is a free slot
+
+  GroupTable(int nkeys, AstGroup.AGG[] aggs) {
+    _nkeys = nkeys;
+    _aggs = aggs;
+    _naggs = aggs.length;
+    _offs = new int[_naggs + 1];
+    double[][] inits = new double[_naggs][];
+    for (int a = 0; a < _naggs; a++) {
+      inits[a] = aggs[a].initVal();
+      _offs[a + 1] = _offs[a] + inits[a].length;
+    }
+    _width = _offs[_naggs];
+    _init = new double[_width];
+    for (int a = 0; a < _naggs; a++)
+      System.arraycopy(inits[a], 0, _init, _offs[a], inits[a].length);
+    allocate(INITIAL_CAPACITY);
+  }
+
+  private void allocate(long capacity) {
+    _keys = Arrays.copyOf(_keys == null ? new long[0] : _keys, arrayLength(capacity, _nkeys));
+    _hashes = Arrays.copyOf(_hashes == null ? new int[0] : _hashes, arrayLength(capacity, 1));
+    _vals = Arrays.copyOf(_vals == null ? new double[0] : _vals, arrayLength(capacity, _width));
+    _ns = Arrays.copyOf(_ns == null ? new long[0] : _ns, arrayLength(capacity, _naggs));
+  }
+
+  // Length of an array with width slots per group, computed in long so that too many groups don't overflow
+  private static int arrayLength(long capacity, int width) {
+    long len = capacity * width;
+    if (len > MAX_ARRAY_LENGTH)
+      throw new IllegalArgumentException("Too many groups: " + capacity);
+    return (int) len;
+  }
+
+  static int hash(long[] keys, int off, int nkeys) {
+    long h = 0;
+    for (int i = off; i < off + nkeys; i++)
+      h = (h ^ keys[i]) * 0x9E3779B97F4A7C15L;
+    h ^= h >>> 29;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  /** Partition of a hash, used to split groups between tables without collisions */
+  static int partition(int hash, int bits) {
+    return bits == 0 ? 0 : hash >>> (32 - bits);
+  }
+
+  /**
+   * @return id of the group with the key {@code keys[off, off + _nkeys)}, a new group is added if not present yet
+   */
+  int findOrAdd(long[] keys, int off, int hash) {
+    if (_index == null) rebuildIndex(_size);
+    int mask = _index.length - 1;
+    int i = hash & mask;
+    for (int id; (id = _index[i]) != 0; i = (i + 1) & mask) {
+      int g = id - 1;
+      if (_hashes[g] == hash && keyEquals(g, keys, off)) return g;
+    }
+    int g = _size++;
+    if (g == _hashes.length) allocate(Math.max(2L * g, INITIAL_CAPACITY));
+    System.arraycopy(keys, off, _keys, g * _nkeys, _nkeys);
+    System.arraycopy(_init, 0, _vals, g * _width, _width);
+    _hashes[g] = hash;
+    _index[i] = g + 1;
+    if (_size * 2 > _index.length) rebuildIndex(_size);
+    return g;
+  }
+
+  private boolean keyEquals(int g, long[] keys, int off) {
+    int o = g * _nkeys;
+    for (int i = 0; i < _nkeys; i++)
+      if (_keys[o + i] != keys[off + i]) return false;
+    return true;
+  }
+
+  // Index with load factor at most 1/4 (grows when it reaches 1/2)
+  private void rebuildIndex(int size) {
+    if (2L * size > MAX_INDEX_CAPACITY)
+      throw new IllegalArgumentException("Too many groups: " + size);
+    int capacity = INITIAL_CAPACITY;
+    while (capacity < 4L * size && capacity < MAX_INDEX_CAPACITY) capacity <<= 1;
+    int[] index = new int[capacity];
+    int mask = capacity - 1;
+    for (int g = 0; g < _size; g++) {
+      int i = _hashes[g] & mask;
+      while (index[i] != 0) i = (i + 1) & mask;
+      index[i] = g + 1;
+    }
+    _index = index;
+  }
+
+  /** Aggregate the values {@code col[0, len)} of the aggregate {@code a} into groups {@code gids[0, len)} */
+  void accumulate(int a, int[] gids, double[] col, int len) {
+    final AstGroup.AGG agg = _aggs[a];
+    final AstGroup.FCN fcn = agg._fcn;
+    final boolean opNA = agg._na == AstGroup.NAHandling.ALL;
+    final boolean countNA = agg._na == AstGroup.NAHandling.IGNORE;
+    final int off = _offs[a];
+    for (int row = 0; row < len; row++) {
+      final int g = gids[row];
+      final double d = col[row];
+      final boolean na = Double.isNaN(d);
+      if (!na || opNA) fcn.op(_vals, g * _width + off, d);
+      if (!na || countNA) _ns[g * _naggs + a]++;
+    }
+  }
+
+  /** Merge group {@code h} of table {@code that} into this table */
+  void merge(GroupTable that, int h) {
+    int g = findOrAdd(that._keys, h * _nkeys, that._hashes[h]);
+    for (int a = 0; a < _naggs; a++) {
+      _aggs[a]._fcn.atomic_op(_vals, g * _width + _offs[a], that._vals, h * _width + _offs[a], _offs[a + 1] - _offs[a]);
+      _ns[g * _naggs + a] += that._ns[h * _naggs + a];
+    }
+  }
+
+  void merge(GroupTable that) {
+    for (int h = 0; h < that._size; h++)
+      merge(that, h);
+  }
+
+  /** Shrink the arrays to the number of groups, e.g. before sending the table over the wire */
+  void trim() {
+    if (_size < _hashes.length) allocate(Math.max(_size, 1));
+    _index = null;
+  }
+
+  double key(int g, int c) {
+    return Double.longBitsToDouble(_keys[g * _nkeys + c]);
+  }
+
+  double postPass(int g, int a) {
+    return _aggs[a]._fcn.postPass(_vals, g * _width + _offs[a], _offs[a + 1] - _offs[a], _ns[g * _naggs + a]);
+  }
+
+  /** @return all groups of the given tables (with disjoint groups) in a single table */
+  static GroupTable concat(GroupTable[] tables) {
+    GroupTable res = new GroupTable(tables[0]._nkeys, tables[0]._aggs);
+    long size = 0;
+    for (GroupTable t : tables) size += t._size;
+    res.allocate(size);
+    for (GroupTable t : tables) {
+      System.arraycopy(t._keys, 0, res._keys, res._size * res._nkeys, t._size * t._nkeys);
+      System.arraycopy(t._hashes, 0, res._hashes, res._size, t._size);
+      System.arraycopy(t._vals, 0, res._vals, res._size * res._width, t._size * t._width);
+      System.arraycopy(t._ns, 0, res._ns, res._size * res._naggs, t._size * t._naggs);
+      res._size += t._size;
+    }
+    res._index = null;
+    return res;
+  }
+
+  /**
+   * @return ids of the groups ordered by their keys, column by column; NaN is the least value
+   */
+  int[] sortedOrder() {
+    int[] order = new int[_size];
+    for (int i = 0; i < _size; i++) order[i] = i;
+    int[] tmp = new int[_size];
+    // Bottom-up merge sort of the ids, stable and without boxing
+    for (int w = 1; w < _size; w <<= 1) {
+      for (int lo = 0; lo < _size; lo += w << 1) {
+        int mid = Math.min(lo + w, _size), hi = Math.min(lo + (w << 1), _size);
+        int i = lo, j = mid, k = lo;
+        while (i < mid && j < hi)
+          tmp[k++] = compare(order[j], order[i]) < 0 ? order[j++] : order[i++];
+        while (i < mid) tmp[k++] = order[i++];
+        while (j < hi) tmp[k++] = order[j++];
+      }
+      int[] t = order; order = tmp; tmp = t;
+    }
+    return order;
+  }
+
+  private int compare(int g1, int g2) {
+    for (int c = 0; c < _nkeys; c++) {
+      double d1 = key(g1, c), d2 = key(g2, c);
+      boolean nan1 = Double.isNaN(d1), nan2 = Double.isNaN(d2);
+      if (nan1 || nan2) {
+        if (nan1 != nan2) return nan1 ? -1 : 1;
+      } else if (d1 != d2) return d1 < d2 ? -1 : 1;
+    }
+    return 0;
+  }
+
+}
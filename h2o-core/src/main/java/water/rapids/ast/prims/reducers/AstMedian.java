@@ -2,6 +2,7 @@ package water.rapids.ast.prims.reducers;
 
 import hex.quantile.Quantile;
 import hex.quantile.QuantileModel;
+import hex.quantile.QuantileSketch;
 import water.DKV;
 import water.Key;
 import water.fvec.Frame;
@@ -12,11 +13,13 @@ import water.rapids.ast.AstPrimitive;
 import water.rapids.ast.AstRoot;
 
 /**
+ * (median fr method [sketch])
+ * If the optional sketch flag is 1, the medians of all columns are approximated in a single pass.
  */
 public class AstMedian extends AstPrimitive {
   @Override
   public String[] args() {
-    return new String[]{"ary", "method"};
+    return new String[]{"ary", "method", "sketch"};
   }
 
   @Override
@@ -26,17 +29,33 @@ public class AstMedian extends AstPrimitive {
 
   @Override
   public int nargs() {
-    return 1 + 2;
-  }  // (median fr method)
+    return -1;
+  }  // (median fr method [sketch])
 
   @Override
   public ValNums apply(Env env, Env.StackHelp stk, AstRoot asts[]) {
+    if (asts.length != 1 + 2 && asts.length != 1 + 3)
+      throw new IllegalArgumentException("Incorrect number of arguments; '" + str() + "' expects 2 or 3 but was passed " + (asts.length - 1));
     Frame fr = stk.track(asts[1].exec(env)).getFrame();
     boolean narm = asts[2].exec(env).getNum() == 1;
+    boolean sketch = asts.length > 3 && asts[3].exec(env).getNum() == 1;
     double[] ds = new double[fr.numCols()];
     Vec[] vecs = fr.vecs();
-    for (int i = 0; i < fr.numCols(); i++)
-      ds[i] = (!vecs[i].isNumeric() || vecs[i].length() == 0 || (!narm && vecs[i].naCnt() > 0)) ? Double.NaN : median(vecs[i], QuantileModel.CombineMethod.INTERPOLATE);
+    boolean[] valid = new boolean[vecs.length];
+    for (int i = 0; i < fr.numCols(); i++) {
+      valid[i] = vecs[i].isNumeric() && vecs[i].length() > 0 && (narm || vecs[i].naCnt() == 0);
+      ds[i] = valid[i] && !sketch ? median(vecs[i], QuantileModel.CombineMethod.INTERPOLATE) : Double.NaN;
+    }
+    if (sketch) {
+      Frame sub = new Frame();
+      for (int i = 0; i < vecs.length; i++)
+        if (valid[i]) sub.add(fr.name(i), vecs[i]);
+      if (sub.numCols() > 0) {
+        QuantileSketch[] sketches = QuantileSketch.sketch(sub.vecs(), null, QuantileSketch.DEFAULT_COMPRESSION);
+        for (int i = 0, s = 0; i < vecs.length; i++)
+          if (valid[i]) ds[i] = sketches[s++].quantile(0.5);
+      }
+    }
     return new ValNums(ds);
   }
 
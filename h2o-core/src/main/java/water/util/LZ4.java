@@ -0,0 +1,179 @@
+package water.util;
+
+import java.util.Arrays;
+
+/**
+ * Compression of byte arrays in the LZ4 block format, see
+ * <a href="https://github.com/lz4/lz4/blob/dev/doc/lz4_Block_format.md">LZ4 Block Format Description</a>.
+ * <p/>
+ * Pure Java implementation meant for blocks of tens of kilobytes (e.g. network transfers): the compressor is the
+ * greedy single-probe LZ4 "fast" compressor, it is tuned for speed rather than for the compression ratio.  Blocks
+ * produced by this class can be decompressed by any LZ4 implementation and vice versa.
+ */
+public class LZ4 {
+
+  private static final int MIN_MATCH = 4;
+  private static final int LAST_LITERALS = 5;       // the last 5 bytes are always literals
+  private static final int MF_LIMIT = 12;           // the last match starts at least 12 bytes before the end
+  private static final int MAX_DISTANCE = (1 << 16) - 1;
+  private static final int HASH_LOG = 12;
+  private static final int SKIP_STRENGTH = 6;       // speeds up the search in incompressible data
+
+  private LZ4() {}
+
+  /** @return size of a buffer big enough for the compressed form of {@code len} bytes */
+  public static int maxCompressedLength(int len) {
+    return len + len / 255 + 16;
+  }
+
+  /**
+   * Compress {@code src[srcOff, srcOff + srcLen)} into {@code dst} starting at {@code dstOff}; there must be at least
+   * {@link #maxCompressedLength(int)} bytes available in {@code dst}.
+   * @return length of the compressed block
+   */
+  public static int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff) {
+    final int srcEnd = srcOff + srcLen;
+    int d = dstOff;
+    int anchor = srcOff; // start of pending literals
+    if (srcLen >= MF_LIMIT + 1) {
+      final int mfLimit = srcEnd - MF_LIMIT;
+      final int matchLimit = srcEnd - LAST_LITERALS;
+      final int[] table = new int[1 << HASH_LOG];
+      Arrays.fill(table, -1);
+      int s = srcOff;
+      while (s < mfLimit) {
+        final int seq = readInt(src, s);
+        final int h = hash(seq);
+        int ref = table[h];
+        table[h] = s;
+        if (ref < 0 || s - ref > MAX_DISTANCE || readInt(src, ref) != seq) {
+          s += 1 + ((s - anchor) >>> SKIP_STRENGTH);
+          continue;
+        }
+        // extend the match backwards over the pending literals
+        while (s > anchor && ref > srcOff && src[s - 1] == src[ref - 1]) {
+          s--;
+          ref--;
+        }
+        int len = MIN_MATCH;
+        while (s + len < matchLimit && src[s + len] == src[ref + len]) len++;
+        d = writeSequence(src, anchor, s - anchor, s - ref, len, dst, d);
+        s += len;
+        anchor = s;
+        if (s - 2 < mfLimit) table[hash(readInt(src, s - 2))] = s - 2;
+      }
+    }
+    d = writeLiterals(src, anchor, srcEnd - anchor, dst, d);
+    return d - dstOff;
+  }
+
+  /**
+   * Decompress the block {@code src[srcOff, srcOff + srcLen)} into {@code dst[dstOff, dstOff + dstLen)}; the block
+   * must decompress to exactly {@code dstLen} bytes.
+   * @throws IllegalArgumentException if the block is malformed
+   */
+  public static void decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen) {
+    final int srcEnd = srcOff + srcLen;
+    final int dstEnd = dstOff + dstLen;
+    int s = srcOff;
+    int d = dstOff;
+    while (true) {
+      if (s >= srcEnd) throw malformed("unexpected end of block");
+      final int token = src[s++] & 0xFF;
+      int lit = token >>> 4;
+      if (lit == 15) {
+        int b;
+        do {
+          if (s >= srcEnd) throw malformed("unexpected end of block");
+          b = src[s++] & 0xFF;
+          lit += b;
+        } while (b == 255);
+      }
+      if (lit > srcEnd - s || lit > dstEnd - d) throw malformed("literals out of bounds");
+      System.arraycopy(src, s, dst, d, lit);
+      s += lit;
+      d += lit;
+      if (s == srcEnd) break; // the last sequence has no match
+      if (srcEnd - s < 2) throw malformed("unexpected end of block");
+      final int off = (src[s] & 0xFF) | (src[s + 1] & 0xFF) << 8;
+      s += 2;
+      if (off == 0 || off > d - dstOff) throw malformed("match offset out of bounds");
+      int len = token & 0xF;
+      if (len == 15) {
+        int b;
+        do {
+          if (s >= srcEnd) throw malformed("unexpected end of block");
+          b = src[s++] & 0xFF;
+          len += b;
+        } while (b == 255);
+      }
+      len += MIN_MATCH;
+      if (len > dstEnd - d) throw malformed("match out of bounds");
+      int m = d - off;
+      if (off >= len) {
+        System.arraycopy(dst, m, dst, d, len);
+        d += len;
+      } else { // overlapping copy repeats the last off bytes
+        for (int i = 0; i < len; i++) dst[d++] = dst[m++];
+      }
+    }
+    if (d != dstEnd) throw malformed("decompressed " + (d - dstOff) + " bytes, expected " + dstLen);
+  }
+
+  private static IllegalArgumentException malformed(String msg) {
+    return new IllegalArgumentException("Malformed LZ4 block: " + msg);
+  }
+
+  private static int writeSequence(byte[] src, int litOff, int litLen, int off, int matchLen, byte[] dst, int d) {
+    final int tokenPos = d++;
+    int token;
+    if (litLen >= 15) {
+      token = 15 << 4;
+      d = writeLength(litLen - 15, dst, d);
+    } else {
+      token = litLen << 4;
+    }
+    System.arraycopy(src, litOff, dst, d, litLen);
+    d += litLen;
+    dst[d++] = (byte) off;
+    dst[d++] = (byte) (off >>> 8);
+    final int len = matchLen - MIN_MATCH;
+    if (len >= 15) {
+      token |= 15;
+      d = writeLength(len - 15, dst, d);
+    } else {
+      token |= len;
+    }
+    dst[tokenPos] = (byte) token;
+    return d;
+  }
+
+  private static int writeLiterals(byte[] src, int litOff, int litLen, byte[] dst, int d) {
+    if (litLen >= 15) {
+      dst[d++] = (byte) (15 << 4);
+      d = writeLength(litLen - 15, dst, d);
+    } else {
+      dst[d++] = (byte) (litLen << 4);
+    }
+    System.arraycopy(src, litOff, dst, d, litLen);
+    return d + litLen;
+  }
+
+  private static int writeLength(int len, byte[] dst, int d) {
+    while (len >= 255) {
+      dst[d++] = (byte) 255;
+      len -= 255;
+    }
+    dst[d++] = (byte) len;
+    return d;
+  }
+
+  private static int readInt(byte[] b, int i) {
+    return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16 | b[i + 3] << 24;
+  }
+
+  private static int hash(int seq) {
+    return (seq * -1640531535) >>> (32 - HASH_LOG);
+  }
+
+}
@@ -3,6 +3,7 @@ package water.util;
 import water.*;
 import water.api.API;
 import water.api.schemas3.SchemaV3;
+import water.network.CompressedByteChannel;
 import water.persist.PersistManager;
 
 public class WaterMeterIo extends Iced {
@@ -27,11 +28,154 @@ public class WaterMeterIo extends Iced {
     public long load_bytes;
   }
 
+  public static class CacheStatsEntry extends SchemaV3<Iced, CacheStatsEntry> {
+    @API(help="Eviction policy of the Cleaner", direction = API.Direction.OUTPUT)
+    public String policy;
+
+    @API(help="Number of reads of cached values", direction = API.Direction.OUTPUT)
+    public long hit_count;
+
+    @API(help="Number of reads of values that had to be reloaded", direction = API.Direction.OUTPUT)
+    public long miss_count;
+
+    @API(help="Number of values spilled to disk", direction = API.Direction.OUTPUT)
+    public long spill_count;
+
+    @API(help="Cumulative spilled bytes", direction = API.Direction.OUTPUT)
+    public long spill_bytes;
+
+    @API(help="Number of spilled values reloaded from disk", direction = API.Direction.OUTPUT)
+    public long reload_count;
+
+    @API(help="Cumulative reloaded bytes", direction = API.Direction.OUTPUT)
+    public long reload_bytes;
+  }
+
+  public static class WireStatsEntry extends SchemaV3<Iced, WireStatsEntry> {
+    @API(help="Number of blocks of big messages sent over compressed TCP channels", direction = API.Direction.OUTPUT)
+    public long sent_blocks;
+
+    @API(help="Number of sent blocks which were compressed", direction = API.Direction.OUTPUT)
+    public long sent_compressed_blocks;
+
+    @API(help="Cumulative sent bytes before compression", direction = API.Direction.OUTPUT)
+    public long sent_bytes;
+
+    @API(help="Cumulative sent bytes on the wire", direction = API.Direction.OUTPUT)
+    public long sent_wire_bytes;
+
+    @API(help="Ratio of sent bytes before compression and sent bytes on the wire", direction = API.Direction.OUTPUT)
+    public double compression_ratio;
+
+    @API(help="Cumulative time spent compressing (ms)", direction = API.Direction.OUTPUT)
+    public long compress_ms;
+
+    @API(help="Number of blocks received over compressed TCP channels", direction = API.Direction.OUTPUT)
+    public long received_blocks;
+
+    @API(help="Cumulative received bytes after decompression", direction = API.Direction.OUTPUT)
+    public long received_bytes;
+
+    @API(help="Cumulative received bytes on the wire", direction = API.Direction.OUTPUT)
+    public long received_wire_bytes;
+
+    @API(help="Cumulative time spent decompressing (ms)", direction = API.Direction.OUTPUT)
+    public long decompress_ms;
+
+    void add(WireStatsEntry src) {
+      sent_blocks += src.sent_blocks;
+      sent_compressed_blocks += src.sent_compressed_blocks;
+      sent_bytes += src.sent_bytes;
+      sent_wire_bytes += src.sent_wire_bytes;
+      compress_ms += src.compress_ms;
+      received_blocks += src.received_blocks;
+      received_bytes += src.received_bytes;
+      received_wire_bytes += src.received_wire_bytes;
+      decompress_ms += src.decompress_ms;
+      updateCompressionRatio();
+    }
+
+    void updateCompressionRatio() {
+      compression_ratio = sent_wire_bytes == 0 ? 1 : (double) sent_bytes / sent_wire_bytes;
+    }
+  }
+
+  public static class MessageStatsEntry extends SchemaV3<Iced, MessageStatsEntry> {
+    @API(help="Node sending the small messages", direction = API.Direction.OUTPUT)
+    public String node;
+
+    @API(help="Node receiving the small messages", direction = API.Direction.OUTPUT)
+    public String peer;
+
+    @API(help="Number of messages waiting in the send queue", direction = API.Direction.OUTPUT)
+    public int queue_depth;
+
+    @API(help="Max number of messages seen in the send queue", direction = API.Direction.OUTPUT)
+    public int max_queue_depth;
+
+    @API(help="Number of sent messages", direction = API.Direction.OUTPUT)
+    public long messages;
+
+    @API(help="Number of batches (writes to the socket) the messages were sent in", direction = API.Direction.OUTPUT)
+    public long batches;
+
+    @API(help="Cumulative sent bytes", direction = API.Direction.OUTPUT)
+    public long bytes;
+
+    @API(help="Average number of messages in a batch", direction = API.Direction.OUTPUT)
+    public double avg_batch_size;
+
+    @API(help="Number of ACKACK messages merged into another ACKACK", direction = API.Direction.OUTPUT)
+    public long merged_ackacks;
+  }
+
+  public static class PrefetchStatsEntry extends SchemaV3<Iced, PrefetchStatsEntry> {
+    @API(help="Number of chunks requested to be read ahead of MRTask map calls", direction = API.Direction.OUTPUT)
+    public long requested;
+
+    @API(help="Number of read-ahead requests dropped because the I/O pool was busy", direction = API.Direction.OUTPUT)
+    public long dropped;
+
+    @API(help="Number of chunks (of all vecs) loaded by the read-ahead", direction = API.Direction.OUTPUT)
+    public long loaded;
+
+    @API(help="Number of map calls which found their chunks read ahead", direction = API.Direction.OUTPUT)
+    public long hits;
+
+    @API(help="Number of map calls started before the read-ahead of their chunks completed", direction = API.Direction.OUTPUT)
+    public long late;
+
+    @API(help="Number of map calls which had to load chunks not read ahead", direction = API.Direction.OUTPUT)
+    public long misses;
+
+    @API(help="Ratio of hits and map calls which had to wait for their chunks", direction = API.Direction.OUTPUT)
+    public double hit_rate;
+
+    void add(PrefetchStatsEntry src) {
+      requested += src.requested;
+      dropped += src.dropped;
+      loaded += src.loaded;
+      hits += src.hits;
+      late += src.late;
+      misses += src.misses;
+      updateHitRate();
+    }
+
+    void updateHitRate() {
+      long calls = hits + late + misses;
+      hit_rate = calls == 0 ? 0 : (double) hits / calls;
+    }
+  }
+
   // Input
   public int nodeidx;
 
   // Output
   public IoStatsEntry persist_stats[];
+  public CacheStatsEntry cache_stats[];
+  public WireStatsEntry wire_stats[];
+  public MessageStatsEntry message_stats[];
+  public PrefetchStatsEntry prefetch_stats[];
 
   public void doIt(boolean aggregateAllNodes) {
     if (! aggregateAllNodes) {
@@ -39,6 +183,13 @@ public class WaterMeterIo extends Iced {
       return;
     }
 
+    cache_stats = new CacheStatsEntry[0];
+    message_stats = new MessageStatsEntry[0];
+    WireStatsEntry wire = new WireStatsEntry();
+    wire.updateCompressionRatio();
+    wire_stats = new WireStatsEntry[]{wire};
+    PrefetchStatsEntry prefetch = new PrefetchStatsEntry();
+    prefetch_stats = new PrefetchStatsEntry[]{prefetch};
     for (int i = 0; i < H2O.CLOUD.size(); i++) {
       WaterMeterIo io = new WaterMeterIo();
       io.doIt(i);
@@ -57,6 +208,27 @@ public class WaterMeterIo extends Iced {
         persist_stats[j].load_count += io.persist_stats[j].load_count;
         persist_stats[j].load_bytes += io.persist_stats[j].load_bytes;
       }
+
+      for (CacheStatsEntry src : io.cache_stats) { // nodes can use different eviction policies
+        CacheStatsEntry dest = null;
+        for (CacheStatsEntry e : cache_stats)
+          if (e.policy.equals(src.policy)) dest = e;
+        if (dest == null) {
+          dest = new CacheStatsEntry();
+          dest.policy = src.policy;
+          cache_stats = ArrayUtils.append(cache_stats, dest);
+        }
+        dest.hit_count += src.hit_count;
+        dest.miss_count += src.miss_count;
+        dest.spill_count += src.spill_count;
+        dest.spill_bytes += src.spill_bytes;
+        dest.reload_count += src.reload_count;
+        dest.reload_bytes += src.reload_bytes;
+      }
+
+      wire.add(io.wire_stats[0]);
+      message_stats = ArrayUtils.append(message_stats, io.message_stats);
+      prefetch.add(io.prefetch_stats[0]);
     }
   }
 
@@ -68,10 +240,18 @@ public class WaterMeterIo extends Iced {
     new RPC<>(node, t).call().get();
     Log.trace("IO GetTask completed to node " + idx);
     persist_stats = t._persist_stats;
+    cache_stats = new CacheStatsEntry[]{t._cache_stats};
+    wire_stats = new WireStatsEntry[]{t._wire_stats};
+    message_stats = t._message_stats;
+    prefetch_stats = new PrefetchStatsEntry[]{t._prefetch_stats};
   }
 
   private static class GetTask extends DTask<GetTask> {
     private IoStatsEntry _persist_stats[];
+    private CacheStatsEntry _cache_stats;
+    private WireStatsEntry _wire_stats;
+    private MessageStatsEntry _message_stats[];
+    private PrefetchStatsEntry _prefetch_stats;
 
     public GetTask() { super(H2O.MIN_HI_PRIORITY); _persist_stats = null; }
 
@@ -118,6 +298,57 @@ public class WaterMeterIo extends Iced {
         assert(src_e.load_bytes.get() == 0);
       }
 
+      EvictionPolicy policy = EvictionPolicy.current();
+      EvictionPolicy.Stats cs = policy.getStats();
+      _cache_stats = new CacheStatsEntry();
+      _cache_stats.policy = policy.name();
+      _cache_stats.hit_count = cs.hits.sum();
+      _cache_stats.miss_count = cs.misses.sum();
+      _cache_stats.spill_count = cs.spills.sum();
+      _cache_stats.spill_bytes = cs.spill_bytes.sum();
+      _cache_stats.reload_count = cs.reloads.sum();
+      _cache_stats.reload_bytes = cs.reload_bytes.sum();
+
+      CompressedByteChannel.Stats ws = CompressedByteChannel.getStats();
+      _wire_stats = new WireStatsEntry();
+      _wire_stats.sent_blocks = ws.sent_blocks.get();
+      _wire_stats.sent_compressed_blocks = ws.sent_compressed_blocks.get();
+      _wire_stats.sent_bytes = ws.sent_bytes.get();
+      _wire_stats.sent_wire_bytes = ws.sent_wire_bytes.get();
+      _wire_stats.compress_ms = ws.compress_ns.get() / 1000000;
+      _wire_stats.received_blocks = ws.received_blocks.get();
+      _wire_stats.received_bytes = ws.received_bytes.get();
+      _wire_stats.received_wire_bytes = ws.received_wire_bytes.get();
+      _wire_stats.decompress_ms = ws.decompress_ns.get() / 1000000;
+      _wire_stats.updateCompressionRatio();
+
+      _message_stats = new MessageStatsEntry[0];
+      for (H2ONode peer : H2O.CLOUD.members()) {
+        if (peer == H2O.SELF) continue;
+        H2ONode.MessageStats ms = peer.getMessageStats();
+        MessageStatsEntry e = new MessageStatsEntry();
+        e.node = H2O.SELF.getIpPortString();
+        e.peer = peer.getIpPortString();
+        e.queue_depth = peer.getMessageQueueDepth();
+        e.max_queue_depth = ms.max_queue_depth.get();
+        e.messages = ms.messages.get();
+        e.batches = ms.batches.get();
+        e.bytes = ms.bytes.get();
+        e.avg_batch_size = e.batches == 0 ? 0 : (double) e.messages / e.batches;
+        e.merged_ackacks = ms.merged_ackacks.get();
+        _message_stats = ArrayUtils.append(_message_stats, e);
+      }
+
+      ChunkPrefetcher.Stats ps = ChunkPrefetcher.getStats();
+      _prefetch_stats = new PrefetchStatsEntry();
+      _prefetch_stats.requested = ps.requested.get();
+      _prefetch_stats.dropped = ps.dropped.get();
+      _prefetch_stats.loaded = ps.loaded.get();
+      _prefetch_stats.hits = ps.hits.get();
+      _prefetch_stats.late = ps.late.get();
+      _prefetch_stats.misses = ps.misses.get();
+      _prefetch_stats.updateHitRate();
+
       tryComplete();
     }
   }
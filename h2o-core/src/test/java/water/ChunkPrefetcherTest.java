@@ -0,0 +1,83 @@
+package water;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import water.fvec.Frame;
+import water.fvec.NFSFileVec;
+import water.fvec.Vec;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class ChunkPrefetcherTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private NFSFileVec makeFileVec(int len, int chunkSize) throws Exception {
+    File f = tmp.newFile();
+    byte[] bytes = new byte[len];
+    for (int i = 0; i < len; i++) bytes[i] = (byte) i;
+    Files.write(f.toPath(), bytes);
+    NFSFileVec v = NFSFileVec.make(f);
+    v.setChunkSize(chunkSize);
+    return v;
+  }
+
+  @Test
+  public void testReadsAheadOfMapCalls() throws Exception {
+    NFSFileVec v = makeFileVec(1 << 20, 1 << 16);
+    try {
+      final int nchunks = v.nChunks();
+      assertEquals(16, nchunks);
+      ChunkPrefetcher p = ChunkPrefetcher.make(new Frame(v), false, 2);
+      assertNotNull(p);
+      ChunkPrefetcher.Stats stats = ChunkPrefetcher.getStats();
+      long misses = stats.misses.get(), hits = stats.hits.get(), late = stats.late.get();
+
+      // The first map call loads its chunk itself and reads ahead the next two
+      p.map(nchunks - 1);
+      assertEquals(misses + 1, stats.misses.get());
+      for (int c = nchunks - 2; c >= nchunks - 3; c--)
+        awaitReadAhead(p, c);
+      p.map(nchunks - 2);
+      assertEquals(hits + 1, stats.hits.get());
+      // A map call started before its read-ahead completed is not a miss
+      for (int c = nchunks - 3; c >= 0; c--)
+        p.map(c);
+      assertEquals(misses + 1, stats.misses.get());
+      assertEquals(nchunks - 1, stats.hits.get() - hits + stats.late.get() - late);
+      p.stop();
+    } finally {
+      v.remove();
+    }
+  }
+
+  @Test
+  public void testDisabledOrNotWorthIt() throws Exception {
+    NFSFileVec v = makeFileVec(1 << 10, 1 << 16);
+    Vec con = Vec.makeCon(0, 1000, 4);
+    try {
+      assertEquals(1, v.nChunks());
+      assertNull(ChunkPrefetcher.make(new Frame(v), false, 2));
+      assertNull(ChunkPrefetcher.make(new Frame(con), false, 0));
+      assertNotNull(ChunkPrefetcher.make(new Frame(con), false, 2));
+    } finally {
+      v.remove();
+      con.remove();
+    }
+  }
+
+  private static void awaitReadAhead(ChunkPrefetcher p, int cidx) throws InterruptedException {
+    for (int i = 0; i < 1000; i++) {
+      if (p.isReadAhead(cidx)) return;
+      Thread.sleep(10);
+    }
+    fail("Chunk " + cidx + " was not read ahead");
+  }
+}
@@ -0,0 +1,98 @@
+package water;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.fvec.Chunk;
+import water.fvec.Vec;
+
+import static org.junit.Assert.*;
+
+public class MRTaskMetricsTest extends TestUtil {
+  @BeforeClass static public void setup() { stall_till_cloudsize(1); }
+
+  @After
+  public void disable() {
+    MRTaskMetrics.setEnabled(false);
+  }
+
+  private static class SumTask extends MRTask<SumTask> {
+    double _sum;
+    @Override public void map(Chunk c) {
+      for (int i = 0; i < c._len; i++) _sum += c.atd(i);
+    }
+    @Override public void reduce(SumTask t) { _sum += t._sum; }
+  }
+
+  @Test
+  public void testRecordsTaskExecutions() {
+    Vec v = Vec.makeCon(1, 100_000, 4);
+    try {
+      MRTaskMetrics.Totals before = totals(SumTask.class);
+      new SumTask().doAll(v);
+      assertEquals(before.executions, totals(SumTask.class).executions);
+
+      MRTaskMetrics.setEnabled(true);
+      assertTrue(MRTaskMetrics.isEnabled());
+      SumTask t = new SumTask().doAll(v);
+      assertEquals(100_000, t._sum, 0);
+      new SumTask().doAll(v);
+
+      MRTaskMetrics.Totals totals = totals(SumTask.class);
+      assertEquals(before.executions + 2 * H2O.CLOUD.size(), totals.executions);
+      assertEquals(before.maps + 2 * v.nChunks(), totals.maps);
+      assertTrue(totals.wall_ns > before.wall_ns);
+      assertTrue(totals.map_ns > before.map_ns);
+      assertTrue(totals.wall_ns >= totals.remote_wait_ns);
+
+      MRTaskMetrics.NodeMetrics self = MRTaskMetrics.collect()[H2O.SELF.index()];
+      MRTaskMetrics.Execution last = null;
+      for (MRTaskMetrics.Execution e : self.recent)
+        if (SumTask.class.getName().equals(e.task)) last = e;
+      assertNotNull(last);
+      assertTrue(last.start_ms > 0);
+    } finally {
+      v.remove();
+    }
+  }
+
+  @Test
+  public void testPrometheusFormat() {
+    Vec v = Vec.makeCon(1, 1000, 1);
+    try {
+      MRTaskMetrics.setEnabled(true);
+      new SumTask().doAll(v);
+      String text = MRTaskMetrics.toPrometheus(MRTaskMetrics.collect());
+      assertTrue(text.contains("# TYPE h2o_mrtask_executions_total counter\n"));
+      String label = "{node=\"" + H2O.SELF.getIpPortString() + "\",task=\"" + SumTask.class.getName() + "\"}";
+      assertTrue(text, text.contains("h2o_mrtask_map_seconds_total" + label + " "));
+      assertTrue(text, text.contains("h2o_mrtask_sent_bytes_total" + label + " "));
+    } finally {
+      v.remove();
+    }
+  }
+
+  @Test
+  public void testHistorySize() {
+    assertEquals(100, MRTaskMetrics.historySize("100"));
+    assertEquals(256, MRTaskMetrics.historySize("abc"));
+    assertEquals(256, MRTaskMetrics.historySize("0"));
+    assertEquals(256, MRTaskMetrics.historySize("-5"));
+  }
+
+  // Totals of a task class summed over all nodes
+  private static MRTaskMetrics.Totals totals(Class<?> clz) {
+    MRTaskMetrics.Totals res = new MRTaskMetrics.Totals();
+    for (MRTaskMetrics.NodeMetrics nm : MRTaskMetrics.collect()) {
+      for (MRTaskMetrics.Totals t : nm.totals) {
+        if (!clz.getName().equals(t.task)) continue;
+        res.executions += t.executions;
+        res.maps += t.maps;
+        res.wall_ns += t.wall_ns;
+        res.map_ns += t.map_ns;
+        res.remote_wait_ns += t.remote_wait_ns;
+      }
+    }
+    return res;
+  }
+}
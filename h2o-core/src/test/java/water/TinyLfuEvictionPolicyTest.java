@@ -0,0 +1,66 @@
+package water;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import water.runner.CloudSize;
+import water.runner.H2ORunner;
+
+import static org.junit.Assert.*;
+
+@CloudSize(1)
+@RunWith(H2ORunner.class)
+public class TinyLfuEvictionPolicyTest {
+
+  @Test
+  public void testFrequencySketch() {
+    TinyLfuEvictionPolicy.FrequencySketch sketch = new TinyLfuEvictionPolicy.FrequencySketch(64);
+    assertEquals(0, sketch.frequency(42));
+    for (int i = 0; i < 5; i++)
+      sketch.increment(42);
+    assertEquals(5, sketch.frequency(42));
+    for (int i = 0; i < 100; i++)
+      sketch.increment(42);
+    assertEquals(TinyLfuEvictionPolicy.FrequencySketch.MAX_FREQUENCY, sketch.frequency(42));
+  }
+
+  @Test
+  public void testFrequencySketchAging() {
+    TinyLfuEvictionPolicy.FrequencySketch sketch = new TinyLfuEvictionPolicy.FrequencySketch(64);
+    for (int i = 0; i < 10; i++)
+      sketch.increment(42);
+    // one-off accesses of other items eventually trigger the reset (halving)
+    for (int i = 0; i < 10 * 64; i++)
+      sketch.increment(1000 + i);
+    assertTrue(sketch.frequency(42) < 10);
+  }
+
+  @Test
+  public void testPriority() {
+    TinyLfuEvictionPolicy policy = new TinyLfuEvictionPolicy(1024, 1000);
+    Value frequent = new Value(Key.make(), new byte[10]);
+    Value once = new Value(Key.make(), new byte[10]);
+    long now = System.currentTimeMillis();
+    frequent.touchAt(now - 5000);
+    once.touchAt(now);
+    for (int i = 0; i < 10; i++)
+      policy.recordAccess(frequent);
+    policy.recordAccess(once);
+
+    // frequently accessed data outlives a more recently accessed value
+    assertTrue(policy.priority(frequent) > policy.priority(once));
+    assertTrue(policy.priority(frequent) <= frequent._lastAccessedTime + policy.maxBoost());
+    assertEquals(11, policy.getStats().hits.sum());
+    assertEquals(0, policy.getStats().misses.sum());
+  }
+
+  @Test
+  public void testLruPriority() {
+    EvictionPolicy policy = EvictionPolicy.make("lru");
+    Value v = new Value(Key.make(), new byte[10]);
+    v.touchAt(42);
+    policy.recordAccess(v);
+    assertEquals(42, policy.priority(v));
+    assertEquals(0, policy.maxBoost());
+  }
+
+}
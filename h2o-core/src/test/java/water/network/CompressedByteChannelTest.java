@@ -0,0 +1,84 @@
+package water.network;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CompressedByteChannelTest {
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    Random rnd = new Random(42);
+    byte[] data = new byte[3 * CompressedByteChannel.BLOCK_SIZE + 1234];
+    for (int i = 0; i < data.length; i++)
+      data[i] = i < CompressedByteChannel.BLOCK_SIZE ? (byte) rnd.nextInt() : (byte) (i % 13); // incompressible first block
+
+    MemoryChannel mem = new MemoryChannel();
+    CompressedByteChannel out = new CompressedByteChannel(mem, 4096);
+    ByteBuffer src = ByteBuffer.allocateDirect(data.length);
+    src.put(data).flip();
+    assertEquals(data.length, out.write(src));
+    out.write(ByteBuffer.wrap(new byte[]{1, 2, 3})); // short block, sent as is
+    mem.write(ByteBuffer.wrap(new byte[]{(byte) 0xcd})); // raw byte after the blocks
+    assertTrue(mem._out.size() < data.length / 2);
+
+    CompressedByteChannel in = new CompressedByteChannel(mem.flip(), 4096);
+    ByteBuffer dst = ByteBuffer.allocate(data.length + 3);
+    while (dst.hasRemaining()) {
+      ByteBuffer bb = dst.duplicate();
+      bb.limit(Math.min(bb.limit(), bb.position() + 1000)); // read in pieces not aligned with the blocks
+      int n = in.read(bb);
+      assertTrue(n > 0);
+      dst.position(dst.position() + n);
+    }
+    byte[] res = dst.array();
+    for (int i = 0; i < data.length; i++) assertEquals("byte " + i, data[i], res[i]);
+    assertEquals(1, res[data.length]);
+    assertEquals(3, res[data.length + 2]);
+    // the raw byte was not consumed by the compressed channel
+    assertEquals(1, mem._in.remaining());
+    assertEquals((byte) 0xcd, mem._in.get());
+    assertEquals(-1, in.read(ByteBuffer.allocate(1)));
+  }
+
+  @Test(expected = IOException.class)
+  public void testMalformedHeader() throws IOException {
+    MemoryChannel mem = new MemoryChannel();
+    mem.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 10, 0, 0, 0, 10, 7})); // unknown codec
+    new CompressedByteChannel(mem.flip(), 0).read(ByteBuffer.allocate(10));
+  }
+
+  // Collects written bytes, then serves them for reading
+  private static class MemoryChannel implements ByteChannel {
+    final ByteArrayOutputStream _out = new ByteArrayOutputStream();
+    ByteBuffer _in;
+
+    MemoryChannel flip() {
+      _in = ByteBuffer.wrap(_out.toByteArray());
+      return this;
+    }
+
+    @Override public int read(ByteBuffer dst) {
+      if (!_in.hasRemaining()) return -1;
+      int n = Math.min(Math.min(dst.remaining(), _in.remaining()), 777); // short reads like a socket
+      for (int i = 0; i < n; i++) dst.put(_in.get());
+      return n;
+    }
+
+    @Override public int write(ByteBuffer src) {
+      int n = Math.min(src.remaining(), 5000); // short writes like a socket
+      for (int i = 0; i < n; i++) _out.write(src.get());
+      return n;
+    }
+
+    @Override public boolean isOpen() { return true; }
+    @Override public void close() {}
+  }
+
+}
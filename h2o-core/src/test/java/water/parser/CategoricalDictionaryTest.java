@@ -0,0 +1,115 @@
+package water.parser;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class CategoricalDictionaryTest {
+
+  @Test
+  public void testAddKey() {
+    CategoricalDictionary dict = new CategoricalDictionary();
+    assertEquals(1, dict.addKey(new BufferedString("a")));
+    assertEquals(2, dict.addKey(new BufferedString("b")));
+    assertEquals(1, dict.addKey(new BufferedString("a")));
+    // key is given by the window of the buffer, not by the whole buffer
+    byte[] buf = "xxbyy".getBytes();
+    assertEquals(2, dict.addKey(new BufferedString(buf, 2, 1)));
+    assertEquals(3, dict.addKey(new BufferedString(buf, 0, 0)));
+    assertEquals(3, dict.size());
+    assertEquals(3, dict.maxId());
+    assertEquals(2, dict.get(new BufferedString("b")));
+    assertEquals(-1, dict.get(new BufferedString("c")));
+    assertFalse(dict.containsKey(new BufferedString("c")));
+  }
+
+  @Test
+  public void testManyKeys() {
+    CategoricalDictionary dict = new CategoricalDictionary();
+    Map<String, Integer> expected = new HashMap<>();
+    for (int i = 0; i < 100_000; i++) {
+      String key = "ID_" + i * 7919;
+      expected.put(key, dict.addKey(new BufferedString(key)));
+    }
+    assertEquals(expected.size(), dict.size());
+    for (Map.Entry<String, Integer> e : expected.entrySet())
+      assertEquals((int) e.getValue(), dict.get(new BufferedString(e.getKey())));
+    Set<String> keys = new HashSet<>();
+    for (BufferedString key : dict.keys())
+      keys.add(key.toString());
+    assertEquals(expected.keySet(), keys);
+  }
+
+  @Test
+  public void testLongKeys() {
+    CategoricalDictionary dict = new CategoricalDictionary();
+    char[] chars = new char[65000];
+    Arrays.fill(chars, 'x');
+    BufferedString longKey = new BufferedString(new String(chars));
+    int id = dict.addKey(longKey);
+    for (int i = 0; i < 100; i++)
+      dict.addKey(new BufferedString("k" + i));
+    assertEquals(id, dict.get(new BufferedString(new String(chars))));
+  }
+
+  @Test
+  public void testRemoveAndPut() {
+    CategoricalDictionary dict = new CategoricalDictionary();
+    for (int i = 0; i < 1000; i++)
+      dict.addKey(new BufferedString("k" + i));
+    for (int i = 0; i < 1000; i += 2)
+      dict.remove(new BufferedString("k" + i));
+    assertEquals(500, dict.size());
+    assertFalse(dict.containsKey(new BufferedString("k0")));
+    assertEquals(2, dict.get(new BufferedString("k1")));
+    dict.put(new BufferedString("renamed"), 1);
+    assertEquals(1, dict.get(new BufferedString("renamed")));
+    dict.put(new BufferedString("renamed"), 3);
+    assertEquals(3, dict.get(new BufferedString("renamed")));
+    assertEquals(501, dict.size());
+    assertEquals(1000, dict.maxId());
+    // tombstones are dropped when the table is rebuilt
+    for (int i = 1000; i < 5000; i++)
+      dict.addKey(new BufferedString("k" + i));
+    assertEquals(4501, dict.size());
+    assertEquals(4501, dict.keys().length);
+  }
+
+  @Test
+  public void testConcurrentAddKey() throws Exception {
+    final CategoricalDictionary dict = new CategoricalDictionary();
+    final int nthreads = 8;
+    final int nkeys = 50_000;
+    ExecutorService pool = Executors.newFixedThreadPool(nthreads);
+    try {
+      List<Future<int[]>> results = new ArrayList<>();
+      for (int t = 0; t < nthreads; t++) {
+        final int seed = t;
+        results.add(pool.submit(new Callable<int[]>() {
+          @Override
+          public int[] call() {
+            int[] ids = new int[nkeys];
+            // every thread adds the same keys, in a different order
+            List<Integer> order = new ArrayList<>();
+            for (int i = 0; i < nkeys; i++) order.add(i);
+            Collections.shuffle(order, new Random(seed));
+            for (int i : order)
+              ids[i] = dict.addKey(new BufferedString("key" + i));
+            return ids;
+          }
+        }));
+      }
+      int[] first = results.get(0).get();
+      for (Future<int[]> f : results)
+        assertArrayEquals(first, f.get());
+    } finally {
+      pool.shutdown();
+    }
+    assertEquals(nkeys, dict.size());
+    assertEquals(nkeys, dict.maxId()); // no gaps in the ids
+  }
+
+}
@@ -0,0 +1,125 @@
+package water.persist;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import water.Key;
+import water.TestUtil;
+import water.Value;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PersistIceSegmentsTest extends TestUtil {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private PersistFS _fs;
+  private PersistIceSegments _persist;
+
+  @Before
+  public void setUp() throws IOException {
+    stall_till_cloudsize(1);
+    _fs = new PersistFS(tmp.newFolder("ice"));
+    _persist = new PersistIceSegments(_fs, 1000, 0.5, 0);
+  }
+
+  @Test
+  public void testStoreLoadDelete() throws IOException {
+    Value v = new Value(Key.make(), bytes(100, 1));
+    _persist.store(v);
+    assertArrayEquals(bytes(100, 1), _persist.load(v));
+
+    ByteBuffer slice = _persist.slice(v);
+    assertTrue(slice.isReadOnly());
+    assertEquals(100, slice.remaining());
+
+    _persist.delete(v);
+    assertNull(_persist.load(v));
+    assertNull(_persist.slice(v));
+  }
+
+  @Test
+  public void testLargeValueIsStoredInDedicatedFile() throws IOException {
+    Value v = new Value(Key.make(), bytes(5000, 2));
+    _persist.store(v);
+    assertNull(_persist.slice(v));
+    assertArrayEquals(bytes(5000, 2), _persist.load(v));
+    assertEquals(0, _persist.segmentCount());
+    _persist.delete(v);
+  }
+
+  @Test
+  public void testCompaction() throws IOException {
+    List<Value> values = new ArrayList<>();
+    for (int i = 0; i < 40; i++) { // 4 segments of 1000 bytes
+      Value v = new Value(Key.make(), bytes(100, i));
+      _persist.store(v);
+      values.add(v);
+    }
+    assertEquals(4, _persist.segmentCount());
+
+    // delete most of the values of the first two segments, keep the last segment intact
+    List<Value> live = new ArrayList<>();
+    for (int i = 0; i < values.size(); i++) {
+      if (i < 20 && i % 5 != 0)
+        _persist.delete(values.get(i));
+      else
+        live.add(values.get(i));
+    }
+    assertEquals(4, _persist.segmentCount());
+
+    assertEquals(4, _persist.compact());
+    assertEquals(3, _persist.segmentCount()); // 2 segments were dropped, compacted data were moved to a new segment
+    assertEquals(0, _persist.compact());
+    for (Value v : live) {
+      int i = values.indexOf(v);
+      assertArrayEquals(bytes(100, i), _persist.load(v));
+    }
+
+    // deleting all values removes the segment files
+    for (Value v : live) {
+      _persist.delete(v);
+    }
+    _persist.store(new Value(Key.make(), bytes(1000, 42))); // seals the current segment
+    assertEquals(1, _persist.segmentCount());
+    File[] segmentFiles = new File(_fs._dir, "segments").listFiles();
+    assertEquals(1, segmentFiles.length);
+  }
+
+  @Test
+  public void testCleanUpStopsCompactor() throws IOException {
+    PersistIceSegments persist = new PersistIceSegments(new PersistFS(tmp.newFolder("compacted")), 1000, 0.5, 1);
+    assertEquals(1, compactorThreads());
+    for (int i = 0; i < 40; i++) {
+      Value v = new Value(Key.make(), bytes(100, i));
+      persist.store(v);
+      if (i % 5 != 0)
+        persist.delete(v);
+    }
+    persist.cleanUp();
+    assertEquals(0, compactorThreads());
+    assertEquals(0, persist.segmentCount());
+  }
+
+  private static long compactorThreads() {
+    return Thread.getAllStackTraces().keySet().stream()
+            .filter(t -> t.isAlive() && "IceCompactor".equals(t.getName()))
+            .count();
+  }
+
+  private static byte[] bytes(int len, long seed) {
+    byte[] b = new byte[len];
+    new Random(seed).nextBytes(b);
+    return b;
+  }
+
+}
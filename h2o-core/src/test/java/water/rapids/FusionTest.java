@@ -0,0 +1,108 @@
+package water.rapids;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import water.DKV;
+import water.Scope;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+import water.runner.CloudSize;
+import water.runner.H2ORunner;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static water.TestUtil.assertFrameEquals;
+
+@CloudSize(1)
+@RunWith(H2ORunner.class)
+public class FusionTest {
+
+  private static final String[] EXPRESSIONS = new String[]{
+      "(> (log (+ (* (cols_py fusion.hex 'a') 2) (cols_py fusion.hex 'b'))) 3)",
+      "(- (cols_py fusion.hex [0 1]) (* (cols_py fusion.hex 'c') 0.5))", // widening of the right side
+      "(/ (cols_py fusion.hex 'c') (sqrt (cols_py fusion.hex [0 1])))", // widening of the left side
+      "(ifelse (> (cols_py fusion.hex 'a') 0) (* (cols_py fusion.hex 'a') (cols_py fusion.hex 'a')) -1)",
+      "(log (ifelse (> (cols_py fusion.hex 'a') 0) (cols_py fusion.hex 'a') 1))", // names of a nested ifelse
+      "(abs (- (+ (cols_py fusion.hex 'a') 1) (+ (cols_py fusion.hex 'a') 1)))", // common subexpression
+      "(round (* (cols_py fusion.hex 'b') (- 10 (* 2 3))) 1)", // scalar subexpression
+      "(== (cols_py fusion.hex 'cat') (+ (cols_py fusion.hex 'c') 0))", // categorical - not fused
+      "(ifelse (cols_py fusion.hex 'cat') (* (cols_py fusion.hex 'a') 2) (cols_py fusion.hex 'b'))", // not fused
+  };
+
+  @Test
+  public void testFusedMatchesEager() {
+    try {
+      Scope.enter();
+      makeFrame();
+      for (String expr : EXPRESSIONS) {
+        Frame eager = Scope.track(exec(expr, false).getFrame());
+        Frame fused = Scope.track(exec(expr, true).getFrame());
+        assertArrayEquals(expr, eager.names(), fused.names());
+        assertFrameEquals(eager, fused, 0);
+      }
+      // scalar results
+      assertEquals(3.0, exec("(+ 1 (* 2 (- 3 2)))", true).getNum(), 0);
+      assertEquals(exec("(ifelse 1 (* (cols_py fusion.hex 'a') 2) (cols_py fusion.hex 'b'))", false).getNum(),
+          exec("(ifelse 1 (* (cols_py fusion.hex 'a') 2) (cols_py fusion.hex 'b'))", true).getNum(), 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testFusedSinglePass() {
+    try {
+      Scope.enter();
+      Frame fr = makeFrame();
+      Vec.VectorGroup vg = fr.anyVec().group();
+      String expr = EXPRESSIONS[0];
+
+      int before = DKV.<Vec.VectorGroup>getGet(vg._key).len();
+      Scope.track(exec(expr, false).getFrame());
+      int eager = DKV.<Vec.VectorGroup>getGet(vg._key).len();
+      assertEquals(4, eager - before); // one temporary Vec per primitive
+
+      Scope.track(exec(expr, true).getFrame());
+      int fused = DKV.<Vec.VectorGroup>getGet(vg._key).len();
+      assertEquals(1, fused - eager); // just the result
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  private static Frame makeFrame() {
+    final int n = 1000;
+    Random rnd = new Random(42);
+    double[] a = new double[n], b = new double[n], c = new double[n];
+    String[] cat = new String[n];
+    for (int i = 0; i < n; i++) {
+      a[i] = i % 17 == 0 ? Double.NaN : rnd.nextGaussian() * 10;
+      b[i] = i % 23 == 0 ? Double.NaN : rnd.nextDouble() * 100;
+      c[i] = rnd.nextInt(5);
+      cat[i] = "L" + rnd.nextInt(3);
+    }
+    return new TestFrameBuilder()
+        .withName("fusion.hex")
+        .withColNames("a", "b", "c", "cat")
+        .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_NUM, Vec.T_CAT)
+        .withDataForCol(0, a)
+        .withDataForCol(1, b)
+        .withDataForCol(2, c)
+        .withDataForCol(3, cat)
+        .withChunkLayout(400, 400, 200)
+        .build();
+  }
+
+  private static Val exec(String expr, boolean fuse) {
+    Session session = new Session();
+    session.setProperty(Session.PROP_FUSE, String.valueOf(fuse));
+    try {
+      return session.end(session.exec(Rapids.parse(expr), null));
+    } catch (Throwable ex) {
+      throw session.endQuietly(ex);
+    }
+  }
+
+}
@@ -427,4 +427,49 @@ public class GroupByTest extends TestUtil {
       expectedResFrame.remove();
     }
   }
+
+  @Test
+  public void testGroupTableMatchesGroups() {
+    final int n = 10000;
+    java.util.Random rnd = new java.util.Random(42);
+    double[] k0 = new double[n], k1 = new double[n], x = new double[n];
+    String[] cat = new String[n];
+    for (int i = 0; i < n; i++) {
+      k0[i] = i % 101 == 0 ? Double.NaN : rnd.nextInt(50);
+      k1[i] = rnd.nextInt(20) / 4.0;
+      x[i] = i % 13 == 0 ? Double.NaN : rnd.nextGaussian();
+      cat[i] = "L" + rnd.nextInt(4);
+    }
+    Scope.enter();
+    try {
+      Frame fr = new TestFrameBuilder()
+              .withColNames("k0", "k1", "cat", "x")
+              .withVecTypes(Vec.T_NUM, Vec.T_NUM, Vec.T_CAT, Vec.T_NUM)
+              .withDataForCol(0, k0)
+              .withDataForCol(1, k1)
+              .withDataForCol(2, cat)
+              .withDataForCol(3, x)
+              .withChunkLayout(3000, 3000, 3000, 1000)
+              .build();
+      AstGroup.AGG[] aggs = new AstGroup.AGG[]{
+              new AstGroup.AGG(AstGroup.FCN.nrow, 3, AstGroup.NAHandling.ALL, -1),
+              new AstGroup.AGG(AstGroup.FCN.mean, 3, AstGroup.NAHandling.RM, -1),
+              new AstGroup.AGG(AstGroup.FCN.sum, 3, AstGroup.NAHandling.IGNORE, -1),
+              new AstGroup.AGG(AstGroup.FCN.sumSquares, 3, AstGroup.NAHandling.RM, -1),
+              new AstGroup.AGG(AstGroup.FCN.var, 3, AstGroup.NAHandling.RM, -1),
+              new AstGroup.AGG(AstGroup.FCN.sdev, 3, AstGroup.NAHandling.RM, -1),
+              new AstGroup.AGG(AstGroup.FCN.min, 3, AstGroup.NAHandling.RM, -1),
+              new AstGroup.AGG(AstGroup.FCN.max, 3, AstGroup.NAHandling.ALL, -1),
+              new AstGroup.AGG(AstGroup.FCN.mode, 2, AstGroup.NAHandling.RM, 4),
+      };
+      for (int[] gbCols : new int[][]{{0}, {1, 0}, {2, 0}, {}}) {
+        Frame expected = Scope.track(new AstGroup(true, false).performGroupingWithAggregations(fr, gbCols, aggs).getFrame());
+        Frame actual = Scope.track(new AstGroup(true, true).performGroupingWithAggregations(fr, gbCols, aggs).getFrame());
+        assertArrayEquals(expected.names(), actual.names());
+        assertFrameEquals(expected, actual, 1e-8);
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
 }
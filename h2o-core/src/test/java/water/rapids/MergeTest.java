@@ -9,6 +9,8 @@ import water.fvec.Frame;
 import water.fvec.TestFrameBuilder;
 import water.fvec.Vec;
 
+import static org.junit.Assert.assertEquals;
+
 public class MergeTest extends TestUtil {
   @BeforeClass public static void setup() { stall_till_cloudsize(1); }
 
@@ -43,5 +45,47 @@ public class MergeTest extends TestUtil {
     } finally {
       Scope.exit();
     }
-  } 
+  }
+
+  @Test public void test_merge_splits_heavy_key_over_nodes() {
+    Scope.enter();
+    try {
+      // key 7 holds 60% of the left rows and matches two right rows, left keys 200..399 have no match
+      double[] leftKeys = new double[1000], leftVals = new double[1000];
+      for (int i = 0; i < 1000; i++) {
+        leftKeys[i] = i < 600 ? 7 : i - 600;
+        leftVals[i] = i;
+      }
+      double[] riteKeys = new double[201], riteVals = new double[201];
+      for (int i = 0; i < 201; i++) {
+        riteKeys[i] = i < 200 ? i : 7;
+        riteVals[i] = 1000 + i;
+      }
+      Frame left = new TestFrameBuilder()
+              .withName("leftFrame")
+              .withColNames("key", "x")
+              .withVecTypes(Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, leftKeys)
+              .withDataForCol(1, leftVals)
+              .withChunkLayout(300, 300, 400)
+              .build();
+      Frame right = new TestFrameBuilder()
+              .withName("rightFrame")
+              .withColNames("key", "y")
+              .withVecTypes(Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, riteKeys)
+              .withDataForCol(1, riteVals)
+              .build();
+      int[] asc = {1};
+      for (boolean allLeft : new boolean[]{false, true}) {
+        // the heavy MSB is merged in parts, as on a cloud of 4 nodes
+        Frame split = Scope.track(Merge.merge(left, right, new int[]{0}, new int[]{0}, allLeft, new int[1][], asc, asc, 4));
+        Frame whole = Scope.track(Merge.merge(left, right, new int[]{0}, new int[]{0}, allLeft, new int[1][], asc, asc, 1));
+        assertEquals(601 * 2 + 199L + (allLeft ? 200 : 0), split.numRows());
+        assertFrameEquals(whole, split, 0);
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
 }
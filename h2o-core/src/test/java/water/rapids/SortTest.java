@@ -12,6 +12,7 @@ import water.util.ArrayUtils;
 import java.io.IOException;
 import java.util.Random;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class SortTest extends TestUtil {
@@ -57,6 +58,39 @@ public class SortTest extends TestUtil {
     }
   }
 
+  @Test public void testBalanceMSBOwners() {
+    // One MSB holds 60% of the rows, the rest is spread over a few MSBs
+    long[] hist = new long[256];
+    hist[3] = 600;
+    for (int msb = 10; msb < 50; msb++) hist[msb] = 10;
+    int[] owners = SplitByMSBLocal.balanceOwners(hist, 4);
+    long[] load = new long[4];
+    for (int msb = 0; msb < 256; msb++) {
+      assertTrue(owners[msb] >= 0 && owners[msb] < 4);
+      load[owners[msb]] += hist[msb];
+    }
+    // the heavy MSB is alone on its node, the other MSBs are spread evenly over the other nodes
+    assertEquals(600, load[owners[3]]);
+    for (int n = 0; n < 4; n++)
+      if (n != owners[3]) assertTrue(load[n] >= 130 && load[n] <= 140);
+    // empty MSBs keep the round-robin owners
+    long[] empty = new long[256];
+    int[] rr = SplitByMSBLocal.balanceOwners(empty, 3);
+    for (int msb = 0; msb < 256; msb++) assertEquals(msb % 3, rr[msb]);
+  }
+
+  @Test public void testMergeParts() {
+    long[] hist = new long[256];
+    hist[3] = 600;
+    for (int msb = 10; msb < 50; msb++) hist[msb] = 10;
+    int[] parts = SplitByMSBLocal.mergeParts(hist, 4);
+    assertEquals(3, parts[3]);  // 60% of the rows is merged by 3 of the 4 nodes
+    for (int msb = 0; msb < 256; msb++) if (msb != 3) assertEquals(1, parts[msb]);
+    // a single node never splits
+    assertEquals(1, SplitByMSBLocal.mergeParts(hist, 1)[3]);
+    assertEquals(1, SplitByMSBLocal.mergeParts(new long[256], 4)[0]);
+  }
+
   @Test public void testBasicSortJava2() {
     Frame fr = null, res = null;
     try {
@@ -11,6 +11,11 @@ import water.fvec.Vec;
 import water.rapids.Rapids;
 import water.rapids.Val;
 
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
 /***
  * This test is written by Andrey Spiridonov in JIRA PUBDEV-5924.
  */
@@ -301,6 +306,109 @@ public class AstMergeTest extends TestUtil {
     }
   }
 
+  @Test
+  public void hashMergeOneToManyStringKeysTest() {
+    Scope.enter();
+    try {
+      Frame fr = new TestFrameBuilder()
+              .withName("leftFrame")
+              .withColNames("k", "x")
+              .withVecTypes(Vec.T_STR, Vec.T_NUM)
+              .withDataForCol(0, ar("a", "b", "c", "b", null))
+              .withDataForCol(1, ard(1, 2, 3, 4, 5))
+              .build();
+      Scope.track(fr);
+      Frame rite = new TestFrameBuilder()
+              .withName("riteFrame")
+              .withColNames("k", "y", "s")
+              .withVecTypes(Vec.T_STR, Vec.T_NUM, Vec.T_STR)
+              .withDataForCol(0, ar("b", "a", "b", "d", null))
+              .withDataForCol(1, ard(10, 20, 30, 40, 50))
+              .withDataForCol(2, ar("b1", "a1", null, "d1", "na"))
+              .build();
+      Scope.track(rite);
+
+      // all.x: rows in the order of the left frame, a row per match
+      Frame result = Scope.track(Rapids.exec("(merge leftFrame riteFrame TRUE FALSE [0] [0] 'hash')").getFrame());
+      Frame answer = Scope.track(new TestFrameBuilder()
+              .withColNames("k", "x", "y", "s")
+              .withVecTypes(Vec.T_STR, Vec.T_NUM, Vec.T_NUM, Vec.T_STR)
+              .withDataForCol(0, ar("a", "b", "b", "c", "b", "b", null))
+              .withDataForCol(1, ard(1, 2, 2, 3, 4, 4, 5))
+              .withDataForCol(2, ard(20, 10, 30, Double.NaN, 10, 30, Double.NaN))
+              .withDataForCol(3, ar("a1", "b1", null, null, "b1", null, null))
+              .build());
+      assertArrayEquals(answer.names(), result.names());
+      assertFrameEquals(answer, result, 0);
+
+      // all.y: the right frame is walked, the columns keep the order of the left frame
+      result = Scope.track(Rapids.exec("(merge leftFrame riteFrame FALSE TRUE [0] [0] 'hash')").getFrame());
+      answer = Scope.track(new TestFrameBuilder()
+              .withColNames("k", "x", "y", "s")
+              .withVecTypes(Vec.T_STR, Vec.T_NUM, Vec.T_NUM, Vec.T_STR)
+              .withDataForCol(0, ar("b", "b", "a", "b", "b", "d", null))
+              .withDataForCol(1, ard(2, 4, 1, 2, 4, Double.NaN, Double.NaN))
+              .withDataForCol(2, ard(10, 10, 20, 30, 30, 40, 50))
+              .withDataForCol(3, ar("b1", "b1", "a1", null, null, "d1", "na"))
+              .build());
+      assertArrayEquals(answer.names(), result.names());
+      assertFrameEquals(answer, result, 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void hashMergeMatchesRadixMergeTest() {
+    Scope.enter();
+    try {
+      Random rnd = new Random(42);
+      String[] levels = {"p", "q", "r"};
+      double[] lk = new double[5000], lx = new double[lk.length];
+      String[] lc = new String[lk.length];
+      for (int i = 0; i < lk.length; i++) {
+        lk[i] = rnd.nextInt(50) == 0 ? Double.NaN : rnd.nextInt(100);
+        lc[i] = levels[rnd.nextInt(levels.length)];
+        lx[i] = i;
+      }
+      double[] rk = new double[300], ry = new double[rk.length];
+      String[] rc = new String[rk.length];
+      for (int i = 0; i < rk.length; i++) {
+        rk[i] = rnd.nextInt(150);
+        rc[i] = levels[rnd.nextInt(2)];
+        ry[i] = -i;
+      }
+      Frame fr = Scope.track(new TestFrameBuilder()
+              .withName("leftFrame")
+              .withColNames("k", "c", "x")
+              .withVecTypes(Vec.T_NUM, Vec.T_CAT, Vec.T_NUM)
+              .withDataForCol(0, lk)
+              .withDataForCol(1, lc)
+              .withDataForCol(2, lx)
+              .withChunkLayout(1000, 1000, 1000, 1000, 1000)
+              .build());
+      Frame rite = Scope.track(new TestFrameBuilder()
+              .withName("riteFrame")
+              .withColNames("k", "c", "y")
+              .withVecTypes(Vec.T_NUM, Vec.T_CAT, Vec.T_NUM)
+              .withDataForCol(0, rk)
+              .withDataForCol(1, rc)
+              .withDataForCol(2, ry)
+              .build());
+      for (String all : new String[]{"TRUE FALSE", "FALSE FALSE"}) {
+        Frame hash = Scope.track(Rapids.exec("(merge leftFrame riteFrame " + all + " [0 1] [0 1] 'hash')").getFrame());
+        Frame radix = Scope.track(Rapids.exec("(merge leftFrame riteFrame " + all + " [0 1] [0 1] 'radix')").getFrame());
+        assertEquals(radix.numRows(), hash.numRows());
+        // x is unique per left row, y per right row
+        Frame sortedHash = Scope.track(hash.sort(new int[]{2, 3}));
+        Frame sortedRadix = Scope.track(radix.sort(new int[]{2, 3}));
+        assertFrameEquals(sortedRadix, sortedHash, 0);
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
   public void printFrames(Frame fr) {
     int numRows = (int) fr.numRows();
     int numCols = fr.numCols();
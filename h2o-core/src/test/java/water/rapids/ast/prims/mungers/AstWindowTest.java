@@ -0,0 +1,221 @@
+package water.rapids.ast.prims.mungers;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import water.Scope;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.TestFrameBuilder;
+import water.fvec.Vec;
+import water.rapids.Rapids;
+import water.runner.CloudSize;
+import water.runner.H2ORunner;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+@CloudSize(1)
+@RunWith(H2ORunner.class)
+public class AstWindowTest extends TestUtil {
+
+  @Test
+  public void testWindowFunctions() {
+    Scope.enter();
+    try {
+      final int n = 20000;
+      Random rnd = new Random(0xCAFE);
+      String[] g = new String[n];
+      double[] t = new double[n], x = new double[n];
+      for (int i = 0; i < n; i++) {
+        g[i] = "g" + rnd.nextInt(5);
+        t[i] = i * 10 + rnd.nextInt(10); // unique, so the order is fully determined
+        x[i] = i % 11 == 0 ? Double.NaN : rnd.nextInt(1000) / 10.0;
+      }
+      // shuffle the rows
+      for (int i = n - 1; i > 0; i--) {
+        int j = rnd.nextInt(i + 1);
+        double d = t[i]; t[i] = t[j]; t[j] = d;
+      }
+      new TestFrameBuilder()
+              .withName("window.hex")
+              .withColNames("g", "t", "x")
+              .withVecTypes(Vec.T_CAT, Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, g)
+              .withDataForCol(1, t)
+              .withDataForCol(2, x)
+              .withChunkLayout(5000, 7, 8000, 6993)
+              .build();
+
+      assertWindows(n, new int[][]{{1, 0}, {3, 0}, {7, 0}, {0, 0}, {95, 1}});
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testWindowsWiderThanChunks() {
+    Scope.enter();
+    try {
+      // two partitions spanning several chunks of the sorted frame
+      final int n = 20000;
+      Random rnd = new Random(0xBEEF);
+      String[] g = new String[n];
+      double[] t = new double[n], x = new double[n];
+      for (int i = 0; i < n; i++) {
+        g[i] = "g" + rnd.nextInt(2);
+        t[i] = i * 10 + rnd.nextInt(10);
+        x[i] = i % 7 == 0 ? Double.NaN : rnd.nextInt(1000) / 10.0;
+      }
+      new TestFrameBuilder()
+              .withName("window.hex")
+              .withColNames("g", "t", "x")
+              .withVecTypes(Vec.T_CAT, Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, g)
+              .withDataForCol(1, t)
+              .withDataForCol(2, x)
+              .withChunkLayout(4000, 4000, 4000, 4000, 4000)
+              .build();
+      assertWindows(n, new int[][]{{6000, 0}, {9000, 0}, {30000, 0}, {50000, 1}, {150000, 1}, {1000000, 1}});
+
+      // no partitions and no order, the chunks are kept
+      final int m = 200;
+      double[] y = new double[m], zeros = new double[m], rows = new double[m];
+      long[] layout = new long[m / 5];
+      Arrays.fill(layout, 5);
+      for (int i = 0; i < m; i++) {
+        y[i] = i % 9 == 0 ? Double.NaN : rnd.nextInt(100);
+        rows[i] = i;
+      }
+      new TestFrameBuilder()
+              .withName("window2.hex")
+              .withColNames("y")
+              .withVecTypes(Vec.T_NUM)
+              .withDataForCol(0, y)
+              .withChunkLayout(layout)
+              .build();
+      for (String fun : new String[]{"lag", "lead", "sum", "min", "max", "count"}) {
+        for (int size : new int[]{4, 12, 57, 300}) {
+          Frame res = Scope.track(Rapids.exec("(window window2.hex [] [] 'y' '" + fun + "' " + size + " 0 'w')").getFrame());
+          for (int i = 0; i < m; i++)
+            assertEquals(fun + " " + size + " row " + i, expected(zeros, rows, y, i, fun, size, false),
+                    res.vec("w").at(i), 1e-6);
+        }
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  // Compares the window functions over the partitions 'g' ordered by 't' of window.hex with a brute force
+  private static void assertWindows(int n, int[][] windows) { // size, by_range
+    String[] funs = {"lag", "lead", "sum", "mean", "min", "max", "count"};
+    for (String fun : funs) {
+      for (int[] w : windows) {
+        boolean shift = fun.equals("lag") || fun.equals("lead");
+        if (shift && (w[0] == 0 || w[1] == 1)) continue;
+        Frame res = Scope.track(Rapids.exec("(window window.hex ['g'] ['t'] 'x' '" + fun + "' " + w[0] + " " + w[1] + " 'w')").getFrame());
+        assertArrayEquals(new String[]{"g", "t", "x", "w"}, res.names());
+        assertEquals(n, res.numRows());
+        double[] rg = toArray(res.vec(0)), rt = toArray(res.vec(1)), rx = toArray(res.vec(2));
+        double[] rw = toArray(res.vec(3));
+        for (int i = 0; i < n; i++) {
+          if (i > 0) assertTrue(rg[i - 1] < rg[i] || (rg[i - 1] == rg[i] && rt[i - 1] < rt[i]));
+          assertEquals(fun + " " + w[0] + " " + w[1] + " row " + i, expected(rg, rt, rx, i, fun, w[0], w[1] == 1),
+                  rw[i], 1e-6);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testWindowWithoutPartitions() {
+    Scope.enter();
+    try {
+      new TestFrameBuilder()
+              .withName("window.hex")
+              .withColNames("x")
+              .withVecTypes(Vec.T_NUM)
+              .withDataForCol(0, ard(1, 2, Double.NaN, 4, 5, 6))
+              .withChunkLayout(2, 1, 3)
+              .build();
+      Frame res = Scope.track(Rapids.exec("(window window.hex [] [] 'x' 'sum' 2 0 'rolling_sum')").getFrame());
+      assertVecEquals(dvec(1, 3, 2, 4, 9, 11), res.vec("rolling_sum"), 0);
+      res = Scope.track(Rapids.exec("(window window.hex [] [] 'x' 'max' 0 0 'cummax')").getFrame());
+      assertVecEquals(dvec(1, 2, 2, 4, 5, 6), res.vec("cummax"), 0);
+      res = Scope.track(Rapids.exec("(window window.hex [] [] 'x' 'lead' 1 0 'next')").getFrame());
+      assertVecEquals(dvec(2, Double.NaN, 4, 5, 6, Double.NaN), res.vec("next"), 0);
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  @Test
+  public void testRangeWindowSize() {
+    Scope.enter();
+    try {
+      final long day = 24 * 3600 * 1000L;
+      double[] t = new double[40], x = new double[40];
+      for (int i = 0; i < t.length; i++) {
+        t[i] = i * day;
+        x[i] = 1;
+      }
+      new TestFrameBuilder()
+              .withName("window.hex")
+              .withColNames("t", "x")
+              .withVecTypes(Vec.T_NUM, Vec.T_NUM)
+              .withDataForCol(0, t)
+              .withDataForCol(1, x)
+              .withChunkLayout(15, 25)
+              .build();
+      // 30 days in msec don't fit in an int
+      Frame res = Scope.track(Rapids.exec("(window window.hex [] ['t'] 'x' 'count' " + 30 * day + " 1 'cnt')").getFrame());
+      for (int i = 0; i < t.length; i++)
+        assertEquals("row " + i, Math.min(i + 1, 31), res.vec("cnt").at(i), 0);
+      for (String size : new String[]{"0.5", "0", "-1"}) {
+        try {
+          Rapids.exec("(window window.hex [] ['t'] 'x' 'sum' " + size + " 1 'w')");
+          fail("Range window of size " + size + " should be rejected");
+        } catch (IllegalArgumentException e) {
+          // expected
+        }
+      }
+    } finally {
+      Scope.exit();
+    }
+  }
+
+  private static double[] toArray(Vec v) {
+    double[] res = new double[(int) v.length()];
+    for (int i = 0; i < res.length; i++) res[i] = v.at(i);
+    return res;
+  }
+
+  private static double expected(double[] g, double[] t, double[] x, int i, String fun, int size, boolean byRange) {
+    switch (fun) {
+      case "lag":
+        return i - size >= 0 && g[i - size] == g[i] ? x[i - size] : Double.NaN;
+      case "lead":
+        return i + size < g.length && g[i + size] == g[i] ? x[i + size] : Double.NaN;
+    }
+    double sum = 0, min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+    int cnt = 0;
+    for (int j = i; j >= 0 && g[j] == g[i]; j--) {
+      if (size > 0 && (byRange ? t[j] < t[i] - size : i - j >= size)) break;
+      if (Double.isNaN(x[j])) continue;
+      sum += x[j];
+      cnt++;
+      min = Math.min(min, x[j]);
+      max = Math.max(max, x[j]);
+    }
+    switch (fun) {
+      case "count": return cnt;
+      case "sum": return cnt == 0 ? Double.NaN : sum;
+      case "mean": return cnt == 0 ? Double.NaN : sum / cnt;
+      case "min": return cnt == 0 ? Double.NaN : min;
+      case "max": return cnt == 0 ? Double.NaN : max;
+      default: throw new IllegalArgumentException(fun);
+    }
+  }
+}
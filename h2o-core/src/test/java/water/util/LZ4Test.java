@@ -0,0 +1,68 @@
+package water.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LZ4Test {
+
+  @Test
+  public void testRoundTrip() {
+    Random rnd = new Random(0xBEEF);
+    for (int len : new int[]{0, 1, 5, 12, 13, 14, 100, 4096, 65536, 300000}) {
+      // random bytes, runs of a single byte and repeated phrases
+      byte[] random = new byte[len];
+      rnd.nextBytes(random);
+      assertRoundTrip(random);
+      byte[] runs = new byte[len];
+      for (int i = 0; i < len; i++) runs[i] = (byte) (i / 1000);
+      assertRoundTrip(runs);
+      byte[] text = new byte[len];
+      byte[] phrase = "Fast Scalable Machine Learning For Smarter Applications ".getBytes();
+      for (int i = 0; i < len; i++) text[i] = rnd.nextInt(50) == 0 ? (byte) rnd.nextInt() : phrase[i % phrase.length];
+      assertRoundTrip(text);
+    }
+  }
+
+  @Test
+  public void testCompressesRedundantData() {
+    byte[] data = new byte[65536];
+    for (int i = 0; i < data.length; i++) data[i] = (byte) (i % 7);
+    byte[] packed = new byte[LZ4.maxCompressedLength(data.length)];
+    int len = LZ4.compress(data, 0, data.length, packed, 0);
+    assertTrue("compressed length " + len, len < data.length / 100);
+  }
+
+  @Test
+  public void testDecompressKnownBlock() {
+    // "abcabcabcabc" + "xyz12": literals "abc", match offset 3 length 9, last literals "xyz12"
+    byte[] block = {(byte) 0x35, 'a', 'b', 'c', 3, 0, (byte) 0x50, 'x', 'y', 'z', '1', '2'};
+    byte[] res = new byte[17];
+    LZ4.decompress(block, 0, block.length, res, 0, res.length);
+    assertEquals("abcabcabcabcxyz12", new String(res));
+  }
+
+  @Test
+  public void testMalformedBlock() {
+    byte[] block = {(byte) 0x35, 'a', 'b', 'c', 9, 0, (byte) 0x50, 'x', 'y', 'z', '1', '2'}; // offset beyond the start
+    try {
+      LZ4.decompress(block, 0, block.length, new byte[17], 0, 17);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().startsWith("Malformed LZ4 block"));
+    }
+  }
+
+  private static void assertRoundTrip(byte[] data) {
+    byte[] packed = new byte[3 + LZ4.maxCompressedLength(data.length)];
+    int len = LZ4.compress(data, 0, data.length, packed, 3);
+    assertTrue(len <= LZ4.maxCompressedLength(data.length));
+    byte[] res = new byte[data.length + 2];
+    LZ4.decompress(packed, 3, len, res, 1, data.length);
+    assertArrayEquals(data, Arrays.copyOfRange(res, 1, data.length + 1));
+  }
+
+}
@@ -0,0 +1,20 @@
+package hex.genmodel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * MOJO reader backend that can provide binary files as (read-only) {@link ByteBuffer}s without copying them
+ * into heap byte arrays. Model readers that support it (eg. tree-based models) keep the buffers and score
+ * directly from them.
+ */
+public interface ByteBufferMojoReaderBackend extends MojoReaderBackend {
+
+  /**
+   * @param filename name of the binary file
+   * @return buffer with the content of the file (position 0, limit = size of the file), callers must not modify it
+   * @throws IOException when the file doesn't exist or cannot be read
+   */
+  ByteBuffer getBinaryFileBuffer(String filename) throws IOException;
+
+}
@@ -0,0 +1,218 @@
+package hex.genmodel;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * MOJO reader backend that memory-maps the MOJO zip file instead of unzipping its content into heap byte arrays.
+ *
+ * Files stored in the archive without compression (see {@link hex.genmodel.tools.RepackMojo}) are returned
+ * as read-only slices of the mapped file - models read from this backend (eg. tree-based models) score directly
+ * from the OS page cache: model load time doesn't depend on the size of the model and the pages can be shared
+ * by all JVMs on the same host that load the same MOJO. Compressed files are still supported, they are
+ * inflated on demand.
+ *
+ * The mapping stays valid after the backend is closed (it is released when the model is garbage collected).
+ * Zip64 archives are not supported and the MOJO file cannot be larger than 2GB.
+ */
+public class MappedZipMojoReaderBackend implements ByteBufferMojoReaderBackend, Closeable {
+
+  private static final int EOCD_SIGNATURE = 0x06054b50;
+  private static final int CEN_SIGNATURE = 0x02014b50;
+  private static final int LOC_SIGNATURE = 0x04034b50;
+  private static final int EOCD_MIN_SIZE = 22;
+  private static final int MAX_COMMENT_SIZE = 0xFFFF;
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+
+  private final String _archiveName;
+  private MappedByteBuffer _mapped;
+  private final Map<String, Entry> _entries;
+
+  private static final class Entry {
+    final int _method;
+    final int _dataOffset;
+    final int _compressedSize;
+    final int _size;
+
+    Entry(int method, int dataOffset, int compressedSize, int size) {
+      _method = method;
+      _dataOffset = dataOffset;
+      _compressedSize = compressedSize;
+      _size = size;
+    }
+  }
+
+  public MappedZipMojoReaderBackend(String archiveName) throws IOException {
+    _archiveName = archiveName;
+    try (RandomAccessFile raf = new RandomAccessFile(archiveName, "r"); FileChannel channel = raf.getChannel()) {
+      if (channel.size() > Integer.MAX_VALUE)
+        throw new IOException("MOJO file " + archiveName + " is too large to be memory-mapped (size=" + channel.size() + ").");
+      _mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    _mapped.order(ByteOrder.LITTLE_ENDIAN);
+    _entries = readCentralDirectory(_mapped);
+  }
+
+  private Map<String, Entry> readCentralDirectory(ByteBuffer zip) throws IOException {
+    int eocd = findEndOfCentralDirectory(zip);
+    int nentries = zip.getShort(eocd + 10) & 0xFFFF;
+    long cenSize = zip.getInt(eocd + 12) & 0xFFFFFFFFL;
+    long cenOffset = zip.getInt(eocd + 16) & 0xFFFFFFFFL;
+    if (nentries == 0xFFFF || cenOffset == 0xFFFFFFFFL || cenOffset + cenSize > eocd)
+      throw new IOException("Unsupported zip file " + _archiveName + " (Zip64 archives cannot be memory-mapped).");
+    Map<String, Entry> entries = new HashMap<>(nentries * 2);
+    int pos = (int) cenOffset;
+    for (int i = 0; i < nentries; i++) {
+      if (zip.getInt(pos) != CEN_SIGNATURE)
+        throw new IOException("Invalid central directory of zip file " + _archiveName);
+      int method = zip.getShort(pos + 10) & 0xFFFF;
+      long compressedSize = zip.getInt(pos + 20) & 0xFFFFFFFFL;
+      long size = zip.getInt(pos + 24) & 0xFFFFFFFFL;
+      int nameLen = zip.getShort(pos + 28) & 0xFFFF;
+      int extraLen = zip.getShort(pos + 30) & 0xFFFF;
+      int commentLen = zip.getShort(pos + 32) & 0xFFFF;
+      long locOffset = zip.getInt(pos + 42) & 0xFFFFFFFFL;
+      String name = readName(zip, pos + 46, nameLen);
+      if (method != ZipEntry.STORED && method != ZipEntry.DEFLATED)
+        throw new IOException("Unsupported compression method " + method + " of file " + name + " in " + _archiveName);
+      if (size > Integer.MAX_VALUE || compressedSize > Integer.MAX_VALUE || locOffset > Integer.MAX_VALUE)
+        throw new IOException("File " + name + " in " + _archiveName + " is too large.");
+      int loc = (int) locOffset;
+      if (zip.getInt(loc) != LOC_SIGNATURE)
+        throw new IOException("Invalid local header of file " + name + " in " + _archiveName);
+      // local header can have a different "extra" field than the central directory
+      int dataOffset = loc + 30 + (zip.getShort(loc + 26) & 0xFFFF) + (zip.getShort(loc + 28) & 0xFFFF);
+      entries.put(name, new Entry(method, dataOffset, (int) compressedSize, (int) size));
+      pos += 46 + nameLen + extraLen + commentLen;
+    }
+    return entries;
+  }
+
+  private int findEndOfCentralDirectory(ByteBuffer zip) throws IOException {
+    int last = zip.limit() - EOCD_MIN_SIZE;
+    int first = Math.max(0, last - MAX_COMMENT_SIZE);
+    for (int pos = last; pos >= first; pos--) {
+      if (zip.getInt(pos) == EOCD_SIGNATURE)
+        return pos;
+    }
+    throw new IOException("File " + _archiveName + " is not a zip file.");
+  }
+
+  private static String readName(ByteBuffer zip, int pos, int len) {
+    byte[] name = new byte[len];
+    ByteBuffer view = zip.duplicate();
+    view.position(pos);
+    view.get(name);
+    return new String(name, UTF8);
+  }
+
+  private Entry getEntry(String filename) throws IOException {
+    checkOpen();
+    Entry entry = _entries.get(filename);
+    if (entry == null)
+      throw new IOException("File " + filename + " not found in " + _archiveName);
+    return entry;
+  }
+
+  private ByteBuffer slice(int offset, int length) {
+    ByteBuffer view = _mapped.duplicate();
+    view.position(offset);
+    view.limit(offset + length);
+    return view.slice();
+  }
+
+  private InputStream openStream(String filename) throws IOException {
+    Entry entry = getEntry(filename);
+    InputStream is = new ByteBufferInputStream(slice(entry._dataOffset, entry._compressedSize));
+    return entry._method == ZipEntry.STORED ? is : new InflaterInputStream(is, new Inflater(true));
+  }
+
+  @Override
+  public BufferedReader getTextFile(String filename) throws IOException {
+    return new BufferedReader(new InputStreamReader(openStream(filename)));
+  }
+
+  @Override
+  public byte[] getBinaryFile(String filename) throws IOException {
+    Entry entry = getEntry(filename);
+    byte[] out = new byte[entry._size];
+    if (entry._method == ZipEntry.STORED) {
+      slice(entry._dataOffset, entry._size).get(out);
+    } else {
+      DataInputStream dis = new DataInputStream(openStream(filename));
+      dis.readFully(out);
+    }
+    return out;
+  }
+
+  @Override
+  public ByteBuffer getBinaryFileBuffer(String filename) throws IOException {
+    Entry entry = getEntry(filename);
+    if (entry._method == ZipEntry.STORED)
+      return slice(entry._dataOffset, entry._size).asReadOnlyBuffer();
+    return ByteBuffer.wrap(getBinaryFile(filename)); // compressed files cannot be mapped, they are inflated to heap
+  }
+
+  @Override
+  public boolean exists(String filename) {
+    checkOpen();
+    return _entries.containsKey(filename);
+  }
+
+  /**
+   * @param filename name of a file in the archive
+   * @return true if the file is stored without compression (can be used directly from the mapped memory)
+   */
+  public boolean isStored(String filename) throws IOException {
+    return getEntry(filename)._method == ZipEntry.STORED;
+  }
+
+  @Override
+  public void close() {
+    _mapped = null; // buffers handed out before closing stay valid
+  }
+
+  private void checkOpen() {
+    if (_mapped == null)
+      throw new IllegalStateException("ReaderBackend was already closed");
+  }
+
+  private static class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer _bb;
+
+    ByteBufferInputStream(ByteBuffer bb) {
+      _bb = bb;
+    }
+
+    @Override
+    public int read() {
+      return _bb.hasRemaining() ? _bb.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0)
+        return 0;
+      if (!_bb.hasRemaining())
+        return -1;
+      int n = Math.min(len, _bb.remaining());
+      _bb.get(b, off, n);
+      return n;
+    }
+
+    @Override
+    public int available() {
+      return _bb.remaining();
+    }
+  }
+
+}
@@ -134,6 +134,24 @@ public abstract class ModelMojoReader<M extends MojoModel> {
     return getMojoReaderBackend().getBinaryFile(name);
   }
 
+  /**
+   * Retrieve binary data previously saved to the mojo file using `writeblob(key, blob)` as a buffer.
+   * If the backend supports it (see {@link #isByteBufferBackend()}) the data are not copied to heap.
+   */
+  protected ByteBuffer readblobBuffer(String name) throws IOException {
+    MojoReaderBackend reader = getMojoReaderBackend();
+    if (reader instanceof ByteBufferMojoReaderBackend)
+      return ((ByteBufferMojoReaderBackend) reader).getBinaryFileBuffer(name);
+    return ByteBuffer.wrap(readblob(name));
+  }
+
+  /**
+   * @return true if binary data can be read by {@link #readblobBuffer(String)} without copying them to heap
+   */
+  protected boolean isByteBufferBackend() {
+    return getMojoReaderBackend() instanceof ByteBufferMojoReaderBackend;
+  }
+
   protected boolean exists(String name) {
     return getMojoReaderBackend().exists(name);
   }
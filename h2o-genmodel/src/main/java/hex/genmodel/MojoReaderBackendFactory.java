@@ -59,6 +59,21 @@ public class MojoReaderBackendFactory {
       throw new IOException("Invalid file specification: " + file);
   }
 
+  /**
+   * Creates a backend that memory-maps the MOJO zip file. Binary files stored without compression are not copied to
+   * heap, models (eg. tree-based models) are then scored directly from the mapped file.
+   * See {@link MappedZipMojoReaderBackend}.
+   *
+   * @param file MOJO zip file
+   * @return instance of MojoReaderBackend
+   * @throws IOException if the file cannot be mapped
+   */
+  public static MojoReaderBackend createMappedReaderBackend(File file) throws IOException {
+    if (!file.isFile())
+      throw new IOException("Invalid file specification: " + file);
+    return new MappedZipMojoReaderBackend(file.getPath());
+  }
+
   public static MojoReaderBackend createReaderBackend(URL url, CachingStrategy cachingStrategy) throws IOException {
     try (InputStream is = url.openStream()) {
       return createReaderBackend(is, cachingStrategy);
@@ -2,6 +2,7 @@ package hex.genmodel;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -17,7 +18,9 @@ public abstract class MultiModelMojoReader<M extends MojoModel> extends ModelMoj
     for (int i = 0; i < subModelCount; i++) {
       String key = readkv("submodel_key_" + i);
       String zipDirectory = readkv("submodel_dir_" + i);
-      MojoModel model = ModelMojoReader.readFrom(new NestedMojoReaderBackend(zipDirectory));
+      MojoReaderBackend nestedReader = _reader instanceof ByteBufferMojoReaderBackend ?
+              new NestedByteBufferMojoReaderBackend(zipDirectory) : new NestedMojoReaderBackend(zipDirectory);
+      MojoModel model = ModelMojoReader.readFrom(nestedReader);
       models.put(key, model);
     }
     _subModels = Collections.unmodifiableMap(models);
@@ -36,7 +39,7 @@ public abstract class MultiModelMojoReader<M extends MojoModel> extends ModelMoj
 
   private class NestedMojoReaderBackend implements MojoReaderBackend {
 
-    private String _zipDirectory;
+    final String _zipDirectory;
 
     private NestedMojoReaderBackend(String zipDirectory) {
       _zipDirectory = zipDirectory;
@@ -58,4 +61,16 @@ public abstract class MultiModelMojoReader<M extends MojoModel> extends ModelMoj
     }
   }
 
+  private class NestedByteBufferMojoReaderBackend extends NestedMojoReaderBackend implements ByteBufferMojoReaderBackend {
+
+    private NestedByteBufferMojoReaderBackend(String zipDirectory) {
+      super(zipDirectory);
+    }
+
+    @Override
+    public ByteBuffer getBinaryFileBuffer(String filename) throws IOException {
+      return ((ByteBufferMojoReaderBackend) _reader).getBinaryFileBuffer(_zipDirectory + filename);
+    }
+  }
+
 }
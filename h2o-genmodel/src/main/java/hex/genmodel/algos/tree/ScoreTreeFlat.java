@@ -0,0 +1,293 @@
+package hex.genmodel.algos.tree;
+
+import hex.genmodel.utils.ByteBufferWrapper;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Tree scorer that works on trees "compiled" into a flat struct-of-arrays layout.
+ *
+ * The compressed trees (see {@link SharedTreeMojoModel#scoreTree(byte[], double[], boolean, String[][])}) are decoded
+ * only once (at model load time) and every split node is represented by its index into a set of primitive arrays
+ * (split column, split value, flags, children). Leaf nodes are encoded as negative child indices (~index into leaf values).
+ * Scoring then only needs to follow the child indices and doesn't need to decode node types, NA directions and
+ * bitsets for every row.
+ *
+ * Predictions are identical to {@link ScoreTree2} - the flat layout follows exactly the same decision logic.
+ * Leaf assignment is not supported by the flat layout, requests for leaf assignment are delegated to {@link ScoreTree2}.
+ */
+public final class ScoreTreeFlat implements ScoreTree {
+
+  private static final int NsdNaVsRest = NaSplitDir.NAvsREST.value();
+  private static final int NsdNaLeft = NaSplitDir.NALeft.value();
+  private static final int NsdLeft = NaSplitDir.Left.value();
+
+  private final FlatTree[] _trees;
+  private final ScoreTree _fallback = new ScoreTree2();
+
+  /**
+   * Compiles given trees into the flat layout.
+   *
+   * @param compressedTrees compressed trees (MOJO version 1.2 and higher), null trees are allowed
+   * @param domains model domains
+   */
+  public ScoreTreeFlat(byte[][] compressedTrees, String[][] domains) {
+    _trees = new FlatTree[compressedTrees.length];
+    for (int i = 0; i < compressedTrees.length; i++) {
+      if (compressedTrees[i] != null)
+        _trees[i] = new FlatTreeCompiler(compressedTrees[i], domains).compile();
+    }
+  }
+
+  @Override
+  public double scoreTree(byte[] tree, double[] row, boolean computeLeafAssignment, String[][] domains) {
+    return _fallback.scoreTree(tree, row, computeLeafAssignment, domains);
+  }
+
+  /**
+   * Score a single row by a single tree.
+   * @param treeIndex index of the tree (as in {@link SharedTreeMojoModel#_compressed_trees})
+   * @param row input row
+   * @return prediction of the tree
+   */
+  public double scoreTree(int treeIndex, double[] row) {
+    return _trees[treeIndex].score(row);
+  }
+
+  /**
+   * Score a block of rows by a single tree and add the predictions to the k-th column of the prediction arrays.
+   * Scoring many rows by the same tree keeps the tree in the cache.
+   *
+   * @param treeIndex index of the tree (as in {@link SharedTreeMojoModel#_compressed_trees})
+   * @param rows input rows
+   * @param nrows number of rows to score (starting from the first row)
+   * @param preds array of (partial) predictions
+   * @param k index of the prediction to update
+   */
+  public void scoreTree(int treeIndex, double[][] rows, int nrows, double[][] preds, int k) {
+    final FlatTree tree = _trees[treeIndex];
+    for (int r = 0; r < nrows; r++) {
+      preds[r][k] += tree.score(rows[r]);
+    }
+  }
+
+  /**
+   * @param treeIndex index of the tree
+   * @return true if the tree exists (is not empty)
+   */
+  public boolean hasTree(int treeIndex) {
+    return _trees[treeIndex] != null;
+  }
+
+  /**
+   * Flat representation of a single tree. Split node `n` is described by the n-th element of the arrays,
+   * root is always node 0 (unless the whole tree is a single leaf).
+   */
+  static final class FlatTree implements Serializable {
+    static final byte NA_RIGHT = 1;     // NA (and out-of-domain levels) go right
+    static final byte NA_VS_REST = 2;   // all non-NA values go left
+    static final byte BITSET = 4;       // categorical split (value in bitset goes right)
+    static final byte DOMAIN_CHECK = 8; // split column has a domain, levels outside of the domain are NAs
+
+    final int[] _cols;
+    final float[] _splits;
+    final byte[] _flags;
+    final int[] _domainLens;
+    final int[] _left;  // >= 0 split node, < 0 leaf (~leafIndex)
+    final int[] _right;
+    final float[] _leaves;
+    // bitsets of categorical splits: all bits are stored in `_bits`, the per-node arrays point into it
+    final int[] _bsByteOffs;
+    final int[] _bsBitOffs;
+    final int[] _bsNBits;
+    final byte[] _bits;
+
+    FlatTree(int[] cols, float[] splits, byte[] flags, int[] domainLens, int[] left, int[] right, float[] leaves,
+             int[] bsByteOffs, int[] bsBitOffs, int[] bsNBits, byte[] bits) {
+      _cols = cols;
+      _splits = splits;
+      _flags = flags;
+      _domainLens = domainLens;
+      _left = left;
+      _right = right;
+      _leaves = leaves;
+      _bsByteOffs = bsByteOffs;
+      _bsBitOffs = bsBitOffs;
+      _bsNBits = bsNBits;
+      _bits = bits;
+    }
+
+    double score(double[] row) {
+      if (_cols.length == 0) // single-leaf tree
+        return _leaves[0];
+      int n = 0;
+      do {
+        final double d = row[_cols[n]];
+        final int flags = _flags[n];
+        final boolean right;
+        if (flags == 0 || flags == NA_RIGHT) { // numeric split without a domain, NaN >= x is always false
+          right = d >= _splits[n] || (flags == NA_RIGHT && Double.isNaN(d));
+        } else {
+          right = isNA(n, flags, d) ? (flags & NA_RIGHT) != 0 :
+                  (flags & NA_VS_REST) == 0 && ((flags & BITSET) == 0 ? d >= _splits[n] : contains(n, (int) d));
+        }
+        n = right ? _right[n] : _left[n];
+      } while (n >= 0);
+      return _leaves[~n];
+    }
+
+    private boolean isNA(int n, int flags, double d) {
+      return Double.isNaN(d) ||
+              ((flags & BITSET) != 0 && !inRange(n, (int) d)) ||
+              ((flags & DOMAIN_CHECK) != 0 && _domainLens[n] <= (int) d);
+    }
+
+    private boolean inRange(int n, int level) {
+      int b = level - _bsBitOffs[n];
+      return b >= 0 && b < _bsNBits[n];
+    }
+
+    private boolean contains(int n, int level) {
+      int idx = level - _bsBitOffs[n];
+      return (_bits[_bsByteOffs[n] + (idx >> 3)] & ((byte) 1 << (idx & 7))) != 0;
+    }
+  }
+
+  /**
+   * Decodes a compressed tree (as written by `hex.tree.DTree.DecidedNode#compress`) into the flat layout.
+   */
+  private static final class FlatTreeCompiler {
+    private final byte[] _tree;
+    private final String[][] _domains;
+    private final ByteBufferWrapper _ab;
+
+    private int _nnodes;
+    private int[] _cols = new int[16];
+    private float[] _splits = new float[16];
+    private byte[] _flags = new byte[16];
+    private int[] _domainLens = new int[16];
+    private int[] _left = new int[16];
+    private int[] _right = new int[16];
+    private int[] _bsByteOffs = new int[16];
+    private int[] _bsBitOffs = new int[16];
+    private int[] _bsNBits = new int[16];
+    private int _nleaves;
+    private float[] _leaves = new float[16];
+    private int _nbits;
+    private byte[] _bits = new byte[16];
+
+    FlatTreeCompiler(byte[] tree, String[][] domains) {
+      _tree = tree;
+      _domains = domains;
+      _ab = new ByteBufferWrapper(tree);
+    }
+
+    FlatTree compile() {
+      int nodeType = _ab.get1U();
+      int colId = _ab.get2();
+      if (colId == 65535) { // the whole tree is just a single leaf
+        addLeaf(_ab.get4f());
+      } else {
+        readNode(nodeType, colId);
+      }
+      return new FlatTree(Arrays.copyOf(_cols, _nnodes), Arrays.copyOf(_splits, _nnodes), Arrays.copyOf(_flags, _nnodes),
+              Arrays.copyOf(_domainLens, _nnodes), Arrays.copyOf(_left, _nnodes), Arrays.copyOf(_right, _nnodes),
+              Arrays.copyOf(_leaves, _nleaves), Arrays.copyOf(_bsByteOffs, _nnodes), Arrays.copyOf(_bsBitOffs, _nnodes),
+              Arrays.copyOf(_bsNBits, _nnodes), Arrays.copyOf(_bits, _nbits));
+    }
+
+    // returns index of the node
+    private int readNode(int nodeType, int colId) {
+      final int n = addNode();
+      final int naSplitDir = _ab.get1U();
+      final boolean naVsRest = naSplitDir == NsdNaVsRest;
+      final boolean leftward = naSplitDir == NsdNaLeft || naSplitDir == NsdLeft;
+      final int equal = (nodeType & 12);
+      assert equal != 4; // no longer supported
+      byte flags = 0;
+      if (!leftward)
+        flags |= FlatTree.NA_RIGHT;
+      if (naVsRest)
+        flags |= FlatTree.NA_VS_REST;
+      if (_domains != null && _domains[colId] != null) {
+        flags |= FlatTree.DOMAIN_CHECK;
+        _domainLens[n] = _domains[colId].length;
+      }
+      if (!naVsRest) {
+        if (equal == 0) {
+          _splits[n] = _ab.get4f();
+        } else {
+          flags |= FlatTree.BITSET;
+          int bitoff = 0;
+          int nbits = 32;
+          if (equal != 8) {
+            bitoff = _ab.get2();
+            nbits = _ab.get4();
+          }
+          int nbytes = ((nbits - 1) >> 3) + 1;
+          _bsBitOffs[n] = bitoff;
+          _bsNBits[n] = nbits;
+          _bsByteOffs[n] = addBits(_ab.position(), nbytes);
+          _ab.skip(nbytes);
+        }
+      }
+      _cols[n] = colId;
+      _flags[n] = flags;
+
+      // children have to be read into locals first - reading a subtree can re-allocate the node arrays
+      final int lmask = nodeType & 51;
+      final int left;
+      if (lmask <= 3) {
+        _ab.skip(lmask + 1); // size of the left subtree is not needed
+        left = readChild();
+      } else {
+        left = ~addLeaf(_ab.get4f());
+      }
+      final int rmask = (nodeType & 0xC0) >> 2;
+      final int right = (rmask & 16) != 0 ? ~addLeaf(_ab.get4f()) : readChild();
+      _left[n] = left;
+      _right[n] = right;
+      return n;
+    }
+
+    private int readChild() {
+      int nodeType = _ab.get1U();
+      int colId = _ab.get2();
+      return readNode(nodeType, colId);
+    }
+
+    private int addNode() {
+      if (_nnodes == _cols.length) {
+        int len = _nnodes * 2;
+        _cols = Arrays.copyOf(_cols, len);
+        _splits = Arrays.copyOf(_splits, len);
+        _flags = Arrays.copyOf(_flags, len);
+        _domainLens = Arrays.copyOf(_domainLens, len);
+        _left = Arrays.copyOf(_left, len);
+        _right = Arrays.copyOf(_right, len);
+        _bsByteOffs = Arrays.copyOf(_bsByteOffs, len);
+        _bsBitOffs = Arrays.copyOf(_bsBitOffs, len);
+        _bsNBits = Arrays.copyOf(_bsNBits, len);
+      }
+      return _nnodes++;
+    }
+
+    private int addLeaf(float value) {
+      if (_nleaves == _leaves.length)
+        _leaves = Arrays.copyOf(_leaves, _nleaves * 2);
+      _leaves[_nleaves] = value;
+      return _nleaves++;
+    }
+
+    private int addBits(int pos, int nbytes) {
+      if (_nbits + nbytes > _bits.length)
+        _bits = Arrays.copyOf(_bits, Math.max(_bits.length * 2, _nbits + nbytes));
+      System.arraycopy(_tree, pos, _bits, _nbits, nbytes);
+      int offset = _nbits;
+      _nbits += nbytes;
+      return offset;
+    }
+  }
+
+}
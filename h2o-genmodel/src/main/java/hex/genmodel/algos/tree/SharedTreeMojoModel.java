@@ -26,6 +26,16 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
     private static final int NsdLeft = NaSplitDir.Left.value();
 
     private ScoreTree _scoreTree;
+
+    /**
+     * Trees compiled into a flat layout, null if flat scoring is not enabled (see {@link #setUseFlatTrees(boolean)}).
+     */
+    private ScoreTreeFlat _scoreTreeFlat;
+
+    /**
+     * System property that enables flat tree layout for all tree-based MOJOs at load time.
+     */
+    public static final String FLAT_TREES_PROPERTY = "sys.ai.h2o.mojo.flatTrees";
     
     private static Logger logger = LoggerFactory.getLogger(SharedTreeMojoModel.class);
 
@@ -55,6 +65,18 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
      */
     protected byte[][] _compressed_trees_aux;
 
+    /**
+     * Trees of a memory-mapped MOJO, each tree is a read-only slice of the mapped file (laid out the same way
+     * as {@link #_compressed_trees}). Null unless the model was loaded using {@link hex.genmodel.MappedZipMojoReaderBackend},
+     * in which case the trees are not copied to heap and {@link #_compressed_trees} is null.
+     */
+    protected ByteBuffer[] _mapped_trees;
+
+    /**
+     * Auxiliary tree data of a memory-mapped MOJO, see {@link #_mapped_trees}.
+     */
+    protected ByteBuffer[] _mapped_trees_aux;
+
     /**
      * GLM's beta used for calibrating output probabilities using Platt Scaling.
      */
@@ -81,6 +103,37 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
         _scoreTree = new ScoreTree1(); // Second version
       } else
         _scoreTree = new ScoreTree2(); // Current version
+      if (Boolean.getBoolean(FLAT_TREES_PROPERTY) && supportsFlatTrees()) {
+        setUseFlatTrees(true);
+      }
+    }
+
+    private boolean supportsFlatTrees() {
+      return _mojo_version >= 1.2;
+    }
+
+    /**
+     * Enables/disables scoring on trees compiled into a flat (struct-of-arrays) layout. Compiling the trees requires
+     * a one-time decoding of all the trees and extra memory, in return scoring doesn't need to decode the trees
+     * for every row. Predictions are identical to the default scoring.
+     *
+     * Flat layout can also be enabled for all tree models at load time by setting system property
+     * {@value #FLAT_TREES_PROPERTY} to true.
+     *
+     * @param value true to enable flat layout
+     */
+    public void setUseFlatTrees(boolean value) {
+      if (!value) {
+        _scoreTreeFlat = null;
+      } else if (_scoreTreeFlat == null) {
+        if (!supportsFlatTrees())
+          throw new UnsupportedOperationException("Flat tree layout is not supported for MOJO version " + _mojo_version);
+        _scoreTreeFlat = new ScoreTreeFlat(getCompressedTrees(), _domains);
+      }
+    }
+
+    public boolean isUseFlatTrees() {
+      return _scoreTreeFlat != null;
     }
 
     @Override
@@ -132,7 +185,19 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
    */
   @SuppressWarnings("ConstantConditions")  // Complains that the code is too complex. Well duh!
     public static double scoreTree(byte[] tree, double[] row, boolean computeLeafAssignment, String[][] domains) {
-        ByteBufferWrapper ab = new ByteBufferWrapper(tree);
+        return scoreTree(new ByteBufferWrapper(tree), row, computeLeafAssignment, domains);
+    }
+
+  /**
+   * Same as {@link #scoreTree(byte[], double[], boolean, String[][])} for a tree stored in a {@link ByteBuffer}
+   * (eg. a slice of a memory-mapped MOJO). The buffer is not modified.
+   */
+    public static double scoreTree(ByteBuffer tree, double[] row, boolean computeLeafAssignment, String[][] domains) {
+        return scoreTree(new ByteBufferWrapper(tree), row, computeLeafAssignment, domains);
+    }
+
+  @SuppressWarnings("ConstantConditions")
+    private static double scoreTree(ByteBufferWrapper ab, double[] row, boolean computeLeafAssignment, String[][] domains) {
         GenmodelBitSet bs = null;
         long bitsRight = 0;
         int level = 0;
@@ -166,9 +231,9 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
                     // Bitset test
                     if (bs == null) bs = new GenmodelBitSet(0);
                     if (equal == 8)
-                        bs.fill2(tree, ab);
+                        bs.fill2(ab);
                     else
-                        bs.fill3(tree, ab);
+                        bs.fill3(ab);
                 }
             }
 
@@ -223,7 +288,7 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
                     case 3:  ab.skip(ab.get4());  break;
                     case 48: ab.skip(4);  break;  // skip the prediction
                     default:
-                        assert false : "illegal lmask value " + lmask + " in tree " + Arrays.toString(tree);
+                        assert false : "illegal lmask value " + lmask + " at position " + ab.position();
                 }
                 if (computeLeafAssignment) {
                     if (level >= __INTERNAL_MAX_TREE_DEPTH)
@@ -460,7 +525,7 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
                     ab2.skip(4);
                     break;  // skip the prediction
                 default:
-                    assert false : "illegal lmask value " + lmask + " in tree " + Arrays.toString(tree);
+                    assert false : "illegal lmask value " + lmask + " at position " + ab.position();
             }
             int lmask2 = (nodeType & 0xC0) >> 2;  // Replace leftmask with the rightmask
 
@@ -539,7 +604,7 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
                 String[] domainValues = isSupervised() ? getDomainValues(getResponseIdx()) : null;
                 String treeName = treeName(j, i, domainValues);
                 SharedTreeSubgraph sg = g.makeSubgraph(treeName);
-                computeTreeGraph(sg, _compressed_trees[itree], _compressed_trees_aux[itree],
+                computeTreeGraph(sg, getCompressedTree(itree), getCompressedTreeAux(itree),
                         getNames(), getDomainValues(), options);
             }
 
@@ -875,12 +940,57 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
      */
     public final void scoreTreeRange(double[] row, int fromIndex, int toIndex, double[] preds) {
         final int clOffset = _nclasses == 1 ? 0 : 1;
+        final ScoreTreeFlat scoreTreeFlat = _scoreTreeFlat;
         for (int classIndex = 0; classIndex < _ntrees_per_group; classIndex++) {
             int k = clOffset + classIndex;
             int itree = treeIndex(fromIndex, classIndex);
             for (int groupIndex = fromIndex; groupIndex < toIndex; groupIndex++) {
-                if (_compressed_trees[itree] != null) { // Skip all empty trees
-                  preds[k] += _scoreTree.scoreTree(_compressed_trees[itree], row, false, _domains);
+                if (hasTree(itree)) { // Skip all empty trees
+                  if (scoreTreeFlat != null)
+                    preds[k] += scoreTreeFlat.scoreTree(itree, row);
+                  else if (_mapped_trees != null)
+                    preds[k] += scoreTree(_mapped_trees[itree], row, false, _domains);
+                  else
+                    preds[k] += _scoreTree.scoreTree(_compressed_trees[itree], row, false, _domains);
+                }
+                itree++;
+            }
+        }
+    }
+
+    /**
+     * Generates (partial, per-class) predictions for a block of rows using only trees from a given range.
+     * The block is scored tree-by-tree (each tree scores all the rows before moving on to the next tree), this keeps
+     * the tree in cache. Predictions are identical to calling {@link #scoreTreeRange(double[], int, int, double[])}
+     * for each row.
+     *
+     * @param rows input rows
+     * @param nrows number of rows in the block
+     * @param fromIndex low endpoint (inclusive) of the tree range
+     * @param toIndex high endpoint (exclusive) of the tree range
+     * @param preds arrays of partial predictions (one per row).
+     *              To get final predictions pass the result of each row to {@link SharedTreeMojoModel#unifyPreds}.
+     */
+    public final void scoreTreeRange(double[][] rows, int nrows, int fromIndex, int toIndex, double[][] preds) {
+        final int clOffset = _nclasses == 1 ? 0 : 1;
+        final ScoreTreeFlat scoreTreeFlat = _scoreTreeFlat;
+        for (int classIndex = 0; classIndex < _ntrees_per_group; classIndex++) {
+            int k = clOffset + classIndex;
+            int itree = treeIndex(fromIndex, classIndex);
+            for (int groupIndex = fromIndex; groupIndex < toIndex; groupIndex++) {
+                if (hasTree(itree)) { // Skip all empty trees
+                    if (scoreTreeFlat != null) {
+                        scoreTreeFlat.scoreTree(itree, rows, nrows, preds, k);
+                    } else if (_mapped_trees != null) {
+                        final ByteBuffer tree = _mapped_trees[itree];
+                        for (int r = 0; r < nrows; r++) {
+                            preds[r][k] += scoreTree(tree, rows[r], false, _domains);
+                        }
+                    } else {
+                        for (int r = 0; r < nrows; r++) {
+                            preds[r][k] += _scoreTree.scoreTree(_compressed_trees[itree], rows[r], false, _domains);
+                        }
+                    }
                 }
                 itree++;
             }
@@ -893,14 +1003,14 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
       int classTrees = 0;
       for (int i = 0; i < _ntrees_per_group; ++i) {
         int itree = treeIndex(0, i);
-        if (_compressed_trees[itree] != null) classTrees++;
+        if (hasTree(itree)) classTrees++;
       }
       final int outputcols = _ntree_groups * classTrees;
       final String[] names = new String[outputcols];
       for (int c = 0; c < _ntrees_per_group; c++) {
         for (int tidx = 0; tidx < _ntree_groups; tidx++) {
           int itree = treeIndex(tidx, c);
-          if (_compressed_trees[itree] != null) {
+          if (hasTree(itree)) {
             names[itree] = "T" + (tidx + 1) + ".C" + (c + 1);
           }
         }
@@ -915,16 +1025,16 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
 
     public LeafNodeAssignments getLeafNodeAssignments(final double[] row) {
       LeafNodeAssignments assignments = new LeafNodeAssignments();
-      assignments._paths = new String[_compressed_trees.length];
-      if (_mojo_version >= 1.3 && _compressed_trees_aux != null) { // enable only for compatible MOJOs
-        assignments._nodeIds = new int[_compressed_trees_aux.length];
+      assignments._paths = new String[ntrees()];
+      if (_mojo_version >= 1.3 && (_compressed_trees_aux != null || _mapped_trees_aux != null)) { // enable only for compatible MOJOs
+        assignments._nodeIds = new int[ntrees()];
       }
       traceDecisions(row, assignments._paths, assignments._nodeIds);
       return assignments;
     }
 
     public String[] getDecisionPath(final double[] row) {
-      String[] paths = new String[_compressed_trees.length];
+      String[] paths = new String[ntrees()];
       traceDecisions(row, paths, null);
       return paths;
     }
@@ -936,12 +1046,14 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
       for (int j = 0; j < _ntree_groups; j++) {
         for (int i = 0; i < _ntrees_per_group; i++) {
           int itree = treeIndex(j, i);
-          double d = scoreTree(_compressed_trees[itree], row, true, _domains);
+          double d = _mapped_trees != null ?
+                  scoreTree(_mapped_trees[itree], row, true, _domains) :
+                  scoreTree(_compressed_trees[itree], row, true, _domains);
           if (paths != null)
             paths[itree] = SharedTreeMojoModel.getDecisionPath(d);
           if (nodeIds != null) {
             assert _mojo_version >= 1.3;
-            nodeIds[itree] = SharedTreeMojoModel.getLeafNodeId(d, _compressed_trees_aux[itree]);
+            nodeIds[itree] = SharedTreeMojoModel.getLeafNodeId(d, getCompressedTreeAux(itree));
           }
         }
       }
@@ -958,7 +1070,42 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
     }
 
     public final byte[] treeBytes(int groupIndex, int classIndex) {
-        return _compressed_trees[treeIndex(groupIndex, classIndex)];
+        return getCompressedTree(treeIndex(groupIndex, classIndex));
+    }
+
+    private int ntrees() {
+        return _ntree_groups * _ntrees_per_group;
+    }
+
+    private boolean hasTree(int itree) {
+        return _mapped_trees != null ? _mapped_trees[itree] != null : _compressed_trees[itree] != null;
+    }
+
+    // trees of a memory-mapped MOJO are copied to heap, this is only meant for the non-critical paths
+    private byte[] getCompressedTree(int itree) {
+        return _mapped_trees != null ? toByteArray(_mapped_trees[itree]) : _compressed_trees[itree];
+    }
+
+    private byte[] getCompressedTreeAux(int itree) {
+        return _mapped_trees_aux != null ? toByteArray(_mapped_trees_aux[itree]) : _compressed_trees_aux[itree];
+    }
+
+    private byte[][] getCompressedTrees() {
+        if (_mapped_trees == null)
+            return _compressed_trees;
+        byte[][] trees = new byte[_mapped_trees.length][];
+        for (int i = 0; i < trees.length; i++) {
+            trees[i] = toByteArray(_mapped_trees[i]);
+        }
+        return trees;
+    }
+
+    private static byte[] toByteArray(ByteBuffer bb) {
+        if (bb == null)
+            return null;
+        byte[] bytes = new byte[bb.remaining()];
+        bb.duplicate().get(bytes);
+        return bytes;
     }
 
   // DO NOT CHANGE THE CODE BELOW THIS LINE
@@ -1019,7 +1166,7 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
           case 3:  ab.skip(ab.get4());  break;
           case 48: ab.skip(4);  break;  // skip the prediction
           default:
-            assert false : "illegal lmask value " + lmask + " in tree " + Arrays.toString(tree);
+            assert false : "illegal lmask value " + lmask + " at position " + ab.position();
         }
         if (computeLeafAssignment && level < 64) bitsRight |= 1 << level;
         lmask = (nodeType & 0xC0) >> 2;  // Replace leftmask with the rightmask
@@ -1092,7 +1239,7 @@ public abstract class SharedTreeMojoModel extends MojoModel implements TreeBacke
           case 3:  ab.skip(ab.get4());  break;
           case 48: ab.skip(4);  break;  // skip the prediction
           default:
-            assert false : "illegal lmask value " + lmask + " in tree " + Arrays.toString(tree);
+            assert false : "illegal lmask value " + lmask + " at position " + ab.position();
         }
         if (computeLeafAssignment && level < 64) bitsRight |= 1L << level;
         lmask = (nodeType & 0xC0) >> 2;  // Replace leftmask with the rightmask
@@ -5,6 +5,7 @@ import hex.genmodel.ModelMojoReader;
 import hex.genmodel.attributes.*;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public abstract class SharedTreeMojoReader<M extends SharedTreeMojoModel> extends ModelMojoReader<M> {
 
@@ -20,8 +21,13 @@ public abstract class SharedTreeMojoReader<M extends SharedTreeMojoModel> extend
 
     _model._ntree_groups = readkv("n_trees");
     _model._ntrees_per_group = tpc;
-    _model._compressed_trees = new byte[_model._ntree_groups * tpc][];
     _model._mojo_version = ((Number) readkv("mojo_version")).doubleValue();
+    // trees of a memory-mapped MOJO are scored directly from the mapped file (only supported by the current scoring)
+    final boolean mapped = _model._mojo_version >= 1.2 && isByteBufferBackend();
+    if (mapped)
+      _model._mapped_trees = new ByteBuffer[_model._ntree_groups * tpc];
+    else
+      _model._compressed_trees = new byte[_model._ntree_groups * tpc][];
     if (_model._mojo_version < 1.40) {
         _model._genmodel_encoding = "AUTO";
     } else {
@@ -44,13 +50,22 @@ public abstract class SharedTreeMojoReader<M extends SharedTreeMojoModel> extend
     }
 
     if (_model._mojo_version > 1.0) { // In mojos v=1.0 this info wasn't saved
-      _model._compressed_trees_aux = new byte[_model._ntree_groups * tpc][];
+      if (mapped)
+        _model._mapped_trees_aux = new ByteBuffer[_model._ntree_groups * tpc];
+      else
+        _model._compressed_trees_aux = new byte[_model._ntree_groups * tpc][];
     }
 
     for (int j = 0; j < _model._ntree_groups; j++)
       for (int i = 0; i < tpc; i++) {
         String blobName = String.format("trees/t%02d_%03d.bin", i, j);
         if (!exists(blobName)) continue;
+        if (mapped) {
+          _model._mapped_trees[_model.treeIndex(j, i)] = readblobBuffer(blobName);
+          if (_model._mapped_trees_aux != null)
+            _model._mapped_trees_aux[_model.treeIndex(j, i)] = readblobBuffer(String.format("trees/t%02d_%03d_aux.bin", i, j));
+          continue;
+        }
         _model._compressed_trees[_model.treeIndex(j, i)] = readblob(blobName);
         if (_model._compressed_trees_aux!=null) {
           _model._compressed_trees_aux[_model.treeIndex(j, i)] = readblob(String.format("trees/t%02d_%03d_aux.bin", i, j));
@@ -0,0 +1,174 @@
+package hex.genmodel.easy;
+
+import hex.genmodel.GenModel;
+import hex.genmodel.easy.exception.PredictException;
+import hex.genmodel.easy.exception.PredictUnknownCategoricalLevelException;
+import hex.genmodel.easy.exception.PredictUnknownTypeException;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Input schema of a columnar batch bound to a specific model. All column-name resolution and all categorical
+ * domain mapping is done once when the schema is created (see {@link EasyPredictModelWrapper#bindColumns(String[], String[][])}),
+ * filling a raw row for {@link GenModel#score0(double[], double[])} is then only a matter of array copies.
+ *
+ * Each categorical input level is pre-encoded by the model's own {@link CategoricalEncoder} into a small template
+ * covering the span of the raw row the encoder writes to. This makes the schema independent of the categorical
+ * encoding used by the model (AUTO, OneHotExplicit, Binary, Eigen,...).
+ */
+public class BoundColumnSchema implements Serializable {
+
+  private final String[] _names;
+  private final int _nfeatures;
+  // index in the raw row for numeric columns, -1 for categorical columns and columns unknown to the model
+  private final int[] _numTargets;
+  // first index in the raw row of the span written by the categorical encoder, -1 for non-categorical columns
+  private final int[] _catOffsets;
+  // width of the span written by the categorical encoder
+  private final int[] _catWidths;
+  // pre-encoded levels: template of level `l` starts at `l * width`, NA template is stored after the last level
+  private final double[][] _catTemplates;
+  // code of the NA template (= cardinality of the input domain)
+  private final int[] _catNACodes;
+
+  BoundColumnSchema(GenModel m, String[] names, String[][] domains,
+                    Map<String, Integer> modelColumnNameToIndexMap,
+                    Map<Integer, CategoricalEncoder> domainMap,
+                    EasyPredictModelWrapper.ErrorConsumer errorConsumer,
+                    boolean convertUnknownCategoricalLevelsToNa) throws PredictException {
+    if (domains != null && domains.length != names.length)
+      throw new IllegalArgumentException("Expected " + names.length + " domains, got " + domains.length + ".");
+    _names = names.clone();
+    _nfeatures = m.nfeatures();
+    _numTargets = new int[names.length];
+    _catOffsets = new int[names.length];
+    _catWidths = new int[names.length];
+    _catTemplates = new double[names.length][];
+    _catNACodes = new int[names.length];
+    Arrays.fill(_numTargets, -1);
+    Arrays.fill(_catOffsets, -1);
+    for (int i = 0; i < names.length; i++) {
+      Integer index = modelColumnNameToIndexMap.get(names[i]);
+      // Skip column names that are not known and the response column (same as RowToRawDataConverter)
+      if (index == null || index >= _nfeatures)
+        continue;
+      CategoricalEncoder catEncoder = domainMap.get(index);
+      String[] domain = domains != null ? domains[i] : null;
+      if (catEncoder == null) {
+        if (domain != null)
+          throw new PredictUnknownTypeException("Column " + names[i] + " is numeric in the model but a categorical domain was provided.");
+        _numTargets[i] = index;
+      } else {
+        if (domain == null)
+          throw new PredictUnknownTypeException("Column " + names[i] + " is categorical in the model but no domain was provided.");
+        bindCategorical(i, names[i], domain, catEncoder, errorConsumer, convertUnknownCategoricalLevelsToNa);
+      }
+    }
+  }
+
+  private void bindCategorical(int col, String columnName, String[] domain, CategoricalEncoder catEncoder,
+                               EasyPredictModelWrapper.ErrorConsumer errorConsumer,
+                               boolean convertUnknownCategoricalLevelsToNa) throws PredictException {
+    // 1. find out which part of the raw row the encoder writes to
+    double[] hi = new double[_nfeatures];
+    double[] lo = new double[_nfeatures];
+    boolean[] known = new boolean[domain.length];
+    int first = Integer.MAX_VALUE;
+    int last = -1;
+    for (int l = 0; l <= domain.length; l++) {
+      Arrays.fill(hi, Double.POSITIVE_INFINITY);
+      Arrays.fill(lo, Double.NEGATIVE_INFINITY);
+      if (l == domain.length) {
+        catEncoder.encodeNA(hi);
+        catEncoder.encodeNA(lo);
+      } else {
+        known[l] = catEncoder.encodeCatValue(domain[l], hi);
+        catEncoder.encodeCatValue(domain[l], lo);
+      }
+      for (int j = 0; j < _nfeatures; j++) {
+        if (hi[j] != Double.POSITIVE_INFINITY || lo[j] != Double.NEGATIVE_INFINITY) {
+          first = Math.min(first, j);
+          last = Math.max(last, j);
+        }
+      }
+    }
+    if (last < 0) // encoder doesn't produce any input for the model
+      return;
+    _catOffsets[col] = first;
+    _catWidths[col] = last - first + 1;
+    // 2. pre-encode all levels (and NA) into templates, unknown levels are either NAs or rejected
+    final int offset = _catOffsets[col];
+    final int width = _catWidths[col];
+    double[] template = new double[(domain.length + 1) * width];
+    double[] row = hi;
+    Arrays.fill(row, Double.NaN);
+    catEncoder.encodeNA(row);
+    double[] naTemplate = Arrays.copyOfRange(row, offset, offset + width);
+    for (int l = 0; l < domain.length; l++) {
+      if (known[l]) {
+        Arrays.fill(row, Double.NaN);
+        catEncoder.encodeCatValue(domain[l], row);
+        System.arraycopy(row, offset, template, l * width, width);
+      } else if (convertUnknownCategoricalLevelsToNa) {
+        errorConsumer.unseenCategorical(columnName, domain[l], "Previously unseen categorical level detected, marking as NaN.");
+        System.arraycopy(naTemplate, 0, template, l * width, width);
+      } else {
+        errorConsumer.dataTransformError(columnName, domain[l], "Unknown categorical level detected.");
+        throw new PredictUnknownCategoricalLevelException("Unknown categorical level (" + columnName + "," + domain[l] + ")", columnName, domain[l]);
+      }
+    }
+    System.arraycopy(naTemplate, 0, template, domain.length * width, width);
+    _catTemplates[col] = template;
+    _catNACodes[col] = domain.length;
+  }
+
+  /**
+   * Fills a raw row from the input columns.
+   *
+   * @param numeric values of numeric columns, indexed by the position of the column in the schema
+   *                (entries of categorical columns are not used and can be null)
+   * @param codes categorical codes (indices into the domain provided at bind time, negative value means NA), indexed
+   *              by the position of the column in the schema (entries of numeric columns are not used and can be null)
+   * @param row index of the row to fill
+   * @param rawData raw row to be filled, columns not present in the schema will be set to NaN
+   * @return `rawData` array filled with data of row `row`
+   */
+  public double[] fillRawData(double[][] numeric, int[][] codes, int row, double[] rawData) {
+    Arrays.fill(rawData, Double.NaN);
+    for (int i = 0; i < _names.length; i++) {
+      if (_numTargets[i] >= 0) {
+        rawData[_numTargets[i]] = numeric[i][row];
+      } else if (_catTemplates[i] != null) {
+        final int width = _catWidths[i];
+        final int code = codes[i][row];
+        System.arraycopy(_catTemplates[i], (code < 0 ? _catNACodes[i] : code) * width, rawData, _catOffsets[i], width);
+      }
+    }
+    return rawData;
+  }
+
+  /**
+   * @return names of the bound input columns
+   */
+  public String[] getNames() {
+    return _names.clone();
+  }
+
+  /**
+   * @return number of input columns of this schema
+   */
+  public int getNumCols() {
+    return _names.length;
+  }
+
+  /**
+   * @param i index of the input column
+   * @return true if the column is used by the model
+   */
+  public boolean isUsed(int i) {
+    return _numTargets[i] >= 0 || _catTemplates[i] != null;
+  }
+
+}
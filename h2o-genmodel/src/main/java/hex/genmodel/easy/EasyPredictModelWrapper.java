@@ -66,6 +66,9 @@ public class EasyPredictModelWrapper implements Serializable {
   // These private members are read-only after the constructor.
   public final GenModel m;
   private final RowToRawDataConverter rowDataConverter;
+  private final Map<String, Integer> columnMapping;
+  private final Map<Integer, CategoricalEncoder> domainMap;
+  private final boolean convertUnknownCategoricalLevelsToNa;
 
   private final boolean useExtendedOutput;
   private final boolean enableLeafAssignment;
@@ -323,8 +326,9 @@ public class EasyPredictModelWrapper implements Serializable {
 
     CategoricalEncoding categoricalEncoding = config.getUseExternalEncoding() ?
             CategoricalEncoding.AUTO : m.getCategoricalEncoding();
-    Map<String, Integer> columnMapping = categoricalEncoding.createColumnMapping(m);
-    Map<Integer, CategoricalEncoder> domainMap = categoricalEncoding.createCategoricalEncoders(m, columnMapping);
+    columnMapping = categoricalEncoding.createColumnMapping(m);
+    domainMap = categoricalEncoding.createCategoricalEncoders(m, columnMapping);
+    convertUnknownCategoricalLevelsToNa = config.getConvertUnknownCategoricalLevelsToNa();
 
     if (m instanceof ConverterFactoryProvidingModel) {
       rowDataConverter = ((ConverterFactoryProvidingModel) m).makeConverterFactory(columnMapping, domainMap, errorConsumer, config);
@@ -424,6 +428,65 @@ public class EasyPredictModelWrapper implements Serializable {
     return rowDataConverter.getErrorConsumer();
   }
 
+  /**
+   * Binds a columnar input schema to the model. Column names are resolved and categorical domains of the input
+   * are mapped to the model's domains only once here. The returned schema can be re-used for any number of calls
+   * of {@link #predictRaw(BoundColumnSchema, double[][], int[][], int, double[], double[])}.
+   *
+   * Unknown or missing column names are treated as NaN or ignored. Column names are case sensitive.
+   * Unknown categorical levels are either mapped to NA or rejected (depending on the configuration of the wrapper),
+   * errors are reported to the {@link ErrorConsumer} at bind time.
+   *
+   * @param names names of the input columns
+   * @param domains domains of the input columns, null for numeric columns; the whole array can be null if all
+   *                input columns are numeric
+   * @return bound schema
+   * @throws PredictException if the input columns don't match the model (eg.: numeric input for a categorical column)
+   */
+  public BoundColumnSchema bindColumns(String[] names, String[][] domains) throws PredictException {
+    if (m instanceof ConverterFactoryProvidingModel)
+      throw new PredictException("Model " + m.getClass().getSimpleName() + " uses a custom input conversion " +
+              "and doesn't support columnar scoring.");
+    return new BoundColumnSchema(m, names, domains, columnMapping, domainMap,
+            rowDataConverter.getErrorConsumer(), convertUnknownCategoricalLevelsToNa);
+  }
+
+  /**
+   * Make predictions for a batch of rows given in columnar form.
+   *
+   * This is a columnar equivalent of {@link #predictRaw(RowData, double)}. No objects are allocated per row, the
+   * predictions are written into a caller-supplied array, prediction of row `i` starts at position
+   * `i * m.getPredsSize()`. The meaning of the values can be decoded by calling getOutputNames, eg. for a binomial
+   * model: label index followed by the class probabilities.
+   *
+   * @param schema input schema created by {@link #bindColumns(String[], String[][])}
+   * @param numeric values of the numeric columns indexed by the position of the column in the schema
+   *                (entries corresponding to categorical columns can be null)
+   * @param codes categorical codes (indices into the domain given at bind time, negative value represents NA)
+   *              indexed by the position of the column in the schema (entries corresponding to numeric columns can be null)
+   * @param nrows number of rows to score
+   * @param offsets values of offset for each row, null is equivalent to using offset 0 for all rows
+   * @param preds output array of size at least `nrows * m.getPredsSize()`
+   * @throws PredictException if prediction cannot be made
+   */
+  public void predictRaw(BoundColumnSchema schema, double[][] numeric, int[][] codes, int nrows,
+                         double[] offsets, double[] preds) throws PredictException {
+    validateModelCategory(m.getModelCategory());
+    final int predsSize = m.getPredsSize(m.getModelCategory());
+    final long minPredsLength = (long) nrows * predsSize;
+    if (preds.length < minPredsLength)
+      throw new IllegalArgumentException("Output array is too small, expected at least " + minPredsLength +
+              " elements, got " + preds.length + ".");
+    final double[] rawData = new double[m.nfeatures()];
+    final double[] rowPreds = new double[predsSize];
+    for (int row = 0; row < nrows; row++) {
+      schema.fillRawData(numeric, codes, row, rawData);
+      final double offset = offsets != null ? offsets[row] : 0;
+      double[] p = m.requiresOffset() || offset != 0 ? m.score0(rawData, offset, rowPreds) : m.score0(rawData, rowPreds);
+      System.arraycopy(p, 0, preds, row * predsSize, predsSize);
+    }
+  }
+
   /**
    * Returns names of contributions for prediction results with constributions enabled. 
    * @return array of contribution names (array has same lenght as the actual contributions, last is BiasTerm)
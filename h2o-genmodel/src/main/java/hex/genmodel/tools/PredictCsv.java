@@ -11,15 +11,11 @@ import hex.genmodel.easy.RowData;
 import hex.genmodel.easy.prediction.*;
 import hex.genmodel.utils.ArrayUtils;
 
-import java.io.BufferedWriter;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
+import java.io.*;
 import java.util.*;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Simple driver program for reading a CSV file and making predictions.  Added support for separators that are
@@ -42,6 +38,8 @@ public class PredictCsv {
   private final boolean returnGLRMReconstruct;
   private final int glrmIterNumber;
   private final boolean outputHeader;
+  private final int numThreads;
+  private final int blockSize;
 
   // Model instance
   private EasyPredictModelWrapper modelWrapper;
@@ -51,7 +49,7 @@ public class PredictCsv {
           boolean useDecimalOutput, char separator, boolean setInvNumNA, 
           boolean getTreePath, boolean predictContributions, boolean predictCalibrated,
           boolean returnGLRMReconstruct, int glrmIterNumber,
-          boolean outputHeader) {
+          boolean outputHeader, int numThreads, int blockSize) {
     this.inputCSVFileName = inputCSVFileName;
     this.outputCSVFileName = outputCSVFileName;
     this.useDecimalOutput = useDecimalOutput;
@@ -63,6 +61,8 @@ public class PredictCsv {
     this.returnGLRMReconstruct = returnGLRMReconstruct;
     this.glrmIterNumber = glrmIterNumber;
     this.outputHeader = outputHeader;
+    this.numThreads = numThreads;
+    this.blockSize = blockSize;
   }
 
   public static void main(String[] args) {
@@ -155,12 +155,12 @@ public class PredictCsv {
     return useDecimalOutput? Double.toString(d) : Double.toHexString(d);
   }
 
-  private void writeTreePathNames(BufferedWriter output) throws Exception {
+  private void writeTreePathNames(Writer output) throws Exception {
     String[] columnNames = ((SharedTreeMojoModel) modelWrapper.m).getDecisionPathNames();
     writeColumnNames(output, columnNames);
   }
 
-  private void writeCalibratedOutputNames(BufferedWriter output) throws Exception {
+  private void writeCalibratedOutputNames(Writer output) throws Exception {
     String[] outputNames = modelWrapper.m.getOutputNames();
     String[] calibOutputNames = new String[outputNames.length - 1];
     for (int i = 0; i < calibOutputNames.length; i++) {
@@ -169,11 +169,11 @@ public class PredictCsv {
     writeColumnNames(output, ArrayUtils.append(outputNames, calibOutputNames));
   }
 
-  private void writeContributionNames(BufferedWriter output) throws Exception {
+  private void writeContributionNames(Writer output) throws Exception {
     writeColumnNames(output, modelWrapper.getContributionNames());
   }
 
-  private void writeColumnNames(BufferedWriter output, String[] columnNames) throws Exception {
+  private void writeColumnNames(Writer output, String[] columnNames) throws Exception {
     int lastIndex = columnNames.length-1;
     for (int index = 0; index < lastIndex; index++)  {
       output.write(columnNames[index]);
@@ -184,8 +184,8 @@ public class PredictCsv {
 
   public void run() throws Exception {
     ModelCategory category = modelWrapper.getModelCategory();
-    CSVReader reader = new CSVReader(new FileReader(inputCSVFileName), separator);
-    BufferedWriter output = new BufferedWriter(new FileWriter(outputCSVFileName));
+    CSVReader reader = new CSVReader(openInput(inputCSVFileName), separator);
+    BufferedWriter output = new BufferedWriter(openOutput(outputCSVFileName));
 
     // Emit outputCSV column names.
     if (outputHeader) {
@@ -225,9 +225,6 @@ public class PredictCsv {
       output.write("\n");
     }
 
-    // Loop over inputCSV one row at a time.
-    //
-    int lineNum=1;    // count number of lines of input dataset file parsed
     try {
       String[] inputColumnNames;
       String[] splitLine;
@@ -239,151 +236,294 @@ public class PredictCsv {
       else  // file empty, throw an error
         throw new Exception("Input dataset file is empty!");
 
+      if (numThreads > 1) {
+        runPipeline(reader, inputColumnNames, output);
+      } else {
+        runSequential(reader, inputColumnNames, output);
+      }
+    } finally {
+      // Clean up.
+      output.close();
+      reader.close();
+    }
+  }
+
+  private static Reader openInput(String fileName) throws IOException {
+    InputStream is = new FileInputStream(fileName);
+    if (fileName.endsWith(".gz"))
+      is = new GZIPInputStream(is, 1 << 16);
+    return new InputStreamReader(is);
+  }
+
+  private static Writer openOutput(String fileName) throws IOException {
+    OutputStream os = new FileOutputStream(fileName);
+    if (fileName.endsWith(".gz"))
+      os = new GZIPOutputStream(os, 1 << 16);
+    return new OutputStreamWriter(os);
+  }
+
+  private void runSequential(CSVReader reader, String[] inputColumnNames, Writer output) throws Exception {
+    // Loop over inputCSV one row at a time.
+    //
+    int lineNum=1;    // count number of lines of input dataset file parsed
+    try {
+      String[] splitLine;
       while ((splitLine = reader.readNext()) != null) {
         // Parse the CSV line.  Don't handle quoted commas.  This isn't a parser test.
         RowData row = formatDataRow(splitLine, inputColumnNames);
         // Do the prediction.
         // Emit the result to the output file.
-        String offsetColumn = modelWrapper.m.getOffsetName();
-        double offset = offsetColumn==null ? 0 : Double.parseDouble((String) row.get(offsetColumn));
-        switch (category) {
-          case AutoEncoder: { // write the expanded predictions out
-            AutoEncoderModelPrediction p = modelWrapper.predictAutoEncoder(row);
-            for (int i=0; i < p.reconstructed.length; i++) {
-              output.write(myDoubleToString(p.reconstructed[i]));
-              if (i < p.reconstructed.length-1)
-                output.write(',');
+        predictRow(modelWrapper, row, output);
+        output.write("\n");
+        lineNum++;
+      }
+    }
+    catch (Exception e) {
+      throw new Exception("Prediction failed on line " + lineNum, e);
+    }
+  }
+
+  /**
+   * Streaming mode: a reader thread splits the input into blocks of rows, blocks are scored by a pool of workers
+   * (each worker has its own model wrapper) and the calling thread writes the predictions in the input order.
+   * Number of blocks in flight is bounded - memory use doesn't depend on the size of the input.
+   */
+  private void runPipeline(final CSVReader reader, final String[] inputColumnNames, Writer output) throws Exception {
+    final EasyPredictModelWrapper.Config workerConfig = makeModelWrapperConfig(modelWrapper.m);
+    final ThreadLocal<EasyPredictModelWrapper> workerWrappers = new ThreadLocal<EasyPredictModelWrapper>() {
+      @Override
+      protected EasyPredictModelWrapper initialValue() {
+        return new EasyPredictModelWrapper(workerConfig);
+      }
+    };
+    final ExecutorService workers = Executors.newFixedThreadPool(numThreads);
+    // scored blocks in the input order, bounded capacity makes the reader wait for the writer
+    final BlockingQueue<Future<String>> scoredBlocks = new ArrayBlockingQueue<>(2 * numThreads);
+    final FutureTask<String> endOfInput = new FutureTask<>(new Callable<String>() {
+      @Override
+      public String call() {
+        return null;
+      }
+    });
+
+    Thread readerThread = new Thread("PredictCsv-reader") {
+      @Override
+      public void run() {
+        int lineNum = 1;
+        try {
+          String[] splitLine;
+          String[][] block = new String[blockSize][];
+          int blockRows = 0;
+          while ((splitLine = reader.readNext()) != null) {
+            block[blockRows++] = splitLine;
+            if (blockRows == blockSize) {
+              scoredBlocks.put(workers.submit(new ScoreBlockTask(workerWrappers, inputColumnNames, block, blockRows, lineNum)));
+              lineNum += blockRows;
+              block = new String[blockSize][];
+              blockRows = 0;
             }
-            break;
           }
-          case Binomial: {
-            BinomialModelPrediction p = modelWrapper.predictBinomial(row, offset);
-            if (getTreePath) {
-              writeTreePaths(p.leafNodeAssignments, output);
-            } else if (predictContributions) {
-              writeContributions(p.contributions, output);
-            } else {
-              output.write(p.label);
-              output.write(",");
-              for (int i = 0; i < p.classProbabilities.length; i++) {
-                if (i > 0) {
-                  output.write(",");
-                }
-                output.write(myDoubleToString(p.classProbabilities[i]));
-              }
-              if (predictCalibrated) {
-                for (int i = 0; i < p.classProbabilities.length; i++) {
-                  output.write(",");
-                  double calibProb = p.calibratedClassProbabilities != null ? 
-                          p.calibratedClassProbabilities[i] : Double.NaN;
-                  output.write(myDoubleToString(calibProb));
-                }
-              }
+          if (blockRows > 0)
+            scoredBlocks.put(workers.submit(new ScoreBlockTask(workerWrappers, inputColumnNames, block, blockRows, lineNum)));
+          scoredBlocks.put(endOfInput);
+        } catch (InterruptedException e) {
+          // writer failed and stopped the pipeline
+        } catch (final Throwable e) {
+          final int failedLineNum = lineNum;
+          FutureTask<String> failure = new FutureTask<>(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+              throw new Exception("Reading input failed after line " + failedLineNum, e);
             }
-            break;
+          });
+          failure.run();
+          try {
+            scoredBlocks.put(failure); // the writer keeps draining the queue until it reaches the failure
+          } catch (InterruptedException ie) {
+            // writer failed and stopped the pipeline
           }
-          case Multinomial: {
-            MultinomialModelPrediction p = modelWrapper.predictMultinomial(row);
-            if (getTreePath) {
-              writeTreePaths(p.leafNodeAssignments, output);
-            } else {
-              output.write(p.label);
+        }
+      }
+    };
+    readerThread.setDaemon(true);
+    readerThread.start();
+    try {
+      Future<String> scoredBlock;
+      while ((scoredBlock = scoredBlocks.take()) != endOfInput) {
+        try {
+          output.write(scoredBlock.get());
+        } catch (ExecutionException e) {
+          throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+      }
+    } finally {
+      readerThread.interrupt();
+      workers.shutdownNow();
+    }
+  }
+
+  private final class ScoreBlockTask implements Callable<String> {
+    private final ThreadLocal<EasyPredictModelWrapper> _wrappers;
+    private final String[] _inputColumnNames;
+    private final String[][] _block;
+    private final int _nrows;
+    private final int _firstLineNum;
+
+    private ScoreBlockTask(ThreadLocal<EasyPredictModelWrapper> wrappers, String[] inputColumnNames,
+                           String[][] block, int nrows, int firstLineNum) {
+      _wrappers = wrappers;
+      _inputColumnNames = inputColumnNames;
+      _block = block;
+      _nrows = nrows;
+      _firstLineNum = firstLineNum;
+    }
+
+    @Override
+    public String call() throws Exception {
+      EasyPredictModelWrapper wrapper = _wrappers.get();
+      StringWriter blockOutput = new StringWriter();
+      for (int i = 0; i < _nrows; i++) {
+        try {
+          predictRow(wrapper, formatDataRow(_block[i], _inputColumnNames), blockOutput);
+        } catch (Exception e) {
+          throw new Exception("Prediction failed on line " + (_firstLineNum + i), e);
+        }
+        blockOutput.write('\n');
+      }
+      return blockOutput.toString();
+    }
+  }
+
+  private void predictRow(EasyPredictModelWrapper wrapper, RowData row, Writer output) throws Exception {
+    ModelCategory category = wrapper.getModelCategory();
+    String offsetColumn = wrapper.m.getOffsetName();
+    double offset = offsetColumn==null ? 0 : Double.parseDouble((String) row.get(offsetColumn));
+    switch (category) {
+      case AutoEncoder: { // write the expanded predictions out
+        AutoEncoderModelPrediction p = wrapper.predictAutoEncoder(row);
+        for (int i=0; i < p.reconstructed.length; i++) {
+          output.write(myDoubleToString(p.reconstructed[i]));
+          if (i < p.reconstructed.length-1)
+            output.write(',');
+        }
+        break;
+      }
+      case Binomial: {
+        BinomialModelPrediction p = wrapper.predictBinomial(row, offset);
+        if (getTreePath) {
+          writeTreePaths(p.leafNodeAssignments, output);
+        } else if (predictContributions) {
+          writeContributions(p.contributions, output);
+        } else {
+          output.write(p.label);
+          output.write(",");
+          for (int i = 0; i < p.classProbabilities.length; i++) {
+            if (i > 0) {
               output.write(",");
-              for (int i = 0; i < p.classProbabilities.length; i++) {
-                if (i > 0) {
-                  output.write(",");
-                }
-                output.write(myDoubleToString(p.classProbabilities[i]));
-              }
             }
-            break;
+            output.write(myDoubleToString(p.classProbabilities[i]));
           }
-          case Ordinal: {
-            OrdinalModelPrediction p = modelWrapper.predictOrdinal(row, offset);
-            output.write(p.label);
-            output.write(",");
+          if (predictCalibrated) {
             for (int i = 0; i < p.classProbabilities.length; i++) {
-              if (i > 0) {
-                output.write(",");
-              }
-              output.write(myDoubleToString(p.classProbabilities[i]));
+              output.write(",");
+              double calibProb = p.calibratedClassProbabilities != null ? 
+                      p.calibratedClassProbabilities[i] : Double.NaN;
+              output.write(myDoubleToString(calibProb));
             }
-            break;
           }
-          case Clustering: {
-            ClusteringModelPrediction p = modelWrapper.predictClustering(row);
-            output.write(myDoubleToString(p.cluster));
-            break;
+        }
+        break;
+      }
+      case Multinomial: {
+        MultinomialModelPrediction p = wrapper.predictMultinomial(row);
+        if (getTreePath) {
+          writeTreePaths(p.leafNodeAssignments, output);
+        } else {
+          output.write(p.label);
+          output.write(",");
+          for (int i = 0; i < p.classProbabilities.length; i++) {
+            if (i > 0) {
+              output.write(",");
+            }
+            output.write(myDoubleToString(p.classProbabilities[i]));
           }
-
-          case Regression: {
-              RegressionModelPrediction p = modelWrapper.predictRegression(row, offset);
-              if (getTreePath) {
-                writeTreePaths(p.leafNodeAssignments, output);
-              } else if (predictContributions) {
-                writeContributions(p.contributions, output);
-              } else
-               output.write(myDoubleToString(p.value));
-
-            break;
+        }
+        break;
+      }
+      case Ordinal: {
+        OrdinalModelPrediction p = wrapper.predictOrdinal(row, offset);
+        output.write(p.label);
+        output.write(",");
+        for (int i = 0; i < p.classProbabilities.length; i++) {
+          if (i > 0) {
+            output.write(",");
           }
-          
-          case CoxPH: {
-              CoxPHModelPrediction p = modelWrapper.predictCoxPH(row, offset);
-              output.write(myDoubleToString(p.value));
+          output.write(myDoubleToString(p.classProbabilities[i]));
+        }
+        break;
+      }
+      case Clustering: {
+        ClusteringModelPrediction p = wrapper.predictClustering(row);
+        output.write(myDoubleToString(p.cluster));
+        break;
+      }
 
-            break;
-          }
+      case Regression: {
+          RegressionModelPrediction p = wrapper.predictRegression(row, offset);
+          if (getTreePath) {
+            writeTreePaths(p.leafNodeAssignments, output);
+          } else if (predictContributions) {
+            writeContributions(p.contributions, output);
+          } else
+           output.write(myDoubleToString(p.value));
 
-          case DimReduction: {
-            DimReductionModelPrediction p = modelWrapper.predictDimReduction(row);
-            double[] out;
+        break;
+      }
+      
+      case CoxPH: {
+          CoxPHModelPrediction p = wrapper.predictCoxPH(row, offset);
+          output.write(myDoubleToString(p.value));
 
-            if (returnGLRMReconstruct) {
-              out = p.reconstructed;  // reconstructed A
-            } else {
-              out = p.dimensions; // x factors
-            }
+        break;
+      }
 
-            int lastOne = out.length-1;
-            for (int i=0; i < out.length; i++) {
-              output.write(myDoubleToString(out[i]));
+      case DimReduction: {
+        DimReductionModelPrediction p = wrapper.predictDimReduction(row);
+        double[] out;
 
-              if (i < lastOne)
-                output.write(',');
-            }
-            break;
-          }
+        if (returnGLRMReconstruct) {
+          out = p.reconstructed;  // reconstructed A
+        } else {
+          out = p.dimensions; // x factors
+        }
 
-          case AnomalyDetection: {
-            AnomalyDetectionPrediction p = modelWrapper.predictAnomalyDetection(row);
-            double[] rawPreds = p.toPreds();
-            for (int i = 0; i < rawPreds.length - 1; i++) {
-              output.write(myDoubleToString(rawPreds[i]));
-              output.write(',');
-            }
-            output.write(myDoubleToString(rawPreds[rawPreds.length - 1]));
-            break;
-          }
+        int lastOne = out.length-1;
+        for (int i=0; i < out.length; i++) {
+          output.write(myDoubleToString(out[i]));
 
-          default:
-            throw new Exception("Unknown model category " + category);
+          if (i < lastOne)
+            output.write(',');
         }
+        break;
+      }
 
-        output.write("\n");
-        lineNum++;
+      case AnomalyDetection: {
+        AnomalyDetectionPrediction p = wrapper.predictAnomalyDetection(row);
+        double[] rawPreds = p.toPreds();
+        for (int i = 0; i < rawPreds.length - 1; i++) {
+          output.write(myDoubleToString(rawPreds[i]));
+          output.write(',');
+        }
+        output.write(myDoubleToString(rawPreds[rawPreds.length - 1]));
+        break;
       }
-    }
-    catch (Exception e) {
-      throw new Exception("Prediction failed on line " + lineNum, e);
-    } finally {
-      // Clean up.
-      output.close();
-      reader.close();
+
+      default:
+        throw new Exception("Unknown model category " + category);
     }
   }
 
-  private void writeHeader(String[] colNames, BufferedWriter output) throws Exception {
+  private void writeHeader(String[] colNames, Writer output) throws Exception {
     output.write(colNames[0]);
     for (int i = 1; i < colNames.length; i++) {
       output.write(",");
@@ -391,7 +531,7 @@ public class PredictCsv {
     }
   }
 
-  private void writeTreePaths(String[] treePaths, BufferedWriter output) throws Exception {
+  private void writeTreePaths(String[] treePaths, Writer output) throws Exception {
     int len = treePaths.length-1;
 
     for (int index=0; index<len; index++) {
@@ -401,7 +541,7 @@ public class PredictCsv {
     output.write(treePaths[len]);
   }
 
-  private void writeContributions(float[] contributions, BufferedWriter output) throws Exception {
+  private void writeContributions(float[] contributions, Writer output) throws Exception {
     for (int i = 0; i < contributions.length; i++) {
       if (i > 0) {
         output.write(",");
@@ -411,6 +551,10 @@ public class PredictCsv {
   }
 
   private void setModelWrapper(GenModel genModel) throws IOException {
+    setModelWrapper(new EasyPredictModelWrapper(makeModelWrapperConfig(genModel)));
+  }
+
+  private EasyPredictModelWrapper.Config makeModelWrapperConfig(GenModel genModel) throws IOException {
     EasyPredictModelWrapper.Config config = new EasyPredictModelWrapper.Config()
             .setModel(genModel)
             .setConvertUnknownCategoricalLevelsToNa(true)
@@ -428,7 +572,7 @@ public class PredictCsv {
     if (glrmIterNumber > 0)   // set GLRM Mojo iteration number
       config.setGLRMIterNumber(glrmIterNumber);
 
-    setModelWrapper(new EasyPredictModelWrapper(config));
+    return config;
   }
 
   private void setModelWrapper(EasyPredictModelWrapper modelWrapper) {
@@ -454,6 +598,10 @@ public class PredictCsv {
             " models instead of regular model predictions");
     System.out.println("     --glrmReconstruct will return the reconstructed dataset for GLRM mojo instead of X factor derived from the dataset.");
     System.out.println("     --glrmIterNumber integer indicating number of iterations to go through when constructing X factor derived from the dataset.");
+    System.out.println("     --threads integer number of threads making predictions, with more than one thread the input is");
+    System.out.println("               streamed through a pipeline of row blocks (output keeps the order of the input rows).");
+    System.out.println("     --blockSize integer number of rows in a single block of the prediction pipeline (default 1000).");
+    System.out.println("     Input and output files with the .gz extension are decompressed/compressed on the fly.");
     System.out.println("     --testConcurrent integer (for testing) number of concurrent threads that will be making predictions.");
     System.out.println();
     System.exit(1);
@@ -579,6 +727,8 @@ public class PredictCsv {
     private boolean returnGLRMReconstruct;  // for GLRM, return x factor by default unless set this to true
     private int glrmIterNumber = -1;        // for GLRM, default to 100.
     private boolean outputHeader = true;    // should we write-out header to output files?
+    private int numThreads = 1;             // number of scoring threads, more than 1 enables the streaming pipeline
+    private int blockSize = 1000;           // number of rows scored as a single unit of work by the pipeline
 
     // For Model Loading
     private int loadType = 0; // 0: load pojo, 1: load mojo, 2: load model, -1: special value when PredictCsv is used embedded and instance of Model is passed directly
@@ -588,12 +738,14 @@ public class PredictCsv {
 
     private PredictCsv newPredictCsv() {
       return new PredictCsv(inputCSVFileName, outputCSVFileName, useDecimalOutput, separator, setInvNumNA,
-              getTreePath, predictContributions, predictCalibrated, returnGLRMReconstruct, glrmIterNumber, outputHeader);
+              getTreePath, predictContributions, predictCalibrated, returnGLRMReconstruct, glrmIterNumber, outputHeader,
+              numThreads, blockSize);
     }
 
     private PredictCsv newConcurrentPredictCsv(int id) {
       return new PredictCsv(inputCSVFileName, outputCSVFileName + "." + id, useDecimalOutput, separator, setInvNumNA,
-              getTreePath, predictContributions, predictCalibrated, returnGLRMReconstruct, glrmIterNumber, outputHeader);
+              getTreePath, predictContributions, predictCalibrated, returnGLRMReconstruct, glrmIterNumber, outputHeader,
+              numThreads, blockSize);
     }
 
     private void parseArgs(String[] args) {
@@ -650,6 +802,14 @@ public class PredictCsv {
             case "--outputHeader":
               outputHeader = Boolean.parseBoolean(sarg);
               break;
+            case "--threads":
+              numThreads = Integer.parseInt(sarg);
+              if (numThreads <= 0) usage();
+              break;
+            case "--blockSize":
+              blockSize = Integer.parseInt(sarg);
+              if (blockSize <= 0) usage();
+              break;
             default:
               System.out.println("ERROR: Unknown command line argument: " + s);
               usage();
@@ -0,0 +1,74 @@
+package hex.genmodel.tools;
+
+import hex.genmodel.utils.IOUtils;
+
+import java.io.*;
+import java.util.Enumeration;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Re-packs a MOJO into an uncompressed ("mapped") layout: all files are stored in the zip archive without compression.
+ * The result is still a regular MOJO, in addition it can be loaded using
+ * {@link hex.genmodel.MojoReaderBackendFactory#createMappedReaderBackend(File)} - the model data are then used
+ * directly from the memory-mapped file and are not copied to heap.
+ */
+public class RepackMojo {
+
+  public static void main(String[] args) {
+    if (args.length != 2)
+      usage();
+    try {
+      repack(new File(args[0]), new File(args[1]));
+    } catch (Exception e) {
+      System.err.println("ERROR: " + e.getMessage());
+      e.printStackTrace();
+      System.exit(2);
+    }
+  }
+
+  /**
+   * Copies all files of the input MOJO to the output MOJO, the output files are stored without compression.
+   *
+   * @param input source MOJO file
+   * @param output target MOJO file
+   * @throws IOException when the MOJO cannot be read or written
+   */
+  public static void repack(File input, File output) throws IOException {
+    try (ZipFile zf = new ZipFile(input);
+         ZipOutputStream zos = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(output)))) {
+      Enumeration<? extends ZipEntry> entries = zf.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry entry = entries.nextElement();
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try (InputStream is = zf.getInputStream(entry)) {
+          IOUtils.copyStream(is, content);
+        }
+        byte[] data = content.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        ZipEntry stored = new ZipEntry(entry.getName());
+        stored.setMethod(ZipEntry.STORED);
+        stored.setSize(data.length);
+        stored.setCompressedSize(data.length);
+        stored.setCrc(crc.getValue());
+        zos.putNextEntry(stored);
+        zos.write(data);
+        zos.closeEntry();
+      }
+    }
+  }
+
+  private static void usage() {
+    System.out.println("");
+    System.out.println("Usage:  java [...java args...] hex.genmodel.tools.RepackMojo <inputMojo> <outputMojo>");
+    System.out.println("");
+    System.out.println("     Stores all files of the MOJO without compression. Binary data of such MOJO can be");
+    System.out.println("     memory-mapped instead of being loaded to heap.");
+    System.out.println("");
+    System.exit(1);
+  }
+
+}
@@ -18,6 +18,12 @@ public final class ByteBufferWrapper {
         _bb = ByteBuffer.wrap(buf, 0, buf.length).order(ByteOrder.nativeOrder());
     }
 
+    /** Read from a view of the given buffer (eg. a slice of a memory-mapped file); should not be closed. */
+    public ByteBufferWrapper(ByteBuffer buf) {
+        assert buf != null : "null fed to ByteBuffer.duplicate";
+        _bb = buf.duplicate().order(ByteOrder.nativeOrder());
+    }
+
     public int position() {
         return _bb.position();
     }
@@ -26,6 +32,22 @@ public final class ByteBufferWrapper {
       return _bb.hasRemaining();
     }
 
+    /** @return backing array if the data live on heap, null otherwise (eg. memory-mapped data) */
+    public byte[] array() {
+      return _bb.hasArray() ? _bb.array() : null;
+    }
+
+    /** @return offset of the buffer in the backing array, see {@link #array()} */
+    public int arrayOffset() {
+      return _bb.arrayOffset();
+    }
+
+    /** Copies `len` bytes at the current position into `dst` (the position is not changed). */
+    public void peek(byte[] dst, int len) {
+      ByteBuffer view = _bb.duplicate();
+      view.get(dst, 0, len);
+    }
+
     /** Skip over some bytes in the byte buffer.  Caller is responsible for not
      *  reading off end of the bytebuffer; generally this is easy for
      *  array-backed autobuffers and difficult for i/o-backed bytebuffers. */
@@ -11,6 +11,7 @@ public class GenmodelBitSet {
     private int _byteoff; // Number of bytes skipped before starting to count bits
     private int _nbits;   // Number of bits in this bitset
     private int _bitoff;  // Number of bits discarded from beginning (inclusive min)
+    private byte[] _scratch; // Copy of the bits when the backing data is not an array (eg. memory-mapped tree)
 
     public GenmodelBitSet(int nbits) {
         this(nbits, 0);
@@ -66,6 +67,32 @@ public class GenmodelBitSet {
         ab.skip(bytes(nbits));  // Skip inline bitset
     }
 
+    public void fill2(ByteBufferWrapper ab) {
+        fill(ab, 32, 0);
+        ab.skip(4);  // Skip inline bitset
+    }
+
+    public void fill3(ByteBufferWrapper ab) {
+        int bitoff = ab.get2();
+        int nbits = ab.get4();
+        fill(ab, nbits, bitoff);
+        ab.skip(bytes(nbits));  // Skip inline bitset
+    }
+
+    // Bits stored on heap are referenced directly, bits of off-heap (memory-mapped) data are copied
+    private void fill(ByteBufferWrapper ab, int nbits, int bitoff) {
+        byte[] array = ab.array();
+        if (array != null) {
+            fill(array, ab.arrayOffset() + ab.position(), nbits, bitoff);
+        } else {
+            int nbytes = bytes(nbits);
+            if (_scratch == null || _scratch.length < nbytes)
+                _scratch = new byte[nbytes];
+            ab.peek(_scratch, nbytes);
+            fill(_scratch, 0, nbits, bitoff);
+        }
+    }
+
     private static int bytes(int nbits) {
         return ((nbits-1) >> 3) + 1;
     }
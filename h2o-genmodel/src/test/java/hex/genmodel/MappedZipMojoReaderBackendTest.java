@@ -0,0 +1,94 @@
+package hex.genmodel;
+
+import hex.genmodel.algos.ensemble.StackedEnsembleMojoModel;
+import hex.genmodel.tools.RepackMojo;
+import hex.genmodel.utils.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MappedZipMojoReaderBackendTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void testReadCompressedAndStoredFiles() throws Exception {
+    File compressed = copyResource(MojoReaderBackendFactoryTest.class.getResource("mojo.zip"), "mojo.zip");
+    File stored = tmp.newFile("mojo_stored.zip");
+    RepackMojo.repack(compressed, stored);
+
+    ZipfileMojoReaderBackend expected = new ZipfileMojoReaderBackend(compressed.getPath());
+    try {
+      for (File f : new File[]{compressed, stored}) {
+        MappedZipMojoReaderBackend r = (MappedZipMojoReaderBackend) MojoReaderBackendFactory.createMappedReaderBackend(f);
+        try {
+          assertTrue(r.exists("trees/t00_000.bin"));
+          assertFalse(r.exists("missing-file"));
+          assertEquals(f == stored, r.isStored("trees/t00_000.bin"));
+          assertEquals("[info]", r.getTextFile("model.ini").readLine());
+          byte[] binary = expected.getBinaryFile("trees/t00_000.bin");
+          assertArrayEquals(binary, r.getBinaryFile("trees/t00_000.bin"));
+          ByteBuffer bb = r.getBinaryFileBuffer("trees/t00_000.bin");
+          assertEquals(f == stored, bb.isReadOnly());
+          byte[] bufferContent = new byte[bb.remaining()];
+          bb.get(bufferContent);
+          assertArrayEquals(binary, bufferContent);
+        } finally {
+          r.close();
+        }
+      }
+    } finally {
+      expected.close();
+    }
+  }
+
+  @Test
+  public void testMappedTreeModelGivesIdenticalPredictions() throws Exception {
+    File mojo = copyResource(MojoReaderBackendFactoryTest.class.getResource("mojo.zip"), "mojo.zip");
+    File mapped = tmp.newFile("mojo_mapped.zip");
+    RepackMojo.repack(mojo, mapped);
+    assertPredictionsEqual(MojoModel.load(mojo.getPath()),
+            ModelMojoReader.readFrom(MojoReaderBackendFactory.createMappedReaderBackend(mapped)));
+  }
+
+  @Test
+  public void testMappedEnsembleGivesIdenticalPredictions() throws Exception {
+    File mojo = copyResource(StackedEnsembleMojoModel.class.getResource("binomial_titanic.zip"), "titanic.zip");
+    File mapped = tmp.newFile("titanic_mapped.zip");
+    RepackMojo.repack(mojo, mapped);
+    assertPredictionsEqual(MojoModel.load(mojo.getPath()),
+            ModelMojoReader.readFrom(MojoReaderBackendFactory.createMappedReaderBackend(mapped)));
+  }
+
+  private static void assertPredictionsEqual(MojoModel expected, MojoModel actual) {
+    Random r = new Random(42);
+    double[] row = new double[expected.nfeatures()];
+    for (int i = 0; i < 500; i++) {
+      for (int c = 0; c < row.length; c++) {
+        String[] domain = expected.getDomainValues(c);
+        row[c] = r.nextInt(10) == 0 ? Double.NaN : domain != null ? r.nextInt(domain.length) : r.nextGaussian() * 50;
+      }
+      assertArrayEquals("row " + i,
+              expected.score0(row, new double[expected.getPredsSize()]),
+              actual.score0(row, new double[actual.getPredsSize()]), 0);
+    }
+  }
+
+  private File copyResource(URL resource, String name) throws IOException {
+    assertNotNull(resource);
+    File f = tmp.newFile(name);
+    try (InputStream is = resource.openStream(); OutputStream os = new FileOutputStream(f)) {
+      IOUtils.copyStream(is, os);
+    }
+    return f;
+  }
+
+}
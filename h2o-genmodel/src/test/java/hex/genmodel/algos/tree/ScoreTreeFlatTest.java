@@ -0,0 +1,117 @@
+package hex.genmodel.algos.tree;
+
+import hex.genmodel.ModelMojoReader;
+import hex.genmodel.MojoReaderBackend;
+import hex.genmodel.MojoReaderBackendFactory;
+import hex.genmodel.algos.ensemble.StackedEnsembleMojoModel;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ScoreTreeFlatTest {
+
+  private static final String[] TITANIC_TREE_MODELS = {
+          "models/GBM/GBM_grid_0_AutoML_20181022_155341_model_9/",
+          "models/DRF/DRF_0_AutoML_20181022_155341/",
+          "models/DRF/XRT_0_AutoML_20181022_155341/"
+  };
+
+  @Test
+  public void testScoreStump() {
+    byte[] tree = new byte[7];
+    ByteBuffer bb = ByteBuffer.wrap(tree, 0, tree.length).order(ByteOrder.nativeOrder());
+    bb.put((byte) 0);
+    bb.putChar((char) 65535);
+    bb.putFloat(4.2f);
+
+    ScoreTreeFlat scoreTree = new ScoreTreeFlat(new byte[][]{tree, null}, null);
+    assertTrue(scoreTree.hasTree(0));
+    assertFalse(scoreTree.hasTree(1));
+    assertEquals(4.2f, scoreTree.scoreTree(0, new double[0]), 0.0);
+  }
+
+  @Test
+  public void testFlatTreesGiveIdenticalPredictions() throws IOException {
+    URL mojoSource = StackedEnsembleMojoModel.class.getResource("binomial_titanic.zip");
+    assertNotNull(mojoSource);
+    MojoReaderBackend ensembleReader = MojoReaderBackendFactory.createReaderBackend(mojoSource, MojoReaderBackendFactory.CachingStrategy.MEMORY);
+    for (String modelDir : TITANIC_TREE_MODELS) {
+      SharedTreeMojoModel model = (SharedTreeMojoModel) ModelMojoReader.readFrom(new PrefixedReaderBackend(ensembleReader, modelDir));
+      assertFalse(model.isUseFlatTrees());
+
+      double[][] rows = randomRows(model, 1000, 0xCAFE);
+      double[][] expected = new double[rows.length][];
+      for (int i = 0; i < rows.length; i++) {
+        expected[i] = model.score0(rows[i], new double[model.getPredsSize()]);
+      }
+
+      model.setUseFlatTrees(true);
+      assertTrue(model.isUseFlatTrees());
+      for (int i = 0; i < rows.length; i++) {
+        assertArrayEquals(modelDir + ", row " + i, expected[i], model.score0(rows[i], new double[model.getPredsSize()]), 0);
+      }
+
+      // block scoring with both compressed and flat trees
+      for (boolean flat : new boolean[]{false, true}) {
+        model.setUseFlatTrees(flat);
+        double[][] partial = new double[rows.length][model.getPredsSize()];
+        model.scoreTreeRange(rows, rows.length, 0, model.getNTreeGroups(), partial);
+        for (int i = 0; i < rows.length; i++) {
+          double[] rowPartial = new double[model.getPredsSize()];
+          model.scoreTreeRange(rows[i], 0, model.getNTreeGroups(), rowPartial);
+          assertArrayEquals(modelDir + ", row " + i, rowPartial, partial[i], 0);
+        }
+      }
+    }
+  }
+
+  private static double[][] randomRows(SharedTreeMojoModel model, int n, long seed) {
+    Random r = new Random(seed);
+    double[][] rows = new double[n][model.nfeatures()];
+    for (double[] row : rows) {
+      for (int c = 0; c < row.length; c++) {
+        String[] domain = model.getDomainValues(c);
+        if (r.nextInt(10) == 0)
+          row[c] = Double.NaN;
+        else if (domain != null)
+          row[c] = r.nextInt(domain.length + 2); // include unseen levels
+        else
+          row[c] = r.nextGaussian() * 50;
+      }
+    }
+    return rows;
+  }
+
+  private static class PrefixedReaderBackend implements MojoReaderBackend {
+    private final MojoReaderBackend _reader;
+    private final String _prefix;
+
+    PrefixedReaderBackend(MojoReaderBackend reader, String prefix) {
+      _reader = reader;
+      _prefix = prefix;
+    }
+
+    @Override
+    public BufferedReader getTextFile(String filename) throws IOException {
+      return _reader.getTextFile(_prefix + filename);
+    }
+
+    @Override
+    public byte[] getBinaryFile(String filename) throws IOException {
+      return _reader.getBinaryFile(_prefix + filename);
+    }
+
+    @Override
+    public boolean exists(String filename) {
+      return _reader.exists(_prefix + filename);
+    }
+  }
+
+}
@@ -0,0 +1,185 @@
+package hex.genmodel.easy;
+
+import hex.ModelCategory;
+import hex.genmodel.CategoricalEncoding;
+import hex.genmodel.GenModel;
+import hex.genmodel.easy.error.CountingErrorConsumer;
+import hex.genmodel.easy.error.VoidErrorConsumer;
+import hex.genmodel.easy.exception.PredictException;
+import hex.genmodel.easy.exception.PredictUnknownCategoricalLevelException;
+import hex.genmodel.utils.ArrayUtils;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class BoundColumnSchemaTest {
+
+  private static final String[] NAMES = {"num1", "cat1", "num2", "cat2", "response"};
+  private static final String[][] DOMAINS = {
+          null,
+          {"a", "b", "c"},
+          null,
+          {"x", "y"},
+          null
+  };
+
+  /**
+   * Regression model that encodes the raw row into its prediction.
+   */
+  private static class EchoModel extends GenModel {
+    private final CategoricalEncoding _encoding;
+    private final int _nfeatures;
+
+    EchoModel(String[] names, String[][] domains, CategoricalEncoding encoding) {
+      this(names, domains, encoding, names.length - 1);
+    }
+
+    EchoModel(String[] names, String[][] domains, CategoricalEncoding encoding, int nfeatures) {
+      super(names, domains, "response");
+      _encoding = encoding;
+      _nfeatures = nfeatures;
+    }
+
+    @Override
+    public double[] score0(double[] row, double[] preds) {
+      double value = 0;
+      for (int i = 0; i < row.length; i++) {
+        value = value * 7 + (Double.isNaN(row[i]) ? -1 : row[i]);
+      }
+      preds[0] = value;
+      return preds;
+    }
+
+    @Override
+    public double[] score0(double[] row, double offset, double[] preds) {
+      score0(row, preds);
+      preds[0] += offset;
+      return preds;
+    }
+
+    @Override
+    public int nfeatures() {
+      return _nfeatures;
+    }
+
+    @Override
+    public boolean isSupervised() {
+      return true;
+    }
+
+    @Override
+    public ModelCategory getModelCategory() {
+      return ModelCategory.Regression;
+    }
+
+    @Override
+    public CategoricalEncoding getCategoricalEncoding() {
+      return _encoding;
+    }
+
+    @Override
+    public String getUUID() {
+      return null;
+    }
+  }
+
+  @Test
+  public void testPredictRawMatchesRowData() throws PredictException {
+    EasyPredictModelWrapper wrapper = new EasyPredictModelWrapper(new EchoModel(NAMES, DOMAINS, CategoricalEncoding.AUTO));
+
+    // input columns are in different order, have different domains and contain a column unknown to the model
+    String[] inputNames = {"cat2", "unknown", "num1", "cat1"};
+    String[][] inputDomains = {{"y", "x"}, null, null, {"c", "a", "b"}};
+    double[][] numeric = {null, {1, 2, 3, 4}, {0.5, Double.NaN, -3, 42}, null};
+    int[][] codes = {{0, 1, -1, 1}, null, null, {2, -1, 0, 1}};
+    double[] offsets = {0, 1, 0, 2};
+
+    BoundColumnSchema schema = wrapper.bindColumns(inputNames, inputDomains);
+    int predsSize = wrapper.m.getPredsSize();
+    double[] preds = new double[4 * predsSize];
+    wrapper.predictRaw(schema, numeric, codes, 4, offsets, preds);
+
+    for (int row = 0; row < 4; row++) {
+      RowData rowData = new RowData();
+      for (int i = 0; i < inputNames.length; i++) {
+        if (inputDomains[i] == null)
+          rowData.put(inputNames[i], numeric[i][row]);
+        else
+          rowData.put(inputNames[i], codes[i][row] < 0 ? Double.NaN : inputDomains[i][codes[i][row]]);
+      }
+      double[] expected = wrapper.predictRaw(rowData, offsets[row]);
+      for (int p = 0; p < predsSize; p++) {
+        assertEquals(expected[p], preds[row * predsSize + p], 0);
+      }
+    }
+  }
+
+  @Test
+  public void testFillRawDataOneHotExplicit() throws PredictException {
+    // one-hot expanded raw row: num1, num2, cat1.a, cat1.b, cat1.c, cat1.NA, cat2.x, cat2.y, cat2.NA
+    EchoModel model = new EchoModel(NAMES, DOMAINS, CategoricalEncoding.OneHotExplicit, 9);
+    Map<String, Integer> columnMapping = new HashMap<>();
+    columnMapping.put("num1", 0);
+    columnMapping.put("num2", 1);
+    columnMapping.put("cat1", 2);
+    columnMapping.put("cat2", 6);
+    Map<Integer, CategoricalEncoder> domainMap = new HashMap<>();
+    domainMap.put(2, new OneHotEncoder("cat1", 2, DOMAINS[1]));
+    domainMap.put(6, new OneHotEncoder("cat2", 6, DOMAINS[3]));
+
+    BoundColumnSchema schema = new BoundColumnSchema(model, new String[]{"cat1", "num2", "cat2"},
+            new String[][]{{"b", "c", "a"}, null, {"x", "y"}}, columnMapping, domainMap, new VoidErrorConsumer(), false);
+    double[] rawData = new double[model.nfeatures()];
+    schema.fillRawData(new double[][]{null, {7}, null}, new int[][]{{0}, null, {-1}}, 0, rawData);
+
+    RowToRawDataConverter converter = new RowToRawDataConverter(model, columnMapping, domainMap,
+            new VoidErrorConsumer(), new EasyPredictModelWrapper.Config());
+    RowData rowData = new RowData();
+    rowData.put("cat1", "b");
+    rowData.put("num2", 7.0);
+    rowData.put("cat2", Double.NaN);
+    double[] expected = ArrayUtils.nanArray(model.nfeatures());
+    converter.convert(rowData, expected);
+
+    assertArrayEquals(new double[]{Double.NaN, 7, 0, 1, 0, 0, 0, 0, 1}, expected, 0);
+    assertArrayEquals(expected, rawData, 0);
+  }
+
+  @Test
+  public void testUnknownCategoricalLevels() throws PredictException {
+    EchoModel model = new EchoModel(NAMES, DOMAINS, CategoricalEncoding.AUTO);
+    String[] inputNames = {"cat1"};
+    String[][] inputDomains = {{"a", "unseen"}};
+
+    try {
+      new EasyPredictModelWrapper(model).bindColumns(inputNames, inputDomains);
+      fail("Unknown level should be rejected at bind time");
+    } catch (PredictUnknownCategoricalLevelException e) {
+      assertEquals("unseen", e.getUnknownLevel());
+    }
+
+    CountingErrorConsumer errorConsumer = new CountingErrorConsumer(model);
+    EasyPredictModelWrapper wrapper = new EasyPredictModelWrapper(new EasyPredictModelWrapper.Config()
+            .setModel(model)
+            .setConvertUnknownCategoricalLevelsToNa(true)
+            .setErrorConsumer(errorConsumer));
+    BoundColumnSchema schema = wrapper.bindColumns(inputNames, inputDomains);
+    assertEquals(1, errorConsumer.getTotalUnknownCategoricalLevelsSeen());
+
+    double[] rawData = new double[model.nfeatures()];
+    schema.fillRawData(null, new int[][]{{1, 0}}, 0, rawData);
+    assertTrue(Double.isNaN(rawData[1]));
+    schema.fillRawData(null, new int[][]{{1, 0}}, 1, rawData);
+    assertEquals(0, rawData[1], 0);
+  }
+
+  @Test(expected = PredictException.class)
+  public void testNumericInputForCategoricalColumnIsRejected() throws PredictException {
+    new EasyPredictModelWrapper(new EchoModel(NAMES, DOMAINS, CategoricalEncoding.AUTO))
+            .bindColumns(new String[]{"cat1"}, null);
+  }
+
+}
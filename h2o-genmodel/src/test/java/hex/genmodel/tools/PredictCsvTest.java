@@ -0,0 +1,130 @@
+package hex.genmodel.tools;
+
+import hex.ModelCategory;
+import hex.genmodel.GenModel;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+public class PredictCsvTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private static class LinearModel extends GenModel {
+    LinearModel() {
+      super(new String[]{"x", "c", "y"}, new String[][]{null, {"a", "b"}, null}, "y");
+    }
+
+    @Override
+    public double[] score0(double[] row, double[] preds) {
+      preds[0] = 2 * row[0] + (Double.isNaN(row[1]) ? -100 : row[1]);
+      return preds;
+    }
+
+    @Override
+    public boolean isSupervised() {
+      return true;
+    }
+
+    @Override
+    public int nfeatures() {
+      return 2;
+    }
+
+    @Override
+    public ModelCategory getModelCategory() {
+      return ModelCategory.Regression;
+    }
+
+    @Override
+    public String getUUID() {
+      return null;
+    }
+  }
+
+  @Test
+  public void testPipelineKeepsInputOrder() throws Exception {
+    File input = tmp.newFile("input.csv");
+    writeInput(new FileOutputStream(input), 10007);
+
+    File expected = tmp.newFile("expected.csv");
+    predict(input, expected);
+    String expectedOutput = read(new FileInputStream(expected));
+    assertEquals(10008, expectedOutput.split("\n").length);
+
+    for (int blockSize : new int[]{1, 100, 20000}) {
+      File output = tmp.newFile("output_" + blockSize + ".csv");
+      predict(input, output, "--threads", "4", "--blockSize", String.valueOf(blockSize));
+      assertEquals("blockSize=" + blockSize, expectedOutput, read(new FileInputStream(output)));
+    }
+  }
+
+  @Test
+  public void testCompressedInputAndOutput() throws Exception {
+    File input = tmp.newFile("input.csv");
+    writeInput(new FileOutputStream(input), 500);
+    File inputGz = tmp.newFile("input.csv.gz");
+    writeInput(new GZIPOutputStream(new FileOutputStream(inputGz)), 500);
+
+    File expected = tmp.newFile("expected.csv");
+    predict(input, expected);
+
+    File outputGz = tmp.newFile("output.csv.gz");
+    predict(inputGz, outputGz, "--threads", "2", "--blockSize", "64");
+    assertEquals(read(new FileInputStream(expected)), read(new GZIPInputStream(new FileInputStream(outputGz))));
+  }
+
+  @Test
+  public void testPipelineReportsFailedLine() throws Exception {
+    File input = tmp.newFile("input.csv");
+    try (Writer w = new OutputStreamWriter(new FileOutputStream(input))) {
+      w.write("x,c\n");
+      for (int i = 0; i < 300; i++) {
+        w.write(i == 242 ? "not-a-number,a\n" : i + ",b\n");
+      }
+    }
+    try {
+      predict(input, tmp.newFile("output.csv"), "--threads", "3", "--blockSize", "10");
+      fail("Prediction should fail");
+    } catch (Exception e) {
+      assertEquals("Prediction failed on line 243", e.getMessage());
+    }
+  }
+
+  private static void predict(File input, File output, String... extraArgs) throws Exception {
+    String[] args = {"--embedded", "--input", input.getAbsolutePath(), "--output", output.getAbsolutePath(), "--decimal"};
+    String[] allArgs = new String[args.length + extraArgs.length];
+    System.arraycopy(args, 0, allArgs, 0, args.length);
+    System.arraycopy(extraArgs, 0, allArgs, args.length, extraArgs.length);
+    PredictCsv.make(allArgs, new LinearModel()).run();
+  }
+
+  private static void writeInput(OutputStream os, int nrows) throws IOException {
+    try (Writer w = new OutputStreamWriter(os)) {
+      w.write("x,c\n");
+      for (int i = 0; i < nrows; i++) {
+        w.write(i + "," + (i % 3 == 0 ? "NA" : i % 3 == 1 ? "a" : "b") + "\n");
+      }
+    }
+  }
+
+  private static String read(InputStream is) throws IOException {
+    StringBuilder sb = new StringBuilder();
+    try (Reader r = new InputStreamReader(is)) {
+      char[] buf = new char[4096];
+      int n;
+      while ((n = r.read(buf)) > 0) {
+        sb.append(buf, 0, n);
+      }
+    }
+    return sb.toString();
+  }
+
+}
@@ -122,6 +122,7 @@ class H2ODeepLearningEstimator(H2OEstimator):
                  reproducible=False,  # type: bool
                  export_weights_and_biases=False,  # type: bool
                  mini_batch_size=1,  # type: int
+                 mini_batch_gemm=False,  # type: bool
                  categorical_encoding="auto",  # type: Literal["auto", "enum", "one_hot_internal", "one_hot_explicit", "binary", "eigen", "label_encoder", "sort_by_response", "enum_limited"]
                  elastic_averaging=False,  # type: bool
                  elastic_averaging_moving_rate=0.9,  # type: float
@@ -414,6 +415,10 @@ class H2ODeepLearningEstimator(H2OEstimator):
                better).
                Defaults to ``1``.
         :type mini_batch_size: int
+        :param mini_batch_gemm: Process the whole mini-batch per layer with cache-blocked matrix-matrix kernels
+               (required for mini_batch_size > 1).
+               Defaults to ``False``.
+        :type mini_batch_gemm: bool
         :param categorical_encoding: Encoding scheme for categorical features
                Defaults to ``"auto"``.
         :type categorical_encoding: Literal["auto", "enum", "one_hot_internal", "one_hot_explicit", "binary", "eigen", "label_encoder",
@@ -528,6 +533,7 @@ class H2ODeepLearningEstimator(H2OEstimator):
         self.reproducible = reproducible
         self.export_weights_and_biases = export_weights_and_biases
         self.mini_batch_size = mini_batch_size
+        self.mini_batch_gemm = mini_batch_gemm
         self.categorical_encoding = categorical_encoding
         self.elastic_averaging = elastic_averaging
         self.elastic_averaging_moving_rate = elastic_averaging_moving_rate
@@ -3061,6 +3067,21 @@ class H2ODeepLearningEstimator(H2OEstimator):
         assert_is_type(mini_batch_size, None, int)
         self._parms["mini_batch_size"] = mini_batch_size
 
+    @property
+    def mini_batch_gemm(self):
+        """
+        Process the whole mini-batch per layer with cache-blocked matrix-matrix kernels (required for mini_batch_size >
+        1).
+
+        Type: ``bool``, defaults to ``False``.
+        """
+        return self._parms.get("mini_batch_gemm")
+
+    @mini_batch_gemm.setter
+    def mini_batch_gemm(self, mini_batch_gemm):
+        assert_is_type(mini_batch_gemm, None, bool)
+        self._parms["mini_batch_gemm"] = mini_batch_gemm
+
     @property
     def categorical_encoding(self):
         """
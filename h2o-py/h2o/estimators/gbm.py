@@ -82,6 +82,8 @@ class H2OGradientBoostingEstimator(H2OEstimator):
                  col_sample_rate_per_tree=1.0,  # type: float
                  min_split_improvement=1e-05,  # type: float
                  histogram_type="auto",  # type: Literal["auto", "uniform_adaptive", "random", "quantiles_global", "round_robin", "uniform_robust"]
+                 binned_histograms=False,  # type: bool
+                 histogram_subtraction=False,  # type: bool
                  max_abs_leafnode_pred=None,  # type: Optional[float]
                  pred_noise_bandwidth=0.0,  # type: float
                  categorical_encoding="auto",  # type: Literal["auto", "enum", "one_hot_internal", "one_hot_explicit", "binary", "eigen", "label_encoder", "sort_by_response", "enum_limited"]
@@ -99,6 +101,8 @@ class H2OGradientBoostingEstimator(H2OEstimator):
                  auc_type="auto",  # type: Literal["auto", "none", "macro_ovr", "weighted_ovr", "macro_ovo", "weighted_ovo"]
                  interaction_constraints=None,  # type: Optional[List[List[str]]]
                  auto_rebalance=True,  # type: bool
+                 grow_policy="depthwise",  # type: Literal["depthwise", "lossguide"]
+                 max_leaves=0,  # type: int
                  ):
         """
         :param model_id: Destination id for this model; auto-generated if not specified.
@@ -269,6 +273,15 @@ class H2OGradientBoostingEstimator(H2OEstimator):
         :param histogram_type: What type of histogram to use for finding optimal split points
                Defaults to ``"auto"``.
         :type histogram_type: Literal["auto", "uniform_adaptive", "random", "quantiles_global", "round_robin", "uniform_robust"]
+        :param binned_histograms: Build histograms in two tight passes: bin all rows of a node first, then accumulate
+               the bins. Produces the same histograms, usually faster on wide numeric data.
+               Defaults to ``False``.
+        :type binned_histograms: bool
+        :param histogram_subtraction: Only build histograms of the smaller child of a split and derive the histograms of
+               the larger child by subtracting them from the histograms of the parent, where the larger child bins a
+               column the same way as the parent. Produces the same splits up to floating-point rounding.
+               Defaults to ``False``.
+        :type histogram_subtraction: bool
         :param max_abs_leafnode_pred: Maximum absolute value of a leaf node prediction
                Defaults to ``∞``.
         :type max_abs_leafnode_pred: float
@@ -329,6 +342,13 @@ class H2OGradientBoostingEstimator(H2OEstimator):
         :param auto_rebalance: Allow automatic rebalancing of training and validation datasets
                Defaults to ``True``.
         :type auto_rebalance: bool
+        :param grow_policy: Grow policy - depthwise grows the trees level by level, lossguide always expands the leaves
+               with the largest gain first
+               Defaults to ``"depthwise"``.
+        :type grow_policy: Literal["depthwise", "lossguide"]
+        :param max_leaves: For grow_policy=lossguide only: maximum number of leaves of a tree (0 means no limit)
+               Defaults to ``0``.
+        :type max_leaves: int
         """
         super(H2OGradientBoostingEstimator, self).__init__()
         self._parms = {}
@@ -379,6 +399,8 @@ class H2OGradientBoostingEstimator(H2OEstimator):
         self.col_sample_rate_per_tree = col_sample_rate_per_tree
         self.min_split_improvement = min_split_improvement
         self.histogram_type = histogram_type
+        self.binned_histograms = binned_histograms
+        self.histogram_subtraction = histogram_subtraction
         self.max_abs_leafnode_pred = max_abs_leafnode_pred
         self.pred_noise_bandwidth = pred_noise_bandwidth
         self.categorical_encoding = categorical_encoding
@@ -396,6 +418,8 @@ class H2OGradientBoostingEstimator(H2OEstimator):
         self.auc_type = auc_type
         self.interaction_constraints = interaction_constraints
         self.auto_rebalance = auto_rebalance
+        self.grow_policy = grow_policy
+        self.max_leaves = max_leaves
 
     @property
     def training_frame(self):
@@ -1799,6 +1823,37 @@ class H2OGradientBoostingEstimator(H2OEstimator):
         assert_is_type(histogram_type, None, Enum("auto", "uniform_adaptive", "random", "quantiles_global", "round_robin", "uniform_robust"))
         self._parms["histogram_type"] = histogram_type
 
+    @property
+    def binned_histograms(self):
+        """
+        Build histograms in two tight passes: bin all rows of a node first, then accumulate the bins. Produces the same
+        histograms, usually faster on wide numeric data.
+
+        Type: ``bool``, defaults to ``False``.
+        """
+        return self._parms.get("binned_histograms")
+
+    @binned_histograms.setter
+    def binned_histograms(self, binned_histograms):
+        assert_is_type(binned_histograms, None, bool)
+        self._parms["binned_histograms"] = binned_histograms
+
+    @property
+    def histogram_subtraction(self):
+        """
+        Only build histograms of the smaller child of a split and derive the histograms of the larger child by
+        subtracting them from the histograms of the parent, where the larger child bins a column the same way as the
+        parent. Produces the same splits up to floating-point rounding.
+
+        Type: ``bool``, defaults to ``False``.
+        """
+        return self._parms.get("histogram_subtraction")
+
+    @histogram_subtraction.setter
+    def histogram_subtraction(self, histogram_subtraction):
+        assert_is_type(histogram_subtraction, None, bool)
+        self._parms["histogram_subtraction"] = histogram_subtraction
+
     @property
     def max_abs_leafnode_pred(self):
         """
@@ -2239,4 +2294,33 @@ class H2OGradientBoostingEstimator(H2OEstimator):
         assert_is_type(auto_rebalance, None, bool)
         self._parms["auto_rebalance"] = auto_rebalance
 
+    @property
+    def grow_policy(self):
+        """
+        Grow policy - depthwise grows the trees level by level, lossguide always expands the leaves with the largest
+        gain first
+
+        Type: ``Literal["depthwise", "lossguide"]``, defaults to ``"depthwise"``.
+        """
+        return self._parms.get("grow_policy")
+
+    @grow_policy.setter
+    def grow_policy(self, grow_policy):
+        assert_is_type(grow_policy, None, Enum("depthwise", "lossguide"))
+        self._parms["grow_policy"] = grow_policy
+
+    @property
+    def max_leaves(self):
+        """
+        For grow_policy=lossguide only: maximum number of leaves of a tree (0 means no limit)
+
+        Type: ``int``, defaults to ``0``.
+        """
+        return self._parms.get("max_leaves")
+
+    @max_leaves.setter
+    def max_leaves(self, max_leaves):
+        assert_is_type(max_leaves, None, int)
+        self._parms["max_leaves"] = max_leaves
+
 
@@ -63,7 +63,7 @@ class H2OGeneralizedLinearEstimator(H2OEstimator):
                  tweedie_variance_power=0.0,  # type: float
                  tweedie_link_power=1.0,  # type: float
                  theta=1e-10,  # type: float
-                 solver="auto",  # type: Literal["auto", "irlsm", "l_bfgs", "coordinate_descent_naive", "coordinate_descent", "gradient_descent_lh", "gradient_descent_sqerr"]
+                 solver="auto",  # type: Literal["auto", "irlsm", "l_bfgs", "coordinate_descent_naive", "coordinate_descent", "gradient_descent_lh", "gradient_descent_sqerr", "stochastic_gradient_descent"]
                  alpha=None,  # type: Optional[List[float]]
                  lambda_=None,  # type: Optional[List[float]]
                  lambda_search=False,  # type: bool
@@ -124,6 +124,10 @@ class H2OGeneralizedLinearEstimator(H2OEstimator):
                  constraint_alpha=0.1,  # type: float
                  constraint_beta=0.9,  # type: float
                  constraint_c0=10.0,  # type: float
+                 sgd_batch_size=256,  # type: int
+                 sgd_learning_rate=0.01,  # type: float
+                 sgd_sample_rate=1.0,  # type: float
+                 sgd_variance_reduction=False,  # type: bool
                  ):
         """
         :param model_id: Destination id for this model; auto-generated if not specified.
@@ -217,7 +221,7 @@ class H2OGeneralizedLinearEstimator(H2OEstimator):
                datasets with many columns.
                Defaults to ``"auto"``.
         :type solver: Literal["auto", "irlsm", "l_bfgs", "coordinate_descent_naive", "coordinate_descent",
-               "gradient_descent_lh", "gradient_descent_sqerr"]
+               "gradient_descent_lh", "gradient_descent_sqerr", "stochastic_gradient_descent"]
         :param alpha: Distribution of regularization between the L1 (Lasso) and L2 (Ridge) penalties. A value of 1 for
                alpha represents Lasso regression, a value of 0 produces Ridge regression, and anything in between
                specifies the amount of mixing between the two. Default value of alpha is 0 when SOLVER = 'L-BFGS'; 0.5
@@ -457,6 +461,22 @@ class H2OGeneralizedLinearEstimator(H2OEstimator):
         :param constraint_c0: For constrained GLM only.  It affects the initial setting of epsilon_k = 1/c_0.
                Defaults to ``10.0``.
         :type constraint_c0: float
+        :param sgd_batch_size: Mini-batch size of the STOCHASTIC_GRADIENT_DESCENT solver, the number of rows the gradient of an
+               update is computed from. Must be > 0.
+               Defaults to ``256``.
+        :type sgd_batch_size: int
+        :param sgd_learning_rate: Learning rate of the STOCHASTIC_GRADIENT_DESCENT solver, decays with the square root of the
+               epoch. Must be > 0.
+               Defaults to ``0.01``.
+        :type sgd_learning_rate: float
+        :param sgd_sample_rate: Fraction of the rows the STOCHASTIC_GRADIENT_DESCENT solver samples in each epoch. Must be in
+               (0, 1].
+               Defaults to ``1.0``.
+        :type sgd_sample_rate: float
+        :param sgd_variance_reduction: Use the SVRG variance reduction (plain steps corrected by a full gradient taken once per
+               epoch) instead of Adam steps in the STOCHASTIC_GRADIENT_DESCENT solver.
+               Defaults to ``False``.
+        :type sgd_variance_reduction: bool
         """
         super(H2OGeneralizedLinearEstimator, self).__init__()
         self._parms = {}
@@ -546,6 +566,10 @@ class H2OGeneralizedLinearEstimator(H2OEstimator):
         self.constraint_alpha = constraint_alpha
         self.constraint_beta = constraint_beta
         self.constraint_c0 = constraint_c0
+        self.sgd_batch_size = sgd_batch_size
+        self.sgd_learning_rate = sgd_learning_rate
+        self.sgd_sample_rate = sgd_sample_rate
+        self.sgd_variance_reduction = sgd_variance_reduction
 
     @property
     def training_frame(self):
@@ -1186,7 +1210,7 @@ class H2OGeneralizedLinearEstimator(H2OEstimator):
         number of predictors and for lambda-search with L1 penalty, L_BFGS scales better for datasets with many columns.
 
         Type: ``Literal["auto", "irlsm", "l_bfgs", "coordinate_descent_naive", "coordinate_descent",
-        "gradient_descent_lh", "gradient_descent_sqerr"]``, defaults to ``"auto"``.
+        "gradient_descent_lh", "gradient_descent_sqerr", "stochastic_gradient_descent"]``, defaults to ``"auto"``.
 
         :examples:
 
@@ -1206,7 +1230,7 @@ class H2OGeneralizedLinearEstimator(H2OEstimator):
 
     @solver.setter
     def solver(self, solver):
-        assert_is_type(solver, None, Enum("auto", "irlsm", "l_bfgs", "coordinate_descent_naive", "coordinate_descent", "gradient_descent_lh", "gradient_descent_sqerr"))
+        assert_is_type(solver, None, Enum("auto", "irlsm", "l_bfgs", "coordinate_descent_naive", "coordinate_descent", "gradient_descent_lh", "gradient_descent_sqerr", "stochastic_gradient_descent"))
         self._parms["solver"] = solver
 
     @property
@@ -2568,6 +2592,64 @@ class H2OGeneralizedLinearEstimator(H2OEstimator):
         assert_is_type(constraint_c0, None, numeric)
         self._parms["constraint_c0"] = constraint_c0
 
+    @property
+    def sgd_batch_size(self):
+        """
+        Mini-batch size of the STOCHASTIC_GRADIENT_DESCENT solver, the number of rows the gradient of an update is
+        computed from. Must be > 0.
+
+        Type: ``int``, defaults to ``256``.
+        """
+        return self._parms.get("sgd_batch_size")
+
+    @sgd_batch_size.setter
+    def sgd_batch_size(self, sgd_batch_size):
+        assert_is_type(sgd_batch_size, None, int)
+        self._parms["sgd_batch_size"] = sgd_batch_size
+
+    @property
+    def sgd_learning_rate(self):
+        """
+        Learning rate of the STOCHASTIC_GRADIENT_DESCENT solver, decays with the square root of the epoch. Must be > 0.
+
+        Type: ``float``, defaults to ``0.01``.
+        """
+        return self._parms.get("sgd_learning_rate")
+
+    @sgd_learning_rate.setter
+    def sgd_learning_rate(self, sgd_learning_rate):
+        assert_is_type(sgd_learning_rate, None, numeric)
+        self._parms["sgd_learning_rate"] = sgd_learning_rate
+
+    @property
+    def sgd_sample_rate(self):
+        """
+        Fraction of the rows the STOCHASTIC_GRADIENT_DESCENT solver samples in each epoch. Must be in (0, 1].
+
+        Type: ``float``, defaults to ``1.0``.
+        """
+        return self._parms.get("sgd_sample_rate")
+
+    @sgd_sample_rate.setter
+    def sgd_sample_rate(self, sgd_sample_rate):
+        assert_is_type(sgd_sample_rate, None, numeric)
+        self._parms["sgd_sample_rate"] = sgd_sample_rate
+
+    @property
+    def sgd_variance_reduction(self):
+        """
+        Use the SVRG variance reduction (plain steps corrected by a full gradient taken once per epoch) instead of Adam
+        steps in the STOCHASTIC_GRADIENT_DESCENT solver.
+
+        Type: ``bool``, defaults to ``False``.
+        """
+        return self._parms.get("sgd_variance_reduction")
+
+    @sgd_variance_reduction.setter
+    def sgd_variance_reduction(self, sgd_variance_reduction):
+        assert_is_type(sgd_variance_reduction, None, bool)
+        self._parms["sgd_variance_reduction"] = sgd_variance_reduction
+
     Lambda = deprecated_property('Lambda', lambda_)
 
     def get_regression_influence_diagnostics(self):
@@ -73,6 +73,8 @@ class H2ORandomForestEstimator(H2OEstimator):
                  col_sample_rate_per_tree=1.0,  # type: float
                  min_split_improvement=1e-05,  # type: float
                  histogram_type="auto",  # type: Literal["auto", "uniform_adaptive", "random", "quantiles_global", "round_robin", "uniform_robust"]
+                 binned_histograms=False,  # type: bool
+                 histogram_subtraction=False,  # type: bool
                  categorical_encoding="auto",  # type: Literal["auto", "enum", "one_hot_internal", "one_hot_explicit", "binary", "eigen", "label_encoder", "sort_by_response", "enum_limited"]
                  calibrate_model=False,  # type: bool
                  calibration_frame=None,  # type: Optional[Union[None, str, H2OFrame]]
@@ -234,6 +236,15 @@ class H2ORandomForestEstimator(H2OEstimator):
         :param histogram_type: What type of histogram to use for finding optimal split points
                Defaults to ``"auto"``.
         :type histogram_type: Literal["auto", "uniform_adaptive", "random", "quantiles_global", "round_robin", "uniform_robust"]
+        :param binned_histograms: Build histograms in two tight passes: bin all rows of a node first, then accumulate
+               the bins. Produces the same histograms, usually faster on wide numeric data.
+               Defaults to ``False``.
+        :type binned_histograms: bool
+        :param histogram_subtraction: Only build histograms of the smaller child of a split and derive the histograms of
+               the larger child by subtracting them from the histograms of the parent, where the larger child bins a
+               column the same way as the parent. Produces the same splits up to floating-point rounding.
+               Defaults to ``False``.
+        :type histogram_subtraction: bool
         :param categorical_encoding: Encoding scheme for categorical features
                Defaults to ``"auto"``.
         :type categorical_encoding: Literal["auto", "enum", "one_hot_internal", "one_hot_explicit", "binary", "eigen", "label_encoder",
@@ -314,6 +325,8 @@ class H2ORandomForestEstimator(H2OEstimator):
         self.col_sample_rate_per_tree = col_sample_rate_per_tree
         self.min_split_improvement = min_split_improvement
         self.histogram_type = histogram_type
+        self.binned_histograms = binned_histograms
+        self.histogram_subtraction = histogram_subtraction
         self.categorical_encoding = categorical_encoding
         self.calibrate_model = calibrate_model
         self.calibration_frame = calibration_frame
@@ -1560,6 +1573,37 @@ class H2ORandomForestEstimator(H2OEstimator):
         assert_is_type(histogram_type, None, Enum("auto", "uniform_adaptive", "random", "quantiles_global", "round_robin", "uniform_robust"))
         self._parms["histogram_type"] = histogram_type
 
+    @property
+    def binned_histograms(self):
+        """
+        Build histograms in two tight passes: bin all rows of a node first, then accumulate the bins. Produces the same
+        histograms, usually faster on wide numeric data.
+
+        Type: ``bool``, defaults to ``False``.
+        """
+        return self._parms.get("binned_histograms")
+
+    @binned_histograms.setter
+    def binned_histograms(self, binned_histograms):
+        assert_is_type(binned_histograms, None, bool)
+        self._parms["binned_histograms"] = binned_histograms
+
+    @property
+    def histogram_subtraction(self):
+        """
+        Only build histograms of the smaller child of a split and derive the histograms of the larger child by
+        subtracting them from the histograms of the parent, where the larger child bins a column the same way as the
+        parent. Produces the same splits up to floating-point rounding.
+
+        Type: ``bool``, defaults to ``False``.
+        """
+        return self._parms.get("histogram_subtraction")
+
+    @histogram_subtraction.setter
+    def histogram_subtraction(self, histogram_subtraction):
+        assert_is_type(histogram_subtraction, None, bool)
+        self._parms["histogram_subtraction"] = histogram_subtraction
+
     @property
     def categorical_encoding(self):
         """
@@ -2414,7 +2414,7 @@ class H2OFrame(Keyed, H2ODisplay):
         col._ex._cache.names = [old_cache.names[i]]
         return col
 
-    def quantile(self, prob=None, combine_method="interpolate", weights_column=None):
+    def quantile(self, prob=None, combine_method="interpolate", weights_column=None, sketch=False):
         """
         Compute quantiles.
 
@@ -2424,6 +2424,8 @@ class H2OFrame(Keyed, H2ODisplay):
         :param weights_column: optional weights for each row. If not given, all rows are assumed to have equal
             importance. This parameter can be either the name of column containing the observation weights in
             this frame, or a single-column separate H2OFrame of observation weights.
+        :param bool sketch: if True, approximate the quantiles of all columns in a single pass over the data with a
+            mergeable sketch (t-digest), ``combine_method`` is ignored.
 
         :returns: a new H2OFrame containing the quantiles and probabilities.
 
@@ -2438,6 +2440,8 @@ class H2OFrame(Keyed, H2ODisplay):
         """
         if len(self) == 0: return self
         if prob is None: prob = [0.01, 0.1, 0.25, 0.333, 0.5, 0.667, 0.75, 0.9, 0.99]
+        assert_is_type(sketch, bool)
+        extra = [1] if sketch else []
         if weights_column is None:
             weights_column = "_"
         else:
@@ -2445,8 +2449,8 @@ class H2OFrame(Keyed, H2ODisplay):
             if isinstance(weights_column, H2OFrame):
                 merged = self.cbind(weights_column)
                 weights_column = merged.names[-1]
-                return H2OFrame._expr(expr=ExprNode("quantile", merged, prob, combine_method, weights_column))
-        return H2OFrame._expr(expr=ExprNode("quantile", self, prob, combine_method, weights_column))
+                return H2OFrame._expr(expr=ExprNode("quantile", merged, prob, combine_method, weights_column, *extra))
+        return H2OFrame._expr(expr=ExprNode("quantile", self, prob, combine_method, weights_column, *extra))
 
     def concat(self, frames, axis=1):
         """
@@ -2803,12 +2807,11 @@ class H2OFrame(Keyed, H2ODisplay):
     def merge(self, other, all_x=False, all_y=False, by_x=None, by_y=None, method="auto"):
         """
         Merge two datasets based on common column names.  We do not support ``all_x=True`` and ``all_y=True``.
-        Only one can be True or none is True.  The default merge method is auto and it will default to the
-        radix method.  The radix method will return the correct merge result regardless of duplicated rows
-        in the right frame.  In addition, the radix method can perform merge even if you have string columns
-        in your frames.  If there are duplicated rows in your rite frame, they will not be included if you use
-        the hash method.  The hash method cannot perform merge if you have string columns in your left frame.
-        Hence, we consider the radix method superior to the hash method and is the default method to use.
+        Only one can be True or none is True.  The radix method sorts both frames and returns the result sorted
+        by the merge key.  The hash method replicates the frame whose rows are not all kept (the smaller one if
+        neither is) to every node and joins the other frame in a single pass, keeping its row order.  Both methods
+        handle duplicated rows and string columns.  The default method auto uses the hash method when one frame
+        is much smaller than the other one and fits in memory, and the radix method otherwise.
 
         :param H2OFrame other: The frame to merge to the current one. By default, must have at least one column in common with
             this frame, and all columns in common are used as the merge key.  If you want to use only a subset of the
@@ -4004,6 +4007,53 @@ class H2OFrame(Keyed, H2ODisplay):
             finalSortedOrder=1
         return H2OFrame._expr(expr=ExprNode("rank_within_groupby",self,group_by_cols,sort_cols,ascendingI,new_col_name, finalSortedOrder))
 
+    def window(self, column, fun, partition_by=[], order_by=[], size=0, by_range=False, new_col_name=None):
+        """
+        Compute a window function over ordered partitions of the frame.
+
+        The frame is sorted by the ``partition_by`` columns followed by the ``order_by`` columns (ascending) and a new
+        column with the value of the window function for each row is added.
+
+        :param column: The numeric column (name or index) the function is computed over.
+        :param fun: One of ``"lag"``, ``"lead"`` (value ``size`` rows before/after the current row of the partition),
+          ``"sum"``, ``"mean"``, ``"min"``, ``"max"``, ``"count"`` (aggregate of the rows preceding the current row of the
+          partition, the current row included; NAs are skipped).
+        :param partition_by: The columns to partition on (column name/index or a list of them).
+        :param order_by: The columns to order the rows of a partition by (column name/index or a list of them).
+        :param size: Number of rows of the window, 0 for all the preceding rows (cumulative aggregate). Must be a whole
+          number, a range window (``by_range``) requires a positive size.
+        :param by_range: If True, the window of an aggregate contains the rows whose last ``order_by`` value is within
+          ``size`` of the value of the current row (e.g. milliseconds for a time column) instead of ``size`` rows.
+        :param new_col_name: Name of the new column, defaults to ``<fun>_<column>``.
+
+        :returns: A new H2OFrame sorted by ``partition_by`` and ``order_by`` with the new column.
+
+        :examples:
+
+        >>> df = h2o.H2OFrame({"store": ["a", "a", "b", "a", "b"],
+        ...                    "day": [1, 2, 1, 3, 2],
+        ...                    "sales": [10, 20, 30, 40, 50]})
+        >>> df.window("sales", "mean", partition_by="store", order_by="day", size=2)
+        >>> df.window("sales", "lag", partition_by="store", order_by="day", size=1)
+        """
+        assert_is_type(column, str, int)
+        assert_is_type(fun, Enum("lag", "lead", "sum", "mean", "min", "max", "count"))
+        assert_is_type(partition_by, str, int, [str, int])
+        assert_is_type(order_by, str, int, [str, int])
+        assert_is_type(size, int, float)
+        assert_is_type(by_range, bool)
+        assert_is_type(new_col_name, str, None)
+        assert_satisfies(size, size >= 0 and size == int(size))
+        if by_range and size <= 0:
+            raise H2OValueError("A range window requires a positive size, got: %s" % size)
+        size = int(size)
+        if type(partition_by) != list: partition_by = [partition_by]
+        if type(order_by) != list: order_by = [order_by]
+        if new_col_name is None:
+            new_col_name = fun + "_" + (column if isinstance(column, str) else self.names[column])
+        return H2OFrame._expr(expr=ExprNode("window", self, partition_by, order_by, column, fun, size,
+                                            1 if by_range else 0, new_col_name))
+
     def topNBottomN(self, column=0, nPercent=10, grabTopN=-1):
         """
         Given a column name or one column index, a percent N, this function will return the top or bottom N% of the
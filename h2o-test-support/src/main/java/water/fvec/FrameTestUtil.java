@@ -7,6 +7,7 @@ import water.DKV;
 import water.Key;
 import water.MRTask;
 import water.parser.BufferedString;
+import water.util.ArrayUtils;
 import water.util.Log;
 
 import java.util.ArrayList;
@@ -70,6 +71,57 @@ public class FrameTestUtil {
     return nchunks[0];
   }
 
+  /**
+   * Creates a single-chunk frame of numeric columns followed by categorical columns, the levels of a categorical column
+   * are in lexicographic order.  The frame is tracked in the active {@link water.Scope}.
+   *
+   * @param numNames names of the numeric columns
+   * @param numCols  data of the numeric columns
+   * @param catNames names of the categorical columns
+   * @param catCols  data of the categorical columns
+   */
+  public static Frame createNumCatFrame(String[] numNames, double[][] numCols, String[] catNames, String[][] catCols) {
+    final int nnum = numCols.length, ncols = nnum + catCols.length;
+    byte[] types = new byte[ncols];
+    Arrays.fill(types, 0, nnum, Vec.T_NUM);
+    Arrays.fill(types, nnum, ncols, Vec.T_CAT);
+    TestFrameBuilder builder = new TestFrameBuilder()
+            .withColNames(ArrayUtils.append(numNames, catNames))
+            .withVecTypes(types);
+    for (int j = 0; j < nnum; j++)
+      builder.withDataForCol(j, numCols[j]);
+    for (int j = 0; j < catCols.length; j++)
+      builder.withDataForCol(nnum + j, catCols[j]);
+    return builder.build();
+  }
+
+  /**
+   * Creates a frame of numeric predictors x0, x1, ... and a numeric response y, see
+   * {@link #createNumCatFrame(String[], double[][], String[], String[][])}.
+   */
+  public static Frame createXYFrame(double[][] x, double[] y) {
+    return createNumCatFrame(ArrayUtils.append(xNames(x.length), "y"), ArrayUtils.append(x, y),
+            new String[0], new String[0][]);
+  }
+
+  /**
+   * Creates a frame of numeric predictors x0, x1, ... and a categorical response y, see
+   * {@link #createNumCatFrame(String[], double[][], String[], String[][])}.
+   */
+  public static Frame createXYFrame(double[][] x, String[] y) {
+    return createNumCatFrame(xNames(x.length), x, new String[]{"y"}, new String[][]{y});
+  }
+
+  /**
+   * @return names x0, x1, ... of n predictors
+   */
+  public static String[] xNames(int n) {
+    String[] names = new String[n];
+    for (int j = 0; j < n; j++)
+      names[j] = "x" + j;
+    return names;
+  }
+
   public static void assertValues(Frame f, String[] expValues) {
     assertValues(f.vec(0), expValues);
   }